@@ -26,17 +26,24 @@ import android.content.pm.ResolveInfo;
 import android.net.NetworkTemplate;
 import android.net.Uri;
 import android.os.IBinder;
+import android.os.SystemClock;
 import android.os.storage.StorageManager;
 import android.os.storage.VolumeInfo;
 import android.telephony.SubscriptionInfo;
 import android.telephony.SubscriptionManager;
 import android.telephony.TelephonyManager;
+import android.text.TextUtils;
+import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.util.IndentingPrintWriter;
 import android.util.Log;
+import android.util.Pair;
 
 import androidx.annotation.VisibleForTesting;
 
+import com.android.settings.applications.AppIconLabelCache;
 import com.android.settings.applications.ProcStatsData;
+import com.android.settings.dashboard.PageStartupTracer;
 import com.android.settings.datausage.lib.DataUsageLib;
 import com.android.settings.network.MobileNetworkRepository;
 import com.android.settingslib.net.DataUsageController;
@@ -48,7 +55,31 @@ import org.json.JSONObject;
 import java.io.File;
 import java.io.FileDescriptor;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Dumps the state of Settings as JSON.
+ *
+ * <p>The sections of the dump are collected in parallel, each within its own time budget. A
+ * section over budget is listed under {@link #KEY_TRUNCATED} and replaced by its last collected
+ * value, if any. The dump accepts the arguments:
+ * <ul>
+ *     <li>{@value #ARG_SECTION} {@code <key>[,<key>...]}: only dumps the given sections.</li>
+ *     <li>{@value #ARG_SNAPSHOT}: does not call system services, the sections needing them are
+ *     replaced by their last collected value.</li>
+ * </ul>
+ */
 public class SettingsDumpService extends Service {
 
     public static final String EXTRA_KEY_SHOW_NETWORK_DUMP = "show_network_dump";
@@ -67,9 +98,35 @@ public class SettingsDumpService extends Service {
     @VisibleForTesting
     static final String KEY_ANOMALY_DETECTION = "anomaly_detection";
     @VisibleForTesting
+    static final String KEY_APP_ICON_CACHE = "app_icon_cache";
+    @VisibleForTesting
+    static final String KEY_PAGE_STARTUP = "page_startup";
+    @VisibleForTesting
+    static final String KEY_TRUNCATED = "truncated_sections";
+    @VisibleForTesting
+    static final String KEY_SNAPSHOT_AGE_MS = "snapshot_age_ms";
+    @VisibleForTesting
+    static final String KEY_SNAPSHOT = "snapshot";
+    @VisibleForTesting
+    static final String KEY_ERROR = "error";
+    @VisibleForTesting
+    static final String ARG_SECTION = "--section";
+    @VisibleForTesting
+    static final String ARG_SNAPSHOT = "--snapshot";
+    @VisibleForTesting
     static final Intent BROWSER_INTENT =
             new Intent("android.intent.action.VIEW", Uri.parse("http://"));
 
+    private static final int SECTION_THREAD_COUNT = 4;
+    private static final long SECTION_THREAD_KEEP_ALIVE_SECONDS = 30L;
+    private static final ThreadPoolExecutor sSectionExecutor = createSectionExecutor();
+    // Sections over budget keep running, so that their snapshot is up to date for the next dump.
+    // A section still running is not collected again, a later dump waits for the same collection,
+    // so a section blocked in a system service holds at most one thread.
+    private static final Map<String, Future<Object>> sInFlight = new ArrayMap<>();
+    // Last collected value of each section, with its collection time.
+    private static final Map<String, Pair<Object, Long>> sSnapshots = new ArrayMap<>();
+
     private boolean mShouldShowNetworkDump = false;
 
     @Override
@@ -94,10 +151,7 @@ public class SettingsDumpService extends Service {
             pw.increaseIndent();
             try {
                 dump.put(KEY_SERVICE, "Settings State");
-                dump.put(KEY_STORAGE, dumpStorage());
-                dump.put(KEY_DATAUSAGE, dumpDataUsage());
-                dump.put(KEY_MEMORY, dumpMemory());
-                dump.put(KEY_DEFAULT_BROWSER_APP, dumpDefaultBrowser());
+                dumpSections(dump, args);
             } catch (Exception e) {
                 Log.w(TAG, "exception in dump: ", e);
             }
@@ -109,6 +163,150 @@ public class SettingsDumpService extends Service {
         }
     }
 
+    /** A section of the dump. */
+    @VisibleForTesting
+    static class Section {
+        /** Collects the value of a section. */
+        interface Dumper {
+            Object dump() throws Exception;
+        }
+
+        final String key;
+        final long budgetMs;
+        // Whether the section calls system services, and is skipped by ARG_SNAPSHOT.
+        final boolean live;
+        final Dumper dumper;
+
+        Section(String key, long budgetMs, boolean live, Dumper dumper) {
+            this.key = key;
+            this.budgetMs = budgetMs;
+            this.live = live;
+            this.dumper = dumper;
+        }
+    }
+
+    @VisibleForTesting
+    List<Section> getSections() {
+        return Arrays.asList(
+                new Section(KEY_STORAGE, 500 /* budgetMs */, true /* live */,
+                        this::dumpStorage),
+                new Section(KEY_DATAUSAGE, 1000 /* budgetMs */, true /* live */,
+                        this::dumpDataUsage),
+                new Section(KEY_MEMORY, 1000 /* budgetMs */, true /* live */,
+                        this::dumpMemory),
+                new Section(KEY_DEFAULT_BROWSER_APP, 200 /* budgetMs */, true /* live */,
+                        this::dumpDefaultBrowser),
+                new Section(KEY_APP_ICON_CACHE, 200 /* budgetMs */, false /* live */,
+                        this::dumpAppIconCache),
+                new Section(KEY_PAGE_STARTUP, 200 /* budgetMs */, false /* live */,
+                        () -> PageStartupTracer.getInstance().dumpStats()));
+    }
+
+    private void dumpSections(JSONObject dump, String[] args) throws JSONException {
+        final Set<String> selectedKeys = new ArraySet<>();
+        boolean snapshotOnly = false;
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                if (ARG_SNAPSHOT.equals(args[i])) {
+                    snapshotOnly = true;
+                } else if (ARG_SECTION.equals(args[i]) && i + 1 < args.length) {
+                    selectedKeys.addAll(Arrays.asList(TextUtils.split(args[++i], ",")));
+                }
+            }
+        }
+
+        final long startMs = SystemClock.elapsedRealtime();
+        final Map<Section, Future<Object>> futures = new LinkedHashMap<>();
+        for (Section section : getSections()) {
+            if (!selectedKeys.isEmpty() && !selectedKeys.contains(section.key)) {
+                continue;
+            }
+            futures.put(section, snapshotOnly && section.live ? null : submitSection(section));
+        }
+
+        final List<String> truncatedKeys = new ArrayList<>();
+        for (Map.Entry<Section, Future<Object>> entry : futures.entrySet()) {
+            final Section section = entry.getKey();
+            final Future<Object> future = entry.getValue();
+            if (future == null) {
+                dump.put(section.key, getSnapshot(section.key));
+                continue;
+            }
+            final long remainingMs = startMs + section.budgetMs - SystemClock.elapsedRealtime();
+            try {
+                dump.put(section.key, future.get(Math.max(0, remainingMs), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                Log.w(TAG, "Section over budget: " + section.key);
+                truncatedKeys.add(section.key);
+                dump.put(section.key, getSnapshot(section.key));
+            } catch (ExecutionException e) {
+                Log.w(TAG, "exception in dump of " + section.key, e.getCause());
+                dump.put(section.key,
+                        new JSONObject().put(KEY_ERROR, String.valueOf(e.getCause())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!truncatedKeys.isEmpty()) {
+            dump.put(KEY_TRUNCATED, new JSONArray(truncatedKeys));
+        }
+    }
+
+    private static ThreadPoolExecutor createSectionExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(SECTION_THREAD_COUNT,
+                SECTION_THREAD_COUNT, SECTION_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Returns the collection of the section in progress, or starts a new one.
+    private static Future<Object> submitSection(Section section) {
+        synchronized (sInFlight) {
+            final Future<Object> inFlight = sInFlight.get(section.key);
+            if (inFlight != null && !inFlight.isDone()) {
+                Log.w(TAG, "Section still running: " + section.key);
+                return inFlight;
+            }
+            final Future<Object> future = sSectionExecutor.submit(() -> collectSection(section));
+            sInFlight.put(section.key, future);
+            return future;
+        }
+    }
+
+    private static Object collectSection(Section section) throws Exception {
+        final Object value = section.dumper.dump();
+        synchronized (sSnapshots) {
+            sSnapshots.put(section.key, Pair.create(value, SystemClock.elapsedRealtime()));
+        }
+        return value;
+    }
+
+    // Returns the last collected value of a section and its age, or null if it was never dumped.
+    private static Object getSnapshot(String key) throws JSONException {
+        final Pair<Object, Long> snapshot;
+        synchronized (sSnapshots) {
+            snapshot = sSnapshots.get(key);
+        }
+        if (snapshot == null) {
+            return JSONObject.NULL;
+        }
+        return new JSONObject()
+                .put(KEY_SNAPSHOT_AGE_MS, SystemClock.elapsedRealtime() - snapshot.second)
+                .put(KEY_SNAPSHOT, snapshot.first);
+    }
+
+    @VisibleForTesting
+    static void clearSnapshots() {
+        synchronized (sSnapshots) {
+            sSnapshots.clear();
+        }
+        synchronized (sInFlight) {
+            sInFlight.clear();
+        }
+    }
+
     private JSONObject dumpMemory() throws JSONException {
         JSONObject obj = new JSONObject();
         ProcStatsData statsManager = new ProcStatsData(this, false);
@@ -123,6 +321,12 @@ public class SettingsDumpService extends Service {
         return obj;
     }
 
+    private JSONObject dumpAppIconCache() throws JSONException {
+        // Dumping must not create the cache, which would register its receivers.
+        final AppIconLabelCache cache = AppIconLabelCache.peekInstance();
+        return cache != null ? cache.dumpStats() : new JSONObject();
+    }
+
     private JSONObject dumpDataUsage() throws JSONException {
         JSONObject obj = new JSONObject();
         DataUsageController controller = new DataUsageController(this);
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings;
+
+import android.net.http.SslCertificate;
+import android.security.KeyChain;
+import android.util.ArrayMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Process-wide cache of parsed CA certificates and their display names, keyed by alias and
+ * certificate hash.
+ *
+ * <p>System CAs are identical across profiles and rarely change, so parsing them again every time
+ * the trusted credentials screen opens or switches tab is wasted work. An entry is only reused when
+ * the encoded certificate currently stored under the alias has the same hash, so a stale entry can
+ * never be shown. {@link #invalidate()} should be called when the trust store changes to release
+ * entries of removed certificates.
+ */
+class TrustedCertificateCache {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final TrustedCertificateCache sInstance = new TrustedCertificateCache();
+
+    private final Map<String, Entry> mEntries = new ArrayMap<>();
+
+    static TrustedCertificateCache getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Returns the parsed certificate for {@code encodedCertificate} stored under {@code alias},
+     * parsing it if it is not cached yet.
+     */
+    @NonNull
+    Entry get(@NonNull String alias, @NonNull byte[] encodedCertificate) {
+        final byte[] digest = digest(encodedCertificate);
+        synchronized (mEntries) {
+            final Entry entry = mEntries.get(alias);
+            if (entry != null && digest != null && Arrays.equals(entry.mDigest, digest)) {
+                return entry;
+            }
+        }
+        final Entry entry = new Entry(digest, KeyChain.toCertificate(encodedCertificate));
+        synchronized (mEntries) {
+            mEntries.put(alias, entry);
+        }
+        return entry;
+    }
+
+    /** Drops all the cached certificates. */
+    void invalidate() {
+        synchronized (mEntries) {
+            mEntries.clear();
+        }
+    }
+
+    @VisibleForTesting
+    int size() {
+        synchronized (mEntries) {
+            return mEntries.size();
+        }
+    }
+
+    @Nullable
+    private static byte[] digest(byte[] encodedCertificate) {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(encodedCertificate);
+        } catch (NoSuchAlgorithmException e) {
+            // Never matches, the certificate is parsed every time.
+            return null;
+        }
+    }
+
+    /** A parsed certificate with its display names. */
+    static final class Entry {
+        @Nullable
+        private final byte[] mDigest;
+        final X509Certificate mCertificate;
+        final String mSubjectPrimary;
+        final String mSubjectSecondary;
+
+        private Entry(@Nullable byte[] digest, X509Certificate certificate) {
+            mDigest = digest;
+            mCertificate = certificate;
+
+            final SslCertificate.DName issuedTo = new SslCertificate(certificate).getIssuedTo();
+            final String cn = issuedTo.getCName();
+            final String o = issuedTo.getOName();
+            final String ou = issuedTo.getUName();
+            // if we have a O, use O as primary subject, secondary prefer CN over OU
+            // if we don't have an O, use CN as primary, empty secondary
+            // if we don't have O or CN, use DName as primary, empty secondary
+            if (!o.isEmpty()) {
+                mSubjectPrimary = o;
+                mSubjectSecondary = !cn.isEmpty() ? cn : ou;
+            } else if (!cn.isEmpty()) {
+                mSubjectPrimary = cn;
+                mSubjectSecondary = "";
+            } else {
+                mSubjectPrimary = issuedTo.getDName();
+                mSubjectSecondary = "";
+            }
+        }
+    }
+}
@@ -34,7 +34,6 @@ import android.content.pm.UserInfo;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
 import android.graphics.drawable.Drawable;
-import android.net.http.SslCertificate;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.os.Parcelable;
@@ -69,6 +68,7 @@ import com.android.internal.app.UnlaunchableAppActivity;
 import com.android.internal.widget.LockPatternUtils;
 import com.android.settings.TrustedCredentialsSettings.Tab;
 import com.android.settingslib.core.lifecycle.ObservableFragment;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
@@ -108,6 +108,17 @@ public class TrustedCredentialsFragment extends ObservableFragment
     private final SparseArray<KeyChainConnection>
             mKeyChainConnectionByProfileId = new SparseArray<>();
     private ViewGroup mFragmentView;
+    private final TrustedCertificateCache mCertificateCache =
+            TrustedCertificateCache.getInstance();
+
+    private final BroadcastReceiver mTrustStoreChangedReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            // Entries are checked against the certificate hash, this only releases the
+            // certificates that may have been removed.
+            mCertificateCache.invalidate();
+        }
+    };
 
     private final BroadcastReceiver mProfileChangedReceiver = new BroadcastReceiver() {
         @Override
@@ -174,6 +185,11 @@ public class TrustedCredentialsFragment extends ObservableFragment
             filter.addAction(Intent.ACTION_MANAGED_PROFILE_UNLOCKED);
         }
         activity.registerReceiver(mProfileChangedReceiver, filter);
+
+        IntentFilter trustStoreFilter = new IntentFilter();
+        trustStoreFilter.addAction(KeyChain.ACTION_TRUST_STORE_CHANGED);
+        trustStoreFilter.addAction(KeyChain.ACTION_KEYCHAIN_CHANGED);
+        activity.registerReceiver(mTrustStoreChangedReceiver, trustStoreFilter);
     }
 
     @Override
@@ -241,6 +257,7 @@ public class TrustedCredentialsFragment extends ObservableFragment
     @Override
     public void onDestroy() {
         getActivity().unregisterReceiver(mProfileChangedReceiver);
+        getActivity().unregisterReceiver(mTrustStoreChangedReceiver);
         for (AdapterData.AliasLoader aliasLoader : mAliasLoaders) {
             aliasLoader.cancel(true);
         }
@@ -764,17 +781,19 @@ public class TrustedCredentialsFragment extends ObservableFragment
                                 continue;
                             }
                             IKeyChainService service = keyChainConnection.getService();
-                            List<CertHolder> certHolders = new ArrayList<>(max);
+                            List<CertHolder> certHolders = new ArrayList<>(aliases.size());
                             for (String alias : aliases) {
                                 byte[] encodedCertificate = service.getEncodedCaCertificate(alias,
                                         true);
-                                X509Certificate cert = KeyChain.toCertificate(encodedCertificate);
+                                TrustedCertificateCache.Entry parsedCert =
+                                        mCertificateCache.get(alias, encodedCertificate);
                                 certHolders.add(new CertHolder(service, mAdapter,
-                                        mTab, alias, cert, profileId));
+                                        mTab, alias, parsedCert, profileId));
                                 publishProgress(++progress, max);
                             }
                             Collections.sort(certHolders);
                             certHoldersByProfile.put(profileId, certHolders);
+                            publishProfile(profileId, certHolders);
                         }
                         return certHoldersByProfile;
                     }
@@ -787,6 +806,21 @@ public class TrustedCredentialsFragment extends ObservableFragment
                 }
             }
 
+            /**
+             * Shows the certificates of one profile without waiting for the other profiles. The
+             * progress bar stays over the list until all the profiles are loaded.
+             */
+            private void publishProfile(int profileId, List<CertHolder> certHolders) {
+                ThreadUtils.postOnMainThread(() -> {
+                    if (isCancelled() || getStatus() == Status.FINISHED) {
+                        return;
+                    }
+                    mCertHoldersByUserId.put(profileId, certHolders);
+                    mAdapter.notifyDataSetChanged();
+                    mContentView.setVisibility(View.VISIBLE);
+                });
+            }
+
             @Override
             protected void onProgressUpdate(Integer... progressAndMax) {
                 int progress = progressAndMax[0];
@@ -859,8 +893,6 @@ public class TrustedCredentialsFragment extends ObservableFragment
         private final Tab mTab;
         private final String mAlias;
         private final X509Certificate mX509Cert;
-
-        private final SslCertificate mSslCert;
         private final String mSubjectPrimary;
         private final String mSubjectSecondary;
         private boolean mDeleted;
@@ -869,40 +901,16 @@ public class TrustedCredentialsFragment extends ObservableFragment
                 GroupAdapter adapter,
                 Tab tab,
                 String alias,
-                X509Certificate x509Cert,
+                TrustedCertificateCache.Entry parsedCert,
                 int profileId) {
             mProfileId = profileId;
             mService = service;
             mAdapter = adapter;
             mTab = tab;
             mAlias = alias;
-            mX509Cert = x509Cert;
-
-            mSslCert = new SslCertificate(x509Cert);
-
-            String cn = mSslCert.getIssuedTo().getCName();
-            String o = mSslCert.getIssuedTo().getOName();
-            String ou = mSslCert.getIssuedTo().getUName();
-            // if we have a O, use O as primary subject, secondary prefer CN over OU
-            // if we don't have an O, use CN as primary, empty secondary
-            // if we don't have O or CN, use DName as primary, empty secondary
-            if (!o.isEmpty()) {
-                if (!cn.isEmpty()) {
-                    mSubjectPrimary = o;
-                    mSubjectSecondary = cn;
-                } else {
-                    mSubjectPrimary = o;
-                    mSubjectSecondary = ou;
-                }
-            } else {
-                if (!cn.isEmpty()) {
-                    mSubjectPrimary = cn;
-                    mSubjectSecondary = "";
-                } else {
-                    mSubjectPrimary = mSslCert.getIssuedTo().getDName();
-                    mSubjectSecondary = "";
-                }
-            }
+            mX509Cert = parsedCert.mCertificate;
+            mSubjectPrimary = parsedCert.mSubjectPrimary;
+            mSubjectSecondary = parsedCert.mSubjectSecondary;
             try {
                 mDeleted = mTab.deleted(mService, mAlias);
             } catch (RemoteException e) {
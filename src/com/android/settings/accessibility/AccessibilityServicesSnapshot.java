@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.accessibility;
+
+import static com.android.settings.accessibility.AccessibilitySettings.VOICE_ACCESS_SERVICE;
+
+import android.accessibilityservice.AccessibilityServiceInfo;
+import android.accessibilityservice.AccessibilityShortcutInfo;
+import android.app.AppOpsManager;
+import android.app.admin.DevicePolicyManager;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.pm.ActivityInfo;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.ServiceInfo;
+import android.os.UserHandle;
+import android.text.TextUtils;
+import android.util.Pair;
+import android.view.accessibility.AccessibilityManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.android.settings.development.Enable16kUtils;
+import com.android.settingslib.accessibility.AccessibilityUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the accessibility services and activities listed in
+ * {@link AccessibilitySettings}, keyed by the flattened component name used as preference key.
+ *
+ * <p>Each entry records everything its preference is bound from, so two snapshots can be diffed
+ * and only the services that were added, removed or changed need to be re-bound.
+ */
+final class AccessibilityServicesSnapshot {
+
+    static final AccessibilityServicesSnapshot EMPTY =
+            new AccessibilityServicesSnapshot(Collections.emptyMap());
+
+    private final Map<String, Entry> mEntries;
+
+    private AccessibilityServicesSnapshot(Map<String, Entry> entries) {
+        mEntries = entries;
+    }
+
+    /**
+     * Enumerates the installed accessibility activities and services of the current user, and
+     * loads their labels and summaries.
+     */
+    @WorkerThread
+    @NonNull
+    static AccessibilityServicesSnapshot load(@NonNull Context context) {
+        final AccessibilityManager a11yManager = AccessibilityManager.getInstance(context);
+        final PackageManager packageManager = context.getPackageManager();
+        final AppOpsManager appOps = context.getSystemService(AppOpsManager.class);
+        final Set<ComponentName> enabledServices =
+                AccessibilityUtils.getEnabledServicesFromSettings(context);
+        final List<String> permittedServices = context.getSystemService(DevicePolicyManager.class)
+                .getPermittedAccessibilityServices(UserHandle.myUserId());
+        final Map<String, Entry> entries = new LinkedHashMap<>();
+
+        final List<AccessibilityShortcutInfo> installedShortcutList =
+                a11yManager.getInstalledAccessibilityShortcutListAsUser(context,
+                        UserHandle.myUserId());
+        for (AccessibilityShortcutInfo info : installedShortcutList) {
+            final ActivityInfo activityInfo = info.getActivityInfo();
+            final ComponentName componentName = info.getComponentName();
+            final Entry entry = new Entry(componentName, /* serviceInfo= */ null, info,
+                    activityInfo.loadLabel(packageManager), info.loadSummary(packageManager),
+                    enabledServices.contains(componentName),
+                    isPermitted(permittedServices, componentName.getPackageName()),
+                    getRestrictedSettingsMode(appOps, activityInfo.applicationInfo),
+                    activityInfo.applicationInfo.longVersionCode);
+            entries.putIfAbsent(entry.mKey, entry);
+        }
+        final Set<Pair<String, CharSequence>> packageLabelPairs = entries.values().stream()
+                .map(entry -> new Pair<>(entry.mComponentName.getPackageName(), entry.mLabel))
+                .collect(Collectors.toSet());
+
+        for (AccessibilityServiceInfo info : a11yManager.getInstalledAccessibilityServiceList()) {
+            final ServiceInfo serviceInfo = info.getResolveInfo().serviceInfo;
+            // TODO(b/335443194) Voice access is not available in 16kB mode.
+            if (serviceInfo.packageName.contains(VOICE_ACCESS_SERVICE)
+                    && Enable16kUtils.isPageAgnosticModeOn(context)) {
+                continue;
+            }
+            // Remove the services that are already listed through their activity.
+            if (!packageLabelPairs.isEmpty() && packageLabelPairs.contains(
+                    new Pair<>(serviceInfo.packageName, serviceInfo.loadLabel(packageManager)))) {
+                continue;
+            }
+            final ComponentName componentName =
+                    new ComponentName(serviceInfo.packageName, serviceInfo.name);
+            final boolean serviceEnabled = enabledServices.contains(componentName);
+            final Entry entry = new Entry(componentName, info, /* shortcutInfo= */ null,
+                    info.getResolveInfo().loadLabel(packageManager),
+                    AccessibilitySettings.getServiceSummary(context, info, serviceEnabled),
+                    serviceEnabled, isPermitted(permittedServices, serviceInfo.packageName),
+                    getRestrictedSettingsMode(appOps, serviceInfo.applicationInfo),
+                    serviceInfo.applicationInfo.longVersionCode);
+            entries.putIfAbsent(entry.mKey, entry);
+        }
+        return new AccessibilityServicesSnapshot(Collections.unmodifiableMap(entries));
+    }
+
+    /** Returns the keys of the entries in {@code previous} that are not in this snapshot. */
+    @NonNull
+    List<String> getRemovedKeys(@NonNull AccessibilityServicesSnapshot previous) {
+        final List<String> removedKeys = new ArrayList<>();
+        for (String key : previous.mEntries.keySet()) {
+            if (!mEntries.containsKey(key)) {
+                removedKeys.add(key);
+            }
+        }
+        return removedKeys;
+    }
+
+    /**
+     * Returns the entries of this snapshot that are not in {@code previous}, or whose state
+     * differs from the one in {@code previous}.
+     */
+    @NonNull
+    List<Entry> getChangedEntries(@NonNull AccessibilityServicesSnapshot previous) {
+        final List<Entry> changedEntries = new ArrayList<>();
+        for (Entry entry : mEntries.values()) {
+            if (!entry.isSameAs(previous.mEntries.get(entry.mKey))) {
+                changedEntries.add(entry);
+            }
+        }
+        return changedEntries;
+    }
+
+    private static boolean isPermitted(@Nullable List<String> permittedServices,
+            String packageName) {
+        // permittedServices null means all accessibility services are allowed.
+        return permittedServices == null || permittedServices.contains(packageName);
+    }
+
+    private static int getRestrictedSettingsMode(AppOpsManager appOps,
+            ApplicationInfo applicationInfo) {
+        try {
+            return appOps.checkOpNoThrow(AppOpsManager.OP_ACCESS_RESTRICTED_SETTINGS,
+                    applicationInfo.uid, applicationInfo.packageName);
+        } catch (Exception e) {
+            // App ops may not be available in testing.
+            return AppOpsManager.MODE_DEFAULT;
+        }
+    }
+
+    /** An installed accessibility activity or service. */
+    static final class Entry {
+        final String mKey;
+        final ComponentName mComponentName;
+        @Nullable
+        final AccessibilityServiceInfo mServiceInfo;
+        @Nullable
+        final AccessibilityShortcutInfo mShortcutInfo;
+        private final CharSequence mLabel;
+        private final CharSequence mSummary;
+        private final boolean mEnabled;
+        private final boolean mPermitted;
+        private final int mRestrictedSettingsMode;
+        private final long mVersionCode;
+
+        Entry(ComponentName componentName, @Nullable AccessibilityServiceInfo serviceInfo,
+                @Nullable AccessibilityShortcutInfo shortcutInfo, CharSequence label,
+                CharSequence summary, boolean enabled, boolean permitted,
+                int restrictedSettingsMode, long versionCode) {
+            mKey = componentName.flattenToString();
+            mComponentName = componentName;
+            mServiceInfo = serviceInfo;
+            mShortcutInfo = shortcutInfo;
+            mLabel = label;
+            mSummary = summary;
+            mEnabled = enabled;
+            mPermitted = permitted;
+            mRestrictedSettingsMode = restrictedSettingsMode;
+            mVersionCode = versionCode;
+        }
+
+        /** Returns whether the preference bound from {@code other} can be kept for this entry. */
+        boolean isSameAs(@Nullable Entry other) {
+            return other != null
+                    && (mServiceInfo == null) == (other.mServiceInfo == null)
+                    && mKey.equals(other.mKey)
+                    && TextUtils.equals(mLabel, other.mLabel)
+                    && TextUtils.equals(mSummary, other.mSummary)
+                    && mEnabled == other.mEnabled
+                    && mPermitted == other.mPermitted
+                    && mRestrictedSettingsMode == other.mRestrictedSettingsMode
+                    && mVersionCode == other.mVersionCode
+                    && Objects.equals(getFragmentType(), other.getFragmentType());
+        }
+
+        @Nullable
+        private Integer getFragmentType() {
+            return mServiceInfo == null
+                    ? null : AccessibilityUtil.getAccessibilityServiceFragmentType(mServiceInfo);
+        }
+    }
+}
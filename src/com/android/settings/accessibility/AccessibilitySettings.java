@@ -21,17 +21,13 @@ import android.accessibilityservice.AccessibilityShortcutInfo;
 import android.app.settings.SettingsEnums;
 import android.content.ComponentName;
 import android.content.Context;
-import android.content.pm.ServiceInfo;
 import android.hardware.input.InputManager;
 import android.os.Bundle;
 import android.os.Handler;
-import android.os.UserHandle;
 import android.provider.Settings;
 import android.text.TextUtils;
 import android.util.ArrayMap;
-import android.util.Pair;
 import android.view.InputDevice;
-import android.view.accessibility.AccessibilityManager;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
@@ -52,13 +48,13 @@ import com.android.settingslib.RestrictedPreference;
 import com.android.settingslib.core.AbstractPreferenceController;
 import com.android.settingslib.search.SearchIndexable;
 import com.android.settingslib.search.SearchIndexableRaw;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /** Activity with the accessibility settings. */
 @SearchIndexable(forTarget = SearchIndexable.ALL & ~SearchIndexable.ARC)
@@ -69,7 +65,8 @@ public class AccessibilitySettings extends DashboardFragment implements
 
     // Preference categories
     private static final String CATEGORY_SCREEN_READER = "screen_reader_category";
-    private static final String CATEGORY_CAPTIONS = "captions_category";
+    @VisibleForTesting
+    static final String CATEGORY_CAPTIONS = "captions_category";
     private static final String CATEGORY_AUDIO = "audio_category";
     private static final String CATEGORY_SPEECH = "speech_category";
     private static final String CATEGORY_DISPLAY = "display_category";
@@ -161,6 +158,11 @@ public class AccessibilitySettings extends DashboardFragment implements
             new ArrayMap<>();
     private final Map<ComponentName, PreferenceCategory> mPreBundledServiceComponentToCategoryMap =
             new ArrayMap<>();
+    private final Map<String, Map<String, Integer>> mCategoryToServiceOrderMap =
+            new ArrayMap<>();
+    private final Map<String, Preference> mServiceKeyToPreferenceMap = new ArrayMap<>();
+    private AccessibilityServicesSnapshot mServicesSnapshot = AccessibilityServicesSnapshot.EMPTY;
+    private int mServicesLoadGeneration;
 
     private boolean mNeedPreferencesUpdate = false;
     private boolean mIsForeground = true;
@@ -228,7 +230,7 @@ public class AccessibilitySettings extends DashboardFragment implements
     public void onResume() {
         super.onResume();
         if (mNeedPreferencesUpdate) {
-            updateAllPreferences();
+            refreshAllPreferences();
             mNeedPreferencesUpdate = false;
         }
     }
@@ -323,7 +325,7 @@ public class AccessibilitySettings extends DashboardFragment implements
         // If the fragment is visible then update preferences immediately, else set the flag then
         // wait for the fragment to show up to update preferences.
         if (mIsForeground) {
-            updateAllPreferences();
+            refreshAllPreferences();
         } else {
             mNeedPreferencesUpdate = true;
         }
@@ -334,6 +336,7 @@ public class AccessibilitySettings extends DashboardFragment implements
             PreferenceCategory prefCategory = findPreference(CATEGORIES[i]);
             mCategoryToPrefCategoryMap.put(CATEGORIES[i], prefCategory);
         }
+        initializePreBundledServicesMap();
     }
 
     @VisibleForTesting
@@ -343,6 +346,16 @@ public class AccessibilitySettings extends DashboardFragment implements
         updateSystemPreferences();
     }
 
+    /**
+     * Same as {@link #updateAllPreferences()}, except the installed services are enumerated off
+     * the main thread and only the ones that changed are re-bound.
+     */
+    private void refreshAllPreferences() {
+        refreshServicePreferences();
+        updatePreferencesState();
+        updateSystemPreferences();
+    }
+
     private void registerContentMonitors() {
         final Context context = getActivity();
 
@@ -373,17 +386,115 @@ public class AccessibilitySettings extends DashboardFragment implements
     }
 
     protected void updateServicePreferences() {
-        // Since services category is auto generated we have to do a pass
-        // to generate it since services can come and go and then based on
-        // the global accessibility state to decided whether it is enabled.
-        final ArrayList<Preference> servicePreferences =
-                new ArrayList<>(mServicePreferenceToPreferenceCategoryMap.keySet());
-        for (int i = 0; i < servicePreferences.size(); i++) {
-            Preference service = servicePreferences.get(i);
-            PreferenceCategory category = mServicePreferenceToPreferenceCategoryMap.get(service);
-            category.removePreference(service);
+        applyServicesSnapshot(AccessibilityServicesSnapshot.load(getPrefContext()));
+    }
+
+    /**
+     * Enumerates the installed services off the main thread, then re-binds the services that
+     * changed since the last update.
+     */
+    private void refreshServicePreferences() {
+        final Context context = getPrefContext();
+        final int generation = ++mServicesLoadGeneration;
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final AccessibilityServicesSnapshot snapshot =
+                    AccessibilityServicesSnapshot.load(context);
+            ThreadUtils.postOnMainThread(() -> {
+                // Drops the result if the fragment is gone or a newer refresh is running.
+                if (getActivity() == null || generation != mServicesLoadGeneration) {
+                    return;
+                }
+                applyServicesSnapshot(snapshot);
+            });
+        });
+    }
+
+    private void applyServicesSnapshot(AccessibilityServicesSnapshot snapshot) {
+        // Invalidates the refreshes in flight, their snapshots are older than this one.
+        mServicesLoadGeneration++;
+        final AccessibilityServicesSnapshot previousSnapshot = mServicesSnapshot;
+        mServicesSnapshot = snapshot;
+
+        for (String key : snapshot.getRemovedKeys(previousSnapshot)) {
+            removeServicePreference(key);
+        }
+
+        final List<AccessibilityServicesSnapshot.Entry> changedEntries =
+                snapshot.getChangedEntries(previousSnapshot);
+        final List<AccessibilityShortcutInfo> changedShortcuts = new ArrayList<>();
+        final List<AccessibilityServiceInfo> changedServices = new ArrayList<>();
+        for (AccessibilityServicesSnapshot.Entry entry : changedEntries) {
+            if (entry.mServiceInfo != null) {
+                changedServices.add(entry.mServiceInfo);
+            } else {
+                changedShortcuts.add(entry.mShortcutInfo);
+            }
+        }
+
+        final PreferenceCategory downloadedServicesCategory =
+                mCategoryToPrefCategoryMap.get(CATEGORY_DOWNLOADED_SERVICES);
+        if (!changedEntries.isEmpty()) {
+            final RestrictedPreferenceHelper preferenceHelper =
+                    new RestrictedPreferenceHelper(getPrefContext());
+            final List<RestrictedPreference> preferenceList = new ArrayList<>();
+            preferenceList.addAll(
+                    preferenceHelper.createAccessibilityActivityPreferenceList(changedShortcuts));
+            preferenceList.addAll(
+                    preferenceHelper.createAccessibilityServicePreferenceList(changedServices));
+
+            for (int i = 0, count = preferenceList.size(); i < count; ++i) {
+                final RestrictedPreference preference = preferenceList.get(i);
+                final ComponentName componentName = preference.getExtras().getParcelable(
+                        EXTRA_COMPONENT_NAME);
+                PreferenceCategory prefCategory = downloadedServicesCategory;
+                // Set the appropriate category if the service comes pre-installed.
+                if (mPreBundledServiceComponentToCategoryMap.containsKey(componentName)) {
+                    prefCategory = mPreBundledServiceComponentToCategoryMap.get(componentName);
+                }
+                removeServicePreference(preference.getKey());
+                // Update the order of the service according to the order defined in xml file.
+                final Integer order = mCategoryToServiceOrderMap
+                        .getOrDefault(prefCategory.getKey(), Collections.emptyMap())
+                        .get(preference.getKey());
+                if (order != null) {
+                    preference.setOrder(order);
+                }
+                prefCategory.addPreference(preference);
+                mServicePreferenceToPreferenceCategoryMap.put(preference, prefCategory);
+                mServiceKeyToPreferenceMap.put(preference.getKey(), preference);
+            }
+        }
+
+        // Need to check each time when updateServicePreferences() called.
+        if (downloadedServicesCategory.getPreferenceCount() == 0) {
+            getPreferenceScreen().removePreference(downloadedServicesCategory);
+        } else {
+            getPreferenceScreen().addPreference(downloadedServicesCategory);
+        }
+
+        // Hide category if it is empty.
+        updatePreferenceCategoryVisibility(CATEGORY_SCREEN_READER);
+        updatePreferenceCategoryVisibility(CATEGORY_SPEECH);
+        updatePreferenceCategoryVisibility(CATEGORY_KEYBOARD_OPTIONS);
+    }
+
+    private void removeServicePreference(String key) {
+        final Preference preference = mServiceKeyToPreferenceMap.remove(key);
+        if (preference == null) {
+            return;
+        }
+        final PreferenceCategory category =
+                mServicePreferenceToPreferenceCategoryMap.remove(preference);
+        if (category != null) {
+            category.removePreference(preference);
         }
+    }
 
+    /**
+     * Reads the categories and the order of the pre-bundled services. They come from resources
+     * and are only read once.
+     */
+    private void initializePreBundledServicesMap() {
         initializePreBundledServicesMapFromArray(CATEGORY_SCREEN_READER,
                 R.array.config_preinstalled_screen_reader_services);
         initializePreBundledServicesMapFromArray(CATEGORY_CAPTIONS,
@@ -403,93 +514,18 @@ public class AccessibilitySettings extends DashboardFragment implements
                 AccessibilityUtils.ACCESSIBILITY_MENU_IN_SYSTEM,
                 mCategoryToPrefCategoryMap.get(CATEGORY_INTERACTION_CONTROL));
 
-        final List<RestrictedPreference> preferenceList = getInstalledAccessibilityList(
-                getPrefContext());
-
-        final PreferenceCategory downloadedServicesCategory =
-                mCategoryToPrefCategoryMap.get(CATEGORY_DOWNLOADED_SERVICES);
-
-        for (int i = 0, count = preferenceList.size(); i < count; ++i) {
-            final RestrictedPreference preference = preferenceList.get(i);
-            final ComponentName componentName = preference.getExtras().getParcelable(
-                    EXTRA_COMPONENT_NAME);
-            PreferenceCategory prefCategory = downloadedServicesCategory;
-            // Set the appropriate category if the service comes pre-installed.
-            if (mPreBundledServiceComponentToCategoryMap.containsKey(componentName)) {
-                prefCategory = mPreBundledServiceComponentToCategoryMap.get(componentName);
-            }
-            prefCategory.addPreference(preference);
-            mServicePreferenceToPreferenceCategoryMap.put(preference, prefCategory);
-        }
-
-        // Update the order of all the category according to the order defined in xml file.
-        updateCategoryOrderFromArray(CATEGORY_SCREEN_READER,
+        initializeCategoryOrderFromArray(CATEGORY_SCREEN_READER,
                 R.array.config_order_screen_reader_services);
-        updateCategoryOrderFromArray(CATEGORY_CAPTIONS,
+        initializeCategoryOrderFromArray(CATEGORY_CAPTIONS,
                 R.array.config_order_captions_services);
-        updateCategoryOrderFromArray(CATEGORY_AUDIO,
+        initializeCategoryOrderFromArray(CATEGORY_AUDIO,
                 R.array.config_order_audio_services);
-        updateCategoryOrderFromArray(CATEGORY_INTERACTION_CONTROL,
+        initializeCategoryOrderFromArray(CATEGORY_INTERACTION_CONTROL,
                 R.array.config_order_interaction_control_services);
-        updateCategoryOrderFromArray(CATEGORY_DISPLAY,
+        initializeCategoryOrderFromArray(CATEGORY_DISPLAY,
                 R.array.config_order_display_services);
-        updateCategoryOrderFromArray(CATEGORY_SPEECH,
+        initializeCategoryOrderFromArray(CATEGORY_SPEECH,
                 R.array.config_order_speech_services);
-
-        // Need to check each time when updateServicePreferences() called.
-        if (downloadedServicesCategory.getPreferenceCount() == 0) {
-            getPreferenceScreen().removePreference(downloadedServicesCategory);
-        } else {
-            getPreferenceScreen().addPreference(downloadedServicesCategory);
-        }
-
-        // Hide category if it is empty.
-        updatePreferenceCategoryVisibility(CATEGORY_SCREEN_READER);
-        updatePreferenceCategoryVisibility(CATEGORY_SPEECH);
-        updatePreferenceCategoryVisibility(CATEGORY_KEYBOARD_OPTIONS);
-    }
-
-    private List<RestrictedPreference> getInstalledAccessibilityList(Context context) {
-        final AccessibilityManager a11yManager = AccessibilityManager.getInstance(context);
-        final RestrictedPreferenceHelper preferenceHelper = new RestrictedPreferenceHelper(context);
-
-        final List<AccessibilityShortcutInfo> installedShortcutList =
-                a11yManager.getInstalledAccessibilityShortcutListAsUser(context,
-                        UserHandle.myUserId());
-        final List<AccessibilityActivityPreference> activityList =
-                preferenceHelper.createAccessibilityActivityPreferenceList(installedShortcutList);
-        final Set<Pair<String, CharSequence>> packageLabelPairs =
-                activityList.stream()
-                        .map(a11yActivityPref -> new Pair<>(
-                                a11yActivityPref.getPackageName(), a11yActivityPref.getLabel())
-                        ).collect(Collectors.toSet());
-
-        // Remove duplicate item here, new a ArrayList to copy unmodifiable list result
-        // (getInstalledAccessibilityServiceList).
-        final List<AccessibilityServiceInfo> installedServiceList = new ArrayList<>(
-                a11yManager.getInstalledAccessibilityServiceList());
-        if (!packageLabelPairs.isEmpty()) {
-            installedServiceList.removeIf(
-                    target -> containsPackageAndLabelInList(packageLabelPairs, target));
-        }
-        final List<RestrictedPreference> serviceList =
-                preferenceHelper.createAccessibilityServicePreferenceList(installedServiceList);
-
-        final List<RestrictedPreference> preferenceList = new ArrayList<>();
-        preferenceList.addAll(activityList);
-        preferenceList.addAll(serviceList);
-
-        return preferenceList;
-    }
-
-    private boolean containsPackageAndLabelInList(
-            Set<Pair<String, CharSequence>> packageLabelPairs,
-            AccessibilityServiceInfo targetServiceInfo) {
-        final ServiceInfo serviceInfo = targetServiceInfo.getResolveInfo().serviceInfo;
-        final String servicePackageName = serviceInfo.packageName;
-        final CharSequence serviceLabel = serviceInfo.loadLabel(getPackageManager());
-
-        return packageLabelPairs.contains(new Pair<>(servicePackageName, serviceLabel));
     }
 
     private void initializePreBundledServicesMapFromArray(String categoryKey, int key) {
@@ -507,24 +543,37 @@ public class AccessibilitySettings extends DashboardFragment implements
     }
 
     /**
-     * Update the order of preferences in the category by matching their preference
-     * key with the string array of preference order which is defined in the xml.
+     * Reads the order of preferences in the category, matched by their preference key against
+     * the string array of preference order which is defined in the xml.
      *
-     * @param categoryKey The key of the category need to update the order
+     * @param categoryKey The key of the category
      * @param key         The key of the string array which defines the order of category
      */
-    private void updateCategoryOrderFromArray(String categoryKey, int key) {
-        String[] services = getResources().getStringArray(key);
-        PreferenceCategory category = mCategoryToPrefCategoryMap.get(categoryKey);
-        int preferenceCount = category.getPreferenceCount();
-        int serviceLength = services.length;
-        for (int preferenceIndex = 0; preferenceIndex < preferenceCount; preferenceIndex++) {
-            for (int serviceIndex = 0; serviceIndex < serviceLength; serviceIndex++) {
-                if (category.getPreference(preferenceIndex).getKey()
-                        .equals(services[serviceIndex])) {
-                    category.getPreference(preferenceIndex).setOrder(serviceIndex);
-                    break;
-                }
+    private void initializeCategoryOrderFromArray(String categoryKey, int key) {
+        initializeCategoryOrder(categoryKey, getResources().getStringArray(key));
+    }
+
+    /**
+     * Keeps the order of the services of the category, and applies it to the static preferences
+     * already in the category. The services are ordered when their preference is bound.
+     */
+    @VisibleForTesting
+    void initializeCategoryOrder(String categoryKey, String[] services) {
+        final Map<String, Integer> serviceOrderMap = new ArrayMap<>(services.length);
+        for (int serviceIndex = 0; serviceIndex < services.length; serviceIndex++) {
+            serviceOrderMap.putIfAbsent(services[serviceIndex], serviceIndex);
+        }
+        mCategoryToServiceOrderMap.put(categoryKey, serviceOrderMap);
+
+        final PreferenceCategory category = mCategoryToPrefCategoryMap.get(categoryKey);
+        if (category == null) {
+            return;
+        }
+        for (int i = 0, count = category.getPreferenceCount(); i < count; i++) {
+            final Preference preference = category.getPreference(i);
+            final Integer order = serviceOrderMap.get(preference.getKey());
+            if (order != null) {
+                preference.setOrder(order);
             }
         }
     }
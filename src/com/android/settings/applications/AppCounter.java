@@ -51,24 +51,23 @@ public abstract class AppCounter extends AsyncTask<Void, Void, Integer> {
         this(context, packageManager, new FeatureFlagsImpl());
     }
 
+    /**
+     * Counts the apps of all the profiles concurrently, see {@link ProfileAppScanner}. Returns
+     * {@code null} if the task was cancelled.
+     */
     @Override
     protected Integer doInBackground(Void... params) {
-        int count = 0;
-        for (UserInfo user : mUm.getProfiles(UserHandle.myUserId())) {
-            long flags = PackageManager.GET_DISABLED_COMPONENTS
-                    | PackageManager.GET_DISABLED_UNTIL_USED_COMPONENTS
-                    | (isArchivingEnabled() ? PackageManager.MATCH_ARCHIVED_PACKAGES : 0)
-                    | (user.isAdmin() ? PackageManager.MATCH_ANY_USER : 0);
-            ApplicationInfoFlags infoFlags = ApplicationInfoFlags.of(flags);
-            final List<ApplicationInfo> list =
-                    mPm.getInstalledApplicationsAsUser(infoFlags, user.id);
-            for (ApplicationInfo info : list) {
-                if (includeInCount(info)) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return ProfileAppScanner.getInstance().count(mUm.getProfiles(UserHandle.myUserId()),
+                this::getInstalledApplications, this::includeInCount, this::isCancelled);
+    }
+
+    private List<ApplicationInfo> getInstalledApplications(UserInfo user) {
+        long flags = PackageManager.GET_DISABLED_COMPONENTS
+                | PackageManager.GET_DISABLED_UNTIL_USED_COMPONENTS
+                | (isArchivingEnabled() ? PackageManager.MATCH_ARCHIVED_PACKAGES : 0)
+                | (user.isAdmin() ? PackageManager.MATCH_ANY_USER : 0);
+        ApplicationInfoFlags infoFlags = ApplicationInfoFlags.of(flags);
+        return mPm.getInstalledApplicationsAsUser(infoFlags, user.id);
     }
 
     private boolean isArchivingEnabled() {
@@ -81,10 +80,14 @@ public abstract class AppCounter extends AsyncTask<Void, Void, Integer> {
     }
 
     void executeInForeground() {
-        onPostExecute(doInBackground());
+        final Integer count = doInBackground();
+        if (count != null) {
+            onPostExecute(count);
+        }
     }
 
     protected abstract void onCountComplete(int num);
 
+    /** Called concurrently from several threads, see {@link ProfileAppScanner}. */
     protected abstract boolean includeInCount(ApplicationInfo info);
 }
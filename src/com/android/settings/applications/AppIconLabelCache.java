@@ -0,0 +1,454 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.os.UserHandle;
+import android.text.TextUtils;
+import android.util.IconDrawableFactory;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.utils.ThreadUtils;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide memory bounded cache of badged app icons and labels shared by Settings screens.
+ *
+ * <p>Entries are keyed by package, user, display density and package version, so an updated
+ * package never hits a stale entry. Package broadcasts additionally drop the entries of the
+ * package, e.g. when a component is enabled or disabled. Concurrent requests for the same entry
+ * share a single load.
+ *
+ * <p>Icons and labels of a single component (e.g. an activity or a service) can be cached with
+ * {@link #getComponentIcon} and {@link #getComponentLabel}.
+ */
+public class AppIconLabelCache {
+    private static final String TAG = "AppIconLabelCache";
+
+    private static final int MAX_ICON_CACHE_BYTES = 8 * 1024 * 1024;
+    private static final int MAX_LABEL_COUNT = 512;
+    private static final int MIN_ICON_BYTES = 1024;
+
+    private static AppIconLabelCache sInstance;
+
+    private final Context mContext;
+    private final IconDrawableFactory mIconDrawableFactory;
+    private final LruCache<Key, Drawable> mIcons;
+    private final LruCache<Key, CharSequence> mLabels = new LruCache<>(MAX_LABEL_COUNT);
+    // Loads in progress, one map per value type since icons and labels share keys. Each map is
+    // guarded by itself.
+    private final Map<Key, SettableFuture<Drawable>> mIconsInFlight = new HashMap<>();
+    private final Map<Key, SettableFuture<CharSequence>> mLabelsInFlight = new HashMap<>();
+    // Incremented on every invalidation, loads started before it are not cached.
+    private final AtomicInteger mGeneration = new AtomicInteger();
+
+    private final Stats mIconStats = new Stats();
+    private final Stats mLabelStats = new Stats();
+
+    @VisibleForTesting
+    final BroadcastReceiver mPackageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (Intent.ACTION_LOCALE_CHANGED.equals(intent.getAction())) {
+                clear();
+                return;
+            }
+            final Uri data = intent.getData();
+            final String packageName = data != null ? data.getSchemeSpecificPart() : null;
+            if (!TextUtils.isEmpty(packageName)) {
+                invalidate(packageName);
+            }
+        }
+    };
+
+    /** Returns the process-wide instance. */
+    public static synchronized AppIconLabelCache getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new AppIconLabelCache(context.getApplicationContext());
+            sInstance.registerReceivers();
+        }
+        return sInstance;
+    }
+
+    /** Returns the process-wide instance if it was created, without creating it. */
+    @Nullable
+    public static synchronized AppIconLabelCache peekInstance() {
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    AppIconLabelCache(Context context) {
+        mContext = context;
+        mIconDrawableFactory = IconDrawableFactory.newInstance(context);
+        final int maxBytes = (int) Math.min(MAX_ICON_CACHE_BYTES,
+                Runtime.getRuntime().maxMemory() / 32);
+        mIcons = new LruCache<>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Drawable icon) {
+                return getIconBytes(icon);
+            }
+        };
+    }
+
+    private void registerReceivers() {
+        final IntentFilter packageFilter = new IntentFilter();
+        packageFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        packageFilter.addDataScheme("package");
+        mContext.registerReceiverAsUser(mPackageReceiver, UserHandle.ALL, packageFilter,
+                /* broadcastPermission= */ null, /* scheduler= */ null);
+        mContext.registerReceiver(mPackageReceiver,
+                new IntentFilter(Intent.ACTION_LOCALE_CHANGED));
+    }
+
+    /** Returns the icon of the app badged for its user, loading it if needed. */
+    @NonNull
+    public Drawable getBadgedIcon(@NonNull ApplicationInfo appInfo) {
+        final Drawable icon = getIcon(newKey(appInfo, /* component= */ null),
+                () -> mIconDrawableFactory.getBadgedIcon(appInfo,
+                        UserHandle.getUserId(appInfo.uid)));
+        return icon != null ? icon : mContext.getPackageManager().getDefaultActivityIcon();
+    }
+
+    /** Returns the badged icon of {@code packageName} in {@code userId}, or null if not found. */
+    @Nullable
+    public Drawable getBadgedIcon(@NonNull String packageName, int userId) {
+        final ApplicationInfo appInfo = getApplicationInfo(packageName, userId);
+        return appInfo != null ? getBadgedIcon(appInfo) : null;
+    }
+
+    /** Returns the label of the app, loading it if needed. */
+    @NonNull
+    public CharSequence getLabel(@NonNull ApplicationInfo appInfo) {
+        final CharSequence label = getLabel(newKey(appInfo, /* component= */ null),
+                () -> appInfo.loadLabel(mContext.getPackageManager()));
+        return label != null ? label : appInfo.packageName;
+    }
+
+    /** Returns the label of {@code packageName} in {@code userId}, or null if not found. */
+    @Nullable
+    public CharSequence getLabel(@NonNull String packageName, int userId) {
+        final ApplicationInfo appInfo = getApplicationInfo(packageName, userId);
+        return appInfo != null ? getLabel(appInfo) : null;
+    }
+
+    /**
+     * Returns the icon of {@code component} of the app, loading it with {@code loader} if needed.
+     * The loader is responsible for badging the icon.
+     */
+    @Nullable
+    public Drawable getComponentIcon(@NonNull ApplicationInfo appInfo, @NonNull String component,
+            @NonNull Supplier<Drawable> loader) {
+        return getIcon(newKey(appInfo, component), loader);
+    }
+
+    /**
+     * Returns the label of {@code component} of the app, loading it with {@code loader} if
+     * needed.
+     */
+    @Nullable
+    public CharSequence getComponentLabel(@NonNull ApplicationInfo appInfo,
+            @NonNull String component, @NonNull Supplier<CharSequence> loader) {
+        return getLabel(newKey(appInfo, component), loader);
+    }
+
+    /**
+     * Loads the badged icon of the app in background and delivers it to {@code callback} on the
+     * main thread. The callback runs immediately when the icon is cached.
+     */
+    public void loadBadgedIcon(@NonNull ApplicationInfo appInfo,
+            @NonNull Consumer<Drawable> callback) {
+        loadIcon(newKey(appInfo, /* component= */ null),
+                () -> mIconDrawableFactory.getBadgedIcon(appInfo,
+                        UserHandle.getUserId(appInfo.uid)), callback);
+    }
+
+    /**
+     * Loads the icon of the app without the badge of its user in background and delivers it to
+     * {@code callback} on the main thread. The callback runs immediately when the icon is cached.
+     */
+    public void loadUnbadgedIcon(@NonNull ApplicationInfo appInfo,
+            @NonNull Consumer<Drawable> callback) {
+        loadIcon(newKey(appInfo, /* component= */ null, /* badged= */ false),
+                () -> appInfo.loadUnbadgedIcon(mContext.getPackageManager()), callback);
+    }
+
+    private void loadIcon(Key key, Supplier<Drawable> loader, Consumer<Drawable> callback) {
+        final Drawable cached = getCachedIcon(key);
+        if (cached != null) {
+            callback.accept(cached);
+            return;
+        }
+        final SettableFuture<Drawable> future;
+        final boolean owner;
+        synchronized (mIconsInFlight) {
+            final SettableFuture<Drawable> pending = mIconsInFlight.get(key);
+            owner = pending == null;
+            future = owner ? SettableFuture.create() : pending;
+            if (owner) {
+                mIconsInFlight.put(key, future);
+            }
+        }
+        future.addListener(() -> {
+            final Drawable icon = Futures.getUnchecked(future);
+            callback.accept(icon != null ? newInstance(icon) : null);
+        }, ThreadUtils::postOnMainThread);
+        if (owner) {
+            ThreadUtils.postOnBackgroundThread(() -> load(key, future, mIconsInFlight, mIcons,
+                    mIconStats, loader));
+        }
+    }
+
+    /** Drops the icons and labels of {@code packageName} for all users. */
+    public void invalidate(@NonNull String packageName) {
+        mGeneration.incrementAndGet();
+        for (Key key : mIcons.snapshot().keySet()) {
+            if (key.mPackageName.equals(packageName)) {
+                mIcons.remove(key);
+            }
+        }
+        for (Key key : mLabels.snapshot().keySet()) {
+            if (key.mPackageName.equals(packageName)) {
+                mLabels.remove(key);
+            }
+        }
+    }
+
+    /** Drops all the icons and labels. */
+    public void clear() {
+        mGeneration.incrementAndGet();
+        mIcons.evictAll();
+        mLabels.evictAll();
+    }
+
+    /** Returns the hit rate and load time of the cache, to be dumped. */
+    public JSONObject dumpStats() throws JSONException {
+        final JSONObject obj = new JSONObject();
+        obj.put("icons", mIconStats.toJson()
+                .put("count", mIcons.snapshot().size())
+                .put("bytes", mIcons.size())
+                .put("maxBytes", mIcons.maxSize()));
+        obj.put("labels", mLabelStats.toJson().put("count", mLabels.size()));
+        return obj;
+    }
+
+    @VisibleForTesting
+    Stats getIconStats() {
+        return mIconStats;
+    }
+
+    @VisibleForTesting
+    Stats getLabelStats() {
+        return mLabelStats;
+    }
+
+    private Drawable getIcon(Key key, Supplier<Drawable> loader) {
+        final Drawable cached = getCachedIcon(key);
+        if (cached != null) {
+            return cached;
+        }
+        final Drawable icon = getOrLoad(key, mIconsInFlight, mIcons, mIconStats, loader);
+        return icon != null ? newInstance(icon) : null;
+    }
+
+    @Nullable
+    private Drawable getCachedIcon(Key key) {
+        final Drawable icon = mIcons.get(key);
+        if (icon == null) {
+            return null;
+        }
+        mIconStats.mHits.incrementAndGet();
+        return newInstance(icon);
+    }
+
+    private CharSequence getLabel(Key key, Supplier<CharSequence> loader) {
+        final CharSequence label = mLabels.get(key);
+        if (label != null) {
+            mLabelStats.mHits.incrementAndGet();
+            return label;
+        }
+        return getOrLoad(key, mLabelsInFlight, mLabels, mLabelStats, loader);
+    }
+
+    /** Loads the value on the calling thread, or waits for the load already in progress. */
+    private <T> T getOrLoad(Key key, Map<Key, SettableFuture<T>> inFlight,
+            LruCache<Key, T> cache, Stats stats, Supplier<? extends T> loader) {
+        final SettableFuture<T> future;
+        final boolean owner;
+        synchronized (inFlight) {
+            final SettableFuture<T> pending = inFlight.get(key);
+            owner = pending == null;
+            future = owner ? SettableFuture.create() : pending;
+            if (owner) {
+                inFlight.put(key, future);
+            }
+        }
+        if (owner) {
+            load(key, future, inFlight, cache, stats, loader);
+        }
+        return Futures.getUnchecked(future);
+    }
+
+    private <T> void load(Key key, SettableFuture<T> future, Map<Key, SettableFuture<T>> inFlight,
+            LruCache<Key, T> cache, Stats stats, Supplier<? extends T> loader) {
+        final int generation = mGeneration.get();
+        final long startTime = SystemClock.elapsedRealtimeNanos();
+        T value = null;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Failed to load " + key, e);
+        } finally {
+            stats.mMisses.incrementAndGet();
+            stats.mLoadNanos.addAndGet(SystemClock.elapsedRealtimeNanos() - startTime);
+            if (value != null && generation == mGeneration.get()) {
+                cache.put(key, value);
+            }
+            synchronized (inFlight) {
+                inFlight.remove(key);
+            }
+            future.set(value);
+        }
+    }
+
+    @Nullable
+    private ApplicationInfo getApplicationInfo(String packageName, int userId) {
+        try {
+            return mContext.getPackageManager().getApplicationInfoAsUser(packageName,
+                    PackageManager.MATCH_DISABLED_COMPONENTS
+                            | PackageManager.MATCH_UNINSTALLED_PACKAGES, userId);
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.w(TAG, "Package not found: " + packageName + " for user " + userId);
+            return null;
+        }
+    }
+
+    private Key newKey(ApplicationInfo appInfo, @Nullable String component) {
+        return newKey(appInfo, component, /* badged= */ true);
+    }
+
+    private Key newKey(ApplicationInfo appInfo, @Nullable String component, boolean badged) {
+        return new Key(appInfo.packageName, component, UserHandle.getUserId(appInfo.uid),
+                mContext.getResources().getDisplayMetrics().densityDpi, appInfo.longVersionCode,
+                badged);
+    }
+
+    /** Returns a new instance sharing the state of the cached icon, which may be mutated. */
+    private static Drawable newInstance(Drawable icon) {
+        final Drawable.ConstantState state = icon.getConstantState();
+        return state != null ? state.newDrawable() : icon;
+    }
+
+    private static int getIconBytes(Drawable icon) {
+        if (icon instanceof BitmapDrawable && ((BitmapDrawable) icon).getBitmap() != null) {
+            return ((BitmapDrawable) icon).getBitmap().getAllocationByteCount();
+        }
+        return Math.max(MIN_ICON_BYTES, icon.getIntrinsicWidth() * icon.getIntrinsicHeight() * 4);
+    }
+
+    @VisibleForTesting
+    static final class Stats {
+        final AtomicLong mHits = new AtomicLong();
+        final AtomicLong mMisses = new AtomicLong();
+        final AtomicLong mLoadNanos = new AtomicLong();
+
+        JSONObject toJson() throws JSONException {
+            final long hits = mHits.get();
+            final long misses = mMisses.get();
+            final long total = hits + misses;
+            return new JSONObject()
+                    .put("hits", hits)
+                    .put("misses", misses)
+                    .put("hitRate", total == 0 ? 0 : (double) hits / total)
+                    .put("avgLoadMicros", misses == 0 ? 0 : mLoadNanos.get() / misses / 1000);
+        }
+    }
+
+    private static final class Key {
+        final String mPackageName;
+        @Nullable
+        final String mComponent;
+        final int mUserId;
+        final int mDensityDpi;
+        final long mVersionCode;
+        final boolean mBadged;
+
+        Key(String packageName, @Nullable String component, int userId, int densityDpi,
+                long versionCode, boolean badged) {
+            mPackageName = packageName;
+            mComponent = component;
+            mUserId = userId;
+            mDensityDpi = densityDpi;
+            mVersionCode = versionCode;
+            mBadged = badged;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return mUserId == other.mUserId
+                    && mDensityDpi == other.mDensityDpi
+                    && mVersionCode == other.mVersionCode
+                    && mBadged == other.mBadged
+                    && mPackageName.equals(other.mPackageName)
+                    && Objects.equals(mComponent, other.mComponent);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mPackageName, mComponent, mUserId, mDensityDpi, mVersionCode,
+                    mBadged);
+        }
+
+        @Override
+        public String toString() {
+            return mPackageName + (mComponent != null ? "/" + mComponent : "") + ":" + mUserId;
+        }
+    }
+}
@@ -41,29 +41,41 @@ public abstract class AppLister extends AsyncTask<Void, Void, List<UserAppInfo>>
         mUm = userManager;
     }
 
+    /**
+     * Lists the apps of all the profiles concurrently, see {@link ProfileAppScanner}. Returns
+     * {@code null} if the task was cancelled.
+     */
     @Override
     protected List<UserAppInfo> doInBackground(Void... params) {
+        final List<UserInfo> profiles = mUm.getProfiles(UserHandle.myUserId());
+        final List<List<ApplicationInfo>> apps = ProfileAppScanner.getInstance().scan(profiles,
+                this::getInstalledApplications, this::includeInCount, this::isCancelled);
+        if (apps == null) {
+            return null;
+        }
         final List<UserAppInfo> result = new ArrayList<>();
-        for (UserInfo user : mUm.getProfiles(UserHandle.myUserId())) {
-            final List<ApplicationInfo> list =
-                    mPm.getInstalledApplicationsAsUser(PackageManager.GET_DISABLED_COMPONENTS
-                            | PackageManager.GET_DISABLED_UNTIL_USED_COMPONENTS
-                            | (user.isAdmin() ? PackageManager.MATCH_ANY_USER : 0),
-                            user.id);
-            for (ApplicationInfo info : list) {
-                if (includeInCount(info)) {
-                    result.add(new UserAppInfo(user, info));
-                }
+        for (int i = 0; i < profiles.size(); i++) {
+            for (ApplicationInfo info : apps.get(i)) {
+                result.add(new UserAppInfo(profiles.get(i), info));
             }
         }
         return result;
     }
 
+    private List<ApplicationInfo> getInstalledApplications(UserInfo user) {
+        return mPm.getInstalledApplicationsAsUser(PackageManager.GET_DISABLED_COMPONENTS
+                | PackageManager.GET_DISABLED_UNTIL_USED_COMPONENTS
+                | (user.isAdmin() ? PackageManager.MATCH_ANY_USER : 0),
+                user.id);
+    }
+
     @Override
     protected void onPostExecute(List<UserAppInfo> list) {
         onAppListBuilt(list);
     }
 
     protected abstract void onAppListBuilt(List<UserAppInfo> list);
+
+    /** Called concurrently from several threads, see {@link ProfileAppScanner}. */
     protected abstract boolean includeInCount(ApplicationInfo info);
 }
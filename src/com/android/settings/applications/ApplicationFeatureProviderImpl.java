@@ -60,6 +60,7 @@ public class ApplicationFeatureProviderImpl implements ApplicationFeatureProvide
     private final UserManager mUm;
     private final WebViewUpdateServiceWrapper mWebViewUpdateServiceWrapper;
     private final SystemConfigManager mSystemConfigManager;
+    private final LauncherPackageIndex mLauncherPackageIndex;
 
     /** Flags to use when querying PackageManager for Euicc component implementations. */
     private static final int EUICC_QUERY_FLAGS =
@@ -79,12 +80,15 @@ public class ApplicationFeatureProviderImpl implements ApplicationFeatureProvide
         mUm = UserManager.get(mContext);
         mWebViewUpdateServiceWrapper = wvusWrapper;
         mSystemConfigManager = context.getSystemService(SystemConfigManager.class);
+        mLauncherPackageIndex = new LauncherPackageIndex(pm);
+        mLauncherPackageIndex.registerPackageReceiver(mContext);
     }
 
     @Override
     public void calculateNumberOfPolicyInstalledApps(boolean async, NumberOfAppsCallback callback) {
         final CurrentUserAndManagedProfilePolicyInstalledAppCounter counter =
-                new CurrentUserAndManagedProfilePolicyInstalledAppCounter(mContext, mPm, callback);
+                new CurrentUserAndManagedProfilePolicyInstalledAppCounter(mContext, mPm,
+                        mLauncherPackageIndex, callback);
         if (async) {
             counter.execute();
         } else {
@@ -95,7 +99,8 @@ public class ApplicationFeatureProviderImpl implements ApplicationFeatureProvide
     @Override
     public void listPolicyInstalledApps(ListOfAppsCallback callback) {
         final CurrentUserPolicyInstalledAppLister lister =
-                new CurrentUserPolicyInstalledAppLister(mPm, mUm, callback);
+                new CurrentUserPolicyInstalledAppLister(mPm, mUm, mLauncherPackageIndex,
+                        callback);
         lister.execute();
     }
 
@@ -213,8 +218,10 @@ public class ApplicationFeatureProviderImpl implements ApplicationFeatureProvide
         private NumberOfAppsCallback mCallback;
 
         CurrentUserAndManagedProfilePolicyInstalledAppCounter(Context context,
-                PackageManager packageManager, NumberOfAppsCallback callback) {
-            super(context, PackageManager.INSTALL_REASON_POLICY, packageManager);
+                PackageManager packageManager, LauncherPackageIndex launcherPackageIndex,
+                NumberOfAppsCallback callback) {
+            super(context, PackageManager.INSTALL_REASON_POLICY, packageManager,
+                    launcherPackageIndex);
             mCallback = callback;
         }
 
@@ -246,8 +253,9 @@ public class ApplicationFeatureProviderImpl implements ApplicationFeatureProvide
         private ListOfAppsCallback mCallback;
 
         CurrentUserPolicyInstalledAppLister(PackageManager packageManager,
-                UserManager userManager, ListOfAppsCallback callback) {
-            super(packageManager, userManager);
+                UserManager userManager, LauncherPackageIndex launcherPackageIndex,
+                ListOfAppsCallback callback) {
+            super(packageManager, userManager, launcherPackageIndex);
             mCallback = callback;
         }
 
@@ -36,7 +36,6 @@ import androidx.preference.PreferenceScreen;
 
 import com.android.settings.R;
 import com.android.settings.core.BasePreferenceController;
-import com.android.settingslib.Utils;
 import com.android.settingslib.applications.ApplicationsState;
 import com.android.settingslib.utils.StringUtil;
 import com.android.settingslib.widget.AppPreference;
@@ -77,6 +76,7 @@ public class AppsPreferenceController extends BasePreferenceController implement
 
     private Fragment mHost;
     private boolean mInitialLaunch = false;
+    private InstalledAppCounter mAllAppsCounter;
 
     public AppsPreferenceController(Context context) {
         super(context, KEY_RECENT_APPS_CATEGORY);
@@ -117,6 +117,14 @@ public class AppsPreferenceController extends BasePreferenceController implement
         mInitialLaunch = false;
     }
 
+    /**
+     * Called when the apps page stops, the count of all apps is redone on the next refresh.
+     */
+    @OnLifecycleEvent(Lifecycle.Event.ON_STOP)
+    public void onStop() {
+        cancelAllAppsCount();
+    }
+
     @VisibleForTesting
     void refreshUi() {
         loadAllAppsCount();
@@ -137,8 +145,10 @@ public class AppsPreferenceController extends BasePreferenceController implement
 
     @VisibleForTesting
     void loadAllAppsCount() {
+        cancelAllAppsCount();
         // Show total number of installed apps as See all's summary.
-        new InstalledAppCounter(mContext, InstalledAppCounter.IGNORE_INSTALL_REASON,
+        mAllAppsCounter = new InstalledAppCounter(mContext,
+                InstalledAppCounter.IGNORE_INSTALL_REASON,
                 mContext.getPackageManager()) {
             @Override
             protected void onCountComplete(int num) {
@@ -149,7 +159,15 @@ public class AppsPreferenceController extends BasePreferenceController implement
                     mAllAppsInfoPref.setSummary(mContext.getString(R.string.apps_summary, num));
                 }
             }
-        }.execute();
+        };
+        mAllAppsCounter.execute();
+    }
+
+    private void cancelAllAppsCount() {
+        if (mAllAppsCounter != null) {
+            mAllAppsCounter.cancel(true /* mayInterruptIfRunning */);
+            mAllAppsCounter = null;
+        }
     }
 
     @VisibleForTesting
@@ -203,7 +221,8 @@ public class AppsPreferenceController extends BasePreferenceController implement
 
                 pref.setKey(key);
                 pref.setTitle(appEntry.label);
-                pref.setIcon(Utils.getBadgedIcon(mContext, appEntry.info));
+                pref.setIcon(AppIconLabelCache.getInstance(mContext).getBadgedIcon(
+                        appEntry.info));
                 pref.setSummary(StringUtil.formatRelativeTime(mContext,
                         System.currentTimeMillis() - stats.getLastTimeUsed(), false,
                         RelativeDateTimeFormatter.Style.LONG));
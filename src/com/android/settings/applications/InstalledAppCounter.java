@@ -24,6 +24,7 @@ import android.content.pm.ResolveInfo;
 import android.os.UserHandle;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
 import java.util.List;
@@ -36,26 +37,57 @@ public abstract class InstalledAppCounter extends AppCounter {
     public static final int IGNORE_INSTALL_REASON = -1;
 
     private final int mInstallReason;
+    private final LauncherPackageIndex mLauncherPackageIndex;
 
     public InstalledAppCounter(@NonNull Context context, int installReason,
             @NonNull PackageManager packageManager) {
-        this(context, installReason, packageManager, new FeatureFlagsImpl());
+        this(context, installReason, packageManager, new LauncherPackageIndex(packageManager));
+    }
+
+    /**
+     * Creates a counter checking the launcher activities in {@code launcherPackageIndex}, which
+     * can be shared with other counters.
+     */
+    public InstalledAppCounter(@NonNull Context context, int installReason,
+            @NonNull PackageManager packageManager,
+            @NonNull LauncherPackageIndex launcherPackageIndex) {
+        this(context, installReason, packageManager, new FeatureFlagsImpl(),
+                launcherPackageIndex);
     }
 
     @VisibleForTesting
     InstalledAppCounter(@NonNull Context context, int installReason,
             @NonNull PackageManager packageManager, @NonNull FeatureFlags featureFlags) {
+        this(context, installReason, packageManager, featureFlags,
+                new LauncherPackageIndex(packageManager));
+    }
+
+    @VisibleForTesting
+    InstalledAppCounter(@NonNull Context context, int installReason,
+            @NonNull PackageManager packageManager, @NonNull FeatureFlags featureFlags,
+            @NonNull LauncherPackageIndex launcherPackageIndex) {
         super(context, packageManager, featureFlags);
         mInstallReason = installReason;
+        mLauncherPackageIndex = launcherPackageIndex;
     }
 
     @Override
     protected boolean includeInCount(ApplicationInfo info) {
-        return includeInCount(mInstallReason, mPm, info);
+        return includeInCount(mInstallReason, mPm, info, mLauncherPackageIndex);
     }
 
     public static boolean includeInCount(int installReason, PackageManager pm,
             ApplicationInfo info) {
+        return includeInCount(installReason, pm, info, null /* launcherPackageIndex */);
+    }
+
+    /**
+     * Returns whether {@code info} is counted. System apps are only counted if they provide a
+     * launcher activity, looked up in {@code launcherPackageIndex} or queried for the package if
+     * it is null.
+     */
+    public static boolean includeInCount(int installReason, PackageManager pm,
+            ApplicationInfo info, @Nullable LauncherPackageIndex launcherPackageIndex) {
         final int userId = UserHandle.getUserId(info.uid);
         if (installReason != IGNORE_INSTALL_REASON
                 && pm.getInstallReason(info.packageName,
@@ -68,15 +100,14 @@ public abstract class InstalledAppCounter extends AppCounter {
         if ((info.flags & ApplicationInfo.FLAG_SYSTEM) == 0) {
             return true;
         }
+        if (launcherPackageIndex != null) {
+            return launcherPackageIndex.hasLauncherActivity(info.packageName, userId);
+        }
         Intent launchIntent = new Intent(Intent.ACTION_MAIN, null)
                 .addCategory(Intent.CATEGORY_LAUNCHER)
                 .setPackage(info.packageName);
         List<ResolveInfo> intents = pm.queryIntentActivitiesAsUser(
-                launchIntent,
-                PackageManager.GET_DISABLED_COMPONENTS
-                        | PackageManager.MATCH_DIRECT_BOOT_AWARE
-                        | PackageManager.MATCH_DIRECT_BOOT_UNAWARE,
-                userId);
+                launchIntent, LauncherPackageIndex.QUERY_FLAGS, userId);
         return intents != null && intents.size() != 0;
     }
 }
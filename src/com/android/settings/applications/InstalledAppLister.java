@@ -22,12 +22,21 @@ import android.os.UserManager;
 
 public abstract class InstalledAppLister extends AppLister {
 
+    private final LauncherPackageIndex mLauncherPackageIndex;
+
     public InstalledAppLister(PackageManager packageManager, UserManager userManager) {
+        this(packageManager, userManager, new LauncherPackageIndex(packageManager));
+    }
+
+    public InstalledAppLister(PackageManager packageManager, UserManager userManager,
+            LauncherPackageIndex launcherPackageIndex) {
         super(packageManager, userManager);
+        mLauncherPackageIndex = launcherPackageIndex;
     }
 
     @Override
     protected boolean includeInCount(ApplicationInfo info) {
-        return InstalledAppCounter.includeInCount(PackageManager.INSTALL_REASON_POLICY, mPm, info);
+        return InstalledAppCounter.includeInCount(PackageManager.INSTALL_REASON_POLICY, mPm, info,
+                mLauncherPackageIndex);
     }
 }
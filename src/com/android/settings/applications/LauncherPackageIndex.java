@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+import android.os.Process;
+import android.os.UserHandle;
+import android.util.ArraySet;
+import android.util.SparseArray;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Index of the packages providing a launcher activity, built for each user with a single query of
+ * the launcher activities instead of one query per package. Callers asking for a user while its
+ * query is in flight wait for that query instead of starting another one.
+ *
+ * <p>The index of a user is kept until it is invalidated, by {@link #invalidate} or by a package
+ * broadcast once {@link #registerPackageReceiver} was called.
+ */
+public class LauncherPackageIndex {
+
+    static final int QUERY_FLAGS = PackageManager.GET_DISABLED_COMPONENTS
+            | PackageManager.MATCH_DIRECT_BOOT_AWARE
+            | PackageManager.MATCH_DIRECT_BOOT_UNAWARE;
+
+    private final PackageManager mPm;
+    private final Object mLock = new Object();
+
+    @GuardedBy("mLock")
+    private final SparseArray<Set<String>> mLauncherPackages = new SparseArray<>();
+
+    // Queries in flight by user, shared with the callers asking for the same user meanwhile.
+    @GuardedBy("mLock")
+    private final SparseArray<CompletableFuture<Set<String>>> mPendingQueries =
+            new SparseArray<>();
+
+    // Incremented by each invalidation, so that an index queried before it is not kept.
+    @GuardedBy("mLock")
+    private int mGeneration;
+
+    @VisibleForTesting
+    final BroadcastReceiver mPackageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final int uid = intent.getIntExtra(Intent.EXTRA_UID, Process.INVALID_UID);
+            if (uid == Process.INVALID_UID) {
+                invalidateAll();
+            } else {
+                invalidate(UserHandle.getUserId(uid));
+            }
+        }
+    };
+
+    public LauncherPackageIndex(@NonNull PackageManager packageManager) {
+        mPm = packageManager;
+    }
+
+    /** Invalidates the index on the package broadcasts of any user. */
+    public void registerPackageReceiver(@NonNull Context context) {
+        final IntentFilter packageFilter = new IntentFilter();
+        packageFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        packageFilter.addDataScheme("package");
+        context.registerReceiverAsUser(mPackageReceiver, UserHandle.ALL, packageFilter,
+                null /* broadcastPermission */, null /* scheduler */);
+    }
+
+    /** Returns whether {@code packageName} provides a launcher activity for {@code userId}. */
+    @WorkerThread
+    public boolean hasLauncherActivity(@NonNull String packageName, int userId) {
+        return getLauncherPackages(userId).contains(packageName);
+    }
+
+    /** Drops the index of {@code userId}. */
+    public void invalidate(int userId) {
+        synchronized (mLock) {
+            mGeneration++;
+            mLauncherPackages.remove(userId);
+            mPendingQueries.remove(userId);
+        }
+    }
+
+    /** Drops the index of all users. */
+    public void invalidateAll() {
+        synchronized (mLock) {
+            mGeneration++;
+            mLauncherPackages.clear();
+            mPendingQueries.clear();
+        }
+    }
+
+    private Set<String> getLauncherPackages(int userId) {
+        final CompletableFuture<Set<String>> pendingQuery;
+        final CompletableFuture<Set<String>> query;
+        final int generation;
+        synchronized (mLock) {
+            final Set<String> launcherPackages = mLauncherPackages.get(userId);
+            if (launcherPackages != null) {
+                return launcherPackages;
+            }
+            pendingQuery = mPendingQueries.get(userId);
+            if (pendingQuery == null) {
+                query = new CompletableFuture<>();
+                mPendingQueries.put(userId, query);
+            } else {
+                query = null;
+            }
+            generation = mGeneration;
+        }
+        if (pendingQuery != null) {
+            return pendingQuery.join();
+        }
+        // Queried outside of the lock, so that the broadcasts are not blocked by the query.
+        final Set<String> launcherPackages;
+        try {
+            launcherPackages = queryLauncherPackages(userId);
+        } catch (RuntimeException e) {
+            synchronized (mLock) {
+                if (mPendingQueries.get(userId) == query) {
+                    mPendingQueries.remove(userId);
+                }
+            }
+            query.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (mLock) {
+            if (mPendingQueries.get(userId) == query) {
+                mPendingQueries.remove(userId);
+            }
+            if (generation == mGeneration) {
+                mLauncherPackages.put(userId, launcherPackages);
+            }
+        }
+        query.complete(launcherPackages);
+        return launcherPackages;
+    }
+
+    private Set<String> queryLauncherPackages(int userId) {
+        final Intent launchIntent = new Intent(Intent.ACTION_MAIN, null)
+                .addCategory(Intent.CATEGORY_LAUNCHER);
+        final List<ResolveInfo> intents =
+                mPm.queryIntentActivitiesAsUser(launchIntent, QUERY_FLAGS, userId);
+        final Set<String> launcherPackages = new ArraySet<>();
+        if (intents != null) {
+            for (ResolveInfo resolveInfo : intents) {
+                if (resolveInfo.activityInfo != null) {
+                    launcherPackages.add(resolveInfo.activityInfo.packageName);
+                }
+            }
+        }
+        return launcherPackages;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import android.os.SystemClock;
+import android.util.LongSparseArray;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.android.internal.app.procstats.ProcessStats;
+
+/**
+ * Process-wide cache of parsed {@link ProcessStats}, keyed by the requested duration.
+ *
+ * <p>Parsing the stats parcel is the expensive part of {@link ProcStatsData#refreshStats}, so
+ * entries are kept for a short time and shared between the memory screens. A parsed window can
+ * also serve a different duration when it is provably identical to what the service would return
+ * for that duration, see {@link #canServe(long, long, long)}.
+ */
+public class ProcStatsCache {
+
+    /** How long a parsed {@link ProcessStats} may be reused. */
+    @VisibleForTesting
+    static final long CACHE_TTL_MS = 30 * 1000L;
+
+    private static final ProcStatsCache sInstance = new ProcStatsCache();
+
+    private final LongSparseArray<Entry> mEntries = new LongSparseArray<>();
+
+    /** Returns the process-wide instance. */
+    public static ProcStatsCache getInstance() {
+        return sInstance;
+    }
+
+    /** Returns a fresh cached {@link ProcessStats} that covers {@code duration}, or null. */
+    public synchronized ProcessStats get(long duration) {
+        final long now = elapsedRealtime();
+        for (int i = mEntries.size() - 1; i >= 0; i--) {
+            final Entry entry = mEntries.valueAt(i);
+            if (now - entry.mLoadTime > CACHE_TTL_MS) {
+                mEntries.removeAt(i);
+            }
+        }
+        final Entry exact = mEntries.get(duration);
+        if (exact != null) {
+            return exact.mStats;
+        }
+        for (int i = 0; i < mEntries.size(); i++) {
+            final Entry entry = mEntries.valueAt(i);
+            if (canServe(mEntries.keyAt(i), entry.mSpan, duration)) {
+                return entry.mStats;
+            }
+        }
+        return null;
+    }
+
+    /** Stores a parsed {@link ProcessStats} that was fetched for {@code duration}. */
+    public synchronized void put(long duration, ProcessStats stats) {
+        if (stats == null || stats.mReadError != null) {
+            return;
+        }
+        mEntries.put(duration, new Entry(stats,
+                stats.mTimePeriodEndRealtime - stats.mTimePeriodStartRealtime,
+                elapsedRealtime()));
+    }
+
+    /** Drops every cached entry. */
+    public synchronized void clear() {
+        mEntries.clear();
+    }
+
+    /**
+     * Returns whether stats fetched for {@code loadedDuration}, which ended up spanning
+     * {@code span}, are the same stats the service would return for {@code requestedDuration}.
+     *
+     * <p>The service starts from the current stats and merges committed periods, newest first,
+     * until the total span reaches the requested duration. Process stats are aggregated over the
+     * whole span and cannot be sliced, so a window can only be reused when the merge would have
+     * stopped at the same period:
+     * <ul>
+     *     <li>the span is shorter than both durations, so all history was merged either way, or
+     *     <li>the request is longer than the loaded duration and the span already reaches it.
+     * </ul>
+     */
+    @VisibleForTesting
+    static boolean canServe(long loadedDuration, long span, long requestedDuration) {
+        if (loadedDuration == requestedDuration) {
+            return true;
+        }
+        if (span < Math.min(loadedDuration, requestedDuration)) {
+            return true;
+        }
+        return requestedDuration > loadedDuration && span >= requestedDuration;
+    }
+
+    @VisibleForTesting
+    long elapsedRealtime() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    private static final class Entry {
+        final ProcessStats mStats;
+        final long mSpan;
+        final long mLoadTime;
+
+        Entry(ProcessStats stats, long span, long loadTime) {
+            mStats = stats;
+            mSpan = span;
+            mLoadTime = loadTime;
+        }
+    }
+}
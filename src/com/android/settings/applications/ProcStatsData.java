@@ -56,16 +56,21 @@ public class ProcStatsData {
     private static final boolean DEBUG = ProcessStatsUi.DEBUG;
 
     private static ProcessStats sStatsXfer;
+    private static long sStatsXferDuration;
 
     private PackageManager mPm;
     private Context mContext;
     private long memTotalTime;
 
     private IProcessStats mProcessStats;
-    private ProcessStats mStats;
+    // Replaced by refreshStats() on a background thread and read by the UI.
+    private volatile ProcessStats mStats;
 
     private boolean mUseUss;
-    private long mDuration;
+    private volatile long mDuration;
+    // Duration mStats was loaded for, carried over with the stats transferred from another
+    // instance.
+    private long mStatsDuration;
 
     private int[] mMemStates;
 
@@ -84,11 +89,13 @@ public class ProcStatsData {
         mStates = ProcessStats.BACKGROUND_PROC_STATES;
         if (useXfer) {
             mStats = sStatsXfer;
+            mStatsDuration = sStatsXferDuration;
         }
     }
 
     public void xferStats() {
         sStatsXfer = mStats;
+        sStatsXferDuration = mStatsDuration;
     }
 
     public int getMemState() {
@@ -126,15 +133,17 @@ public class ProcStatsData {
     /**
      * Refreshes the stats.
      *
-     * <p>Note: This needs to be called manually to take effect.
+     * <p>Note: This needs to be called manually to take effect. Parsed stats are shared through
+     * {@link ProcStatsCache}, so {@code forceLoad} only skips the stats held by this instance.
      */
     @WorkerThread
     public void refreshStats(boolean forceLoad) {
-        if (mStats == null || forceLoad) {
-            load();
+        final long duration = mDuration;
+        if (mStats == null || forceLoad || (mStatsDuration != 0 && mStatsDuration != duration)) {
+            load(duration);
         }
 
-        pkgEntries = new ArrayList<>();
+        final ArrayList<ProcStatsPackageEntry> entries = new ArrayList<>();
 
         long now = SystemClock.uptimeMillis();
 
@@ -145,24 +154,29 @@ public class ProcStatsData {
                 ProcessStats.ALL_SCREEN_ADJ, mMemStates);
         mStats.computeTotalMemoryUse(totalMem, now);
 
-        mMemInfo = new MemInfo(mContext, totalMem, memTotalTime);
+        final MemInfo memInfo = new MemInfo(mContext, totalMem, memTotalTime);
 
         ProcessDataCollection bgTotals = new ProcessDataCollection(
                 ProcessStats.ALL_SCREEN_ADJ, mMemStates, mStates);
         ProcessDataCollection runTotals = new ProcessDataCollection(
                 ProcessStats.ALL_SCREEN_ADJ, mMemStates, ProcessStats.NON_CACHED_PROC_STATES);
 
-        createPkgMap(getProcs(bgTotals, runTotals), bgTotals, runTotals);
+        createPkgMap(entries, getProcs(bgTotals, runTotals), bgTotals, runTotals);
         if (totalMem.sysMemZRamWeight > 0 && !totalMem.hasSwappedOutPss) {
-            distributeZRam(totalMem.sysMemZRamWeight);
+            distributeZRam(entries, totalMem.sysMemZRamWeight);
         }
 
         ProcStatsPackageEntry osPkg = createOsEntry(bgTotals, runTotals, totalMem,
-                mMemInfo.baseCacheRam);
-        pkgEntries.add(osPkg);
+                memInfo.baseCacheRam);
+        entries.add(osPkg);
+
+        // Publish only fully built results, the UI may read them while a refresh is running.
+        mMemInfo = memInfo;
+        pkgEntries = entries;
     }
 
-    private void createPkgMap(ArrayList<ProcStatsEntry> procEntries, ProcessDataCollection bgTotals,
+    private void createPkgMap(ArrayList<ProcStatsPackageEntry> pkgEntries,
+            ArrayList<ProcStatsEntry> procEntries, ProcessDataCollection bgTotals,
             ProcessDataCollection runTotals) {
         // Combine processes into packages.
         ArrayMap<String, ProcStatsPackageEntry> pkgMap = new ArrayMap<>();
@@ -179,7 +193,7 @@ public class ProcStatsData {
         }
     }
 
-    private void distributeZRam(double zramWeight) {
+    private void distributeZRam(ArrayList<ProcStatsPackageEntry> pkgEntries, double zramWeight) {
         // Distribute kernel's Z-Ram across processes, based on how much they have been running.
         // The idea is that the memory used by the kernel for this is not really the kernel's
         // responsibility, but that of whoever got swapped in to it...  and we will take how
@@ -333,19 +347,30 @@ public class ProcStatsData {
         return procEntries;
     }
 
-    private void load() {
+    private void load(long duration) {
+        mStatsDuration = duration;
+        final ProcessStats cached = ProcStatsCache.getInstance().get(duration);
+        if (cached != null) {
+            if (DEBUG) Log.d(TAG, "Using cached process stats for duration " + duration);
+            mStats = cached;
+            return;
+        }
         try {
-            ParcelFileDescriptor pfd = mProcessStats.getStatsOverTime(mDuration);
-            mStats = new ProcessStats(false);
+            ParcelFileDescriptor pfd = mProcessStats.getStatsOverTime(duration);
+            final ProcessStats stats = new ProcessStats(false);
             InputStream is = new ParcelFileDescriptor.AutoCloseInputStream(pfd);
-            mStats.read(is);
+            stats.read(is);
             try {
                 is.close();
             } catch (IOException e) {
             }
-            if (mStats.mReadError != null) {
-                Log.w(TAG, "Failure reading process stats: " + mStats.mReadError);
+            if (stats.mReadError != null) {
+                Log.w(TAG, "Failure reading process stats: " + stats.mReadError);
+            } else {
+                ProcStatsCache.getInstance().put(duration, stats);
             }
+            // Publish only once fully read.
+            mStats = stats;
         } catch (RemoteException e) {
             Log.e(TAG, "RemoteException:", e);
         }
@@ -30,6 +30,7 @@ import com.android.settings.SettingsPreferenceFragment;
 import com.android.settings.applications.ProcStatsData.MemInfo;
 import com.android.settings.core.SubSettingLauncher;
 import com.android.settingslib.core.instrumentation.Instrumentable;
+import com.android.settingslib.utils.ThreadUtils;
 import com.android.settingslib.widget.SettingsSpinnerAdapter;
 
 public abstract class ProcessStatsBase extends SettingsPreferenceFragment
@@ -62,6 +63,10 @@ public abstract class ProcessStatsBase extends SettingsPreferenceFragment
 
     protected ProcStatsData mStatsManager;
     protected int mDurationIndex;
+    // Incremented on every refresh request so that stale background results are dropped.
+    private int mRefreshGeneration;
+    // Set once the first background load completed, mStatsManager has no MemInfo before it.
+    private boolean mStatsLoaded;
 
     @Override
     public void onCreate(Bundle icicle) {
@@ -75,7 +80,7 @@ public abstract class ProcessStatsBase extends SettingsPreferenceFragment
                 ? icicle.getInt(ARG_DURATION_INDEX)
                 : args != null ? args.getInt(ARG_DURATION_INDEX) : 0;
         mStatsManager.setDuration(icicle != null
-                ? icicle.getLong(DURATION, sDurations[0]) : sDurations[0]);
+                ? icicle.getLong(DURATION, sDurations[0]) : sDurations[mDurationIndex]);
     }
 
     @Override
@@ -88,8 +93,7 @@ public abstract class ProcessStatsBase extends SettingsPreferenceFragment
     @Override
     public void onResume() {
         super.onResume();
-        mStatsManager.refreshStats(false);
-        refreshUi();
+        refreshStatsInBackground();
     }
 
     @Override
@@ -118,8 +122,12 @@ public abstract class ProcessStatsBase extends SettingsPreferenceFragment
     @Override
     public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
         mDurationIndex = position;
+        if (mStatsManager.getDuration() == sDurations[position]) {
+            // The initial selection, already refreshed by onResume().
+            return;
+        }
         mStatsManager.setDuration(sDurations[position]);
-        refreshUi();
+        refreshStatsInBackground();
     }
 
     @Override
@@ -130,6 +138,35 @@ public abstract class ProcessStatsBase extends SettingsPreferenceFragment
 
     public abstract void refreshUi();
 
+    /**
+     * Returns whether the stats were loaded at least once, so that {@link ProcStatsData#getMemInfo}
+     * and {@link ProcStatsData#getEntries} are not {@code null}.
+     */
+    protected boolean isStatsLoaded() {
+        return mStatsLoaded;
+    }
+
+    /**
+     * Fetches and aggregates the stats for the current duration off the main thread, then calls
+     * {@link #refreshUi()} once the entries are ready.
+     */
+    private void refreshStatsInBackground() {
+        final int generation = ++mRefreshGeneration;
+        final ProcStatsData statsManager = mStatsManager;
+        ThreadUtils.postOnBackgroundThread(() -> {
+            synchronized (statsManager) {
+                statsManager.refreshStats(false);
+            }
+            ThreadUtils.postOnMainThread(() -> {
+                mStatsLoaded = true;
+                if (generation != mRefreshGeneration || !isAdded()) {
+                    return;
+                }
+                refreshUi();
+            });
+        });
+    }
+
     public static void launchMemoryDetail(SettingsActivity activity, MemInfo memInfo,
             ProcStatsPackageEntry entry, boolean includeAppInfo) {
         Bundle args = new Bundle();
@@ -111,6 +111,9 @@ public class ProcessStatsSummary extends ProcessStatsBase implements OnPreferenc
             return;
         }
 
+        if (!isStatsLoaded()) {
+            return;
+        }
         MemInfo memInfo = mStatsManager.getMemInfo();
 
         double usedRam = memInfo.realUsedRam;
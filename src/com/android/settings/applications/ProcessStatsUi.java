@@ -111,6 +111,9 @@ public class ProcessStatsUi extends ProcessStatsBase {
         if (!(preference instanceof ProcessStatsPreference)) {
             return false;
         }
+        if (!isStatsLoaded()) {
+            return false;
+        }
         ProcessStatsPreference pgp = (ProcessStatsPreference) preference;
         MemInfo memInfo = mStatsManager.getMemInfo();
         launchMemoryDetail((SettingsActivity) getActivity(), memInfo, pgp.getEntry(), true);
@@ -145,6 +148,10 @@ public class ProcessStatsUi extends ProcessStatsBase {
 
     @Override
     public void refreshUi() {
+        // Called again once the first background load completed.
+        if (!isStatsLoaded()) {
+            return;
+        }
         mAppListGroup.removeAll();
         mAppListGroup.setOrderingAsAdded(false);
         mAppListGroup.setTitle(mShowMax ? R.string.maximum_memory_use
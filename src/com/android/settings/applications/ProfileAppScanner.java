@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import android.content.pm.ApplicationInfo;
+import android.content.pm.UserInfo;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Scans the installed apps of several profiles concurrently on a shared executor.
+ *
+ * <p>The installed apps of each profile are loaded in parallel, then the predicate is evaluated
+ * over chunks of {@link #CHUNK_SIZE} apps. The predicate is called from several threads at once.
+ * The result keeps the order of the profiles and, within a profile, the order of its apps, so it
+ * does not depend on the scheduling.
+ */
+final class ProfileAppScanner {
+    private static final String TAG = "ProfileAppScanner";
+
+    @VisibleForTesting static final int CHUNK_SIZE = 128;
+    private static final int POOL_SIZE =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+
+    private static ProfileAppScanner sInstance;
+
+    private final Executor mExecutor;
+
+    /** Returns the process-wide instance, shared by all the app counters and listers. */
+    static synchronized ProfileAppScanner getInstance() {
+        if (sInstance == null) {
+            final ThreadPoolExecutor executor =
+                    new ThreadPoolExecutor(
+                            POOL_SIZE,
+                            POOL_SIZE,
+                            KEEP_ALIVE_SECONDS,
+                            TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>());
+            executor.allowCoreThreadTimeOut(true);
+            sInstance = new ProfileAppScanner(executor);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    ProfileAppScanner(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Returns the apps of each of the {@code profiles} matching the {@code predicate}, in the
+     * order of the {@code profiles}, or {@code null} once {@code isCancelled} returns true or the
+     * calling thread is interrupted.
+     *
+     * @param appLoader loads the installed apps of a profile
+     */
+    @WorkerThread
+    @Nullable
+    List<List<ApplicationInfo>> scan(
+            List<UserInfo> profiles,
+            Function<UserInfo, List<ApplicationInfo>> appLoader,
+            Predicate<ApplicationInfo> predicate,
+            BooleanSupplier isCancelled) {
+        final List<CompletableFuture<List<ApplicationInfo>>> futures =
+                new ArrayList<>(profiles.size());
+        for (UserInfo profile : profiles) {
+            futures.add(
+                    CompletableFuture.supplyAsync(() -> appLoader.apply(profile), mExecutor)
+                            .thenCompose(apps -> filterInChunks(apps, predicate, isCancelled)));
+        }
+
+        final List<List<ApplicationInfo>> result = new ArrayList<>(profiles.size());
+        try {
+            for (CompletableFuture<List<ApplicationInfo>> future : futures) {
+                result.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Log.d(TAG, "scan interrupted");
+            cancelAll(futures);
+            return null;
+        } catch (CancellationException e) {
+            Log.d(TAG, "scan cancelled");
+            cancelAll(futures);
+            return null;
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            if (e.getCause() instanceof CancellationException) {
+                Log.d(TAG, "scan cancelled");
+                return null;
+            }
+            // Keeps the behavior of the serial scan, which failed the task with the error.
+            throw new IllegalStateException("scan failed", e.getCause());
+        }
+        return isCancelled.getAsBoolean() ? null : result;
+    }
+
+    /** Returns the number of apps of all the {@code profiles} matching the {@code predicate}. */
+    @WorkerThread
+    @Nullable
+    Integer count(
+            List<UserInfo> profiles,
+            Function<UserInfo, List<ApplicationInfo>> appLoader,
+            Predicate<ApplicationInfo> predicate,
+            BooleanSupplier isCancelled) {
+        final List<List<ApplicationInfo>> apps = scan(profiles, appLoader, predicate, isCancelled);
+        if (apps == null) {
+            return null;
+        }
+        int count = 0;
+        for (List<ApplicationInfo> profileApps : apps) {
+            count += profileApps.size();
+        }
+        return count;
+    }
+
+    private CompletableFuture<List<ApplicationInfo>> filterInChunks(
+            List<ApplicationInfo> apps,
+            Predicate<ApplicationInfo> predicate,
+            BooleanSupplier isCancelled) {
+        final int size = apps.size();
+        final List<CompletableFuture<List<ApplicationInfo>>> chunks = new ArrayList<>();
+        for (int start = 0; start < size; start += CHUNK_SIZE) {
+            final List<ApplicationInfo> chunk =
+                    apps.subList(start, Math.min(size, start + CHUNK_SIZE));
+            chunks.add(
+                    CompletableFuture.supplyAsync(
+                            () -> filter(chunk, predicate, isCancelled), mExecutor));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0]))
+                .thenApply(
+                        unused -> {
+                            final List<ApplicationInfo> matching = new ArrayList<>();
+                            for (CompletableFuture<List<ApplicationInfo>> chunk : chunks) {
+                                matching.addAll(chunk.join());
+                            }
+                            return matching;
+                        });
+    }
+
+    private static List<ApplicationInfo> filter(
+            List<ApplicationInfo> chunk,
+            Predicate<ApplicationInfo> predicate,
+            BooleanSupplier isCancelled) {
+        if (isCancelled.getAsBoolean()) {
+            throw new CancellationException();
+        }
+        final List<ApplicationInfo> matching = new ArrayList<>();
+        for (ApplicationInfo info : chunk) {
+            if (predicate.test(info)) {
+                matching.add(info);
+            }
+        }
+        return matching;
+    }
+
+    private static void cancelAll(List<CompletableFuture<List<ApplicationInfo>>> futures) {
+        for (CompletableFuture<List<ApplicationInfo>> future : futures) {
+            future.cancel(/* mayInterruptIfRunning= */ true);
+        }
+    }
+}
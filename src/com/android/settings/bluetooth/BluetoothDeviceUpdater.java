@@ -55,6 +55,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
     protected final MetricsFeatureProvider mMetricsFeatureProvider;
     protected final DevicePreferenceCallback mDevicePreferenceCallback;
     protected final Map<BluetoothDevice, Preference> mPreferenceMap;
+    private final CachedBluetoothDeviceIndex mCachedDeviceIndex;
     protected Context mContext;
     protected Context mPrefContext;
     @VisibleForTesting
@@ -85,6 +86,8 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         mLocalManager = localManager;
         mMetricsCategory = metricsCategory;
         mMetricsFeatureProvider = FeatureFactory.getFeatureFactory().getMetricsFeatureProvider();
+        mCachedDeviceIndex = new CachedBluetoothDeviceIndex(
+                () -> mLocalManager == null ? null : mLocalManager.getCachedDeviceManager());
     }
 
     /**
@@ -98,6 +101,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         mLocalManager.setForegroundActivity(mContext);
         mLocalManager.getEventManager().registerCallback(this);
         mLocalManager.getProfileManager().addServiceListener(this);
+        mCachedDeviceIndex.setTracking(true);
         forceUpdate();
     }
 
@@ -112,6 +116,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         mLocalManager.setForegroundActivity(null);
         mLocalManager.getEventManager().unregisterCallback(this);
         mLocalManager.getProfileManager().removeServiceListener(this);
+        mCachedDeviceIndex.setTracking(false);
     }
 
     /**
@@ -123,8 +128,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
             return;
         }
         if (BluetoothAdapter.getDefaultAdapter().isEnabled()) {
-            final Collection<CachedBluetoothDevice> cachedDevices =
-                    mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
+            final Collection<CachedBluetoothDevice> cachedDevices = mCachedDeviceIndex.refresh();
             for (CachedBluetoothDevice cachedBluetoothDevice : cachedDevices) {
                 update(cachedBluetoothDevice);
             }
@@ -139,8 +143,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
                     "removeAllDevicesFromPreference() BT is not supported on this device");
             return;
         }
-        final Collection<CachedBluetoothDevice> cachedDevices =
-                mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
+        final Collection<CachedBluetoothDevice> cachedDevices = mCachedDeviceIndex.refresh();
         for (CachedBluetoothDevice cachedBluetoothDevice : cachedDevices) {
             removePreference(cachedBluetoothDevice);
         }
@@ -148,6 +151,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
 
     @Override
     public void onBluetoothStateChanged(int bluetoothState) {
+        mCachedDeviceIndex.invalidate();
         if (BluetoothAdapter.STATE_ON == bluetoothState) {
             forceUpdate();
         } else if (BluetoothAdapter.STATE_OFF == bluetoothState) {
@@ -157,6 +161,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
 
     @Override
     public void onDeviceAdded(CachedBluetoothDevice cachedDevice) {
+        mCachedDeviceIndex.add(cachedDevice);
         update(cachedDevice);
     }
 
@@ -165,11 +170,14 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         // Used to combine the hearing aid entries just after pairing. Once both the hearing aids
         // get connected and their hiSyncId gets populated, this gets called for one of the
         // 2 hearing aids so that only one entry in the connected devices list will be seen.
+        mCachedDeviceIndex.remove(cachedDevice);
         removePreference(cachedDevice);
     }
 
     @Override
     public void onDeviceBondStateChanged(CachedBluetoothDevice cachedDevice, int bondState) {
+        // Unbonded devices may be cleared from the cache.
+        mCachedDeviceIndex.update(cachedDevice);
         update(cachedDevice);
     }
 
@@ -203,6 +211,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
     @Override
     public void onServiceConnected() {
         // When bluetooth service connected update the UI
+        mCachedDeviceIndex.invalidate();
         forceUpdate();
     }
 
@@ -357,18 +366,11 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
     }
 
     protected boolean isDeviceInCachedDevicesList(CachedBluetoothDevice cachedDevice) {
-        return mLocalManager.getCachedDeviceManager().getCachedDevicesCopy().contains(cachedDevice);
+        return mCachedDeviceIndex.contains(cachedDevice);
     }
 
     private boolean isDeviceOfMapInCachedDevicesList(BluetoothDevice inputBluetoothDevice) {
-        Collection<CachedBluetoothDevice> cachedDevices =
-                mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
-        if (cachedDevices == null || cachedDevices.isEmpty()) {
-            return false;
-        }
-        return cachedDevices.stream()
-                .anyMatch(cachedBluetoothDevice -> cachedBluetoothDevice.getDevice() != null
-                        && cachedBluetoothDevice.getDevice().equals(inputBluetoothDevice));
+        return mCachedDeviceIndex.get(inputBluetoothDevice) != null;
     }
 
     protected String getLogTag() {
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.bluetooth;
+
+import android.bluetooth.BluetoothDevice;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.settingslib.bluetooth.CachedBluetoothDevice;
+import com.android.settingslib.bluetooth.CachedBluetoothDeviceManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Copy-on-write view of the cached bluetooth devices, indexed by {@link BluetoothDevice} (which
+ * compares by address).
+ *
+ * <p>{@link CachedBluetoothDeviceManager#getCachedDevicesCopy()} copies the whole collection on
+ * every call. Connection state callbacks never change which devices are cached, so the copy is
+ * taken once and reused. Events about a single device are applied to the snapshot with
+ * {@link #add}, {@link #remove} and {@link #update}; {@link #invalidate()} is only needed for
+ * events that can change the whole collection. While the owner does not receive bluetooth
+ * callbacks, {@link #setTracking} should be off so that every lookup reads the current devices.
+ *
+ * <p>A connection can however change the {@link BluetoothDevice} of a cached device: the cached
+ * device of a set member or of a hearing aid swaps its device with the one of the connected
+ * member. So {@link #contains} compares the cached devices by identity, and {@link #get} checks
+ * the current device of the cached devices instead of trusting the device they were indexed by.
+ */
+class CachedBluetoothDeviceIndex {
+
+    private final Supplier<CachedBluetoothDeviceManager> mDeviceManagerSupplier;
+
+    @Nullable
+    private volatile Snapshot mSnapshot;
+    private volatile boolean mTracking;
+
+    CachedBluetoothDeviceIndex(Supplier<CachedBluetoothDeviceManager> deviceManagerSupplier) {
+        mDeviceManagerSupplier = deviceManagerSupplier;
+    }
+
+    /**
+     * Sets whether the owner is notified of device membership changes. The snapshot is only kept
+     * while tracking.
+     */
+    void setTracking(boolean tracking) {
+        mTracking = tracking;
+        mSnapshot = null;
+    }
+
+    /** Drops the current snapshot, the next lookup takes a new copy. */
+    void invalidate() {
+        mSnapshot = null;
+    }
+
+    /** Adds {@code cachedDevice} to the snapshot, if any, without copying the cached devices. */
+    void add(@NonNull CachedBluetoothDevice cachedDevice) {
+        final Snapshot snapshot = mSnapshot;
+        if (snapshot != null && !snapshot.mCachedDevices.contains(cachedDevice)) {
+            final List<CachedBluetoothDevice> cachedDevices =
+                    new ArrayList<>(snapshot.mCachedDevices.size() + 1);
+            cachedDevices.addAll(snapshot.mCachedDevices);
+            cachedDevices.add(cachedDevice);
+            mSnapshot = new Snapshot(cachedDevices);
+        }
+    }
+
+    /**
+     * Removes {@code cachedDevice} from the snapshot, if any, without copying the cached devices.
+     */
+    void remove(@NonNull CachedBluetoothDevice cachedDevice) {
+        final Snapshot snapshot = mSnapshot;
+        if (snapshot != null && snapshot.mCachedDevices.contains(cachedDevice)) {
+            final List<CachedBluetoothDevice> cachedDevices =
+                    new ArrayList<>(snapshot.mCachedDevices.size());
+            for (CachedBluetoothDevice device : snapshot.mCachedDevices) {
+                if (device != cachedDevice) {
+                    cachedDevices.add(device);
+                }
+            }
+            mSnapshot = new Snapshot(cachedDevices);
+        }
+    }
+
+    /**
+     * Adds or removes {@code cachedDevice} depending on whether the device manager still caches
+     * it, e.g. after a bond state change.
+     */
+    void update(@NonNull CachedBluetoothDevice cachedDevice) {
+        if (mSnapshot == null) {
+            return;
+        }
+        final CachedBluetoothDeviceManager deviceManager = mDeviceManagerSupplier.get();
+        final BluetoothDevice device = cachedDevice.getDevice();
+        if (deviceManager != null && device != null
+                && deviceManager.findDevice(device) == cachedDevice) {
+            add(cachedDevice);
+        } else {
+            remove(cachedDevice);
+        }
+    }
+
+    /**
+     * Takes a new copy of the cached devices, keeps it as the snapshot and returns it.
+     */
+    @NonNull
+    Collection<CachedBluetoothDevice> refresh() {
+        final Collection<CachedBluetoothDevice> cachedDevices = copyCachedDevices();
+        final Snapshot snapshot = new Snapshot(cachedDevices);
+        mSnapshot = mTracking ? snapshot : null;
+        return cachedDevices;
+    }
+
+    /** Returns the cached device that wraps {@code device}, or null. */
+    @Nullable
+    CachedBluetoothDevice get(@Nullable BluetoothDevice device) {
+        if (device == null) {
+            return null;
+        }
+        final Snapshot snapshot = getSnapshot();
+        final CachedBluetoothDevice indexed = snapshot.mByDevice.get(device);
+        if (indexed != null && device.equals(indexed.getDevice())) {
+            return indexed;
+        }
+        // The device may have been swapped since the snapshot was taken.
+        for (CachedBluetoothDevice cachedDevice : snapshot.mCachedDevices) {
+            if (device.equals(cachedDevice.getDevice())) {
+                return cachedDevice;
+            }
+        }
+        return null;
+    }
+
+    /** Returns whether {@code cachedDevice} is one of the cached devices. */
+    boolean contains(@Nullable CachedBluetoothDevice cachedDevice) {
+        return cachedDevice != null && getSnapshot().mCachedDevices.contains(cachedDevice);
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot snapshot = mSnapshot;
+        if (snapshot == null) {
+            snapshot = new Snapshot(copyCachedDevices());
+            if (mTracking) {
+                mSnapshot = snapshot;
+            }
+        }
+        return snapshot;
+    }
+
+    private Collection<CachedBluetoothDevice> copyCachedDevices() {
+        final CachedBluetoothDeviceManager deviceManager = mDeviceManagerSupplier.get();
+        final Collection<CachedBluetoothDevice> cachedDevices =
+                deviceManager == null ? null : deviceManager.getCachedDevicesCopy();
+        return cachedDevices == null ? Collections.emptyList() : cachedDevices;
+    }
+
+    private static class Snapshot {
+        final Map<BluetoothDevice, CachedBluetoothDevice> mByDevice;
+        final Set<CachedBluetoothDevice> mCachedDevices;
+
+        Snapshot(Collection<CachedBluetoothDevice> cachedDevices) {
+            if (cachedDevices.isEmpty()) {
+                mByDevice = Collections.emptyMap();
+                mCachedDevices = Collections.emptySet();
+                return;
+            }
+            final Map<BluetoothDevice, CachedBluetoothDevice> byDevice =
+                    new LinkedHashMap<>(cachedDevices.size() * 2);
+            final Set<CachedBluetoothDevice> identities =
+                    Collections.newSetFromMap(new IdentityHashMap<>(cachedDevices.size() * 2));
+            for (CachedBluetoothDevice cachedDevice : cachedDevices) {
+                identities.add(cachedDevice);
+                final BluetoothDevice device = cachedDevice.getDevice();
+                if (device != null) {
+                    byDevice.putIfAbsent(device, cachedDevice);
+                }
+            }
+            mByDevice = Collections.unmodifiableMap(byDevice);
+            mCachedDevices = Collections.unmodifiableSet(identities);
+        }
+    }
+}
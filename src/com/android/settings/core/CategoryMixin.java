@@ -24,8 +24,10 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
+import android.net.Uri;
 import android.os.AsyncTask;
-import android.text.TextUtils;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.ArraySet;
 import android.util.Log;
 
@@ -49,6 +51,10 @@ public class CategoryMixin implements LifecycleObserver {
 
     private static final String TAG = "CategoryMixin";
     private static final String DATA_SCHEME_PKG = "package";
+    // Package broadcasts often come in bursts, e.g. when an app is updated. The changes received
+    // within this delay are applied in a single update.
+    @VisibleForTesting
+    static final long PACKAGE_CHANGE_COALESCE_DELAY_MS = 200;
 
     // Serves as a temporary list of tiles to ignore until we heard back from the PM that they
     // are disabled.
@@ -57,6 +63,11 @@ public class CategoryMixin implements LifecycleObserver {
     private final Context mContext;
     private final PackageReceiver mPackageReceiver = new PackageReceiver();
     private final List<CategoryListener> mCategoryListeners = new ArrayList<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mPackageChangeRunnable =
+            () -> updateCategories(true /* onlyChanged */);
+    // Packages changed since the last update, whose tiles have to be rebuilt.
+    private final Set<String> mChangedPackages = new ArraySet<>();
     private int mCategoriesUpdateTaskCount;
     private boolean mFirstOnResume = true;
 
@@ -77,9 +88,15 @@ public class CategoryMixin implements LifecycleObserver {
         mContext.registerReceiver(mPackageReceiver, filter);
 
         if (mFirstOnResume) {
+            mFirstOnResume = false;
+            if (CategoryManager.get(mContext).isLoadedFromCache()) {
+                // The tiles shown come from the tile cache, only refresh the ones that changed.
+                Log.d(TAG, "Validate cached categories");
+                updateCategories(true /* onlyChanged */);
+                return;
+            }
             // Skip since all tiles have been refreshed in DashboardFragment.onCreatePreferences().
             Log.d(TAG, "Skip categories update");
-            mFirstOnResume = false;
             return;
         }
         updateCategories();
@@ -91,6 +108,7 @@ public class CategoryMixin implements LifecycleObserver {
     @OnLifecycleEvent(ON_PAUSE)
     public void onPause() {
         mContext.unregisterReceiver(mPackageReceiver);
+        mHandler.removeCallbacks(mPackageChangeRunnable);
     }
 
     /**
@@ -111,7 +129,7 @@ public class CategoryMixin implements LifecycleObserver {
      * Updates dashboard categories.
      */
     public void updateCategories() {
-        updateCategories(false /* fromBroadcast */);
+        updateCategories(false /* onlyChanged */);
     }
 
     void addToDenylist(ComponentName component) {
@@ -124,16 +142,35 @@ public class CategoryMixin implements LifecycleObserver {
 
     @VisibleForTesting
     void onCategoriesChanged(Set<String> categories) {
-        mCategoryListeners.forEach(listener -> listener.onCategoriesChanged(categories));
+        mCategoryListeners.forEach(listener -> {
+            final String categoryKey = listener.getCategoryKey();
+            if (categories != null && !categories.isEmpty() && categoryKey != null
+                    && !categories.contains(categoryKey)) {
+                // The category shown by this listener is unchanged.
+                return;
+            }
+            listener.onCategoriesChanged(categories);
+        });
     }
 
-    private void updateCategories(boolean fromBroadcast) {
+    @VisibleForTesting
+    void onPackageChanged(@Nullable String packageName) {
+        if (packageName != null) {
+            synchronized (mChangedPackages) {
+                mChangedPackages.add(packageName);
+            }
+        }
+        mHandler.removeCallbacks(mPackageChangeRunnable);
+        mHandler.postDelayed(mPackageChangeRunnable, PACKAGE_CHANGE_COALESCE_DELAY_MS);
+    }
+
+    private void updateCategories(boolean onlyChanged) {
         // Only allow at most 2 tasks existing at the same time since when the first one is
         // executing, there may be new data from the second update request.
         // Ignore the third update request because the second task is still waiting for the first
         // task to complete in a serial thread, which will get the latest data.
         if (mCategoriesUpdateTaskCount < 2) {
-            new CategoriesUpdateTask().execute(fromBroadcast);
+            new CategoriesUpdateTask().execute(onlyChanged);
         }
     }
 
@@ -154,12 +191,20 @@ public class CategoryMixin implements LifecycleObserver {
          *                   refreshing all.
          */
         void onCategoriesChanged(@Nullable Set<String> categories);
+
+        /**
+         * @return the key of the category shown by this listener, which is only notified when
+         *         that category changes, or null to be notified of all changes.
+         */
+        @Nullable
+        default String getCategoryKey() {
+            return null;
+        }
     }
 
     private class CategoriesUpdateTask extends AsyncTask<Boolean, Void, Set<String>> {
 
         private final CategoryManager mCategoryManager;
-        private Map<ComponentName, Tile> mPreviousTileMap;
 
         CategoriesUpdateTask() {
             mCategoriesUpdateTaskCount++;
@@ -168,10 +213,25 @@ public class CategoryMixin implements LifecycleObserver {
 
         @Override
         protected Set<String> doInBackground(Boolean... params) {
-            mPreviousTileMap = mCategoryManager.getTileByComponentMap();
-            mCategoryManager.reloadAllCategories(mContext);
+            final Map<String, List<Tile>> previousTiles = mCategoryManager.getTilesByCategoryMap();
+            // Takes the packages changed so far, the ones changing from now on are left to the
+            // next update.
+            final Set<String> changedPackages;
+            synchronized (mChangedPackages) {
+                changedPackages = new ArraySet<>(mChangedPackages);
+                mChangedPackages.clear();
+            }
+            mCategoryManager.reloadCategoriesForPackages(mContext, changedPackages);
             mCategoryManager.updateCategoryFromDenylist(sTileDenylist);
-            return getChangedCategories(params[0]);
+            if (!params[0]) {
+                // Refresh all categories, e.g. when coming back to Settings.
+                return null;
+            }
+            final Set<String> changedCategories = CategoryManager.getChangedCategories(mContext,
+                    previousTiles, mCategoryManager.getTilesByCategoryMap());
+            Log.i(TAG, "Changed packages: " + changedPackages
+                    + ", changed categories: " + changedCategories);
+            return changedCategories;
         }
 
         @Override
@@ -181,52 +241,13 @@ public class CategoryMixin implements LifecycleObserver {
             }
             mCategoriesUpdateTaskCount--;
         }
-
-        // Return the changed categories that have to be refreshed, or null to force refreshing all.
-        private Set<String> getChangedCategories(boolean fromBroadcast) {
-            if (!fromBroadcast) {
-                // Always refresh for non-broadcast case.
-                return null;
-            }
-
-            final Set<String> changedCategories = new ArraySet<>();
-            final Map<ComponentName, Tile> currentTileMap =
-                    mCategoryManager.getTileByComponentMap();
-            currentTileMap.forEach((component, currentTile) -> {
-                final Tile previousTile = mPreviousTileMap.get(component);
-                // Check if the tile is newly added.
-                if (previousTile == null) {
-                    Log.i(TAG, "Tile added: " + component.flattenToShortString());
-                    changedCategories.add(currentTile.getCategory());
-                    return;
-                }
-
-                // Check if the title or summary has changed.
-                if (!TextUtils.equals(currentTile.getTitle(mContext),
-                        previousTile.getTitle(mContext))
-                        || !TextUtils.equals(currentTile.getSummary(mContext),
-                        previousTile.getSummary(mContext))) {
-                    Log.i(TAG, "Tile changed: " + component.flattenToShortString());
-                    changedCategories.add(currentTile.getCategory());
-                }
-            });
-
-            // Check if any previous tile is removed.
-            final Set<ComponentName> removal = new ArraySet(mPreviousTileMap.keySet());
-            removal.removeAll(currentTileMap.keySet());
-            removal.forEach(component -> {
-                Log.i(TAG, "Tile removed: " + component.flattenToShortString());
-                changedCategories.add(mPreviousTileMap.get(component).getCategory());
-            });
-
-            return changedCategories;
-        }
     }
 
     private class PackageReceiver extends BroadcastReceiver {
         @Override
         public void onReceive(Context context, Intent intent) {
-            updateCategories(true /* fromBroadcast */);
+            final Uri data = intent.getData();
+            onPackageChanged(data != null ? data.getSchemeSpecificPart() : null);
         }
     }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.android.settingslib.core.AbstractPreferenceController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Cheap description of a {@link AbstractPreferenceController} that is only instantiated when it
+ * is needed, e.g. when its preference is about to be displayed or when search indexing asks for
+ * it.
+ *
+ * <p>The preference key must match {@link AbstractPreferenceController#getPreferenceKey()} of the
+ * created controller, it is used to find the descriptor before the controller exists.
+ */
+public final class PreferenceControllerDescriptor {
+
+    private static final String TAG = "PrefCtrlDescriptor";
+
+    private final String mPreferenceKey;
+    private final Class<? extends AbstractPreferenceController> mControllerClass;
+    private final Function<Context, ? extends AbstractPreferenceController> mFactory;
+
+    private PreferenceControllerDescriptor(String preferenceKey,
+            Class<? extends AbstractPreferenceController> controllerClass,
+            Function<Context, ? extends AbstractPreferenceController> factory) {
+        mPreferenceKey = Objects.requireNonNull(preferenceKey);
+        mControllerClass = Objects.requireNonNull(controllerClass);
+        mFactory = Objects.requireNonNull(factory);
+    }
+
+    /**
+     * Creates a descriptor for a controller of type {@code controllerClass} handling
+     * {@code preferenceKey}, created by {@code factory}.
+     */
+    @NonNull
+    public static <T extends AbstractPreferenceController> PreferenceControllerDescriptor of(
+            @NonNull String preferenceKey, @NonNull Class<T> controllerClass,
+            @NonNull Function<Context, T> factory) {
+        return new PreferenceControllerDescriptor(preferenceKey, controllerClass, factory);
+    }
+
+    /** Returns the key of the preference handled by the controller. */
+    @NonNull
+    public String getPreferenceKey() {
+        return mPreferenceKey;
+    }
+
+    /** Returns the class of the controller. */
+    @NonNull
+    public Class<? extends AbstractPreferenceController> getControllerClass() {
+        return mControllerClass;
+    }
+
+    /** Instantiates the controller. */
+    @NonNull
+    public AbstractPreferenceController createController(@NonNull Context context) {
+        final AbstractPreferenceController controller = mFactory.apply(context);
+        if (!mPreferenceKey.equals(controller.getPreferenceKey())) {
+            Log.w(TAG, "Descriptor key " + mPreferenceKey + " does not match controller key "
+                    + controller.getPreferenceKey() + " of " + mControllerClass.getSimpleName());
+        }
+        return controller;
+    }
+
+    /** Instantiates the controllers of all {@code descriptors}. */
+    @NonNull
+    public static List<AbstractPreferenceController> createControllers(@NonNull Context context,
+            @NonNull List<PreferenceControllerDescriptor> descriptors) {
+        final List<AbstractPreferenceController> controllers =
+                new ArrayList<>(descriptors.size());
+        for (PreferenceControllerDescriptor descriptor : descriptors) {
+            controllers.add(descriptor.createController(context));
+        }
+        return controllers;
+    }
+}
@@ -33,6 +33,7 @@ import com.android.settingslib.drawer.DashboardCategory;
 import com.android.settingslib.drawer.ProviderTile;
 import com.android.settingslib.drawer.Tile;
 import com.android.settingslib.drawer.TileUtils;
+import com.android.settingslib.utils.ThreadUtils;
 
 import com.google.android.setupcompat.util.WizardManagerHelper;
 
@@ -49,8 +50,10 @@ public class CategoryManager {
     private static final String TAG = "CategoryManager";
     private static final boolean DEBUG = false;
 
-    private static CategoryManager sInstance;
+    @VisibleForTesting
+    static CategoryManager sInstance;
     private final InterestingConfigChanges mInterestingConfigChanges;
+    private final TileCache mTileCache;
 
     // Tile cache (key: <packageName, activityName>, value: tile)
     private final Map<Pair<String, String>, Tile> mTileByComponentCache;
@@ -60,6 +63,9 @@ public class CategoryManager {
 
     private List<DashboardCategory> mCategories;
 
+    // Whether the categories were restored from the tile cache and not loaded yet.
+    private boolean mLoadedFromCache;
+
     public static CategoryManager get(Context context) {
         if (sInstance == null) {
             sInstance = new CategoryManager(context);
@@ -72,6 +78,7 @@ public class CategoryManager {
         mCategoryByKeyMap = new ArrayMap<>();
         mInterestingConfigChanges = new InterestingConfigChanges();
         mInterestingConfigChanges.applyNewConfig(context.getResources());
+        mTileCache = new TileCache(context);
     }
 
     public synchronized DashboardCategory getTilesByCategory(Context context, String categoryKey) {
@@ -88,6 +95,15 @@ public class CategoryManager {
         return mCategories;
     }
 
+    /**
+     * Returns whether the categories were restored from the tile cache written by a previous
+     * process, and have not been reloaded since. They may then miss recent package changes and
+     * should be reloaded in the background with {@link #reloadAllCategories}.
+     */
+    public synchronized boolean isLoadedFromCache() {
+        return mLoadedFromCache;
+    }
+
     public synchronized void reloadAllCategories(Context context) {
         final boolean forceClearCache = mInterestingConfigChanges.applyNewConfig(
                 context.getResources());
@@ -95,6 +111,20 @@ public class CategoryManager {
         tryInitCategories(context, forceClearCache);
     }
 
+    /**
+     * Reloads all categories, rebuilding only the tiles of the given packages. Tiles of the other
+     * packages are reused from the cache.
+     *
+     * @param packageNames the packages that changed since the last load.
+     */
+    public synchronized void reloadCategoriesForPackages(Context context,
+            Set<String> packageNames) {
+        if (!packageNames.isEmpty()) {
+            mTileByComponentCache.keySet().removeIf(key -> packageNames.contains(key.first));
+        }
+        reloadAllCategories(context);
+    }
+
     /**
      * Update category from deny list
      * @param tileDenylist
@@ -131,6 +161,53 @@ public class CategoryManager {
         return result;
     }
 
+    /** Return a snapshot of the tiles of each category, in display order */
+    public synchronized Map<String, List<Tile>> getTilesByCategoryMap() {
+        final Map<String, List<Tile>> result = new ArrayMap<>();
+        if (mCategories == null) {
+            Log.w(TAG, "Category is null, no tiles");
+            return result;
+        }
+        mCategories.forEach(category -> result.put(category.key, category.getTiles()));
+        return result;
+    }
+
+    /**
+     * Returns the keys of the categories whose tiles were added, removed, reordered, or had their
+     * title or summary changed between two snapshots from {@link #getTilesByCategoryMap()}.
+     */
+    public static Set<String> getChangedCategories(Context context,
+            Map<String, List<Tile>> previousTiles, Map<String, List<Tile>> currentTiles) {
+        final Set<String> changedCategories = new ArraySet<>();
+        final Set<String> categoryKeys = new ArraySet<>(previousTiles.keySet());
+        categoryKeys.addAll(currentTiles.keySet());
+        for (String categoryKey : categoryKeys) {
+            final List<Tile> previous = previousTiles.get(categoryKey);
+            final List<Tile> current = currentTiles.get(categoryKey);
+            if (previous == null || current == null) {
+                changedCategories.add(categoryKey);
+                continue;
+            }
+            if (previous.size() != current.size()) {
+                changedCategories.add(categoryKey);
+                continue;
+            }
+            for (int i = 0; i < current.size(); i++) {
+                if (!isSameTile(context, previous.get(i), current.get(i))) {
+                    changedCategories.add(categoryKey);
+                    break;
+                }
+            }
+        }
+        return changedCategories;
+    }
+
+    private static boolean isSameTile(Context context, Tile previous, Tile current) {
+        return TextUtils.equals(previous.getDescription(), current.getDescription())
+                && TextUtils.equals(previous.getTitle(context), current.getTitle(context))
+                && TextUtils.equals(previous.getSummary(context), current.getSummary(context));
+    }
+
     private void logTiles(Context context) {
         if (DEBUG) {
             getTileByComponentMap().forEach((component, tile) -> {
@@ -152,11 +229,19 @@ public class CategoryManager {
             return;
         }
         if (mCategories == null) {
-            final boolean firstLoading = mCategoryByKeyMap.isEmpty();
+            if (mCategoryByKeyMap.isEmpty() && !forceClearCache && restoreFromTileCache()) {
+                addHomepageMenuKeys(context);
+                return;
+            }
+            // Categories restored from the tile cache may miss homepage tiles.
+            final boolean firstLoading = mCategoryByKeyMap.isEmpty() || mLoadedFromCache;
+            mLoadedFromCache = false;
             if (forceClearCache) {
                 mTileByComponentCache.clear();
             }
             mCategoryByKeyMap.clear();
+            // Read before the scan, packages changing during the scan make the cache stale.
+            final int sequenceNumber = mTileCache.getSequenceNumber();
             mCategories = TileUtils.getCategories(context, mTileByComponentCache);
             for (DashboardCategory category : mCategories) {
                 mCategoryByKeyMap.put(category.key, category);
@@ -165,23 +250,58 @@ public class CategoryManager {
             mergeSecurityPrivacyKeys(context, mTileByComponentCache, mCategoryByKeyMap);
             sortCategories(context, mCategoryByKeyMap);
             filterDuplicateTiles(mCategoryByKeyMap);
+            if (!mTileCache.isUpToDate(sequenceNumber)) {
+                final List<DashboardCategory> categories = mCategories;
+                ThreadUtils.postOnBackgroundThread(
+                        () -> writeTileCache(categories, sequenceNumber));
+            }
             if (firstLoading) {
                 logTiles(context);
+                addHomepageMenuKeys(context);
+            }
+        }
+    }
 
-                final DashboardCategory homepageCategory = mCategoryByKeyMap.get(
-                        CategoryKey.CATEGORY_HOMEPAGE);
-                if (homepageCategory == null) {
-                    return;
-                }
-                for (Tile tile : homepageCategory.getTiles()) {
-                    final String key = tile.getKey(context);
-                    if (TextUtils.isEmpty(key)) {
-                        Log.w(TAG, "Key hint missing for homepage tile: " + tile.getTitle(context));
-                        continue;
-                    }
-                    HighlightableMenu.addMenuKey(key);
-                }
+    private synchronized void writeTileCache(List<DashboardCategory> categories,
+            int sequenceNumber) {
+        if (mCategories != categories) {
+            // Reloaded in the meantime, the new categories are written by that reload.
+            return;
+        }
+        mTileCache.write(sequenceNumber, mCategories, mCategoryByKeyMap);
+    }
+
+    private boolean restoreFromTileCache() {
+        final TileCache.Entry entry = mTileCache.read();
+        if (entry == null) {
+            return false;
+        }
+        mCategoryByKeyMap.putAll(entry.categoryByKeyMap);
+        mCategories = new ArrayList<>(entry.categoryKeys.size());
+        for (String key : entry.categoryKeys) {
+            final DashboardCategory category = mCategoryByKeyMap.get(key);
+            if (category != null) {
+                mCategories.add(category);
+            }
+        }
+        mLoadedFromCache = true;
+        Log.i(TAG, "Restored " + mCategories.size() + " categories from the tile cache");
+        return true;
+    }
+
+    private void addHomepageMenuKeys(Context context) {
+        final DashboardCategory homepageCategory = mCategoryByKeyMap.get(
+                CategoryKey.CATEGORY_HOMEPAGE);
+        if (homepageCategory == null) {
+            return;
+        }
+        for (Tile tile : homepageCategory.getTiles()) {
+            final String key = tile.getKey(context);
+            if (TextUtils.isEmpty(key)) {
+                Log.w(TAG, "Key hint missing for homepage tile: " + tile.getTitle(context));
+                continue;
             }
+            HighlightableMenu.addMenuKey(key);
         }
     }
 
@@ -24,6 +24,7 @@ import android.os.Bundle;
 import android.preference.PreferenceManager.OnActivityResultListener;
 import android.text.TextUtils;
 import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.util.Log;
 import android.view.View;
 
@@ -38,13 +39,16 @@ import androidx.preference.PreferenceCategory;
 import androidx.preference.PreferenceGroup;
 import androidx.preference.PreferenceManager;
 import androidx.preference.PreferenceScreen;
+import androidx.preference.PreferenceGroupAdapter;
 import androidx.preference.SwitchPreferenceCompat;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.android.settings.R;
 import com.android.settings.SettingsPreferenceFragment;
 import com.android.settings.core.BasePreferenceController;
 import com.android.settings.core.CategoryMixin.CategoryHandler;
 import com.android.settings.core.CategoryMixin.CategoryListener;
+import com.android.settings.core.PreferenceControllerDescriptor;
 import com.android.settings.core.PreferenceControllerListHelper;
 import com.android.settings.flags.Flags;
 import com.android.settings.overlay.FeatureFactory;
@@ -60,6 +64,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -76,6 +81,10 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
     public static final String CATEGORY = "category";
     private static final String TAG = "DashboardFragment";
     private static final long TIMEOUT_MILLIS = 50L;
+    // Number of visible rows whose lazy controllers are bound synchronously, enough to fill the
+    // first screen.
+    @VisibleForTesting
+    static final int INITIAL_LAZY_CONTROLLER_COUNT = 16;
 
     @VisibleForTesting
     final ArrayMap<String, List<DynamicDataObserver>> mDashboardTilePrefKeys = new ArrayMap<>();
@@ -83,12 +92,48 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
             new ArrayMap<>();
     private final List<DynamicDataObserver> mRegisteredObservers = new ArrayList<>();
     private final List<AbstractPreferenceController> mControllers = new ArrayList<>();
+    // Descriptors of lazy controllers that are not instantiated yet, by preference key.
+    private final Map<String, PreferenceControllerDescriptor> mLazyControllerDescriptors =
+            new LinkedHashMap<>();
+    private final List<AbstractPreferenceController> mLazyControllers = new ArrayList<>();
+    // Keys of the preferences made non-selectable until their lazy controller is bound.
+    private final Set<String> mUnboundLazyPreferenceKeys = new ArraySet<>();
     @VisibleForTesting
     UiBlockerController mBlockerController;
     private DashboardFeatureProvider mDashboardFeatureProvider;
     private DashboardTilePlaceholderPreferenceController mPlaceholderPreferenceController;
     private boolean mListeningToCategoryChange;
     private List<String> mSuppressInjectedTileKeys;
+    private PageStartupTracer.Session mStartupSession;
+
+    // Binds lazy controllers of preferences scrolled into view. Instantiation is posted since
+    // displayPreference() may change the preference hierarchy during layout.
+    private final RecyclerView.OnChildAttachStateChangeListener mLazyControllerAttachListener =
+            new RecyclerView.OnChildAttachStateChangeListener() {
+                @Override
+                public void onChildViewAttachedToWindow(@NonNull View view) {
+                    final RecyclerView listView = getListView();
+                    if (listView == null || mLazyControllerDescriptors.isEmpty()
+                            || !(listView.getAdapter() instanceof PreferenceGroupAdapter)) {
+                        return;
+                    }
+                    final int position = listView.getChildAdapterPosition(view);
+                    if (position == RecyclerView.NO_POSITION) {
+                        return;
+                    }
+                    final Preference preference =
+                            ((PreferenceGroupAdapter) listView.getAdapter()).getItem(position);
+                    if (preference != null
+                            && mLazyControllerDescriptors.containsKey(preference.getKey())) {
+                        final String key = preference.getKey();
+                        listView.post(() -> instantiateLazyPreferenceController(key));
+                    }
+                }
+
+                @Override
+                public void onChildViewDetachedFromWindow(@NonNull View view) {
+                }
+            };
 
     @Override
     public void onAttach(Context context) {
@@ -97,9 +142,24 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
                 R.array.config_suppress_injected_tile_keys));
         mDashboardFeatureProvider =
                 FeatureFactory.getFeatureFactory().getDashboardFeatureProvider();
+        final PageStartupTracer.Session startupSession = getStartupSession();
+        final long createControllersStartNs =
+                startupSession.beginPhase(PageStartupTracer.PHASE_CREATE_CONTROLLERS);
         // Load preference controllers from code
         final List<AbstractPreferenceController> controllersFromCode =
                 createPreferenceControllers(context);
+        // Register lazy controllers, they are instantiated when first needed.
+        final List<PreferenceControllerDescriptor> lazyControllers =
+                createLazyPreferenceControllers(context);
+        if (lazyControllers != null) {
+            for (PreferenceControllerDescriptor descriptor : lazyControllers) {
+                mLazyControllerDescriptors.put(descriptor.getPreferenceKey(), descriptor);
+            }
+            if (controllersFromCode != null) {
+                controllersFromCode.forEach(controller ->
+                        mLazyControllerDescriptors.remove(controller.getPreferenceKey()));
+            }
+        }
         // Load preference controllers from xml definition
         final List<BasePreferenceController> controllersFromXml = PreferenceControllerListHelper
                 .getPreferenceControllersFromXml(context, getPreferenceScreenResId());
@@ -107,6 +167,8 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         final List<BasePreferenceController> uniqueControllerFromXml =
                 PreferenceControllerListHelper.filterControllers(
                         controllersFromXml, controllersFromCode);
+        uniqueControllerFromXml.removeIf(controller ->
+                mLazyControllerDescriptors.containsKey(controller.getPreferenceKey()));
 
         // Add unique controllers to list.
         if (controllersFromCode != null) {
@@ -136,6 +198,8 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         for (AbstractPreferenceController controller : mControllers) {
             addPreferenceController(controller);
         }
+        startupSession.endPhase(PageStartupTracer.PHASE_CREATE_CONTROLLERS,
+                createControllersStartNs);
     }
 
     @VisibleForTesting
@@ -152,8 +216,13 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         });
 
         if (!keys.isEmpty()) {
+            final PageStartupTracer.Session startupSession = getStartupSession();
+            final long uiBlockerWaitStartNs =
+                    startupSession.beginAsyncPhase(PageStartupTracer.PHASE_UI_BLOCKER_WAIT);
             mBlockerController = new UiBlockerController(keys);
             mBlockerController.start(() -> {
+                startupSession.endAsyncPhase(PageStartupTracer.PHASE_UI_BLOCKER_WAIT,
+                        uiBlockerWaitStartNs);
                 updatePreferenceVisibility(mPreferenceControllers);
                 baseControllers.forEach(controller -> controller.setUiBlockerFinished(true));
             });
@@ -180,6 +249,9 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         for (AbstractPreferenceController controller : mControllers) {
             controller.onViewCreated(viewLifecycleOwner);
         }
+        if (!mLazyControllerDescriptors.isEmpty() && getListView() != null) {
+            getListView().addOnChildAttachStateChangeListener(mLazyControllerAttachListener);
+        }
     }
 
     @Override
@@ -245,6 +317,7 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
 
     @Override
     public boolean onPreferenceTreeClick(Preference preference) {
+        instantiateLazyPreferenceController(preference.getKey());
         final Collection<List<AbstractPreferenceController>> controllers =
                 mPreferenceControllers.values();
         for (List<AbstractPreferenceController> controllerList : controllers) {
@@ -300,6 +373,7 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
     }
 
     protected <T extends AbstractPreferenceController> T use(Class<T> clazz) {
+        instantiateLazyPreferenceControllers(clazz);
         List<AbstractPreferenceController> controllerList = mPreferenceControllers.get(clazz);
         if (controllerList != null) {
             if (controllerList.size() > 1) {
@@ -314,6 +388,7 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
 
     /** Returns all controllers of type T. */
     protected <T extends AbstractPreferenceController> List<T> useAll(Class<T> clazz) {
+        instantiateLazyPreferenceControllers(clazz);
         return (List<T>) mPreferenceControllers.getOrDefault(clazz, Collections.emptyList());
     }
 
@@ -327,6 +402,7 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
     /**
      * Returns the CategoryKey for loading {@link DashboardCategory} for this fragment.
      */
+    @Override
     @VisibleForTesting
     public String getCategoryKey() {
         return DashboardFragmentRegistry.PARENT_TO_CATEGORY_KEY_MAP.get(getClass().getName());
@@ -344,6 +420,153 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         return null;
     }
 
+    /**
+     * Get a list of {@link PreferenceControllerDescriptor} for controllers that should only be
+     * instantiated when their preference is about to be displayed, when it is clicked or when
+     * they are looked up through {@link #use(Class)}.
+     *
+     * <p>Until its controller is instantiated a preference is shown with its XML defaults, so
+     * only controllers whose preference is always available should be lazy.
+     *
+     * <p>Lazy controllers are not wired to the lifecycle by this fragment and must not be
+     * {@link BasePreferenceController.UiBlocker}s. Search indexing should instantiate them
+     * through {@link PreferenceControllerDescriptor#createControllers(Context, List)}.
+     */
+    protected List<PreferenceControllerDescriptor> createLazyPreferenceControllers(
+            Context context) {
+        return null;
+    }
+
+    /**
+     * Called when a lazy controller has been instantiated and displayed.
+     */
+    protected void onLazyPreferenceControllerCreated(AbstractPreferenceController controller) {
+    }
+
+    /**
+     * Returns the lazy controllers that have been instantiated so far.
+     */
+    protected List<AbstractPreferenceController> getLazyPreferenceControllers() {
+        return Collections.unmodifiableList(mLazyControllers);
+    }
+
+    /**
+     * Instantiates all the remaining lazy controllers and returns every lazy controller.
+     */
+    protected List<AbstractPreferenceController> instantiateLazyPreferenceControllers() {
+        for (String key : new ArrayList<>(mLazyControllerDescriptors.keySet())) {
+            instantiateLazyPreferenceController(key);
+        }
+        return getLazyPreferenceControllers();
+    }
+
+    private void instantiateLazyPreferenceControllers(Class<?> clazz) {
+        if (mLazyControllerDescriptors.isEmpty()) {
+            return;
+        }
+        final List<String> keys = new ArrayList<>();
+        mLazyControllerDescriptors.forEach((key, descriptor) -> {
+            if (descriptor.getControllerClass() == clazz) {
+                keys.add(key);
+            }
+        });
+        keys.forEach(this::instantiateLazyPreferenceController);
+    }
+
+    /**
+     * Instantiates the lazy controller of {@code key} if it is still pending and brings it to
+     * the state of the other controllers.
+     */
+    @VisibleForTesting
+    void instantiateLazyPreferenceController(@Nullable String key) {
+        final Context context = getContext();
+        if (key == null || context == null || mLazyControllerDescriptors.isEmpty()) {
+            return;
+        }
+        final PreferenceControllerDescriptor descriptor = mLazyControllerDescriptors.remove(key);
+        if (descriptor == null) {
+            return;
+        }
+        final AbstractPreferenceController controller = descriptor.createController(context);
+        if (controller instanceof BasePreferenceController) {
+            ((BasePreferenceController) controller).setMetricsCategory(getMetricsCategory());
+        }
+        mControllers.add(controller);
+        mLazyControllers.add(controller);
+        addPreferenceController(controller);
+
+        if (getView() != null) {
+            controller.onViewCreated(getViewLifecycleOwner());
+        }
+        final PreferenceScreen screen = getPreferenceScreen();
+        if (screen != null) {
+            if (mUnboundLazyPreferenceKeys.remove(key)) {
+                final Preference unboundPreference = screen.findPreference(key);
+                if (unboundPreference != null) {
+                    unboundPreference.setSelectable(true);
+                }
+            }
+            controller.displayPreference(screen);
+            final Preference preference = screen.findPreference(key);
+            if (preference != null) {
+                preference.getExtras().putInt(CATEGORY, getMetricsCategory());
+                if (isResumed() && controller.isAvailable()) {
+                    controller.updateState(preference);
+                }
+            }
+        }
+        onLazyPreferenceControllerCreated(controller);
+    }
+
+    /**
+     * Instantiates the lazy controllers of the first visible preferences on screen. The remaining
+     * ones are instantiated when their preference is scrolled into view, clicked or looked up, and
+     * their preferences are not selectable until then so that a tap is not lost on a preference
+     * without controller.
+     */
+    @VisibleForTesting
+    void instantiateInitialLazyPreferenceControllers(PreferenceScreen screen) {
+        mUnboundLazyPreferenceKeys.clear();
+        if (mLazyControllerDescriptors.isEmpty() || screen == null) {
+            return;
+        }
+        instantiateLeadingLazyPreferenceControllers(screen, INITIAL_LAZY_CONTROLLER_COUNT);
+        for (String key : mLazyControllerDescriptors.keySet()) {
+            final Preference preference = screen.findPreference(key);
+            if (preference != null && preference.isSelectable()) {
+                preference.setSelectable(false);
+                mUnboundLazyPreferenceKeys.add(key);
+            }
+        }
+    }
+
+    /**
+     * Instantiates the lazy controllers of the preferences of {@code group} in order until
+     * {@code remaining} visible preferences have been seen. Preferences hidden by their controller
+     * do not count. Returns the number of visible preferences still to be seen.
+     */
+    private int instantiateLeadingLazyPreferenceControllers(PreferenceGroup group,
+            int remaining) {
+        for (int i = 0; i < group.getPreferenceCount() && remaining > 0; i++) {
+            final Preference preference = group.getPreference(i);
+            instantiateLazyPreferenceController(preference.getKey());
+            if (i >= group.getPreferenceCount() || group.getPreference(i) != preference) {
+                // Removed by its controller, look at the preference that took its place.
+                i--;
+                continue;
+            }
+            if (!preference.isVisible()) {
+                continue;
+            }
+            remaining--;
+            if (preference instanceof PreferenceGroup) {
+                remaining = instantiateLeadingLazyPreferenceControllers(
+                        (PreferenceGroup) preference, remaining);
+            }
+        }
+        return remaining;
+    }
+
     /**
      * Returns true if this tile should be displayed
      */
@@ -364,10 +587,16 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         if (resId <= 0) {
             return;
         }
+        final PageStartupTracer.Session startupSession = getStartupSession();
+        final long inflateStartNs = startupSession.beginPhase(PageStartupTracer.PHASE_INFLATE);
         addPreferencesFromResource(resId);
+        startupSession.endPhase(PageStartupTracer.PHASE_INFLATE, inflateStartNs);
         final PreferenceScreen screen = getPreferenceScreen();
         screen.setOnExpandButtonClickListener(this);
+        final long displayStartNs =
+                startupSession.beginPhase(PageStartupTracer.PHASE_DISPLAY_PREFERENCE);
         displayResourceTilesToScreen(screen);
+        startupSession.endPhase(PageStartupTracer.PHASE_DISPLAY_PREFERENCE, displayStartNs);
     }
 
     /**
@@ -375,12 +604,32 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
      * on all {@link AbstractPreferenceController}s.
      */
     protected void displayResourceTilesToScreen(PreferenceScreen screen) {
+        final PageStartupTracer.Session startupSession = getStartupSession();
         mPreferenceControllers.values().stream().flatMap(Collection::stream).forEach(
-                controller -> controller.displayPreference(screen));
+                controller -> {
+                    final long startNs = startupSession.beginController(controller,
+                            PageStartupTracer.PHASE_DISPLAY_PREFERENCE);
+                    controller.displayPreference(screen);
+                    startupSession.endController(controller,
+                            PageStartupTracer.PHASE_DISPLAY_PREFERENCE, startNs);
+                });
+    }
+
+    /**
+     * Returns the startup tracing of this page instance, started when it is first needed.
+     */
+    @VisibleForTesting
+    PageStartupTracer.Session getStartupSession() {
+        if (mStartupSession == null) {
+            mStartupSession = PageStartupTracer.getInstance().startSession(getMetricsCategory(),
+                    getClass().getSimpleName());
+        }
+        return mStartupSession;
     }
 
     /**
-     * Get current PreferenceController(s)
+     * Get current PreferenceController(s). Lazy controllers are only included once they have
+     * been instantiated.
      */
     protected Collection<List<AbstractPreferenceController>> getPreferenceControllers() {
         return mPreferenceControllers.values();
@@ -391,6 +640,9 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
      */
     protected void updatePreferenceStates() {
         final PreferenceScreen screen = getPreferenceScreen();
+        final PageStartupTracer.Session startupSession = getStartupSession();
+        final long updateStateStartNs =
+                startupSession.beginPhase(PageStartupTracer.PHASE_UPDATE_STATE);
         Collection<List<AbstractPreferenceController>> controllerLists =
                 mPreferenceControllers.values();
         for (List<AbstractPreferenceController> controllerList : controllerLists) {
@@ -412,9 +664,19 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
                             key, controller.getClass().getSimpleName()));
                     continue;
                 }
+                final long startNs = startupSession.beginController(controller,
+                        PageStartupTracer.PHASE_UPDATE_STATE);
                 controller.updateState(preference);
+                startupSession.endController(controller, PageStartupTracer.PHASE_UPDATE_STATE,
+                        startNs);
             }
         }
+        startupSession.endPhase(PageStartupTracer.PHASE_UPDATE_STATE, updateStateStartNs);
+        // The startup ends with the first state update of the fully drawn page, the later resumes
+        // and refreshes are not part of it.
+        if (startupSession.isFullyDrawn()) {
+            startupSession.finish();
+        }
     }
 
     /**
@@ -431,14 +693,19 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
 
         // Add resource based tiles.
         displayResourceTiles();
+        instantiateInitialLazyPreferenceControllers(getPreferenceScreen());
 
+        final PageStartupTracer.Session startupSession = getStartupSession();
+        final long tilesStartNs = startupSession.beginPhase(PageStartupTracer.PHASE_TILES);
         refreshDashboardTiles(tag);
+        startupSession.endPhase(PageStartupTracer.PHASE_TILES, tilesStartNs);
 
         final Activity activity = getActivity();
         if (activity != null) {
             Log.d(tag, "All preferences added, reporting fully drawn");
             activity.reportFullyDrawn();
         }
+        startupSession.markFullyDrawn();
 
         updatePreferenceVisibility(mPreferenceControllers);
     }
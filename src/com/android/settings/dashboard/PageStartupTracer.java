@@ -0,0 +1,394 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.dashboard;
+
+import android.app.settings.SettingsEnums;
+import android.os.SystemClock;
+import android.os.SystemProperties;
+import android.os.Trace;
+import android.util.ArrayMap;
+import android.util.SparseArray;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settings.overlay.FeatureFactory;
+import com.android.settingslib.core.AbstractPreferenceController;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each phase of the startup of a {@link DashboardFragment} takes, per page and
+ * per preference controller, so that slow pages and the controllers making them slow can be
+ * found.
+ *
+ * <p>Each phase and each controller call is also a trace section, named after the page or the
+ * controller class and the phase. The aggregated timings are dumped by
+ * {@link com.android.settings.SettingsDumpService}, and each page phase is logged through the
+ * {@link com.android.settingslib.core.instrumentation.MetricsFeatureProvider} when the
+ * {@value #PROPERTY_LOG_METRICS} system property is set.
+ */
+public class PageStartupTracer {
+
+    /** Instantiation of the preference controllers, from code and from XML. */
+    public static final String PHASE_CREATE_CONTROLLERS = "createControllers";
+    /** Inflation of the preference screen XML. */
+    public static final String PHASE_INFLATE = "inflate";
+    /** {@link AbstractPreferenceController#displayPreference} of every controller. */
+    public static final String PHASE_DISPLAY_PREFERENCE = "displayPreference";
+    /** {@link AbstractPreferenceController#updateState} of every available controller. */
+    public static final String PHASE_UPDATE_STATE = "updateState";
+    /** Creation and binding of the injected tiles. */
+    public static final String PHASE_TILES = "tiles";
+    /** Wait for the {@link com.android.settings.core.BasePreferenceController.UiBlocker}s. */
+    public static final String PHASE_UI_BLOCKER_WAIT = "uiBlockerWait";
+    /** From the attachment of the page to all its preferences being added. */
+    public static final String PHASE_FULLY_DRAWN = "fullyDrawn";
+
+    @VisibleForTesting
+    static final String PROPERTY_LOG_METRICS = "debug.settings.log_page_startup";
+    @VisibleForTesting
+    static final String METRICS_KEY_PREFIX = "page_startup:";
+
+    private static final String KEY_PAGES = "pages";
+    private static final String KEY_WORST_CONTROLLERS = "worstControllers";
+    private static final int MAX_WORST_CONTROLLERS = 20;
+    // Upper bounds of the histogram buckets, the last bucket holds the longer durations.
+    private static final long[] BUCKET_UPPER_BOUNDS_MS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512};
+    // Trace section names are truncated past this length.
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    private static volatile PageStartupTracer sInstance;
+
+    private final Object mLock = new Object();
+    @GuardedBy("mLock")
+    private final SparseArray<PageStats> mPageStats = new SparseArray<>();
+    @GuardedBy("mLock")
+    private final Map<String, ControllerStats> mControllerStats = new ArrayMap<>();
+
+    /** Returns the process-wide tracer. */
+    @NonNull
+    public static PageStartupTracer getInstance() {
+        if (sInstance == null) {
+            synchronized (PageStartupTracer.class) {
+                if (sInstance == null) {
+                    sInstance = new PageStartupTracer();
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    PageStartupTracer() {
+    }
+
+    /** Starts tracing an instance of the page, from now on. */
+    @NonNull
+    public Session startSession(int pageId, @NonNull String pageName) {
+        return new Session(pageId, pageName, SystemProperties.getBoolean(
+                PROPERTY_LOG_METRICS, false /* def */));
+    }
+
+    /**
+     * Returns the phase timings of every page, and the controller calls that took the longest.
+     */
+    @NonNull
+    public JSONObject dumpStats() throws JSONException {
+        final JSONArray pages = new JSONArray();
+        final List<ControllerStats> controllers;
+        synchronized (mLock) {
+            for (int i = 0; i < mPageStats.size(); i++) {
+                pages.put(mPageStats.valueAt(i).toJson());
+            }
+            controllers = new ArrayList<>(mControllerStats.size());
+            for (ControllerStats stats : mControllerStats.values()) {
+                controllers.add(stats.copy());
+            }
+        }
+        controllers.sort((c1, c2) -> Long.compare(c2.mTotal.mMaxNs, c1.mTotal.mMaxNs));
+        final JSONArray worstControllers = new JSONArray();
+        for (int i = 0; i < Math.min(MAX_WORST_CONTROLLERS, controllers.size()); i++) {
+            worstControllers.put(controllers.get(i).toJson());
+        }
+        return new JSONObject()
+                .put(KEY_PAGES, pages)
+                .put(KEY_WORST_CONTROLLERS, worstControllers);
+    }
+
+    private void recordPhase(int pageId, String pageName, String phase, long durationNs) {
+        synchronized (mLock) {
+            PageStats stats = mPageStats.get(pageId);
+            if (stats == null) {
+                stats = new PageStats(pageId, pageName);
+                mPageStats.put(pageId, stats);
+            }
+            stats.mPhases.computeIfAbsent(phase, key -> new Histogram()).add(durationNs);
+        }
+    }
+
+    private void recordController(int pageId, String controllerName, String phase,
+            long durationNs) {
+        final String key = controllerName + "#" + phase;
+        synchronized (mLock) {
+            ControllerStats stats = mControllerStats.get(key);
+            if (stats == null) {
+                stats = new ControllerStats(controllerName, phase);
+                mControllerStats.put(key, stats);
+            }
+            if (durationNs > stats.mTotal.mMaxNs) {
+                stats.mMaxPageId = pageId;
+            }
+            stats.mTotal.add(durationNs);
+        }
+    }
+
+    private static String getSectionName(String name, String phase) {
+        final String sectionName = name + "#" + phase;
+        return sectionName.length() > MAX_SECTION_NAME_LENGTH
+                ? sectionName.substring(0, MAX_SECTION_NAME_LENGTH) : sectionName;
+    }
+
+    /**
+     * Traces the startup of an instance of a page. Phases must be begun and ended on the main
+     * thread, in a nested order.
+     */
+    public class Session {
+        private final int mPageId;
+        private final String mPageName;
+        private final boolean mLogMetrics;
+        private final long mStartNs;
+        private boolean mFullyDrawn;
+        private boolean mFinished;
+        // Whether the controller call in progress was given a trace section.
+        private boolean mControllerTraced;
+
+        private Session(int pageId, String pageName, boolean logMetrics) {
+            mPageId = pageId;
+            mPageName = pageName;
+            mLogMetrics = logMetrics;
+            mStartNs = SystemClock.elapsedRealtimeNanos();
+        }
+
+        /**
+         * Begins a phase of the page startup.
+         *
+         * @return the start time to pass to {@link #endPhase(String, long)}.
+         */
+        public long beginPhase(@NonNull String phase) {
+            if (Trace.isEnabled()) {
+                Trace.beginSection(getSectionName(mPageName, phase));
+            }
+            return SystemClock.elapsedRealtimeNanos();
+        }
+
+        /** Ends a phase begun by {@link #beginPhase(String)}. */
+        public void endPhase(@NonNull String phase, long startNs) {
+            Trace.endSection();
+            if (!mFinished) {
+                onPhaseEnded(phase, SystemClock.elapsedRealtimeNanos() - startNs);
+            }
+        }
+
+        /**
+         * Begins an asynchronous phase of the page startup, which may end in another message.
+         *
+         * @return the start time to pass to {@link #endAsyncPhase(String, long)}.
+         */
+        public long beginAsyncPhase(@NonNull String phase) {
+            if (Trace.isEnabled()) {
+                Trace.beginAsyncSection(getSectionName(mPageName, phase), mPageId);
+            }
+            return SystemClock.elapsedRealtimeNanos();
+        }
+
+        /** Ends a phase begun by {@link #beginAsyncPhase(String)}. */
+        public void endAsyncPhase(@NonNull String phase, long startNs) {
+            if (Trace.isEnabled()) {
+                Trace.endAsyncSection(getSectionName(mPageName, phase), mPageId);
+            }
+            onPhaseEnded(phase, SystemClock.elapsedRealtimeNanos() - startNs);
+        }
+
+        /**
+         * Begins a call to a controller, within a phase. Once the session is finished the call is
+         * neither traced nor recorded.
+         *
+         * @return the start time to pass to {@link #endController}.
+         */
+        public long beginController(@NonNull AbstractPreferenceController controller,
+                @NonNull String phase) {
+            if (mFinished) {
+                return 0L;
+            }
+            mControllerTraced = Trace.isEnabled();
+            if (mControllerTraced) {
+                Trace.beginSection(getSectionName(controller.getClass().getSimpleName(), phase));
+            }
+            return SystemClock.elapsedRealtimeNanos();
+        }
+
+        /** Ends a controller call begun by {@link #beginController}. */
+        public void endController(@NonNull AbstractPreferenceController controller,
+                @NonNull String phase, long startNs) {
+            if (mControllerTraced) {
+                mControllerTraced = false;
+                Trace.endSection();
+            }
+            if (mFinished || startNs == 0L) {
+                return;
+            }
+            recordController(mPageId, controller.getClass().getName(), phase,
+                    SystemClock.elapsedRealtimeNanos() - startNs);
+        }
+
+        /**
+         * Records the time from the start of the session to all the preferences being added, the
+         * first time it is called.
+         */
+        public void markFullyDrawn() {
+            if (mFullyDrawn || mFinished) {
+                return;
+            }
+            mFullyDrawn = true;
+            onPhaseEnded(PHASE_FULLY_DRAWN, SystemClock.elapsedRealtimeNanos() - mStartNs);
+        }
+
+        /** Returns whether {@link #markFullyDrawn()} was called. */
+        public boolean isFullyDrawn() {
+            return mFullyDrawn;
+        }
+
+        /**
+         * Ends the startup of the page. The phases and controller calls ending later are still
+         * traced but no longer recorded, except the asynchronous phases begun during the startup.
+         */
+        public void finish() {
+            mFinished = true;
+        }
+
+        private void onPhaseEnded(String phase, long durationNs) {
+            recordPhase(mPageId, mPageName, phase, durationNs);
+            if (mLogMetrics) {
+                // There is no dedicated action for page startup phases, so the phase is logged
+                // under the page category and named in the key.
+                FeatureFactory.getFeatureFactory().getMetricsFeatureProvider().action(
+                        mPageId, mPageId, SettingsEnums.PAGE_UNKNOWN,
+                        METRICS_KEY_PREFIX + phase,
+                        (int) TimeUnit.NANOSECONDS.toMillis(durationNs));
+            }
+        }
+    }
+
+    /** Count, total, max and duration histogram of a phase. */
+    private static class Histogram {
+        private final int[] mBuckets = new int[BUCKET_UPPER_BOUNDS_MS.length + 1];
+        private int mCount;
+        private long mTotalNs;
+        private long mMaxNs;
+
+        void add(long durationNs) {
+            final long durationMs = TimeUnit.NANOSECONDS.toMillis(durationNs);
+            int bucket = 0;
+            while (bucket < BUCKET_UPPER_BOUNDS_MS.length
+                    && durationMs >= BUCKET_UPPER_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            mBuckets[bucket]++;
+            mCount++;
+            mTotalNs += durationNs;
+            mMaxNs = Math.max(mMaxNs, durationNs);
+        }
+
+        Histogram copy() {
+            final Histogram copy = new Histogram();
+            System.arraycopy(mBuckets, 0, copy.mBuckets, 0, mBuckets.length);
+            copy.mCount = mCount;
+            copy.mTotalNs = mTotalNs;
+            copy.mMaxNs = mMaxNs;
+            return copy;
+        }
+
+        JSONObject toJson() throws JSONException {
+            final JSONArray buckets = new JSONArray();
+            for (int count : mBuckets) {
+                buckets.put(count);
+            }
+            return new JSONObject()
+                    .put("count", mCount)
+                    .put("totalMs", TimeUnit.NANOSECONDS.toMillis(mTotalNs))
+                    .put("maxMs", TimeUnit.NANOSECONDS.toMillis(mMaxNs))
+                    .put("histogramMs", buckets);
+        }
+    }
+
+    private static class PageStats {
+        private final int mPageId;
+        private final String mPageName;
+        private final Map<String, Histogram> mPhases = new ArrayMap<>();
+
+        PageStats(int pageId, String pageName) {
+            mPageId = pageId;
+            mPageName = pageName;
+        }
+
+        JSONObject toJson() throws JSONException {
+            final JSONObject phases = new JSONObject();
+            for (Map.Entry<String, Histogram> phase : mPhases.entrySet()) {
+                phases.put(phase.getKey(), phase.getValue().toJson());
+            }
+            return new JSONObject()
+                    .put("pageId", mPageId)
+                    .put("name", mPageName)
+                    .put("phases", phases);
+        }
+    }
+
+    private static class ControllerStats {
+        private final String mControllerName;
+        private final String mPhase;
+        private Histogram mTotal = new Histogram();
+        private int mMaxPageId;
+
+        ControllerStats(String controllerName, String phase) {
+            mControllerName = controllerName;
+            mPhase = phase;
+        }
+
+        ControllerStats copy() {
+            final ControllerStats copy = new ControllerStats(mControllerName, mPhase);
+            copy.mTotal = mTotal.copy();
+            copy.mMaxPageId = mMaxPageId;
+            return copy;
+        }
+
+        JSONObject toJson() throws JSONException {
+            return mTotal.toJson()
+                    .put("controller", mControllerName)
+                    .put("phase", mPhase)
+                    .put("maxPageId", mMaxPageId);
+        }
+    }
+}
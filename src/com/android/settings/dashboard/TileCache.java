@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.dashboard;
+
+import android.content.Context;
+import android.content.pm.ChangedPackages;
+import android.os.Build;
+import android.os.Parcel;
+import android.provider.Settings;
+import android.text.TextUtils;
+import android.util.ArrayMap;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.android.settingslib.drawer.DashboardCategory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-disk copy of the injected tiles loaded by {@link CategoryManager}, so that a cold started
+ * Settings can show them before the package manager is queried.
+ *
+ * <p>The cache is keyed by the build, the locales, the boot and the package manager sequence
+ * number, and is ignored once any of them changes. It is only a first guess: the categories
+ * restored from it are reloaded in the background, see {@link CategoryManager#isLoadedFromCache}.
+ */
+class TileCache {
+
+    private static final String TAG = "TileCache";
+    private static final String FILE_NAME = "dashboard_tiles.cache";
+    // Bumped when the format of the file changes.
+    private static final int VERSION = 1;
+
+    private final Context mContext;
+    private final Object mFileLock = new Object();
+    private AtomicFile mFile;
+    // Fingerprint and sequence number of the categories on disk, if known.
+    private String mWrittenFingerprint;
+    private int mWrittenSequenceNumber;
+
+    /** Categories restored from the cache. */
+    static class Entry {
+        /** Categories by key, including the ones added by the category key remapping. */
+        final Map<String, DashboardCategory> categoryByKeyMap;
+        /** Keys of the categories loaded from the package manager, in order. */
+        final List<String> categoryKeys;
+
+        Entry(Map<String, DashboardCategory> categoryByKeyMap, List<String> categoryKeys) {
+            this.categoryByKeyMap = categoryByKeyMap;
+            this.categoryKeys = categoryKeys;
+        }
+    }
+
+    TileCache(Context context) {
+        final Context appContext = context.getApplicationContext();
+        mContext = appContext != null ? appContext : context;
+    }
+
+    /**
+     * Returns the cached categories, or null if there are none or they may be stale.
+     */
+    @Nullable
+    Entry read() {
+        final byte[] data;
+        synchronized (mFileLock) {
+            final AtomicFile file = getFile();
+            if (!file.exists()) {
+                return null;
+            }
+            try {
+                data = file.readFully();
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot read tile cache", e);
+                return null;
+            }
+        }
+        final Parcel parcel = Parcel.obtain();
+        try {
+            parcel.unmarshall(data, 0, data.length);
+            parcel.setDataPosition(0);
+            final String fingerprint = getFingerprint();
+            if (parcel.readInt() != VERSION
+                    || !TextUtils.equals(parcel.readString(), fingerprint)) {
+                Log.i(TAG, "Tile cache is stale");
+                return null;
+            }
+            final int sequenceNumber = parcel.readInt();
+            if (!isUnchangedSince(sequenceNumber)) {
+                Log.i(TAG, "Tile cache is stale");
+                return null;
+            }
+            final int categoryCount = parcel.readInt();
+            final Map<String, DashboardCategory> categoryByKeyMap = new ArrayMap<>(categoryCount);
+            for (int i = 0; i < categoryCount; i++) {
+                final DashboardCategory category =
+                        DashboardCategory.CREATOR.createFromParcel(parcel);
+                categoryByKeyMap.put(category.key, category);
+            }
+            final List<String> categoryKeys = new ArrayList<>();
+            parcel.readStringList(categoryKeys);
+            synchronized (mFileLock) {
+                mWrittenFingerprint = fingerprint;
+                mWrittenSequenceNumber = sequenceNumber;
+            }
+            return new Entry(categoryByKeyMap, categoryKeys);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Cannot parse tile cache", e);
+            return null;
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    /**
+     * Returns the package manager sequence number, to be read before loading the categories that
+     * are written with {@link #write}.
+     */
+    int getSequenceNumber() {
+        final ChangedPackages changedPackages =
+                mContext.getPackageManager().getChangedPackages(0 /* sequenceNumber */);
+        return changedPackages != null ? changedPackages.getSequenceNumber() : 0;
+    }
+
+    /**
+     * Returns true if the cache already holds the categories loaded at {@code sequenceNumber},
+     * in which case they do not need to be written again.
+     */
+    boolean isUpToDate(int sequenceNumber) {
+        final String writtenFingerprint;
+        synchronized (mFileLock) {
+            if (mWrittenSequenceNumber != sequenceNumber) {
+                return false;
+            }
+            writtenFingerprint = mWrittenFingerprint;
+        }
+        return writtenFingerprint != null
+                && TextUtils.equals(writtenFingerprint, getFingerprint());
+    }
+
+    /**
+     * Replaces the cached categories with the ones loaded at {@code sequenceNumber}. Writes the
+     * file on the calling thread, which must not be the main thread.
+     */
+    void write(int sequenceNumber, List<DashboardCategory> categories,
+            Map<String, DashboardCategory> categoryByKeyMap) {
+        final String fingerprint = getFingerprint();
+        final byte[] data;
+        final Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeInt(VERSION);
+            parcel.writeString(fingerprint);
+            parcel.writeInt(sequenceNumber);
+            parcel.writeInt(categoryByKeyMap.size());
+            for (DashboardCategory category : categoryByKeyMap.values()) {
+                category.writeToParcel(parcel, 0 /* flags */);
+            }
+            final List<String> categoryKeys = new ArrayList<>(categories.size());
+            for (DashboardCategory category : categories) {
+                categoryKeys.add(category.key);
+            }
+            parcel.writeStringList(categoryKeys);
+            data = parcel.marshall();
+        } catch (RuntimeException e) {
+            // Tiles holding binders cannot be written to disk.
+            Log.w(TAG, "Cannot write tile cache", e);
+            return;
+        } finally {
+            parcel.recycle();
+        }
+        synchronized (mFileLock) {
+            final AtomicFile file = getFile();
+            FileOutputStream out = null;
+            try {
+                out = file.startWrite();
+                out.write(data);
+                file.finishWrite(out);
+                mWrittenFingerprint = fingerprint;
+                mWrittenSequenceNumber = sequenceNumber;
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot write tile cache", e);
+                file.failWrite(out);
+            }
+        }
+    }
+
+    /** Deletes the cached categories. */
+    void clear() {
+        synchronized (mFileLock) {
+            getFile().delete();
+            mWrittenFingerprint = null;
+        }
+    }
+
+    private AtomicFile getFile() {
+        if (mFile == null) {
+            mFile = new AtomicFile(new File(mContext.getCacheDir(), FILE_NAME));
+        }
+        return mFile;
+    }
+
+    private String getFingerprint() {
+        return Build.FINGERPRINT
+                + "|" + mContext.getResources().getConfiguration().getLocales().toLanguageTags()
+                + "|" + Settings.Global.getInt(mContext.getContentResolver(),
+                        Settings.Global.BOOT_COUNT, 0 /* def */);
+    }
+
+    // The sequence number only increases until the next boot, which is part of the fingerprint.
+    private boolean isUnchangedSince(int sequenceNumber) {
+        return mContext.getPackageManager().getChangedPackages(sequenceNumber) == null;
+    }
+}
@@ -16,7 +16,6 @@
 
 package com.android.settings.datetime.timezone;
 
-import android.icu.text.BreakIterator;
 import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -33,7 +32,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.android.settings.R;
 import com.android.settings.datetime.timezone.BaseTimeZonePicker.OnListItemClickListener;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Locale;
 
@@ -49,8 +48,8 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
     static final int TYPE_ITEM = 1;
 
     private final List<T> mOriginalItems;
+    private final TimeZoneSearchIndex<T> mSearchIndex;
     private final OnListItemClickListener<T> mOnListItemClickListener;
-    private final Locale mLocale;
     private final boolean mShowItemSummary;
     private final boolean mShowHeader;
     private final CharSequence mHeaderText;
@@ -63,10 +62,22 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
      */
     public BaseTimeZoneAdapter(List<T> items, OnListItemClickListener<T> onListItemClickListener,
             Locale locale, boolean showItemSummary, @Nullable CharSequence headerText) {
-        mOriginalItems = items;
-        mItems = items;
+        this(new TimeZoneSearchIndex<>(items, locale), onListItemClickListener, showItemSummary,
+                headerText);
+    }
+
+    /**
+     * @param searchIndex the items to show and their search index, which may be shared with other
+     *                    adapters.
+     * @param headerText the text shown in the header, or null to show no header.
+     */
+    public BaseTimeZoneAdapter(TimeZoneSearchIndex<T> searchIndex,
+            OnListItemClickListener<T> onListItemClickListener, boolean showItemSummary,
+            @Nullable CharSequence headerText) {
+        mSearchIndex = searchIndex;
+        mOriginalItems = searchIndex.getItems();
+        mItems = mOriginalItems;
         mOnListItemClickListener = onListItemClickListener;
-        mLocale = locale;
         mShowItemSummary = showItemSummary;
         mShowHeader = headerText != null;
         mHeaderText = headerText;
@@ -225,14 +236,15 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
      * a prefix. Each item that does not start with the supplied prefix
      * is removed from the list.</p>
      *
-     * The filtering operation is not optimized, due to small data size (~260 regions),
-     * require additional pre-processing. Potentially, a trie structure can be used to match
-     * prefixes of the search keys.
+     * The matching is done by {@link TimeZoneSearchIndex}. A query extending the previous one only
+     * checks the items that matched the previous query.
      */
     @VisibleForTesting
     public class ArrayFilter extends Filter {
 
-        private BreakIterator mBreakIterator = BreakIterator.getWordInstance(mLocale);
+        // Only accessed from the filter thread.
+        private String mLastPrefix;
+        private BitSet mLastMatches;
 
         @WorkerThread
         @Override
@@ -240,33 +252,16 @@ public class BaseTimeZoneAdapter<T extends BaseTimeZoneAdapter.AdapterItem>
             final List<T> newItems;
             if (TextUtils.isEmpty(prefix)) {
                 newItems = mOriginalItems;
+                mLastPrefix = null;
+                mLastMatches = null;
             } else {
-                final String prefixString = prefix.toString().toLowerCase(mLocale);
-                newItems = new ArrayList<>();
-
-                for (T item : mOriginalItems) {
-                    outer:
-                    for (String searchKey : item.getSearchKeys()) {
-                        searchKey = searchKey.toLowerCase(mLocale);
-                        // First match against the whole, non-splitted value
-                        if (searchKey.startsWith(prefixString)) {
-                            newItems.add(item);
-                            break outer;
-                        } else {
-                            mBreakIterator.setText(searchKey);
-                            for (int wordStart = 0, wordLimit = mBreakIterator.next();
-                                    wordLimit != BreakIterator.DONE;
-                                    wordStart = wordLimit,
-                                            wordLimit = mBreakIterator.next()) {
-                                if (mBreakIterator.getRuleStatus() != BreakIterator.WORD_NONE
-                                        && searchKey.startsWith(prefixString, wordStart)) {
-                                    newItems.add(item);
-                                    break outer;
-                                }
-                            }
-                        }
-                    }
-                }
+                final String prefixString = mSearchIndex.fold(prefix);
+                final BitSet matches = mLastPrefix != null && prefixString.startsWith(mLastPrefix)
+                        ? mSearchIndex.narrow(mLastMatches, prefixString)
+                        : mSearchIndex.search(prefixString);
+                mLastPrefix = prefixString;
+                mLastMatches = matches;
+                newItems = mSearchIndex.getItems(matches);
             }
 
             final FilterResults results = new FilterResults();
@@ -21,6 +21,7 @@ import static com.android.settingslib.datetime.ZoneGetter.capitalizeForStandalon
 import android.app.Activity;
 import android.app.settings.SettingsEnums;
 import android.content.Intent;
+import android.icu.text.CollationKey;
 import android.icu.text.Collator;
 import android.icu.text.LocaleDisplayNames;
 import android.os.Bundle;
@@ -35,10 +36,10 @@ import com.android.settings.datetime.timezone.model.FilteredCountryTimeZones;
 import com.android.settings.datetime.timezone.model.TimeZoneData;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
 
 /**
  * Render a list of regions into a list view.
@@ -47,6 +48,9 @@ public class RegionSearchPicker extends BaseTimeZonePicker {
     private static final int REQUEST_CODE_ZONE_PICKER = 1;
     private static final String TAG = "RegionSearchPicker";
 
+    private static Set<String> sRegionIds;
+    private static TimeZoneSearchIndex<RegionItem> sRegionSearchIndex;
+
     private BaseTimeZoneAdapter<RegionItem> mAdapter;
     private TimeZoneData mTimeZoneData;
 
@@ -62,12 +66,28 @@ public class RegionSearchPicker extends BaseTimeZonePicker {
     @Override
     protected BaseTimeZoneAdapter createAdapter(TimeZoneData timeZoneData) {
         mTimeZoneData = timeZoneData;
-        mAdapter = new BaseTimeZoneAdapter<>(createAdapterItem(timeZoneData.getRegionIds()),
-                this::onListItemClick, getLocale(), false /* showItemSummary */,
-                    null /* headerText */);
+        mAdapter = new BaseTimeZoneAdapter<>(
+                getRegionSearchIndex(timeZoneData.getRegionIds(), getLocale()),
+                this::onListItemClick, false /* showItemSummary */, null /* headerText */);
         return mAdapter;
     }
 
+    /**
+     * Returns the sorted region items and their search index for {@code locale}. They only depend
+     * on the locale and the region ids, so they are kept for the next time the picker is opened.
+     */
+    private static synchronized TimeZoneSearchIndex<RegionItem> getRegionSearchIndex(
+            Set<String> regionIds, Locale locale) {
+        if (sRegionSearchIndex != null && sRegionSearchIndex.getLocale().equals(locale)
+                && sRegionIds.equals(regionIds)) {
+            return sRegionSearchIndex;
+        }
+        sRegionIds = regionIds;
+        sRegionSearchIndex = new TimeZoneSearchIndex<>(createAdapterItem(regionIds, locale),
+                locale);
+        return sRegionSearchIndex;
+    }
+
     private void onListItemClick(RegionItem item) {
         final String regionId = item.getId();
         final FilteredCountryTimeZones countryTimeZones = mTimeZoneData.lookupCountryTimeZones(
@@ -112,17 +132,18 @@ public class RegionSearchPicker extends BaseTimeZonePicker {
         }
     }
 
-    private List<RegionItem> createAdapterItem(Set<String> regionIds) {
-        final Collator collator = Collator.getInstance(getLocale());
-        final TreeSet<RegionItem> items = new TreeSet<>(new RegionInfoComparator(collator));
-        final LocaleDisplayNames localeDisplayNames = LocaleDisplayNames.getInstance(getLocale());
+    private static List<RegionItem> createAdapterItem(Set<String> regionIds, Locale locale) {
+        final Collator collator = Collator.getInstance(locale);
+        // Collation keys are computed once per name, instead of on each comparison of the sort.
+        final TreeMap<CollationKey, RegionItem> items = new TreeMap<>();
+        final LocaleDisplayNames localeDisplayNames = LocaleDisplayNames.getInstance(locale);
         long i = 0;
         for (String regionId : regionIds) {
             String name = capitalizeForStandaloneDisplay(
-                    mLocale, localeDisplayNames.regionDisplayName(regionId));
-            items.add(new RegionItem(i++, regionId, name));
+                    locale, localeDisplayNames.regionDisplayName(regionId));
+            items.putIfAbsent(collator.getCollationKey(name), new RegionItem(i++, regionId, name));
         }
-        return new ArrayList<>(items);
+        return new ArrayList<>(items.values());
     }
 
     @VisibleForTesting
@@ -177,17 +198,4 @@ public class RegionSearchPicker extends BaseTimeZonePicker {
             return mSearchKeys;
         }
     }
-
-    private static class RegionInfoComparator implements Comparator<RegionItem> {
-        private final Collator mCollator;
-
-        RegionInfoComparator(Collator collator) {
-            mCollator = collator;
-        }
-
-        @Override
-        public int compare(RegionItem r1, RegionItem r2) {
-            return mCollator.compare(r1.getTitle(), r2.getTitle());
-        }
-    }
 }
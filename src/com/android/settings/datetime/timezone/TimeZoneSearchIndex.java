@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.datetime.timezone;
+
+import android.icu.text.BreakIterator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Word prefix search index over the items of a {@link BaseTimeZoneAdapter}.
+ *
+ * <p>An item matches a query if one of its search keys, or one of the words of a search key,
+ * starts with the query. The keys are folded and split into words once, the first time the index
+ * is searched, and the resulting suffixes are kept sorted so that a query only needs a binary
+ * search instead of a scan of every key. The index is immutable once built and can be shared by
+ * the adapters showing the same items.
+ */
+public class TimeZoneSearchIndex<T extends BaseTimeZoneAdapter.AdapterItem> {
+
+    private final List<T> mItems;
+    private final Locale mLocale;
+
+    // Built on the first search, from the filter thread.
+    private volatile Index mIndex;
+
+    public TimeZoneSearchIndex(@NonNull List<T> items, @NonNull Locale locale) {
+        mItems = Collections.unmodifiableList(new ArrayList<>(items));
+        mLocale = locale;
+    }
+
+    @NonNull
+    public List<T> getItems() {
+        return mItems;
+    }
+
+    @NonNull
+    public Locale getLocale() {
+        return mLocale;
+    }
+
+    /** Folds a query the same way the search keys are folded. */
+    @NonNull
+    public String fold(@NonNull CharSequence query) {
+        return query.toString().toLowerCase(mLocale);
+    }
+
+    /**
+     * Returns the positions in {@link #getItems()} of the items matching {@code foldedPrefix}.
+     */
+    @WorkerThread
+    @NonNull
+    public BitSet search(@NonNull String foldedPrefix) {
+        final Index index = getIndex();
+        final BitSet matches = new BitSet(mItems.size());
+        int i = lowerBound(index.mSortedSuffixes, foldedPrefix);
+        for (; i < index.mSortedSuffixes.length; i++) {
+            if (!index.mSortedSuffixes[i].startsWith(foldedPrefix)) {
+                break;
+            }
+            matches.set(index.mSuffixItems[i]);
+        }
+        return matches;
+    }
+
+    /**
+     * Same as {@link #search(String)}, but only checks the items in {@code candidates}. The
+     * candidates must be the result of a query that {@code foldedPrefix} starts with, since
+     * extending a query can only drop matches.
+     */
+    @WorkerThread
+    @NonNull
+    public BitSet narrow(@NonNull BitSet candidates, @NonNull String foldedPrefix) {
+        final Index index = getIndex();
+        final BitSet matches = new BitSet(mItems.size());
+        for (int item = candidates.nextSetBit(0); item >= 0;
+                item = candidates.nextSetBit(item + 1)) {
+            for (String suffix : index.mItemSuffixes[item]) {
+                if (suffix.startsWith(foldedPrefix)) {
+                    matches.set(item);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /** Returns the items at the positions set in {@code matches}, in their original order. */
+    @NonNull
+    public List<T> getItems(@NonNull BitSet matches) {
+        final List<T> items = new ArrayList<>(matches.cardinality());
+        for (int item = matches.nextSetBit(0); item >= 0; item = matches.nextSetBit(item + 1)) {
+            items.add(mItems.get(item));
+        }
+        return items;
+    }
+
+    @VisibleForTesting
+    boolean isBuilt() {
+        return mIndex != null;
+    }
+
+    private Index getIndex() {
+        Index index = mIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = mIndex;
+                if (index == null) {
+                    index = new Index(mItems, mLocale);
+                    mIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private static int lowerBound(String[] sortedValues, String value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sortedValues[mid].compareTo(value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class Index {
+        // The folded search keys, and the folded search keys from each word start onwards.
+        private final String[][] mItemSuffixes;
+        private final String[] mSortedSuffixes;
+        private final int[] mSuffixItems;
+
+        private Index(List<? extends BaseTimeZoneAdapter.AdapterItem> items, Locale locale) {
+            final BreakIterator breakIterator = BreakIterator.getWordInstance(locale);
+            final int itemCount = items.size();
+            mItemSuffixes = new String[itemCount][];
+            final List<Suffix> suffixes = new ArrayList<>();
+            for (int item = 0; item < itemCount; item++) {
+                final List<String> itemSuffixes = new ArrayList<>();
+                for (String searchKey : items.get(item).getSearchKeys()) {
+                    addSuffixes(breakIterator, searchKey.toLowerCase(locale), itemSuffixes);
+                }
+                mItemSuffixes[item] = itemSuffixes.toArray(new String[0]);
+                for (String suffix : itemSuffixes) {
+                    suffixes.add(new Suffix(suffix, item));
+                }
+            }
+
+            final Suffix[] sortedSuffixes = suffixes.toArray(new Suffix[0]);
+            Arrays.sort(sortedSuffixes, (s1, s2) -> s1.mValue.compareTo(s2.mValue));
+            mSortedSuffixes = new String[sortedSuffixes.length];
+            mSuffixItems = new int[sortedSuffixes.length];
+            for (int i = 0; i < sortedSuffixes.length; i++) {
+                mSortedSuffixes[i] = sortedSuffixes[i].mValue;
+                mSuffixItems[i] = sortedSuffixes[i].mItem;
+            }
+        }
+
+        private static void addSuffixes(BreakIterator breakIterator, String searchKey,
+                List<String> suffixes) {
+            // Match against the whole, non-splitted value, and against every word start.
+            suffixes.add(searchKey);
+            breakIterator.setText(searchKey);
+            for (int wordStart = 0, wordLimit = breakIterator.next();
+                    wordLimit != BreakIterator.DONE;
+                    wordStart = wordLimit, wordLimit = breakIterator.next()) {
+                if (wordStart != 0 && breakIterator.getRuleStatus() != BreakIterator.WORD_NONE) {
+                    suffixes.add(searchKey.substring(wordStart));
+                }
+            }
+        }
+    }
+
+    private static final class Suffix {
+        private final String mValue;
+        private final int mItem;
+
+        private Suffix(String value, int item) {
+            mValue = value;
+            mItem = item;
+        }
+    }
+}
@@ -33,6 +33,8 @@ import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.ListView;
 
+import com.android.settings.applications.AppIconLabelCache;
+
 import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -165,7 +167,7 @@ public class AppPicker extends ListActivity {
 
                 MyApplicationInfo info = new MyApplicationInfo();
                 info.info = ai;
-                info.label = info.info.loadLabel(getPackageManager()).toString();
+                info.label = AppIconLabelCache.getInstance(context).getLabel(ai).toString();
                 mPackageInfoList.add(info);
             }
             Collections.sort(mPackageInfoList, sDisplayNameComparator);
@@ -186,9 +188,19 @@ public class AppPicker extends ListActivity {
             MyApplicationInfo info = getItem(position);
             holder.appName.setText(info.label);
             if (info.info != null) {
-                holder.appIcon.setImageDrawable(info.info.loadIcon(getPackageManager()));
+                final AppViewHolder boundHolder = holder;
+                holder.appIcon.setTag(info);
+                holder.appIcon.setImageDrawable(null);
+                AppIconLabelCache.getInstance(AppPicker.this).loadUnbadgedIcon(info.info,
+                        icon -> {
+                            // The row may have been recycled for another app meanwhile.
+                            if (boundHolder.appIcon.getTag() == info) {
+                                boundHolder.appIcon.setImageDrawable(icon);
+                            }
+                        });
                 holder.summary.setText(info.info.packageName);
             } else {
+                holder.appIcon.setTag(null);
                 holder.appIcon.setImageDrawable(null);
                 holder.summary.setText("");
             }
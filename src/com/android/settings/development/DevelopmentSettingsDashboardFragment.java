@@ -56,6 +56,7 @@ import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import com.android.settings.R;
 import com.android.settings.SettingsActivity;
 import com.android.settings.Utils;
+import com.android.settings.core.PreferenceControllerDescriptor;
 import com.android.settings.core.SubSettingLauncher;
 import com.android.settings.dashboard.RestrictedDashboardFragment;
 import com.android.settings.development.autofill.AutofillCategoryController;
@@ -575,6 +576,23 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
         return mPreferenceControllers;
     }
 
+    @Override
+    protected List<PreferenceControllerDescriptor> createLazyPreferenceControllers(
+            Context context) {
+        if (Utils.isMonkeyRunning()) {
+            return null;
+        }
+        return buildLazyPreferenceControllers();
+    }
+
+    @Override
+    protected void onLazyPreferenceControllerCreated(AbstractPreferenceController controller) {
+        if (controller instanceof DeveloperOptionsPreferenceController
+                && DevelopmentSettingsEnabler.isDevelopmentSettingsEnabled(getContext())) {
+            ((DeveloperOptionsPreferenceController) controller).onDeveloperOptionsEnabled();
+        }
+    }
+
     private void registerReceivers() {
         LocalBroadcastManager.getInstance(getContext())
                 .registerReceiver(mEnableAdbReceiver, new IntentFilter(
@@ -595,7 +613,11 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
             return;
         }
         DevelopmentSettingsEnabler.setDevelopmentSettingsEnabled(getContext(), true);
-        for (AbstractPreferenceController controller : mPreferenceControllers) {
+        // Lazy controllers that are not created yet are enabled when they get created.
+        final List<AbstractPreferenceController> controllers =
+                new ArrayList<>(mPreferenceControllers);
+        controllers.addAll(getLazyPreferenceControllers());
+        for (AbstractPreferenceController controller : controllers) {
             if (controller instanceof DeveloperOptionsPreferenceController) {
                 ((DeveloperOptionsPreferenceController) controller).onDeveloperOptionsEnabled();
             }
@@ -616,9 +638,13 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
         }
 
         DevelopmentSettingsEnabler.setDevelopmentSettingsEnabled(getContext(), false);
+        // Every controller has to reset its setting, so create all the lazy ones.
+        final List<AbstractPreferenceController> controllers =
+                new ArrayList<>(mPreferenceControllers);
+        controllers.addAll(instantiateLazyPreferenceControllers());
         final SystemPropPoker poker = SystemPropPoker.getInstance();
         poker.blockPokes();
-        for (AbstractPreferenceController controller : mPreferenceControllers) {
+        for (AbstractPreferenceController controller : controllers) {
             if (controller instanceof DeveloperOptionsPreferenceController) {
                 ((DeveloperOptionsPreferenceController) controller)
                         .onDeveloperOptionsDisabled();
@@ -651,119 +677,52 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
             @Nullable DevelopmentSettingsDashboardFragment fragment,
             @Nullable BluetoothA2dpConfigStore bluetoothA2dpConfigStore) {
         final List<AbstractPreferenceController> controllers = new ArrayList<>();
-        controllers.add(new MemoryUsagePreferenceController(context));
         controllers.add(new BugReportPreferenceController(context));
         controllers.add(new BugReportHandlerPreferenceController(context));
         controllers.add(new SystemServerHeapDumpPreferenceController(context));
         controllers.add(new DevelopmentMemtagPagePreferenceController(context));
-        controllers.add(new LocalBackupPasswordPreferenceController(context));
         controllers.add(new StayAwakePreferenceController(context, lifecycle));
         controllers.add(new HdcpCheckingPreferenceController(context));
         controllers.add(new BluetoothSnoopLogPreferenceController(context, fragment));
-        controllers.add(new BluetoothStackLogPreferenceController(context));
-        controllers.add(new DefaultLaunchPreferenceController(context,
-                "snoop_logger_filters_dashboard"));
-        controllers.add(new BluetoothSnoopLogFilterProfilePbapPreferenceController(context));
-        controllers.add(new BluetoothSnoopLogFilterProfileMapPreferenceController(context));
         controllers.add(new OemUnlockPreferenceController(context, activity, fragment));
         controllers.add(new Enable16kPagesPreferenceController(context, fragment));
         controllers.add(new PictureColorModePreferenceController(context, lifecycle));
-        controllers.add(new WebViewAppPreferenceController(context));
         controllers.add(new CoolColorTemperaturePreferenceController(context));
-        controllers.add(new DisableAutomaticUpdatesPreferenceController(context));
-        controllers.add(new SelectDSUPreferenceController(context));
         controllers.add(new AdbPreferenceController(context, fragment));
         controllers.add(new ClearAdbKeysPreferenceController(context, fragment));
         controllers.add(new WirelessDebuggingPreferenceController(context, lifecycle));
-        controllers.add(new AdbAuthorizationTimeoutPreferenceController(context));
         controllers.add(new LocalTerminalPreferenceController(context));
         controllers.add(new BugReportInPowerPreferenceController(context));
         controllers.add(new AutomaticSystemServerHeapDumpPreferenceController(context));
         controllers.add(new MockLocationAppPreferenceController(context, fragment));
         controllers.add(new MockModemPreferenceController(context));
-        controllers.add(new DebugViewAttributesPreferenceController(context));
         controllers.add(new SelectDebugAppPreferenceController(context, fragment));
         controllers.add(new WaitForDebuggerPreferenceController(context));
-        controllers.add(new EnableGpuDebugLayersPreferenceController(context));
         controllers.add(new GraphicsDriverEnableAngleAsSystemDriverController(context, fragment));
         controllers.add(new ForcePeakRefreshRatePreferenceController(context));
         controllers.add(new EnableVerboseVendorLoggingPreferenceController(context));
         controllers.add(new VerifyAppsOverUsbPreferenceController(context));
-        controllers.add(new ArtVerifierPreferenceController(context));
         controllers.add(new LogdSizePreferenceController(context));
         controllers.add(new LogPersistPreferenceController(context, fragment, lifecycle));
         controllers.add(new CameraLaserSensorPreferenceController(context));
-        controllers.add(new WifiDisplayCertificationPreferenceController(context));
-        controllers.add(new WifiVerboseLoggingPreferenceController(context));
-        controllers.add(new WifiScanThrottlingPreferenceController(context));
-        controllers.add(new WifiNonPersistentMacRandomizationPreferenceController(context));
-        controllers.add(new MobileDataAlwaysOnPreferenceController(context));
-        controllers.add(new TetheringHardwareAccelPreferenceController(context));
-        controllers.add(new BluetoothDeviceNoNamePreferenceController(context));
-        controllers.add(new BluetoothAbsoluteVolumePreferenceController(context));
-        controllers.add(new BluetoothAvrcpVersionPreferenceController(context));
-        controllers.add(new BluetoothMapVersionPreferenceController(context));
         controllers.add(new BluetoothLeAudioPreferenceController(context, fragment));
         controllers.add(new BluetoothLeAudioModePreferenceController(context, fragment));
         controllers.add(new BluetoothLeAudioDeviceDetailsPreferenceController(context));
         controllers.add(new BluetoothLeAudioAllowListPreferenceController(context));
         controllers.add(new BluetoothA2dpHwOffloadPreferenceController(context, fragment));
         controllers.add(new BluetoothLeAudioHwOffloadPreferenceController(context, fragment));
-        controllers.add(new BluetoothMaxConnectedAudioDevicesPreferenceController(context));
-	controllers.add(new BluetoothXpanPreferenceController(context));
+        controllers.add(new BluetoothXpanPreferenceController(context));
         controllers.add(new NfcSnoopLogPreferenceController(context, fragment));
         controllers.add(new NfcVerboseVendorLogPreferenceController(context, fragment));
-        controllers.add(new ShowTapsPreferenceController(context));
-        controllers.add(new PointerLocationPreferenceController(context));
-        controllers.add(new ShowKeyPressesPreferenceController(context));
-        controllers.add(new ShowSurfaceUpdatesPreferenceController(context));
-        controllers.add(new ShowLayoutBoundsPreferenceController(context));
         controllers.add(new ShowHdrSdrRatioPreferenceController(context));
-        controllers.add(new ShowRefreshRatePreferenceController(context));
-        controllers.add(new RtlLayoutPreferenceController(context));
-        controllers.add(new WindowAnimationScalePreferenceController(context));
-        controllers.add(new EmulateDisplayCutoutPreferenceController(context));
-        controllers.add(new TransparentNavigationBarPreferenceController(context));
-        controllers.add(new TransitionAnimationScalePreferenceController(context));
-        controllers.add(new AnimatorDurationScalePreferenceController(context));
-        controllers.add(new SecondaryDisplayPreferenceController(context));
-        controllers.add(new GpuViewUpdatesPreferenceController(context));
-        controllers.add(new HardwareLayersUpdatesPreferenceController(context));
-        controllers.add(new DebugGpuOverdrawPreferenceController(context));
-        controllers.add(new DebugNonRectClipOperationsPreferenceController(context));
         controllers.add(new GameDefaultFrameRatePreferenceController(context));
-        controllers.add(new ForceDarkPreferenceController(context));
         controllers.add(new EnableBlursPreferenceController(context));
-        controllers.add(new ForceMSAAPreferenceController(context));
-        controllers.add(new HardwareOverlaysPreferenceController(context));
-        controllers.add(new SimulateColorSpacePreferenceController(context));
-        controllers.add(new UsbAudioRoutingPreferenceController(context));
-        controllers.add(new StrictModePreferenceController(context));
-        controllers.add(new ProfileGpuRenderingPreferenceController(context));
-        controllers.add(new KeepActivitiesPreferenceController(context));
-        controllers.add(new BackgroundProcessLimitPreferenceController(context));
         controllers.add(new CachedAppsFreezerPreferenceController(context));
         controllers.add(new ShowFirstCrashDialogPreferenceController(context));
-        controllers.add(new AppsNotRespondingPreferenceController(context));
-        controllers.add(new NotificationChannelWarningsPreferenceController(context));
-        controllers.add(new AllowAppsOnExternalPreferenceController(context));
-        controllers.add(new ResizableActivityPreferenceController(context));
         controllers.add(new FreeformWindowsPreferenceController(context, fragment));
         controllers.add(new DesktopModePreferenceController(context, fragment));
-        controllers.add(new NonResizableMultiWindowPreferenceController(context));
-        controllers.add(new ShortcutManagerThrottlingPreferenceController(context));
-        controllers.add(new EnableGnssRawMeasFullTrackingPreferenceController(context));
-        controllers.add(new DefaultLaunchPreferenceController(context, "running_apps"));
-        controllers.add(new DefaultLaunchPreferenceController(context, "demo_mode"));
-        controllers.add(new DefaultLaunchPreferenceController(context, "quick_settings_tiles"));
-        controllers.add(new DefaultLaunchPreferenceController(context, "feature_flags_dashboard"));
-        controllers.add(new DefaultUsbConfigurationPreferenceController(context));
-        controllers.add(new DefaultLaunchPreferenceController(context, "density"));
-        controllers.add(new DefaultLaunchPreferenceController(context, "background_check"));
-        controllers.add(new DefaultLaunchPreferenceController(context, "inactive_apps"));
         controllers.add(new AutofillCategoryController(context, lifecycle));
         controllers.add(new AutofillLoggingLevelPreferenceController(context, lifecycle));
-        controllers.add(new AutofillResetOptionsPreferenceController(context));
         controllers.add(new BluetoothCodecDialogPreferenceController(context, lifecycle,
                 bluetoothA2dpConfigStore, fragment));
         controllers.add(
@@ -779,19 +738,229 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
                 bluetoothA2dpConfigStore));
         controllers.add(new BluetoothHDAudioPreferenceController(context, lifecycle,
                 bluetoothA2dpConfigStore, fragment));
-        controllers.add(new SharedDataPreferenceController(context));
-        controllers.add(new OverlaySettingsPreferenceController(context));
-        controllers.add(new StylusHandwritingPreferenceController(context));
-        controllers.add(new IngressRateLimitPreferenceController((context)));
         controllers.add(new BackAnimationPreferenceController(context, fragment));
-        controllers.add(new PhantomProcessPreferenceController(context));
-        controllers.add(new ForceEnableNotesRolePreferenceController(context));
         controllers.add(new GrammaticalGenderPreferenceController(context));
         controllers.add(new SensitiveContentProtectionPreferenceController(context));
 
         return controllers;
     }
 
+    /**
+     * Controllers implementing {@link AdbOnChangeListener} or {@link OnActivityResultListener}
+     * must not be lazy: the fragment only dispatches those callbacks to the eager controllers.
+     * Controllers that may hide their preference must not be lazy either, the preference would
+     * be shown until the controller is instantiated.
+     */
+    private static List<PreferenceControllerDescriptor> buildLazyPreferenceControllers() {
+        final List<PreferenceControllerDescriptor> controllers = new ArrayList<>();
+        controllers.add(PreferenceControllerDescriptor.of("memory",
+                MemoryUsagePreferenceController.class, MemoryUsagePreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("local_backup_password",
+                LocalBackupPasswordPreferenceController.class,
+                LocalBackupPasswordPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("bt_stack_log_level",
+                BluetoothStackLogPreferenceController.class,
+                BluetoothStackLogPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("bt_hci_snoop_log_filter_pbap",
+                BluetoothSnoopLogFilterProfilePbapPreferenceController.class,
+                BluetoothSnoopLogFilterProfilePbapPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("bt_hci_snoop_log_filter_map",
+                BluetoothSnoopLogFilterProfileMapPreferenceController.class,
+                BluetoothSnoopLogFilterProfileMapPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("select_webview_provider",
+                WebViewAppPreferenceController.class, WebViewAppPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("ota_disable_automatic_update",
+                DisableAutomaticUpdatesPreferenceController.class,
+                DisableAutomaticUpdatesPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("dsu_loader",
+                SelectDSUPreferenceController.class, SelectDSUPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("adb_authorization_timeout",
+                AdbAuthorizationTimeoutPreferenceController.class,
+                AdbAuthorizationTimeoutPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("debug_view_attributes",
+                DebugViewAttributesPreferenceController.class,
+                DebugViewAttributesPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("enable_gpu_debug_layers",
+                EnableGpuDebugLayersPreferenceController.class,
+                EnableGpuDebugLayersPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("art_verifier_for_debuggable",
+                ArtVerifierPreferenceController.class, ArtVerifierPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("wifi_display_certification",
+                WifiDisplayCertificationPreferenceController.class,
+                WifiDisplayCertificationPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("wifi_verbose_logging",
+                WifiVerboseLoggingPreferenceController.class,
+                WifiVerboseLoggingPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("wifi_scan_throttling",
+                WifiScanThrottlingPreferenceController.class,
+                WifiScanThrottlingPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("wifi_non_persistent_mac_randomization",
+                WifiNonPersistentMacRandomizationPreferenceController.class,
+                WifiNonPersistentMacRandomizationPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("mobile_data_always_on",
+                MobileDataAlwaysOnPreferenceController.class,
+                MobileDataAlwaysOnPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("tethering_hardware_offload",
+                TetheringHardwareAccelPreferenceController.class,
+                TetheringHardwareAccelPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("bluetooth_show_devices_without_names",
+                BluetoothDeviceNoNamePreferenceController.class,
+                BluetoothDeviceNoNamePreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("bluetooth_disable_absolute_volume",
+                BluetoothAbsoluteVolumePreferenceController.class,
+                BluetoothAbsoluteVolumePreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("bluetooth_select_avrcp_version",
+                BluetoothAvrcpVersionPreferenceController.class,
+                BluetoothAvrcpVersionPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("bluetooth_select_map_version",
+                BluetoothMapVersionPreferenceController.class,
+                BluetoothMapVersionPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("bluetooth_max_connected_audio_devices",
+                BluetoothMaxConnectedAudioDevicesPreferenceController.class,
+                BluetoothMaxConnectedAudioDevicesPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("show_touches",
+                ShowTapsPreferenceController.class, ShowTapsPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("pointer_location",
+                PointerLocationPreferenceController.class,
+                PointerLocationPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("show_key_presses",
+                ShowKeyPressesPreferenceController.class, ShowKeyPressesPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("show_screen_updates",
+                ShowSurfaceUpdatesPreferenceController.class,
+                ShowSurfaceUpdatesPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("debug_layout",
+                ShowLayoutBoundsPreferenceController.class,
+                ShowLayoutBoundsPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("show_refresh_rate",
+                ShowRefreshRatePreferenceController.class,
+                ShowRefreshRatePreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("force_rtl_layout_all_locales",
+                RtlLayoutPreferenceController.class, RtlLayoutPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("window_animation_scale",
+                WindowAnimationScalePreferenceController.class,
+                WindowAnimationScalePreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("display_cutout_emulation",
+                EmulateDisplayCutoutPreferenceController.class,
+                EmulateDisplayCutoutPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("transparent_navigation_bar",
+                TransparentNavigationBarPreferenceController.class,
+                TransparentNavigationBarPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("transition_animation_scale",
+                TransitionAnimationScalePreferenceController.class,
+                TransitionAnimationScalePreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("animator_duration_scale",
+                AnimatorDurationScalePreferenceController.class,
+                AnimatorDurationScalePreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("overlay_display_devices",
+                SecondaryDisplayPreferenceController.class,
+                SecondaryDisplayPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("show_hw_screen_updates",
+                GpuViewUpdatesPreferenceController.class, GpuViewUpdatesPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("show_hw_layers_updates",
+                HardwareLayersUpdatesPreferenceController.class,
+                HardwareLayersUpdatesPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("debug_hw_overdraw",
+                DebugGpuOverdrawPreferenceController.class,
+                DebugGpuOverdrawPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("show_non_rect_clip",
+                DebugNonRectClipOperationsPreferenceController.class,
+                DebugNonRectClipOperationsPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("hwui_force_dark",
+                ForceDarkPreferenceController.class, ForceDarkPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("force_msaa",
+                ForceMSAAPreferenceController.class, ForceMSAAPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("disable_overlays",
+                HardwareOverlaysPreferenceController.class,
+                HardwareOverlaysPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("simulate_color_space",
+                SimulateColorSpacePreferenceController.class,
+                SimulateColorSpacePreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("usb_audio",
+                UsbAudioRoutingPreferenceController.class,
+                UsbAudioRoutingPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("strict_mode",
+                StrictModePreferenceController.class, StrictModePreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("track_frame_time",
+                ProfileGpuRenderingPreferenceController.class,
+                ProfileGpuRenderingPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("immediately_destroy_activities",
+                KeepActivitiesPreferenceController.class, KeepActivitiesPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("app_process_limit",
+                BackgroundProcessLimitPreferenceController.class,
+                BackgroundProcessLimitPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("show_all_anrs",
+                AppsNotRespondingPreferenceController.class,
+                AppsNotRespondingPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("show_notification_channel_warnings",
+                NotificationChannelWarningsPreferenceController.class,
+                NotificationChannelWarningsPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("force_allow_on_external",
+                AllowAppsOnExternalPreferenceController.class,
+                AllowAppsOnExternalPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("force_resizable_activities",
+                ResizableActivityPreferenceController.class,
+                ResizableActivityPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("enable_non_resizable_multi_window",
+                NonResizableMultiWindowPreferenceController.class,
+                NonResizableMultiWindowPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("reset_shortcut_manager_throttling",
+                ShortcutManagerThrottlingPreferenceController.class,
+                ShortcutManagerThrottlingPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("enable_gnss_raw_meas_full_tracking",
+                EnableGnssRawMeasFullTrackingPreferenceController.class,
+                EnableGnssRawMeasFullTrackingPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("default_usb_configuration",
+                DefaultUsbConfigurationPreferenceController.class,
+                DefaultUsbConfigurationPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("autofill_reset_developer_options",
+                AutofillResetOptionsPreferenceController.class,
+                AutofillResetOptionsPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("shared_data",
+                SharedDataPreferenceController.class, SharedDataPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("overlay_settings",
+                OverlaySettingsPreferenceController.class,
+                OverlaySettingsPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("stylus_handwriting",
+                StylusHandwritingPreferenceController.class,
+                StylusHandwritingPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("ingress_rate_limit",
+                IngressRateLimitPreferenceController.class,
+                IngressRateLimitPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("disable_phantom_process_monitor",
+                PhantomProcessPreferenceController.class, PhantomProcessPreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("force_enable_notes_role",
+                ForceEnableNotesRolePreferenceController.class,
+                ForceEnableNotesRolePreferenceController::new));
+        controllers.add(PreferenceControllerDescriptor.of("snoop_logger_filters_dashboard",
+                DefaultLaunchPreferenceController.class,
+                context -> new DefaultLaunchPreferenceController(context,
+                        "snoop_logger_filters_dashboard")));
+        controllers.add(PreferenceControllerDescriptor.of("running_apps",
+                DefaultLaunchPreferenceController.class,
+                context -> new DefaultLaunchPreferenceController(context, "running_apps")));
+        controllers.add(PreferenceControllerDescriptor.of("demo_mode",
+                DefaultLaunchPreferenceController.class,
+                context -> new DefaultLaunchPreferenceController(context, "demo_mode")));
+        controllers.add(PreferenceControllerDescriptor.of("quick_settings_tiles",
+                DefaultLaunchPreferenceController.class,
+                context -> new DefaultLaunchPreferenceController(context, "quick_settings_tiles")));
+        controllers.add(PreferenceControllerDescriptor.of("feature_flags_dashboard",
+                DefaultLaunchPreferenceController.class,
+                context -> new DefaultLaunchPreferenceController(context,
+                        "feature_flags_dashboard")));
+        controllers.add(PreferenceControllerDescriptor.of("density",
+                DefaultLaunchPreferenceController.class,
+                context -> new DefaultLaunchPreferenceController(context, "density")));
+        controllers.add(PreferenceControllerDescriptor.of("background_check",
+                DefaultLaunchPreferenceController.class,
+                context -> new DefaultLaunchPreferenceController(context, "background_check")));
+        controllers.add(PreferenceControllerDescriptor.of("inactive_apps",
+                DefaultLaunchPreferenceController.class,
+                context -> new DefaultLaunchPreferenceController(context, "inactive_apps")));
+
+        return controllers;
+    }
+
     @VisibleForTesting
     <T extends AbstractPreferenceController> T getDevelopmentOptionsController(Class<T> clazz) {
         return use(clazz);
@@ -836,9 +1005,13 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
                 @Override
                 public List<AbstractPreferenceController> createPreferenceControllers(Context
                         context) {
-                    return buildPreferenceControllers(context, null /* activity */,
-                            null /* lifecycle */, null /* devOptionsDashboardFragment */,
-                            null /* bluetoothA2dpConfigStore */);
+                    final List<AbstractPreferenceController> controllers =
+                            buildPreferenceControllers(context, null /* activity */,
+                                    null /* lifecycle */, null /* devOptionsDashboardFragment */,
+                                    null /* bluetoothA2dpConfigStore */);
+                    controllers.addAll(PreferenceControllerDescriptor.createControllers(
+                            context, buildLazyPreferenceControllers()));
+                    return controllers;
                 }
             };
 }
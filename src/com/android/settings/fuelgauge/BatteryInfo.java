@@ -21,7 +21,6 @@ import android.content.res.Resources;
 import android.os.AsyncTask;
 import android.os.BatteryManager;
 import android.os.BatteryStats.HistoryItem;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
 import android.os.SystemClock;
 import android.provider.Settings;
@@ -35,6 +34,7 @@ import androidx.annotation.WorkerThread;
 
 import com.android.internal.os.BatteryStatsHistoryIterator;
 import com.android.settings.Utils;
+import com.android.settings.fuelgauge.batteryusage.BatteryUsageStatsProvider;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settings.widget.UsageView;
 import com.android.settingslib.R;
@@ -187,8 +187,11 @@ public class BatteryInfo {
                 } else {
                     try {
                         stats =
-                                context.getSystemService(BatteryStatsManager.class)
-                                        .getBatteryUsageStats();
+                                BatteryUsageStatsProvider.getInstance()
+                                        .acquire(
+                                                context,
+                                                /* includeBatteryHistory= */ false,
+                                                /* includeProcessStateData= */ false);
                         shouldCloseBatteryUsageStats = true;
                     } catch (RuntimeException e) {
                         Log.e(TAG, "getBatteryInfo() from getBatteryUsageStats()", e);
@@ -198,11 +201,7 @@ public class BatteryInfo {
                 }
                 final BatteryInfo batteryInfo = getBatteryInfo(context, stats, shortString);
                 if (shouldCloseBatteryUsageStats) {
-                    try {
-                        stats.close();
-                    } catch (Exception e) {
-                        Log.e(TAG, "BatteryUsageStats.close() failed", e);
-                    }
+                    BatteryUsageStatsProvider.getInstance().release(stats);
                 }
                 return batteryInfo;
             }
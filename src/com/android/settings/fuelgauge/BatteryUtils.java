@@ -25,9 +25,7 @@ import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.os.BatteryManager;
 import android.os.BatteryStats;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.os.Build;
 import android.os.SystemClock;
 import android.os.UidBatteryConsumer;
@@ -46,6 +44,7 @@ import com.android.internal.util.ArrayUtils;
 import com.android.settings.R;
 import com.android.settings.fuelgauge.batterytip.AnomalyDatabaseHelper;
 import com.android.settings.fuelgauge.batterytip.BatteryDatabaseManager;
+import com.android.settings.fuelgauge.batteryusage.BatteryUsageStatsProvider;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.applications.AppUtils;
 import com.android.settingslib.fuelgauge.Estimate;
@@ -433,13 +432,14 @@ public class BatteryUtils {
 
     @WorkerThread
     public BatteryInfo getBatteryInfo(final String tag) {
-        final BatteryStatsManager systemService =
-                mContext.getSystemService(BatteryStatsManager.class);
         BatteryUsageStats batteryUsageStats;
         try {
             batteryUsageStats =
-                    systemService.getBatteryUsageStats(
-                            new BatteryUsageStatsQuery.Builder().includeBatteryHistory().build());
+                    BatteryUsageStatsProvider.getInstance()
+                            .acquire(
+                                    mContext,
+                                    /* includeBatteryHistory= */ true,
+                                    /* includeProcessStateData= */ false);
         } catch (RuntimeException e) {
             Log.e(TAG, "getBatteryInfo() error from getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
@@ -476,11 +476,7 @@ public class BatteryUtils {
                         false /* shortString */);
         BatteryUtils.logRuntime(tag, "BatteryInfoLoader.loadInBackground", startTime);
 
-        try {
-            batteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        }
+        BatteryUsageStatsProvider.getInstance().release(batteryUsageStats);
         return batteryInfo;
     }
 
@@ -18,11 +18,11 @@ package com.android.settings.fuelgauge;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
 import android.os.SystemClock;
 import android.util.Log;
 
+import com.android.settings.fuelgauge.batteryusage.BatteryUsageStatsProvider;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.fuelgauge.Estimate;
 import com.android.settingslib.fuelgauge.EstimateKt;
@@ -56,7 +56,11 @@ public class DebugEstimatesLoader extends AsyncLoaderCompat<List<BatteryInfo>> {
         BatteryUsageStats batteryUsageStats;
         try {
             batteryUsageStats =
-                    context.getSystemService(BatteryStatsManager.class).getBatteryUsageStats();
+                    BatteryUsageStatsProvider.getInstance()
+                            .acquire(
+                                    context,
+                                    /* includeBatteryHistory= */ false,
+                                    /* includeProcessStateData= */ false);
         } catch (RuntimeException e) {
             Log.e(TAG, "getBatteryInfo() from getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
@@ -87,11 +91,7 @@ public class DebugEstimatesLoader extends AsyncLoaderCompat<List<BatteryInfo>> {
         infos.add(oldinfo);
         infos.add(newInfo);
 
-        try {
-            batteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        }
+        BatteryUsageStatsProvider.getInstance().release(batteryUsageStats);
         return infos;
     }
 }
@@ -40,6 +40,7 @@ import androidx.preference.PreferenceGroup;
 
 import com.android.settings.R;
 import com.android.settings.SettingsPreferenceFragment;
+import com.android.settings.applications.AppIconLabelCache;
 import com.android.settings.development.DeveloperOptionAwareMixin;
 
 import java.util.Arrays;
@@ -88,6 +89,7 @@ public class InactiveApps extends SettingsPreferenceFragment
         screen.setOrderingAsAdded(false);
         final Context context = getActivity();
         final PackageManager pm = context.getPackageManager();
+        final AppIconLabelCache iconLabelCache = AppIconLabelCache.getInstance(context);
         final String settingsPackage = context.getPackageName();
         final CharSequence[] bucketNames = FULL_SETTABLE_BUCKETS_NAMES;
         final CharSequence[] bucketValues = FULL_SETTABLE_BUCKETS_VALUES;
@@ -98,8 +100,10 @@ public class InactiveApps extends SettingsPreferenceFragment
         for (ResolveInfo app : apps) {
             String packageName = app.activityInfo.applicationInfo.packageName;
             ListPreference p = new ListPreference(getPrefContext());
-            p.setTitle(app.loadLabel(pm));
-            p.setIcon(app.loadIcon(pm));
+            p.setTitle(iconLabelCache.getComponentLabel(app.activityInfo.applicationInfo,
+                    app.activityInfo.name, () -> app.loadLabel(pm)));
+            p.setIcon(iconLabelCache.getComponentIcon(app.activityInfo.applicationInfo,
+                    app.activityInfo.name, () -> app.loadIcon(pm)));
             p.setKey(packageName);
             p.setEntries(getAllowableBuckets(packageName, bucketNames));
             p.setEntryValues(getAllowableBuckets(packageName, bucketValues));
@@ -0,0 +1,318 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batterytip;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Parcel;
+import android.os.SystemClock;
+import android.util.ArrayMap;
+import android.util.Log;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settings.fuelgauge.BatteryBroadcastReceiver;
+import com.android.settings.fuelgauge.BatteryBroadcastReceiver.BatteryUpdateType;
+import com.android.settings.fuelgauge.batterytip.detectors.BatteryTipDetector;
+import com.android.settings.fuelgauge.batterytip.tips.BatteryTip;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs {@link BatteryTipDetector}s concurrently on a shared bounded executor, each within its own
+ * deadline counted from the start of the detection.
+ *
+ * <p>The tips of the detectors over their deadline are left out of the result, and the detectors
+ * are listed in {@link Result#getTimedOutDetectors()}. The tips of the stable detectors only
+ * depend on the battery state, copies of them are returned until the battery status, health,
+ * charging status or battery saver mode changes, or until no detection ran for
+ * {@link #STABLE_TIPS_TIMEOUT_MS}. The battery state is only monitored while tips are cached.
+ */
+public final class BatteryTipDetectionEngine {
+    private static final String TAG = "BatteryTipDetectionEngine";
+
+    @VisibleForTesting static final int POOL_SIZE = 4;
+    private static final long KEEP_ALIVE_SECONDS = 30L;
+    @VisibleForTesting static final long STABLE_TIPS_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static BatteryTipDetectionEngine sInstance;
+
+    private final ExecutorService mExecutor;
+    @Nullable private final Context mContext;
+    private final Handler mHandler = ThreadUtils.getUiThreadHandler();
+    private final Runnable mStableTipsTimeout = this::invalidateStableTips;
+    private final Object mLock = new Object();
+
+    @GuardedBy("mLock")
+    private final Map<String, List<BatteryTip>> mStableTips = new ArrayMap<>();
+
+    // Incremented by each invalidation, so that the tips detected before it are not cached.
+    @GuardedBy("mLock")
+    private int mGeneration;
+
+    // Registered from the first detection of stable tips until they are invalidated.
+    @GuardedBy("mLock")
+    @Nullable
+    private BatteryBroadcastReceiver mBatteryReceiver;
+
+    /** A detector to run, identified by its name. */
+    public static final class Detection {
+        final String mName;
+        final Callable<List<BatteryTip>> mDetector;
+        final long mDeadlineMs;
+        final boolean mStable;
+
+        private Detection(
+                String name,
+                Callable<List<BatteryTip>> detector,
+                long deadlineMs,
+                boolean stable) {
+            mName = name;
+            mDetector = detector;
+            mDeadlineMs = deadlineMs;
+            mStable = stable;
+        }
+
+        /**
+         * Creates a detection of a single tip.
+         *
+         * @param stable whether the tip only depends on the battery state
+         */
+        public static Detection of(
+                String name, BatteryTipDetector detector, long deadlineMs, boolean stable) {
+            return new Detection(
+                    name,
+                    () -> Collections.singletonList(detector.detect()),
+                    deadlineMs,
+                    stable);
+        }
+
+        /** Creates a detection of any number of tips, which is never cached. */
+        public static Detection ofAll(
+                String name, Callable<List<BatteryTip>> detector, long deadlineMs) {
+            return new Detection(name, detector, deadlineMs, /* stable= */ false);
+        }
+    }
+
+    /** The tips detected within their deadline. */
+    public static final class Result {
+        private final List<BatteryTip> mTips;
+        private final List<String> mTimedOutDetectors;
+
+        Result(List<BatteryTip> tips, List<String> timedOutDetectors) {
+            mTips = tips;
+            mTimedOutDetectors = timedOutDetectors;
+        }
+
+        /** Returns the detected tips, sorted in their display order. */
+        public List<BatteryTip> getTips() {
+            return mTips;
+        }
+
+        /** Returns the names of the detectors over their deadline, in the detection order. */
+        public List<String> getTimedOutDetectors() {
+            return mTimedOutDetectors;
+        }
+    }
+
+    /** Returns the process-wide instance. */
+    public static synchronized BatteryTipDetectionEngine getInstance(Context context) {
+        if (sInstance == null) {
+            final ThreadPoolExecutor executor =
+                    new ThreadPoolExecutor(
+                            POOL_SIZE,
+                            POOL_SIZE,
+                            KEEP_ALIVE_SECONDS,
+                            TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>());
+            executor.allowCoreThreadTimeOut(true);
+            sInstance = new BatteryTipDetectionEngine(executor, context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    /** Creates an engine which does not monitor the battery state. */
+    @VisibleForTesting
+    BatteryTipDetectionEngine(ExecutorService executor) {
+        this(executor, /* context= */ null);
+    }
+
+    @VisibleForTesting
+    BatteryTipDetectionEngine(ExecutorService executor, @Nullable Context context) {
+        mExecutor = executor;
+        mContext = context;
+    }
+
+    /**
+     * Runs the {@code detections} and waits for them, at most until the latest deadline.
+     *
+     * <p>The tips are sorted in their display order, the tips of the same type keep the order of
+     * the {@code detections}.
+     */
+    @WorkerThread
+    public Result detect(List<Detection> detections) {
+        final long startMs = SystemClock.elapsedRealtime();
+        final int size = detections.size();
+        final List<List<BatteryTip>> cachedTips = new ArrayList<>(size);
+        final List<Future<List<BatteryTip>>> futures = new ArrayList<>(size);
+        final int generation;
+        boolean hasStableDetection = false;
+        synchronized (mLock) {
+            for (Detection detection : detections) {
+                hasStableDetection |= detection.mStable;
+            }
+            if (hasStableDetection) {
+                // Before the generation is read, so that no change can be missed once cached.
+                registerBatteryReceiverIfNeeded();
+            }
+            generation = mGeneration;
+            for (Detection detection : detections) {
+                final List<BatteryTip> stableTips =
+                        detection.mStable ? mStableTips.get(detection.mName) : null;
+                // The callers update the state of the tips, the cached ones are never handed out.
+                cachedTips.add(stableTips != null ? copyOf(stableTips) : null);
+            }
+        }
+        if (hasStableDetection && mContext != null) {
+            mHandler.removeCallbacks(mStableTipsTimeout);
+            mHandler.postDelayed(mStableTipsTimeout, STABLE_TIPS_TIMEOUT_MS);
+        }
+        for (int i = 0; i < size; i++) {
+            futures.add(
+                    cachedTips.get(i) == null
+                            ? mExecutor.submit(detections.get(i).mDetector)
+                            : null);
+        }
+
+        final List<BatteryTip> tips = new ArrayList<>();
+        final List<String> timedOutDetectors = new ArrayList<>();
+        boolean interrupted = false;
+        for (int i = 0; i < size; i++) {
+            final Detection detection = detections.get(i);
+            if (cachedTips.get(i) != null) {
+                tips.addAll(cachedTips.get(i));
+                continue;
+            }
+            final Future<List<BatteryTip>> future = futures.get(i);
+            if (interrupted) {
+                future.cancel(/* mayInterruptIfRunning= */ true);
+                timedOutDetectors.add(detection.mName);
+                continue;
+            }
+            final long remainingMs =
+                    startMs + detection.mDeadlineMs - SystemClock.elapsedRealtime();
+            try {
+                final List<BatteryTip> detectedTips =
+                        future.get(Math.max(0, remainingMs), TimeUnit.MILLISECONDS);
+                tips.addAll(detectedTips);
+                if (detection.mStable) {
+                    cacheStableTips(detection.mName, copyOf(detectedTips), generation);
+                }
+            } catch (TimeoutException e) {
+                Log.w(TAG, "detector over its deadline: " + detection.mName);
+                future.cancel(/* mayInterruptIfRunning= */ true);
+                timedOutDetectors.add(detection.mName);
+            } catch (ExecutionException e) {
+                Log.e(TAG, "detector failed: " + detection.mName, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(/* mayInterruptIfRunning= */ true);
+                timedOutDetectors.add(detection.mName);
+                interrupted = true;
+            }
+        }
+        Collections.sort(tips);
+        Log.d(
+                TAG,
+                String.format(
+                        "detect() size=%d timedOut=%s in %d/ms",
+                        size, timedOutDetectors, SystemClock.elapsedRealtime() - startMs));
+        return new Result(tips, timedOutDetectors);
+    }
+
+    /** Drops the cached tips of the stable detectors. */
+    public void invalidateStableTips() {
+        synchronized (mLock) {
+            mGeneration++;
+            mStableTips.clear();
+            if (mBatteryReceiver != null) {
+                mBatteryReceiver.unRegister();
+                mBatteryReceiver = null;
+            }
+        }
+        mHandler.removeCallbacks(mStableTipsTimeout);
+    }
+
+    @GuardedBy("mLock")
+    private void registerBatteryReceiverIfNeeded() {
+        if (mContext == null || mBatteryReceiver != null) {
+            return;
+        }
+        mBatteryReceiver = new BatteryBroadcastReceiver(mContext);
+        mBatteryReceiver.setBatteryChangedListener(
+                type -> {
+                    // MANUAL is sent on registration, with the state the tips are detected for.
+                    if (type != BatteryUpdateType.BATTERY_LEVEL
+                            && type != BatteryUpdateType.MANUAL) {
+                        invalidateStableTips();
+                    }
+                });
+        mBatteryReceiver.register();
+    }
+
+    private void cacheStableTips(String name, List<BatteryTip> tips, int generation) {
+        synchronized (mLock) {
+            if (generation == mGeneration) {
+                mStableTips.put(name, tips);
+            }
+        }
+    }
+
+    private static List<BatteryTip> copyOf(List<BatteryTip> tips) {
+        final List<BatteryTip> copies = new ArrayList<>(tips.size());
+        for (BatteryTip tip : tips) {
+            copies.add(copyOf(tip));
+        }
+        return copies;
+    }
+
+    private static BatteryTip copyOf(BatteryTip tip) {
+        final Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeParcelable(tip, /* parcelableFlags= */ 0);
+            parcel.setDataPosition(0);
+            return parcel.readParcelable(BatteryTip.class.getClassLoader());
+        } finally {
+            parcel.recycle();
+        }
+    }
+}
@@ -18,11 +18,13 @@ package com.android.settings.fuelgauge.batterytip;
 
 import android.content.Context;
 import android.os.BatteryUsageStats;
+import android.util.Log;
 
 import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.fuelgauge.BatteryInfo;
 import com.android.settings.fuelgauge.BatteryUtils;
+import com.android.settings.fuelgauge.batterytip.BatteryTipDetectionEngine.Detection;
 import com.android.settings.fuelgauge.batterytip.detectors.BatteryDefenderDetector;
 import com.android.settings.fuelgauge.batterytip.detectors.HighUsageDetector;
 import com.android.settings.fuelgauge.batterytip.detectors.IncompatibleChargerDetector;
@@ -31,43 +33,81 @@ import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.utils.AsyncLoaderCompat;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
- * Loader to compute and return a battery tip list. It will always return a full length list even
- * though some tips may have state {@code BaseBatteryTip.StateType.INVISIBLE}.
+ * Loader to compute and return a battery tip list. It returns a full length list even though some
+ * tips may have state {@code BaseBatteryTip.StateType.INVISIBLE}, except for the tips of the
+ * detectors over their deadline, see {@link BatteryTipDetectionEngine}.
  */
 public class BatteryTipLoader extends AsyncLoaderCompat<List<BatteryTip>> {
     private static final String TAG = "BatteryTipLoader";
 
+    private static final String DETECTOR_HIGH_USAGE = "high_usage";
+    private static final String DETECTOR_BATTERY_DEFENDER = "battery_defender";
+    private static final String DETECTOR_INCOMPATIBLE_CHARGER = "incompatible_charger";
+    private static final String DETECTOR_FEATURE_PROVIDER = "feature_provider";
+
+    // The high usage detector walks the whole BatteryUsageStats, the others read system services.
+    private static final long DEFAULT_DEADLINE_MS = 500L;
+    private static final long HIGH_USAGE_DEADLINE_MS = 2000L;
+
     private BatteryUsageStats mBatteryUsageStats;
 
     @VisibleForTesting BatteryUtils mBatteryUtils;
+    @VisibleForTesting BatteryTipDetectionEngine mDetectionEngine;
 
     public BatteryTipLoader(Context context, BatteryUsageStats batteryUsageStats) {
         super(context);
         mBatteryUsageStats = batteryUsageStats;
         mBatteryUtils = BatteryUtils.getInstance(context);
+        mDetectionEngine = BatteryTipDetectionEngine.getInstance(context);
     }
 
     @Override
     public List<BatteryTip> loadInBackground() {
-        final List<BatteryTip> tips = new ArrayList<>();
         final BatteryTipPolicy batteryTipPolicy = new BatteryTipPolicy(getContext());
         final BatteryInfo batteryInfo = mBatteryUtils.getBatteryInfo(TAG);
         final Context context = getContext().getApplicationContext();
 
-        tips.add(
-                new HighUsageDetector(context, batteryTipPolicy, mBatteryUsageStats, batteryInfo)
-                        .detect());
-        tips.add(new BatteryDefenderDetector(batteryInfo, context).detect());
-        tips.add(new IncompatibleChargerDetector(context).detect());
-        FeatureFactory.getFeatureFactory()
-                .getBatterySettingsFeatureProvider()
-                .addBatteryTipDetector(context, tips, batteryInfo, batteryTipPolicy);
-        Collections.sort(tips);
-        return tips;
+        final List<Detection> detections = new ArrayList<>();
+        detections.add(
+                Detection.of(
+                        DETECTOR_HIGH_USAGE,
+                        new HighUsageDetector(
+                                context, batteryTipPolicy, mBatteryUsageStats, batteryInfo),
+                        HIGH_USAGE_DEADLINE_MS,
+                        /* stable= */ false));
+        detections.add(
+                Detection.of(
+                        DETECTOR_BATTERY_DEFENDER,
+                        new BatteryDefenderDetector(batteryInfo, context),
+                        DEFAULT_DEADLINE_MS,
+                        /* stable= */ true));
+        detections.add(
+                Detection.of(
+                        DETECTOR_INCOMPATIBLE_CHARGER,
+                        new IncompatibleChargerDetector(context),
+                        DEFAULT_DEADLINE_MS,
+                        /* stable= */ true));
+        detections.add(
+                Detection.ofAll(
+                        DETECTOR_FEATURE_PROVIDER,
+                        () -> {
+                            final List<BatteryTip> tips = new ArrayList<>();
+                            FeatureFactory.getFeatureFactory()
+                                    .getBatterySettingsFeatureProvider()
+                                    .addBatteryTipDetector(
+                                            context, tips, batteryInfo, batteryTipPolicy);
+                            return tips;
+                        },
+                        DEFAULT_DEADLINE_MS));
+
+        final BatteryTipDetectionEngine.Result result = mDetectionEngine.detect(detections);
+        if (!result.getTimedOutDetectors().isEmpty()) {
+            Log.w(TAG, "tips left out, detectors timed out: " + result.getTimedOutDetectors());
+        }
+        return result.getTips();
     }
 
     @Override
@@ -17,9 +17,8 @@
 package com.android.settings.fuelgauge.batterytip;
 
 import android.content.Context;
-import android.content.pm.PackageManager;
+import android.graphics.drawable.Drawable;
 import android.os.UserHandle;
-import android.util.IconDrawableFactory;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -29,15 +28,14 @@ import android.widget.TextView;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.android.settings.R;
-import com.android.settings.Utils;
+import com.android.settings.applications.AppIconLabelCache;
 
 import java.util.List;
 
 /** Adapter for the high usage app list */
 public class HighUsageAdapter extends RecyclerView.Adapter<HighUsageAdapter.ViewHolder> {
     private final Context mContext;
-    private final IconDrawableFactory mIconDrawableFactory;
-    private final PackageManager mPackageManager;
+    private final AppIconLabelCache mAppIconLabelCache;
     private final List<AppInfo> mHighUsageAppList;
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
@@ -58,8 +56,7 @@ public class HighUsageAdapter extends RecyclerView.Adapter<HighUsageAdapter.View
     public HighUsageAdapter(Context context, List<AppInfo> highUsageAppList) {
         mContext = context;
         mHighUsageAppList = highUsageAppList;
-        mIconDrawableFactory = IconDrawableFactory.newInstance(context);
-        mPackageManager = context.getPackageManager();
+        mAppIconLabelCache = AppIconLabelCache.getInstance(context);
     }
 
     @Override
@@ -72,13 +69,11 @@ public class HighUsageAdapter extends RecyclerView.Adapter<HighUsageAdapter.View
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
         final AppInfo app = mHighUsageAppList.get(position);
+        final int userId = UserHandle.getUserId(app.uid);
+        final Drawable icon = mAppIconLabelCache.getBadgedIcon(app.packageName, userId);
         holder.appIcon.setImageDrawable(
-                Utils.getBadgedIcon(
-                        mIconDrawableFactory,
-                        mPackageManager,
-                        app.packageName,
-                        UserHandle.getUserId(app.uid)));
-        CharSequence label = Utils.getApplicationLabel(mContext, app.packageName);
+                icon != null ? icon : mContext.getPackageManager().getDefaultActivityIcon());
+        CharSequence label = mAppIconLabelCache.getLabel(app.packageName, userId);
         if (label == null) {
             label = app.packageName;
         }
@@ -332,6 +332,16 @@ public class BatteryDiffEntry {
         return uid;
     }
 
+    /** Returns true if the label and icon are loaded or cached. */
+    boolean hasLabelAndIcon() {
+        if (mIsLoaded) {
+            return true;
+        }
+        synchronized (sResourceCacheLock) {
+            return sResourceCache.containsKey(getKey());
+        }
+    }
+
     void loadLabelAndIcon() {
         if (mIsLoaded) {
             return;
@@ -499,8 +509,6 @@ public class BatteryDiffEntry {
         final NameAndIcon nameAndIcon =
                 BatteryEntry.loadNameAndIcon(
                         mContext, uid, /* batteryEntry= */ null, packageName, mAppLabel, mAppIcon);
-        // Clears BatteryEntry internal cache since we will have another one.
-        BatteryEntry.clearUidCache();
         if (nameAndIcon != null) {
             mAppLabel = nameAndIcon.mName;
             mAppIcon = nameAndIcon.mIcon;
@@ -576,6 +584,7 @@ public class BatteryDiffEntry {
         synchronized (sPackageNameAndUidCacheLock) {
             sPackageNameAndUidCache.clear();
         }
+        BatteryEntry.clearUidCache();
     }
 
     private static void putResourceCache(String key, NameAndIcon nameAndIcon) {
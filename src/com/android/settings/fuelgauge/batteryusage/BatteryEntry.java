@@ -36,14 +36,23 @@ import android.os.UserManager;
 import android.util.ArrayMap;
 import android.util.DebugUtils;
 import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.R;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settingslib.Utils;
 import com.android.settingslib.utils.StringUtil;
 
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Wraps the power usage data of a BatterySipper with information about package name and icon image.
@@ -92,13 +101,17 @@ public class BatteryEntry {
                         BatteryConsumer.POWER_COMPONENT_ANY, BatteryConsumer.PROCESS_STATE_CACHED),
             };
 
-    static final ArrayMap<String, UidToDetail> sUidCache = new ArrayMap<>();
-
     static Locale sCurrentLocale = null;
 
+    // Below this many uids, querying each package is cheaper than listing the installed apps.
+    @VisibleForTesting static final int PRELOAD_MIN_UIDS = 8;
+
     /** Clears the UID cache. */
     public static void clearUidCache() {
-        sUidCache.clear();
+        final UidDetailCache uidCache = UidDetailCache.peekInstance();
+        if (uidCache != null) {
+            uidCache.clear();
+        }
     }
 
     public static final Comparator<BatteryEntry> COMPARATOR =
@@ -126,6 +139,7 @@ public class BatteryEntry {
     private double mConsumedPowerInBackground;
     private double mConsumedPowerInCached;
 
+    /** Label, package and icon resolved for a uid, null if they cannot be resolved. */
     static class UidToDetail {
         String mName;
         String mPackageName;
@@ -299,102 +313,210 @@ public class BatteryEntry {
             return null;
         }
 
-        final PackageManager pm = context.getPackageManager();
-        final String[] packages =
-                isSystemUid(uid) ? new String[] {PACKAGE_SYSTEM} : pm.getPackagesForUid(uid);
-        if (packages != null) {
-            final String[] packageLabels = new String[packages.length];
-            System.arraycopy(packages, 0, packageLabels, 0, packages.length);
-
-            // Convert package names to user-facing labels where possible
-            final IPackageManager ipm = AppGlobals.getPackageManager();
+        final UidDetailCache uidCache = UidDetailCache.getInstance(context);
+        UidToDetail utd = uidCache.get(uid);
+        if (utd == null) {
+            utd = loadUidDetail(context, uid, /* packages= */ null, /* installedApps= */ null);
+            uidCache.put(uid, utd);
+        }
+
+        // The cache only holds what was resolved from the uid, the arguments are the fallbacks.
+        if (utd.mName != null) {
+            name = utd.mName;
+        }
+        if (utd.mPackageName != null) {
+            defaultPackageName = utd.mPackageName;
+        }
+        if (utd.mIcon != null) {
+            icon = newIconInstance(utd.mIcon);
+        }
+        if (icon == null) {
+            icon = context.getPackageManager().getDefaultActivityIcon();
+        }
+        return new NameAndIcon(name, defaultPackageName, icon, /* iconId= */ 0);
+    }
+
+    /**
+     * Loads the app labels and icons of {@code uids} which are not cached yet, with a single
+     * query of the installed apps of each user instead of one query per uid and package. Does
+     * nothing for less than {@link #PRELOAD_MIN_UIDS} uids, which are loaded on demand.
+     */
+    public static void preloadNameAndIcons(Context context, Collection<Integer> uids) {
+        final UidDetailCache uidCache = UidDetailCache.getInstance(context);
+        final SparseArray<List<Integer>> missingUidsByUser = new SparseArray<>();
+        int missingCount = 0;
+        for (int uid : uids) {
+            if (uid == 0 || uid == Process.INVALID_UID || uidCache.contains(uid)) {
+                continue;
+            }
             final int userId = UserHandle.getUserId(uid);
-            for (int i = 0; i < packageLabels.length; i++) {
+            List<Integer> missingUids = missingUidsByUser.get(userId);
+            if (missingUids == null) {
+                missingUids = new ArrayList<>();
+                missingUidsByUser.put(userId, missingUids);
+            }
+            missingUids.add(uid);
+            missingCount++;
+        }
+        if (missingCount < PRELOAD_MIN_UIDS) {
+            return;
+        }
+
+        final long startTime = System.currentTimeMillis();
+        final PackageManager pm = context.getPackageManager();
+        for (int i = 0; i < missingUidsByUser.size(); i++) {
+            final List<Integer> missingUids = missingUidsByUser.valueAt(i);
+            final List<ApplicationInfo> apps =
+                    pm.getInstalledApplicationsAsUser(0 /* no flags */, missingUidsByUser.keyAt(i));
+            final Map<String, ApplicationInfo> installedApps = new ArrayMap<>(apps.size());
+            final SparseArray<List<String>> packagesByUid = new SparseArray<>();
+            for (ApplicationInfo app : apps) {
+                installedApps.put(app.packageName, app);
+                List<String> packages = packagesByUid.get(app.uid);
+                if (packages == null) {
+                    packages = new ArrayList<>(1);
+                    packagesByUid.put(app.uid, packages);
+                }
+                packages.add(app.packageName);
+            }
+            for (int uid : missingUids) {
+                final List<String> packages = packagesByUid.get(uid);
+                uidCache.put(
+                        uid,
+                        loadUidDetail(
+                                context,
+                                uid,
+                                packages != null ? packages.toArray(new String[0]) : null,
+                                installedApps));
+            }
+        }
+        Log.d(
+                TAG,
+                String.format(
+                        "preloadNameAndIcons() size=%d in %d/ms",
+                        missingCount, System.currentTimeMillis() - startTime));
+    }
+
+    /** Dumps the state of the uid cache. */
+    public static void dumpUidCache(PrintWriter writer) {
+        final UidDetailCache uidCache = UidDetailCache.peekInstance();
+        if (uidCache != null) {
+            uidCache.dump(writer);
+        }
+    }
+
+    /**
+     * Resolves the label, icon and package of the app running as {@code uid}. The packages of the
+     * uid and their application infos are taken from {@code knownPackages} and
+     * {@code installedApps} if present, or queried otherwise.
+     */
+    private static UidToDetail loadUidDetail(
+            Context context,
+            int uid,
+            @Nullable String[] knownPackages,
+            @Nullable Map<String, ApplicationInfo> installedApps) {
+        final UidToDetail utd = new UidToDetail();
+        final PackageManager pm = context.getPackageManager();
+        final String[] packages;
+        if (isSystemUid(uid)) {
+            packages = new String[] {PACKAGE_SYSTEM};
+        } else if (knownPackages != null) {
+            packages = knownPackages;
+        } else {
+            // Also for the uids missing from the installed apps, e.g. of disabled packages.
+            packages = pm.getPackagesForUid(uid);
+        }
+        if (packages == null) {
+            return utd;
+        }
+        final String[] packageLabels = new String[packages.length];
+        System.arraycopy(packages, 0, packageLabels, 0, packages.length);
+
+        // Convert package names to user-facing labels where possible
+        final IPackageManager ipm = AppGlobals.getPackageManager();
+        final int userId = UserHandle.getUserId(uid);
+        for (int i = 0; i < packageLabels.length; i++) {
+            try {
+                final ApplicationInfo ai =
+                        installedApps != null
+                                ? installedApps.get(packageLabels[i])
+                                : ipm.getApplicationInfo(
+                                        packageLabels[i], 0 /* no flags */, userId);
+                if (ai == null) {
+                    Log.d(
+                            TAG,
+                            "Retrieving null app info for package "
+                                    + packageLabels[i]
+                                    + ", user "
+                                    + userId);
+                    continue;
+                }
+                final CharSequence label = ai.loadLabel(pm);
+                if (label != null) {
+                    packageLabels[i] = label.toString();
+                }
+                if (ai.icon != 0) {
+                    utd.mPackageName = packages[i];
+                    utd.mIcon = ai.loadIcon(pm);
+                    break;
+                }
+            } catch (RemoteException e) {
+                Log.d(
+                        TAG,
+                        "Error while retrieving app info for package "
+                                + packageLabels[i]
+                                + ", user "
+                                + userId,
+                        e);
+            }
+        }
+
+        if (packageLabels.length == 1) {
+            utd.mName = packageLabels[0];
+        } else {
+            // Look for an official name for this UID.
+            for (String pkgName : packages) {
                 try {
-                    final ApplicationInfo ai =
-                            ipm.getApplicationInfo(packageLabels[i], 0 /* no flags */, userId);
-                    if (ai == null) {
+                    final PackageInfo pi = ipm.getPackageInfo(pkgName, 0, userId);
+                    if (pi == null) {
                         Log.d(
                                 TAG,
-                                "Retrieving null app info for package "
-                                        + packageLabels[i]
+                                "Retrieving null package info for package "
+                                        + pkgName
                                         + ", user "
                                         + userId);
                         continue;
                     }
-                    final CharSequence label = ai.loadLabel(pm);
-                    if (label != null) {
-                        packageLabels[i] = label.toString();
-                    }
-                    if (ai.icon != 0) {
-                        defaultPackageName = packages[i];
-                        icon = ai.loadIcon(pm);
-                        break;
+                    if (pi.sharedUserLabel != 0) {
+                        final CharSequence nm =
+                                pm.getText(pkgName, pi.sharedUserLabel, pi.applicationInfo);
+                        if (nm != null) {
+                            utd.mName = nm.toString();
+                            if (pi.applicationInfo.icon != 0) {
+                                utd.mPackageName = pkgName;
+                                utd.mIcon = pi.applicationInfo.loadIcon(pm);
+                            }
+                            break;
+                        }
                     }
                 } catch (RemoteException e) {
                     Log.d(
                             TAG,
-                            "Error while retrieving app info for package "
-                                    + packageLabels[i]
+                            "Error while retrieving package info for package "
+                                    + pkgName
                                     + ", user "
                                     + userId,
                             e);
                 }
             }
-
-            if (packageLabels.length == 1) {
-                name = packageLabels[0];
-            } else {
-                // Look for an official name for this UID.
-                for (String pkgName : packages) {
-                    try {
-                        final PackageInfo pi = ipm.getPackageInfo(pkgName, 0, userId);
-                        if (pi == null) {
-                            Log.d(
-                                    TAG,
-                                    "Retrieving null package info for package "
-                                            + pkgName
-                                            + ", user "
-                                            + userId);
-                            continue;
-                        }
-                        if (pi.sharedUserLabel != 0) {
-                            final CharSequence nm =
-                                    pm.getText(pkgName, pi.sharedUserLabel, pi.applicationInfo);
-                            if (nm != null) {
-                                name = nm.toString();
-                                if (pi.applicationInfo.icon != 0) {
-                                    defaultPackageName = pkgName;
-                                    icon = pi.applicationInfo.loadIcon(pm);
-                                }
-                                break;
-                            }
-                        }
-                    } catch (RemoteException e) {
-                        Log.d(
-                                TAG,
-                                "Error while retrieving package info for package "
-                                        + pkgName
-                                        + ", user "
-                                        + userId,
-                                e);
-                    }
-                }
-            }
         }
+        return utd;
+    }
 
-        final String uidString = Integer.toString(uid);
-        if (icon == null) {
-            icon = pm.getDefaultActivityIcon();
-        }
-
-        UidToDetail utd = new UidToDetail();
-        utd.mName = name;
-        utd.mIcon = icon;
-        utd.mPackageName = defaultPackageName;
-
-        sUidCache.put(uidString, utd);
-        return new NameAndIcon(name, defaultPackageName, icon, /* iconId= */ 0);
+    /** Returns a new instance sharing the state of the cached icon, which may be mutated. */
+    private static Drawable newIconInstance(Drawable icon) {
+        final Drawable.ConstantState state = icon.getConstantState();
+        return state != null ? state.newDrawable() : icon;
     }
 
     /** Returns a string that uniquely identifies this battery consumer. */
@@ -44,6 +44,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 
 /** {@link ContentProvider} class to fetch battery usage data. */
 public class BatteryUsageContentProvider extends ContentProvider {
@@ -188,6 +189,37 @@ public class BatteryUsageContentProvider extends ContentProvider {
         return uri;
     }
 
+    @Override
+    public int bulkInsert(@NonNull Uri uri, @NonNull ContentValues[] values) {
+        // Each batch is written in a single transaction, instead of one per row.
+        try {
+            switch (sUriMatcher.match(uri)) {
+                case BATTERY_STATE_CODE:
+                    mBatteryStateDao.insertAll(createAll(values, BatteryState::create));
+                    break;
+                case APP_USAGE_EVENT_CODE:
+                    mAppUsageEventDao.insertAll(createAll(values, AppUsageEventEntity::create));
+                    break;
+                case BATTERY_EVENT_CODE:
+                    mBatteryEventDao.insertAll(createAll(values, BatteryEventEntity::create));
+                    break;
+                case BATTERY_USAGE_SLOT_CODE:
+                    mBatteryUsageSlotDao.insertAll(
+                            createAll(values, BatteryUsageSlotEntity::create));
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown URI: " + uri);
+            }
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw e;
+            }
+            Log.e(TAG, "bulkInsert() from:" + uri + " error:", e);
+            return 0;
+        }
+        return values.length;
+    }
+
     @Override
     public int delete(@NonNull Uri uri, @Nullable String s, @Nullable String[] strings) {
         throw new UnsupportedOperationException("unsupported!");
@@ -318,6 +350,15 @@ public class BatteryUsageContentProvider extends ContentProvider {
         return cursor;
     }
 
+    private static <T> List<T> createAll(
+            ContentValues[] values, Function<ContentValues, T> factory) {
+        final List<T> entities = new ArrayList<>(values.length);
+        for (ContentValues contentValues : values) {
+            entities.add(factory.apply(contentValues));
+        }
+        return entities;
+    }
+
     private List<Integer> getQueryBatteryEventTypes(Uri uri) {
         Log.d(TAG, "getQueryBatteryEventTypes from uri: " + uri);
         final String batteryEventTypesParameter =
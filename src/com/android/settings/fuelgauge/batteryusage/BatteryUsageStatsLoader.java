@@ -19,12 +19,14 @@ package com.android.settings.fuelgauge.batteryusage;
 import android.content.Context;
 import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.util.Log;
 
 import com.android.settingslib.utils.AsyncLoaderCompat;
 
-/** Loader to get new {@link BatteryUsageStats} in the background */
+/**
+ * Loader to get new {@link BatteryUsageStats} in the background. The loader owns the result and
+ * releases it with {@link BatteryUsageStatsProvider#release} once discarded.
+ */
 public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStats> {
     private static final String TAG = "BatteryUsageStatsLoader";
     private final BatteryStatsManager mBatteryStatsManager;
@@ -38,13 +40,12 @@ public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStats
 
     @Override
     public BatteryUsageStats loadInBackground() {
-        final BatteryUsageStatsQuery.Builder builder = new BatteryUsageStatsQuery.Builder();
-        if (mIncludeBatteryHistory) {
-            builder.includeBatteryHistory();
-        }
         try {
-            return mBatteryStatsManager.getBatteryUsageStats(
-                    builder.includeProcessStateData().build());
+            return BatteryUsageStatsProvider.getInstance()
+                    .acquire(
+                            mBatteryStatsManager,
+                            mIncludeBatteryHistory,
+                            /* includeProcessStateData= */ true);
         } catch (RuntimeException e) {
             Log.e(TAG, "loadInBackground() for getBatteryUsageStats()", e);
             // Use default BatteryUsageStats.
@@ -53,5 +54,7 @@ public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStats
     }
 
     @Override
-    protected void onDiscardResult(BatteryUsageStats result) {}
+    protected void onDiscardResult(BatteryUsageStats result) {
+        BatteryUsageStatsProvider.getInstance().release(result);
+    }
 }
@@ -0,0 +1,414 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import android.content.Context;
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
+import android.os.Parcel;
+import android.os.SystemClock;
+import android.util.ArrayMap;
+import android.util.Log;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Process-wide provider of {@link BatteryUsageStats} snapshots.
+ *
+ * <p>Fetching {@link BatteryUsageStats} is a binder call which serializes the whole stats, so the
+ * snapshots are shared: a snapshot fetched less than {@link #setFreshnessMs freshness window} ago
+ * is handed out again, and concurrent requests wait for the same in-flight query. Snapshots are
+ * keyed by the query parameters, and a snapshot fetched with more data than requested (e.g. with
+ * the process state data) also serves the requests for less. Every snapshot returned by
+ * {@link #acquire} must be given back with {@link #release} instead of being closed, the snapshot
+ * is closed once its last holder released it and it is no longer fresh.
+ *
+ * <p>Reading the battery history iterates over state held by the {@link BatteryUsageStats}, so a
+ * request including the history still shares the fetch but gets its own copy of the snapshot,
+ * owned by its caller alone.
+ */
+public final class BatteryUsageStatsProvider {
+    private static final String TAG = "BatteryUsageStatsProvider";
+
+    @VisibleForTesting static final long DEFAULT_FRESHNESS_MS = 2000L;
+
+    @VisibleForTesting static BatteryUsageStatsProvider sInstance;
+
+    private final Object mLock = new Object();
+
+    private final UnaryOperator<BatteryUsageStats> mCopier;
+
+    // Snapshots by query flags.
+    @GuardedBy("mLock")
+    private final Map<Integer, Slot> mSlots = new ArrayMap<>();
+
+    @GuardedBy("mLock")
+    private final Map<BatteryUsageStats, Snapshot> mSnapshotsByStats = new IdentityHashMap<>();
+
+    @GuardedBy("mLock")
+    private long mFreshnessMs = DEFAULT_FRESHNESS_MS;
+
+    /** Gets the process-wide instance. */
+    public static synchronized BatteryUsageStatsProvider getInstance() {
+        if (sInstance == null) {
+            sInstance = new BatteryUsageStatsProvider();
+        }
+        return sInstance;
+    }
+
+    private BatteryUsageStatsProvider() {
+        this(BatteryUsageStatsProvider::copy);
+    }
+
+    @VisibleForTesting
+    BatteryUsageStatsProvider(UnaryOperator<BatteryUsageStats> copier) {
+        mCopier = copier;
+    }
+
+    /**
+     * Sets how long a fetched snapshot is handed out again. Zero only coalesces the concurrent
+     * requests.
+     */
+    public void setFreshnessMs(long freshnessMs) {
+        synchronized (mLock) {
+            mFreshnessMs = freshnessMs;
+        }
+    }
+
+    /** Acquires a snapshot, see {@link #acquire(BatteryStatsManager, boolean, boolean)}. */
+    @WorkerThread
+    @Nullable
+    public BatteryUsageStats acquire(
+            Context context, boolean includeBatteryHistory, boolean includeProcessStateData) {
+        return acquire(
+                context.getSystemService(BatteryStatsManager.class),
+                includeBatteryHistory,
+                includeProcessStateData);
+    }
+
+    /**
+     * Acquires a snapshot including the battery history and the process state data if requested.
+     * Blocks until the snapshot is fetched if none is fresh. A snapshot including the battery
+     * history is a copy owned by the caller.
+     *
+     * @throws RuntimeException if the snapshot cannot be fetched
+     */
+    @WorkerThread
+    @Nullable
+    public BatteryUsageStats acquire(
+            BatteryStatsManager batteryStatsManager,
+            boolean includeBatteryHistory,
+            boolean includeProcessStateData) {
+        final BatteryUsageStats stats =
+                acquireShared(
+                        batteryStatsManager,
+                        getQueryFlags(includeBatteryHistory, includeProcessStateData));
+        if (!includeBatteryHistory || stats == null) {
+            return stats;
+        }
+        // Not registered as a snapshot, so that release() closes it right away.
+        try {
+            return mCopier.apply(stats);
+        } finally {
+            release(stats);
+        }
+    }
+
+    /**
+     * Releases a snapshot returned by {@link #acquire}. Other {@link BatteryUsageStats} are closed
+     * right away.
+     */
+    public void release(@Nullable BatteryUsageStats batteryUsageStats) {
+        if (batteryUsageStats == null) {
+            return;
+        }
+        synchronized (mLock) {
+            final Snapshot snapshot = mSnapshotsByStats.get(batteryUsageStats);
+            if (snapshot != null) {
+                if (snapshot.mHolders == 0) {
+                    Log.w(TAG, "release() of a snapshot without holders");
+                    return;
+                }
+                snapshot.mHolders--;
+                if (!canClose(snapshot)) {
+                    return;
+                }
+                mSnapshotsByStats.remove(batteryUsageStats);
+            }
+        }
+        close(batteryUsageStats);
+    }
+
+    @VisibleForTesting
+    int getHolderCount(BatteryUsageStats batteryUsageStats) {
+        synchronized (mLock) {
+            final Snapshot snapshot = mSnapshotsByStats.get(batteryUsageStats);
+            return snapshot != null ? snapshot.mHolders : 0;
+        }
+    }
+
+    @VisibleForTesting
+    int getWaiterCount() {
+        int waiters = 0;
+        synchronized (mLock) {
+            for (Slot slot : mSlots.values()) {
+                waiters += slot.mInFlight != null ? slot.mInFlight.mWaiters : 0;
+            }
+        }
+        return waiters;
+    }
+
+    private BatteryUsageStats acquireShared(BatteryStatsManager batteryStatsManager, int flags) {
+        Request request = null;
+        final boolean isWaiting;
+        synchronized (mLock) {
+            for (Slot slot : mSlots.values()) {
+                final Snapshot latest = slot.mLatest;
+                if (covers(slot, flags) && latest != null && isFresh(latest)) {
+                    latest.mHolders++;
+                    return latest.mStats;
+                }
+            }
+            for (Slot slot : mSlots.values()) {
+                if (covers(slot, flags) && slot.mInFlight != null) {
+                    request = slot.mInFlight;
+                    break;
+                }
+            }
+            isWaiting = request != null;
+            if (isWaiting) {
+                request.mWaiters++;
+            } else {
+                Slot slot = mSlots.get(flags);
+                if (slot == null) {
+                    slot = new Slot(flags);
+                    mSlots.put(flags, slot);
+                }
+                request = new Request(batteryStatsManager, slot);
+                slot.mInFlight = request;
+            }
+        }
+        return isWaiting ? await(request) : fetch(request);
+    }
+
+    private static BatteryUsageStats query(BatteryStatsManager batteryStatsManager, int flags) {
+        final BatteryUsageStatsQuery.Builder builder = new BatteryUsageStatsQuery.Builder();
+        if ((flags & BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_HISTORY) != 0) {
+            builder.includeBatteryHistory();
+        }
+        if ((flags & BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_PROCESS_STATE_DATA)
+                != 0) {
+            builder.includeProcessStateData();
+        }
+        final long startTime = SystemClock.elapsedRealtime();
+        final BatteryUsageStats stats = batteryStatsManager.getBatteryUsageStats(builder.build());
+        Log.d(
+                TAG,
+                String.format(
+                        "query(flags=0x%x) in %d/ms",
+                        flags, SystemClock.elapsedRealtime() - startTime));
+        return stats;
+    }
+
+    private BatteryUsageStats fetch(Request request) {
+        final BatteryUsageStats stats;
+        try {
+            stats = query(request.mBatteryStatsManager, request.mSlot.mFlags);
+        } catch (RuntimeException e) {
+            synchronized (mLock) {
+                finishRequest(request);
+            }
+            request.mFuture.completeExceptionally(e);
+            throw e;
+        }
+        if (stats == null) {
+            synchronized (mLock) {
+                finishRequest(request);
+            }
+            request.mFuture.complete(null);
+            return null;
+        }
+
+        final Slot slot = request.mSlot;
+        final Snapshot snapshot = new Snapshot(slot, stats);
+        final long freshnessMs;
+        Snapshot replaced = null;
+        synchronized (mLock) {
+            finishRequest(request);
+            // The waiters are counted before they wake up, so that the snapshot cannot be closed
+            // in the meantime.
+            snapshot.mHolders = 1 + request.mWaiters;
+            snapshot.mCached = true;
+            mSnapshotsByStats.put(stats, snapshot);
+            if (slot.mLatest != null) {
+                replaced = slot.mLatest;
+                replaced.mCached = false;
+                if (canClose(replaced)) {
+                    mSnapshotsByStats.remove(replaced.mStats);
+                } else {
+                    replaced = null;
+                }
+            }
+            slot.mLatest = snapshot;
+            freshnessMs = mFreshnessMs;
+        }
+        if (replaced != null) {
+            close(replaced.mStats);
+        }
+        request.mFuture.complete(snapshot);
+        ThreadUtils.getUiThreadHandler()
+                .postDelayed(() -> expire(snapshot), freshnessMs);
+        return stats;
+    }
+
+    private BatteryUsageStats await(Request request) {
+        try {
+            final Snapshot snapshot = request.mFuture.get();
+            return snapshot != null ? snapshot.mStats : null;
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause
+                    : new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Gives back the holder counted for this waiter once the snapshot is fetched.
+            request.mFuture.thenAccept(
+                    snapshot -> release(snapshot != null ? snapshot.mStats : null));
+            throw new IllegalStateException("Interrupted while waiting for BatteryUsageStats", e);
+        }
+    }
+
+    private void expire(Snapshot snapshot) {
+        synchronized (mLock) {
+            final Slot slot = snapshot.mSlot;
+            if (slot.mLatest != snapshot) {
+                return;
+            }
+            slot.mLatest = null;
+            snapshot.mCached = false;
+            if (!canClose(snapshot)) {
+                return;
+            }
+            mSnapshotsByStats.remove(snapshot.mStats);
+        }
+        close(snapshot.mStats);
+    }
+
+    @GuardedBy("mLock")
+    private void finishRequest(Request request) {
+        if (request.mSlot.mInFlight == request) {
+            request.mSlot.mInFlight = null;
+        }
+    }
+
+    @GuardedBy("mLock")
+    private boolean isFresh(Snapshot snapshot) {
+        return SystemClock.elapsedRealtime() - snapshot.mFetchTime < mFreshnessMs;
+    }
+
+    private static int getQueryFlags(
+            boolean includeBatteryHistory, boolean includeProcessStateData) {
+        int flags = 0;
+        if (includeBatteryHistory) {
+            flags |= BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_HISTORY;
+        }
+        if (includeProcessStateData) {
+            flags |= BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_PROCESS_STATE_DATA;
+        }
+        return flags;
+    }
+
+    // Whether the snapshots of the slot contain all the data requested with the flags.
+    private static boolean covers(Slot slot, int flags) {
+        return (slot.mFlags & flags) == flags;
+    }
+
+    // A cached snapshot is closed by expire() or once it is replaced.
+    private static boolean canClose(Snapshot snapshot) {
+        return snapshot.mHolders == 0 && !snapshot.mCached;
+    }
+
+    /** Copies the stats through a parcel, serialized per snapshot. */
+    private static BatteryUsageStats copy(BatteryUsageStats batteryUsageStats) {
+        final Parcel parcel = Parcel.obtain();
+        try {
+            synchronized (batteryUsageStats) {
+                batteryUsageStats.writeToParcel(parcel, /* flags= */ 0);
+            }
+            parcel.setDataPosition(0);
+            return BatteryUsageStats.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static void close(BatteryUsageStats batteryUsageStats) {
+        try {
+            batteryUsageStats.close();
+        } catch (Exception e) {
+            Log.e(TAG, "BatteryUsageStats.close() failed", e);
+        }
+    }
+
+    private static final class Slot {
+        final int mFlags;
+        @Nullable Snapshot mLatest;
+        @Nullable Request mInFlight;
+
+        Slot(int flags) {
+            mFlags = flags;
+        }
+    }
+
+    private static final class Request {
+        final BatteryStatsManager mBatteryStatsManager;
+        final Slot mSlot;
+        final CompletableFuture<Snapshot> mFuture = new CompletableFuture<>();
+        int mWaiters;
+
+        Request(BatteryStatsManager batteryStatsManager, Slot slot) {
+            mBatteryStatsManager = batteryStatsManager;
+            mSlot = slot;
+        }
+    }
+
+    private static final class Snapshot {
+        final Slot mSlot;
+        final BatteryUsageStats mStats;
+        final long mFetchTime = SystemClock.elapsedRealtime();
+        int mHolders;
+        boolean mCached;
+
+        Snapshot(Slot slot, BatteryUsageStats stats) {
+            mSlot = slot;
+            mStats = stats;
+        }
+    }
+}
@@ -18,7 +18,6 @@ package com.android.settings.fuelgauge.batteryusage;
 
 import android.app.usage.UsageEvents;
 import android.content.Context;
-import android.os.AsyncTask;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.ArrayMap;
@@ -30,6 +29,7 @@ import androidx.annotation.Nullable;
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.settings.fuelgauge.PowerUsageFeatureProvider;
 import com.android.settings.overlay.FeatureFactory;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -37,45 +37,61 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
- * Manages the async tasks to process battery and app usage data.
+ * Manages the loading and processing of battery and app usage data, as a graph of stages running
+ * on a background executor, see {@link StageGraph}.
  *
- * <p>For now, there exist 4 async tasks in this manager:
+ * <p>If there is battery level data, these stages are started at the same time:
  *
  * <ul>
- *   <li>loadCurrentBatteryHistoryMap: load the latest battery history data from battery stats
- *       service.
- *   <li>loadCurrentAppUsageList: load the latest app usage data (last timestamp in database - now)
- *       from usage stats service.
- *   <li>loadDatabaseAppUsageList: load the necessary app usage data (after last full charge) from
- *       database
- *   <li>loadAndApplyBatteryMapFromServiceOnly: load all the battery history data (should be after
- *       last full charge) from battery stats service and apply the callback function directly
+ *   <li>{@link #STAGE_CURRENT_BATTERY_HISTORY}: load the latest battery history data from battery
+ *       stats service.
+ *   <li>{@link #STAGE_CURRENT_APP_USAGE}: load the latest app usage data (last timestamp in
+ *       database - now) from usage stats service.
+ *   <li>{@link #STAGE_DATABASE_APP_USAGE}: load the necessary app usage data (after last full
+ *       charge) from database.
+ *   <li>{@link #STAGE_POWER_CONNECTION_EVENTS}: load the power connection events from database.
+ *   <li>{@link #STAGE_BATTERY_USAGE_SLOTS}: load the existing battery usage slots from database.
  * </ul>
  *
- * If there is battery level data, the first 3 async tasks will be started at the same time.
+ * The stages loading from the services are skipped for the period job, and the battery usage
+ * slots are only loaded for the main user profile.
  *
  * <ul>
- *   <li>After loadCurrentAppUsageList and loadDatabaseAppUsageList complete, which means all app
- *       usage data has been loaded, the intermediate usage result will be generated.
- *   <li>Then after all 3 async tasks complete, the battery history data and app usage data will be
- *       combined to generate final data used for UI rendering. And the callback function will be
- *       applied.
+ *   <li>{@link #STAGE_APP_USAGE_PERIODS} starts once the app usage data and the power connection
+ *       events are loaded, and generates the intermediate usage result.
+ *   <li>{@link #STAGE_BATTERY_DIFF_DATA} starts once all the other stages completed, and combines
+ *       the battery history data and app usage data to generate final data used for UI rendering.
+ *       Only its result is posted to the handler, to apply the callback function. If a stage
+ *       failed, the callback function is applied with empty data.
  *   <li>If current user is locked, which means we couldn't get the latest app usage data, screen-on
  *       time will not be shown in the UI and empty screen-on time data will be returned.
  * </ul>
  *
- * If there is no battery level data, the 4th async task will be started only and the usage map
- * callback function will be applied directly to show the app list on the UI.
+ * If there is no battery level data, only {@link #STAGE_SERVICE_ONLY} is started, to load all the
+ * battery history data (should be after last full charge) from battery stats service and show it
+ * as the app list directly.
  */
 public class DataProcessManager {
     private static final String TAG = "DataProcessManager";
     private static final List<BatteryEventType> POWER_CONNECTION_EVENTS =
             List.of(BatteryEventType.POWER_CONNECTED, BatteryEventType.POWER_DISCONNECTED);
 
+    @VisibleForTesting static final String STAGE_CURRENT_BATTERY_HISTORY = "currentBatteryHistory";
+    @VisibleForTesting static final String STAGE_CURRENT_APP_USAGE = "currentAppUsage";
+    @VisibleForTesting static final String STAGE_DATABASE_APP_USAGE = "databaseAppUsage";
+    @VisibleForTesting static final String STAGE_POWER_CONNECTION_EVENTS = "powerConnectionEvents";
+    @VisibleForTesting static final String STAGE_BATTERY_USAGE_SLOTS = "batteryUsageSlots";
+    @VisibleForTesting static final String STAGE_APP_USAGE_PERIODS = "appUsagePeriods";
+    @VisibleForTesting static final String STAGE_BATTERY_DIFF_DATA = "batteryDiffData";
+    @VisibleForTesting static final String STAGE_SERVICE_ONLY = "serviceOnly";
+
     // For testing only.
     @VisibleForTesting static Map<Long, Map<String, BatteryHistEntry>> sFakeBatteryHistoryMap;
+    @VisibleForTesting static Executor sTestExecutor;
 
     // Raw start timestamp with round to the nearest hour.
     private final long mRawStartTimestamp;
@@ -91,15 +107,15 @@ public class DataProcessManager {
     private final List<BatteryLevelData.PeriodBatteryLevelData> mHourlyBatteryLevelsPerDay;
     private final Map<Long, Map<String, BatteryHistEntry>> mBatteryHistoryMap;
 
-    private boolean mIsCurrentBatteryHistoryLoaded = false;
-    private boolean mIsCurrentAppUsageLoaded = false;
-    private boolean mIsDatabaseAppUsageLoaded = false;
-    private boolean mIsBatteryEventLoaded = false;
-    private boolean mIsBatteryUsageSlotLoaded = false;
+    private volatile boolean mIsCurrentBatteryHistoryLoaded = false;
+    private volatile boolean mIsCurrentAppUsageLoaded = false;
+    private volatile boolean mIsDatabaseAppUsageLoaded = false;
+    private volatile boolean mIsBatteryEventLoaded = false;
     // Used to identify whether screen-on time data should be shown in the UI.
     private boolean mShowScreenOnTime = true;
     private Set<String> mSystemAppsPackageNames = null;
     private Set<Integer> mSystemAppsUids = null;
+    @Nullable private StageGraph.StageListener mStageListener;
 
     /**
      * The indexed {@link AppUsagePeriod} list data for each corresponding time slot.
@@ -112,7 +128,7 @@ public class DataProcessManager {
             mAppUsagePeriodMap;
 
     /**
-     * A callback listener when all the data is processed. This happens when all the async tasks
+     * A callback listener when all the data is processed. This happens when all the stages
      * complete and generate the final callback.
      */
     public interface OnBatteryDiffDataMapLoadedListener {
@@ -162,35 +178,75 @@ public class DataProcessManager {
         mShowScreenOnTime = false;
     }
 
-    /** Starts the async tasks to load battery history data and app usage data. */
+    /** Starts the stages to load battery history data and app usage data. */
     public void start() {
-        // If we have battery level data, load the battery history map and app usage simultaneously.
-        if (mHourlyBatteryLevelsPerDay != null) {
-            if (mIsFromPeriodJob) {
-                mIsCurrentBatteryHistoryLoaded = true;
-                mIsCurrentAppUsageLoaded = true;
-                mIsBatteryUsageSlotLoaded = true;
-            } else {
-                // Loads the latest battery history data from the service.
-                loadCurrentBatteryHistoryMap();
-                // Loads the latest app usage list from the service.
-                loadCurrentAppUsageList();
-                // Loads existing battery usage slots from database.
-                if (mUserIdsSeries.isMainUserProfileOnly()) {
-                    loadBatteryUsageSlotList();
-                } else {
-                    mIsBatteryUsageSlotLoaded = true;
-                }
-            }
-            // Loads app usage list from database.
-            loadDatabaseAppUsageList();
-            // Loads the battery event list from database.
-            loadPowerConnectionBatteryEventList();
-        } else {
+        final StageGraph graph =
+                new StageGraph(
+                        sTestExecutor != null
+                                ? sTestExecutor
+                                : ThreadUtils.getBackgroundExecutor(),
+                        mStageListener);
+        if (mHourlyBatteryLevelsPerDay == null) {
             // If there is no battery level data, only load the battery history data from service
             // and show it as the app list directly.
-            loadAndApplyBatteryMapFromServiceOnly();
+            applyCallback(graph.addStage(STAGE_SERVICE_ONLY, this::loadBatteryMapFromServiceOnly));
+            return;
         }
+
+        // The period job only processes the data in the database.
+        final CompletableFuture<Map<String, BatteryHistEntry>> currentBatteryHistoryMap;
+        final CompletableFuture<List<AppUsageEvent>> currentAppUsageList;
+        if (mIsFromPeriodJob) {
+            mIsCurrentBatteryHistoryLoaded = true;
+            mIsCurrentAppUsageLoaded = true;
+            currentBatteryHistoryMap = StageGraph.skipStage(null);
+            currentAppUsageList = StageGraph.skipStage(null);
+        } else {
+            currentBatteryHistoryMap =
+                    graph.addStage(
+                            STAGE_CURRENT_BATTERY_HISTORY, this::loadCurrentBatteryHistoryMap);
+            currentAppUsageList =
+                    graph.addStage(STAGE_CURRENT_APP_USAGE, this::loadCurrentAppUsageList);
+        }
+        final CompletableFuture<List<BatteryUsageSlot>> batteryUsageSlotList =
+                !mIsFromPeriodJob && mUserIdsSeries.isMainUserProfileOnly()
+                        ? graph.addStage(STAGE_BATTERY_USAGE_SLOTS, this::loadBatteryUsageSlotList)
+                        : StageGraph.skipStage(null);
+        final CompletableFuture<List<AppUsageEvent>> databaseAppUsageList =
+                graph.addStage(STAGE_DATABASE_APP_USAGE, this::loadDatabaseAppUsageList);
+        final CompletableFuture<List<BatteryEvent>> batteryEventList =
+                graph.addStage(
+                        STAGE_POWER_CONNECTION_EVENTS, this::loadPowerConnectionBatteryEventList);
+
+        final CompletableFuture<Void> appUsagePeriodMap =
+                graph.addStage(
+                        STAGE_APP_USAGE_PERIODS,
+                        () -> {
+                            processAppUsageData(
+                                    currentAppUsageList.join(),
+                                    databaseAppUsageList.join(),
+                                    batteryEventList.join());
+                            return null;
+                        },
+                        currentAppUsageList,
+                        databaseAppUsageList,
+                        batteryEventList);
+        applyCallback(
+                graph.addStage(
+                        STAGE_BATTERY_DIFF_DATA,
+                        () ->
+                                generateFinalData(
+                                        currentBatteryHistoryMap.join(),
+                                        batteryUsageSlotList.join()),
+                        currentBatteryHistoryMap,
+                        batteryUsageSlotList,
+                        appUsagePeriodMap));
+    }
+
+    /** Sets the listener of the running time of each stage. */
+    @VisibleForTesting
+    void setStageListener(@Nullable StageGraph.StageListener stageListener) {
+        mStageListener = stageListener;
     }
 
     @VisibleForTesting
@@ -229,242 +285,144 @@ public class DataProcessManager {
         return mShowScreenOnTime;
     }
 
-    private void loadCurrentBatteryHistoryMap() {
-        new AsyncTask<Void, Void, Map<String, BatteryHistEntry>>() {
-            @Override
-            protected Map<String, BatteryHistEntry> doInBackground(Void... voids) {
-                final long startTime = System.currentTimeMillis();
-                // Loads the current battery usage data from the battery stats service.
-                final Map<String, BatteryHistEntry> currentBatteryHistoryMap =
-                        DataProcessor.getCurrentBatteryHistoryMapFromStatsService(mContext);
-                Log.d(
-                        TAG,
-                        String.format(
-                                "execute loadCurrentBatteryHistoryMap size=%d in %d/ms",
-                                currentBatteryHistoryMap.size(),
-                                (System.currentTimeMillis() - startTime)));
-                return currentBatteryHistoryMap;
-            }
-
-            @Override
-            protected void onPostExecute(
-                    final Map<String, BatteryHistEntry> currentBatteryHistoryMap) {
-                if (mBatteryHistoryMap != null) {
-                    // Replaces the placeholder in mBatteryHistoryMap.
-                    for (Map.Entry<Long, Map<String, BatteryHistEntry>> mapEntry :
-                            mBatteryHistoryMap.entrySet()) {
-                        if (mapEntry.getValue()
-                                .containsKey(
-                                        DataProcessor.CURRENT_TIME_BATTERY_HISTORY_PLACEHOLDER)) {
-                            mapEntry.setValue(currentBatteryHistoryMap);
-                        }
-                    }
-                }
-                mIsCurrentBatteryHistoryLoaded = true;
-                tryToGenerateFinalDataAndApplyCallback();
-            }
-        }.execute();
+    private Map<String, BatteryHistEntry> loadCurrentBatteryHistoryMap() {
+        // Loads the current battery usage data from the battery stats service.
+        final Map<String, BatteryHistEntry> currentBatteryHistoryMap =
+                DataProcessor.getCurrentBatteryHistoryMapFromStatsService(mContext);
+        Log.d(
+                TAG,
+                String.format(
+                        "execute loadCurrentBatteryHistoryMap size=%d",
+                        currentBatteryHistoryMap.size()));
+        mIsCurrentBatteryHistoryLoaded = true;
+        return currentBatteryHistoryMap;
     }
 
-    private void loadCurrentAppUsageList() {
-        new AsyncTask<Void, Void, List<AppUsageEvent>>() {
-            @Override
-            @Nullable
-            protected List<AppUsageEvent> doInBackground(Void... voids) {
-                if (!shouldLoadAppUsageData()) {
-                    Log.d(TAG, "not loadCurrentAppUsageList");
-                    return null;
-                }
-                final long startTime = System.currentTimeMillis();
-                // Loads the current battery usage data from the battery stats service.
-                final Map<Long, UsageEvents> usageEventsMap = new ArrayMap<>();
-                for (int userId : mUserIdsSeries.getVisibleUserIds()) {
-                    final UsageEvents usageEventsForCurrentUser =
-                            DataProcessor.getCurrentAppUsageEventsForUser(
-                                    mContext, mUserIdsSeries, userId, mRawStartTimestamp);
-                    if (usageEventsForCurrentUser == null) {
-                        // If fail to load usage events for any user, return null directly and
-                        // screen-on time will not be shown in the UI.
-                        if (userId == mUserIdsSeries.getCurrentUserId()) {
-                            return null;
-                        }
-                    } else {
-                        usageEventsMap.put(Long.valueOf(userId), usageEventsForCurrentUser);
-                    }
-                }
-                final List<AppUsageEvent> appUsageEventList =
-                        DataProcessor.generateAppUsageEventListFromUsageEvents(
-                                mContext, usageEventsMap);
-                Log.d(
-                        TAG,
-                        String.format(
-                                "execute loadCurrentAppUsageList size=%d in %d/ms",
-                                appUsageEventList.size(),
-                                (System.currentTimeMillis() - startTime)));
-                return appUsageEventList;
+    @Nullable
+    private List<AppUsageEvent> loadCurrentAppUsageList() {
+        try {
+            if (!shouldLoadAppUsageData()) {
+                Log.d(TAG, "not loadCurrentAppUsageList");
+                return null;
             }
-
-            @Override
-            protected void onPostExecute(final List<AppUsageEvent> currentAppUsageList) {
-                if (currentAppUsageList == null || currentAppUsageList.isEmpty()) {
-                    Log.d(TAG, "currentAppUsageList is null or empty");
+            // Loads the current battery usage data from the battery stats service.
+            final Map<Long, UsageEvents> usageEventsMap = new ArrayMap<>();
+            for (int userId : mUserIdsSeries.getVisibleUserIds()) {
+                final UsageEvents usageEventsForCurrentUser =
+                        DataProcessor.getCurrentAppUsageEventsForUser(
+                                mContext, mUserIdsSeries, userId, mRawStartTimestamp);
+                if (usageEventsForCurrentUser == null) {
+                    // If fail to load usage events for any user, return null directly and
+                    // screen-on time will not be shown in the UI.
+                    if (userId == mUserIdsSeries.getCurrentUserId()) {
+                        return null;
+                    }
                 } else {
-                    mAppUsageEventList.addAll(currentAppUsageList);
+                    usageEventsMap.put(Long.valueOf(userId), usageEventsForCurrentUser);
                 }
-                mIsCurrentAppUsageLoaded = true;
-                tryToProcessAppUsageData();
             }
-        }.execute();
+            final List<AppUsageEvent> appUsageEventList =
+                    DataProcessor.generateAppUsageEventListFromUsageEvents(
+                            mContext, usageEventsMap);
+            Log.d(
+                    TAG,
+                    String.format(
+                            "execute loadCurrentAppUsageList size=%d", appUsageEventList.size()));
+            return appUsageEventList;
+        } finally {
+            mIsCurrentAppUsageLoaded = true;
+        }
     }
 
-    private void loadDatabaseAppUsageList() {
-        new AsyncTask<Void, Void, List<AppUsageEvent>>() {
-            @Override
-            protected List<AppUsageEvent> doInBackground(Void... voids) {
-                if (!shouldLoadAppUsageData()) {
-                    Log.d(TAG, "not loadDatabaseAppUsageList");
-                    return null;
-                }
-                final long startTime = System.currentTimeMillis();
-                // Loads the app usage data from the database.
-                final List<AppUsageEvent> appUsageEventList =
-                        DatabaseUtils.getAppUsageEventForUsers(
-                                mContext,
-                                Calendar.getInstance(),
-                                mUserIdsSeries.getVisibleUserIds(),
-                                mRawStartTimestamp);
-                Log.d(
-                        TAG,
-                        String.format(
-                                "execute loadDatabaseAppUsageList size=%d in %d/ms",
-                                appUsageEventList.size(),
-                                (System.currentTimeMillis() - startTime)));
-                return appUsageEventList;
-            }
-
-            @Override
-            protected void onPostExecute(final List<AppUsageEvent> databaseAppUsageList) {
-                if (databaseAppUsageList == null || databaseAppUsageList.isEmpty()) {
-                    Log.d(TAG, "databaseAppUsageList is null or empty");
-                } else {
-                    mAppUsageEventList.addAll(databaseAppUsageList);
-                }
-                mIsDatabaseAppUsageLoaded = true;
-                tryToProcessAppUsageData();
+    @Nullable
+    private List<AppUsageEvent> loadDatabaseAppUsageList() {
+        try {
+            if (!shouldLoadAppUsageData()) {
+                Log.d(TAG, "not loadDatabaseAppUsageList");
+                return null;
             }
-        }.execute();
+            // Loads the app usage data from the database.
+            final List<AppUsageEvent> appUsageEventList =
+                    DatabaseUtils.getAppUsageEventForUsers(
+                            mContext,
+                            Calendar.getInstance(),
+                            mUserIdsSeries.getVisibleUserIds(),
+                            mRawStartTimestamp);
+            Log.d(
+                    TAG,
+                    String.format(
+                            "execute loadDatabaseAppUsageList size=%d", appUsageEventList.size()));
+            return appUsageEventList;
+        } finally {
+            mIsDatabaseAppUsageLoaded = true;
+        }
     }
 
-    private void loadPowerConnectionBatteryEventList() {
-        new AsyncTask<Void, Void, List<BatteryEvent>>() {
-            @Override
-            protected List<BatteryEvent> doInBackground(Void... voids) {
-                final long startTime = System.currentTimeMillis();
-                // Loads the battery event data from the database.
-                final List<BatteryEvent> batteryEventList =
-                        DatabaseUtils.getBatteryEvents(
-                                mContext,
-                                Calendar.getInstance(),
-                                mRawStartTimestamp,
-                                POWER_CONNECTION_EVENTS);
-                Log.d(
-                        TAG,
-                        String.format(
-                                "execute loadPowerConnectionBatteryEventList size=%d in %d/ms",
-                                batteryEventList.size(), (System.currentTimeMillis() - startTime)));
-                return batteryEventList;
-            }
-
-            @Override
-            protected void onPostExecute(final List<BatteryEvent> batteryEventList) {
-                if (batteryEventList == null || batteryEventList.isEmpty()) {
-                    Log.d(TAG, "batteryEventList is null or empty");
-                } else {
-                    mBatteryEventList.clear();
-                    mBatteryEventList.addAll(batteryEventList);
-                }
-                mIsBatteryEventLoaded = true;
-                tryToProcessAppUsageData();
-            }
-        }.execute();
+    private List<BatteryEvent> loadPowerConnectionBatteryEventList() {
+        // Loads the battery event data from the database.
+        final List<BatteryEvent> batteryEventList =
+                DatabaseUtils.getBatteryEvents(
+                        mContext,
+                        Calendar.getInstance(),
+                        mRawStartTimestamp,
+                        POWER_CONNECTION_EVENTS);
+        Log.d(
+                TAG,
+                String.format(
+                        "execute loadPowerConnectionBatteryEventList size=%d",
+                        batteryEventList.size()));
+        mIsBatteryEventLoaded = true;
+        return batteryEventList;
     }
 
-    private void loadBatteryUsageSlotList() {
-        new AsyncTask<Void, Void, List<BatteryUsageSlot>>() {
-            @Override
-            protected List<BatteryUsageSlot> doInBackground(Void... voids) {
-                final long startTime = System.currentTimeMillis();
-                // Loads the battery usage slot data from the database.
-                final List<BatteryUsageSlot> batteryUsageSlotList =
-                        DatabaseUtils.getBatteryUsageSlots(
-                                mContext, Calendar.getInstance(), mLastFullChargeTimestamp);
-                Log.d(
-                        TAG,
-                        String.format(
-                                "execute loadBatteryUsageSlotList size=%d in %d/ms",
-                                batteryUsageSlotList.size(),
-                                (System.currentTimeMillis() - startTime)));
-                return batteryUsageSlotList;
-            }
-
-            @Override
-            protected void onPostExecute(final List<BatteryUsageSlot> batteryUsageSlotList) {
-                if (batteryUsageSlotList == null || batteryUsageSlotList.isEmpty()) {
-                    Log.d(TAG, "batteryUsageSlotList is null or empty");
-                } else {
-                    mBatteryUsageSlotList.clear();
-                    mBatteryUsageSlotList.addAll(batteryUsageSlotList);
-                }
-                mIsBatteryUsageSlotLoaded = true;
-                tryToGenerateFinalDataAndApplyCallback();
-            }
-        }.execute();
+    private List<BatteryUsageSlot> loadBatteryUsageSlotList() {
+        // Loads the battery usage slot data from the database.
+        final List<BatteryUsageSlot> batteryUsageSlotList =
+                DatabaseUtils.getBatteryUsageSlots(
+                        mContext, Calendar.getInstance(), mLastFullChargeTimestamp);
+        Log.d(
+                TAG,
+                String.format(
+                        "execute loadBatteryUsageSlotList size=%d", batteryUsageSlotList.size()));
+        return batteryUsageSlotList;
     }
 
-    private void loadAndApplyBatteryMapFromServiceOnly() {
-        new AsyncTask<Void, Void, Map<Long, BatteryDiffData>>() {
-            @Override
-            protected Map<Long, BatteryDiffData> doInBackground(Void... voids) {
-                final long startTime = System.currentTimeMillis();
-                final Map<Long, BatteryDiffData> batteryDiffDataMap =
-                        DataProcessor.getBatteryDiffDataMapFromStatsService(
-                                mContext,
-                                mUserIdsSeries,
-                                mRawStartTimestamp,
-                                getSystemAppsPackageNames(),
-                                getSystemAppsUids());
-                Log.d(
-                        TAG,
-                        String.format(
-                                "execute loadAndApplyBatteryMapFromServiceOnly size=%d in %d/ms",
-                                batteryDiffDataMap.size(),
-                                (System.currentTimeMillis() - startTime)));
-                return batteryDiffDataMap;
-            }
-
-            @Override
-            protected void onPostExecute(final Map<Long, BatteryDiffData> batteryDiffDataMap) {
-                // Post results back to main thread to refresh UI.
-                if (mHandler != null && mCallbackFunction != null) {
-                    mHandler.post(
-                            () -> {
-                                mCallbackFunction.onBatteryDiffDataMapLoaded(batteryDiffDataMap);
-                            });
-                }
-            }
-        }.execute();
+    private Map<Long, BatteryDiffData> loadBatteryMapFromServiceOnly() {
+        final Map<Long, BatteryDiffData> batteryDiffDataMap =
+                DataProcessor.getBatteryDiffDataMapFromStatsService(
+                        mContext,
+                        mUserIdsSeries,
+                        mRawStartTimestamp,
+                        getSystemAppsPackageNames(),
+                        getSystemAppsUids());
+        Log.d(
+                TAG,
+                String.format(
+                        "execute loadBatteryMapFromServiceOnly size=%d",
+                        batteryDiffDataMap.size()));
+        return batteryDiffDataMap;
     }
 
-    private void tryToProcessAppUsageData() {
-        // Ignore processing the data if any required data is not loaded.
-        if (!mIsCurrentAppUsageLoaded || !mIsDatabaseAppUsageLoaded || !mIsBatteryEventLoaded) {
-            return;
+    private void processAppUsageData(
+            @Nullable List<AppUsageEvent> currentAppUsageList,
+            @Nullable List<AppUsageEvent> databaseAppUsageList,
+            @Nullable List<BatteryEvent> batteryEventList) {
+        if (currentAppUsageList == null || currentAppUsageList.isEmpty()) {
+            Log.d(TAG, "currentAppUsageList is null or empty");
+        } else {
+            mAppUsageEventList.addAll(currentAppUsageList);
+        }
+        if (databaseAppUsageList == null || databaseAppUsageList.isEmpty()) {
+            Log.d(TAG, "databaseAppUsageList is null or empty");
+        } else {
+            mAppUsageEventList.addAll(databaseAppUsageList);
+        }
+        if (batteryEventList == null || batteryEventList.isEmpty()) {
+            Log.d(TAG, "batteryEventList is null or empty");
+        } else {
+            mBatteryEventList.clear();
+            mBatteryEventList.addAll(batteryEventList);
         }
-        processAppUsageData();
-        tryToGenerateFinalDataAndApplyCallback();
-    }
-
-    private void processAppUsageData() {
         // If there is no screen-on time data, no need to process.
         if (!mShowScreenOnTime) {
             return;
@@ -479,70 +437,73 @@ public class DataProcessManager {
                         mBatteryEventList);
     }
 
-    private void tryToGenerateFinalDataAndApplyCallback() {
-        // Ignore processing the data if any required data is not loaded.
-        if (!mIsCurrentBatteryHistoryLoaded
-                || !mIsCurrentAppUsageLoaded
-                || !mIsDatabaseAppUsageLoaded
-                || !mIsBatteryEventLoaded
-                || !mIsBatteryUsageSlotLoaded) {
-            return;
-        }
-        generateFinalDataAndApplyCallback();
-    }
-
-    private synchronized void generateFinalDataAndApplyCallback() {
-        new AsyncTask<Void, Void, Map<Long, BatteryDiffData>>() {
-            @Override
-            protected Map<Long, BatteryDiffData> doInBackground(Void... voids) {
-                final long startTime = System.currentTimeMillis();
-                final Map<Long, BatteryDiffData> batteryDiffDataMap = new ArrayMap<>();
-                for (BatteryUsageSlot batteryUsageSlot : mBatteryUsageSlotList) {
-                    batteryDiffDataMap.put(
-                            batteryUsageSlot.getStartTimestamp(),
-                            ConvertUtils.convertToBatteryDiffData(
-                                    mContext,
-                                    batteryUsageSlot,
-                                    getSystemAppsPackageNames(),
-                                    getSystemAppsUids()));
+    private Map<Long, BatteryDiffData> generateFinalData(
+            @Nullable Map<String, BatteryHistEntry> currentBatteryHistoryMap,
+            @Nullable List<BatteryUsageSlot> batteryUsageSlotList) {
+        if (currentBatteryHistoryMap != null && mBatteryHistoryMap != null) {
+            // Replaces the placeholder in mBatteryHistoryMap.
+            for (Map.Entry<Long, Map<String, BatteryHistEntry>> mapEntry :
+                    mBatteryHistoryMap.entrySet()) {
+                if (mapEntry.getValue()
+                        .containsKey(DataProcessor.CURRENT_TIME_BATTERY_HISTORY_PLACEHOLDER)) {
+                    mapEntry.setValue(currentBatteryHistoryMap);
                 }
-                batteryDiffDataMap.putAll(
-                        DataProcessor.getBatteryDiffDataMap(
-                                mContext,
-                                mUserIdsSeries,
-                                mHourlyBatteryLevelsPerDay,
-                                mBatteryHistoryMap,
-                                mAppUsagePeriodMap,
-                                getSystemAppsPackageNames(),
-                                getSystemAppsUids()));
-                // Process the reattributate data for the following two cases:
-                // 1) the latest slot for the timestamp "until now"
-                // 2) walkthrough all BatteryDiffData again to handle "re-compute" case
-                final PowerUsageFeatureProvider featureProvider =
-                        FeatureFactory.getFeatureFactory()
-                                .getPowerUsageFeatureProvider();
-                featureProvider.processBatteryReattributeData(
-                        mContext, batteryDiffDataMap, mBatteryEventList, mIsFromPeriodJob);
-
-                Log.d(
-                        TAG,
-                        String.format(
-                                "execute generateFinalDataAndApplyCallback size=%d in %d/ms",
-                                batteryDiffDataMap.size(), System.currentTimeMillis() - startTime));
-                return batteryDiffDataMap;
             }
+        }
+        if (batteryUsageSlotList == null || batteryUsageSlotList.isEmpty()) {
+            Log.d(TAG, "batteryUsageSlotList is null or empty");
+        } else {
+            mBatteryUsageSlotList.clear();
+            mBatteryUsageSlotList.addAll(batteryUsageSlotList);
+        }
 
-            @Override
-            protected void onPostExecute(final Map<Long, BatteryDiffData> batteryDiffDataMap) {
-                // Post results back to main thread to refresh UI.
-                if (mHandler != null && mCallbackFunction != null) {
-                    mHandler.post(
-                            () -> {
-                                mCallbackFunction.onBatteryDiffDataMapLoaded(batteryDiffDataMap);
-                            });
-                }
-            }
-        }.execute();
+        final Map<Long, BatteryDiffData> batteryDiffDataMap = new ArrayMap<>();
+        for (BatteryUsageSlot batteryUsageSlot : mBatteryUsageSlotList) {
+            batteryDiffDataMap.put(
+                    batteryUsageSlot.getStartTimestamp(),
+                    ConvertUtils.convertToBatteryDiffData(
+                            mContext,
+                            batteryUsageSlot,
+                            getSystemAppsPackageNames(),
+                            getSystemAppsUids()));
+        }
+        batteryDiffDataMap.putAll(
+                DataProcessor.getBatteryDiffDataMap(
+                        mContext,
+                        mUserIdsSeries,
+                        mHourlyBatteryLevelsPerDay,
+                        mBatteryHistoryMap,
+                        mAppUsagePeriodMap,
+                        getSystemAppsPackageNames(),
+                        getSystemAppsUids()));
+        // Process the reattributate data for the following two cases:
+        // 1) the latest slot for the timestamp "until now"
+        // 2) walkthrough all BatteryDiffData again to handle "re-compute" case
+        final PowerUsageFeatureProvider featureProvider =
+                FeatureFactory.getFeatureFactory().getPowerUsageFeatureProvider();
+        featureProvider.processBatteryReattributeData(
+                mContext, batteryDiffDataMap, mBatteryEventList, mIsFromPeriodJob);
+        Log.d(TAG, String.format("execute generateFinalData size=%d", batteryDiffDataMap.size()));
+        return batteryDiffDataMap;
+    }
+
+    private void applyCallback(CompletableFuture<Map<Long, BatteryDiffData>> batteryDiffDataMap) {
+        batteryDiffDataMap.whenComplete(
+                (result, error) -> {
+                    final Map<Long, BatteryDiffData> loadedResult;
+                    if (error != null) {
+                        // Still calls back, so that the page does not wait forever.
+                        Log.e(TAG, "failed to load the battery usage data", error);
+                        loadedResult = new ArrayMap<>();
+                    } else {
+                        loadedResult = result;
+                    }
+                    // Post results back to main thread to refresh UI.
+                    if (mHandler != null && mCallbackFunction != null) {
+                        mHandler.post(
+                                () -> mCallbackFunction.onBatteryDiffDataMapLoaded(loadedResult));
+                    }
+                });
     }
 
     // Whether we should load app usage data from service or database.
@@ -574,7 +535,7 @@ public class DataProcessManager {
     }
 
     /**
-     * @return Returns battery level data and start async task to compute battery diff usage data
+     * @return Returns battery level data and start stages to compute battery diff usage data
      *     and load app labels + icons. Returns null if the input is invalid or not having at least
      *     2 hours data.
      */
@@ -687,7 +648,7 @@ public class DataProcessManager {
             return null;
         }
 
-        // Start the async task to compute diff usage data and load labels and icons.
+        // Start the stages to compute diff usage data and load labels and icons.
         new DataProcessManager(
                         context,
                         handler,
@@ -29,9 +29,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.BatteryConsumer;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.os.Process;
 import android.os.RemoteException;
 import android.os.ServiceManager;
@@ -169,16 +167,18 @@ public final class DataProcessor {
                         batteryLevelData);
     }
 
-    /** Gets the {@link BatteryUsageStats} from system service. */
+    /**
+     * Gets the {@link BatteryUsageStats} with the battery history from
+     * {@link BatteryUsageStatsProvider}, which must be released with
+     * {@link #closeBatteryUsageStats}.
+     */
     @Nullable
     public static BatteryUsageStats getBatteryUsageStats(final Context context) {
-        final BatteryUsageStatsQuery batteryUsageStatsQuery =
-                new BatteryUsageStatsQuery.Builder()
-                        .includeBatteryHistory()
-                        .includeProcessStateData()
-                        .build();
-        return context.getSystemService(BatteryStatsManager.class)
-                .getBatteryUsageStats(batteryUsageStatsQuery);
+        return BatteryUsageStatsProvider.getInstance()
+                .acquire(
+                        context,
+                        /* includeBatteryHistory= */ true,
+                        /* includeProcessStateData= */ true);
     }
 
     /** Gets the {@link UsageEvents} from system service for all unlocked users. */
@@ -232,15 +232,9 @@ public final class DataProcessor {
         return events;
     }
 
-    /** Closes the {@link BatteryUsageStats} after using it. */
+    /** Releases the {@link BatteryUsageStats} returned by {@link #getBatteryUsageStats}. */
     public static void closeBatteryUsageStats(BatteryUsageStats batteryUsageStats) {
-        if (batteryUsageStats != null) {
-            try {
-                batteryUsageStats.close();
-            } catch (Exception e) {
-                Log.e(TAG, "BatteryUsageStats.close() failed", e);
-            }
-        }
+        BatteryUsageStatsProvider.getInstance().release(batteryUsageStats);
     }
 
     /**
@@ -917,6 +911,7 @@ public final class DataProcessor {
         final BatteryDiffData batteryUsageMapForAll =
                 batteryUsageMap.get(SELECTED_INDEX_ALL).get(SELECTED_INDEX_ALL);
         if (batteryUsageMapForAll != null) {
+            preloadUidNameAndIcons(batteryUsageMapForAll.getAppDiffEntryList());
             batteryUsageMapForAll.getAppDiffEntryList().forEach(entry -> entry.loadLabelAndIcon());
             batteryUsageMapForAll
                     .getSystemDiffEntryList()
@@ -924,6 +919,21 @@ public final class DataProcessor {
         }
     }
 
+    private static void preloadUidNameAndIcons(final List<BatteryDiffEntry> entries) {
+        final List<Integer> uids = new ArrayList<>();
+        Context context = null;
+        for (BatteryDiffEntry entry : entries) {
+            if (entry.mConsumerType == ConvertUtils.CONSUMER_TYPE_UID_BATTERY
+                    && !entry.hasLabelAndIcon()) {
+                uids.add((int) entry.mUid);
+                context = entry.mContext;
+            }
+        }
+        if (context != null) {
+            BatteryEntry.preloadNameAndIcons(context, uids);
+        }
+    }
+
     static Set<String> getSystemAppsPackageNames(Context context) {
         return sTestSystemAppsPackageNames != null
                 ? sTestSystemAppsPackageNames
@@ -22,7 +22,6 @@ import android.content.Context;
 import android.os.BatteryUsageStats;
 import android.os.Bundle;
 import android.os.UserManager;
-import android.util.Log;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
@@ -96,7 +95,6 @@ public abstract class PowerUsageBase extends DashboardFragment {
     public void onStop() {
         super.onStop();
         mBatteryBroadcastReceiver.unRegister();
-        closeBatteryUsageStatsIfNeeded();
     }
 
     protected void restartBatteryStatsLoader(int refreshType) {
@@ -142,24 +140,13 @@ public abstract class PowerUsageBase extends DashboardFragment {
         @Override
         public void onLoadFinished(
                 Loader<BatteryUsageStats> loader, BatteryUsageStats batteryUsageStats) {
-            closeBatteryUsageStatsIfNeeded();
+            // Owned and released by the loader.
             mBatteryUsageStats = batteryUsageStats;
             PowerUsageBase.this.onLoadFinished(mRefreshType);
         }
 
         @Override
-        public void onLoaderReset(Loader<BatteryUsageStats> loader) {}
-    }
-
-    private void closeBatteryUsageStatsIfNeeded() {
-        if (mBatteryUsageStats == null) {
-            return;
-        }
-        try {
-            mBatteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        } finally {
+        public void onLoaderReset(Loader<BatteryUsageStats> loader) {
             mBatteryUsageStats = null;
         }
     }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Dependency graph of the stages of a data pipeline.
+ *
+ * <p>Each stage runs on the executor once all the stages it depends on completed, so independent
+ * stages run in parallel. A stage reads the results of its dependencies with {@link
+ * CompletableFuture#join()}, which does not block since they already completed. A failed stage
+ * fails all the stages depending on it.
+ */
+final class StageGraph {
+    private static final String TAG = "StageGraph";
+
+    /** Listener of the running time of the stages. */
+    interface StageListener {
+        /** Called on the executor once a stage completed, with its own running time. */
+        void onStageCompleted(String stageName, long elapsedMs);
+    }
+
+    private final Executor mExecutor;
+    @Nullable private final StageListener mStageListener;
+
+    StageGraph(Executor executor, @Nullable StageListener stageListener) {
+        mExecutor = executor;
+        mStageListener = stageListener;
+    }
+
+    /** Adds a stage without dependencies, which starts right away. */
+    <T> CompletableFuture<T> addStage(String name, Supplier<T> stage) {
+        return CompletableFuture.supplyAsync(timed(name, stage), mExecutor);
+    }
+
+    /** Adds a stage which starts once all the {@code dependencies} completed. */
+    <T> CompletableFuture<T> addStage(
+            String name, Supplier<T> stage, CompletableFuture<?>... dependencies) {
+        final Supplier<T> timedStage = timed(name, stage);
+        return CompletableFuture.allOf(dependencies)
+                .thenApplyAsync(unused -> timedStage.get(), mExecutor);
+    }
+
+    /** Returns a stage which is not run, and completed with {@code value}. */
+    static <T> CompletableFuture<T> skipStage(@Nullable T value) {
+        return CompletableFuture.completedFuture(value);
+    }
+
+    private <T> Supplier<T> timed(String name, Supplier<T> stage) {
+        return () -> {
+            final long startTime = System.currentTimeMillis();
+            final T result = stage.get();
+            final long elapsedMs = System.currentTimeMillis() - startTime;
+            Log.d(TAG, String.format("stage %s in %d/ms", name, elapsedMs));
+            if (mStageListener != null) {
+                mStageListener.onStageCompleted(name, elapsedMs);
+            }
+            return result;
+        };
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.Uri;
+import android.os.Process;
+import android.os.UserHandle;
+import android.text.TextUtils;
+import android.util.ArraySet;
+import android.util.LruCache;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settings.fuelgauge.batteryusage.BatteryEntry.UidToDetail;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Process-wide bounded cache of the app labels and icons resolved by {@link BatteryEntry} for
+ * each uid.
+ *
+ * <p>The least recently used uids are evicted once the cache is full. Package broadcasts drop the
+ * uids of the package, and a locale change drops all of them.
+ */
+public final class UidDetailCache {
+    private static final String TAG = "UidDetailCache";
+
+    @VisibleForTesting static final int MAX_SIZE = 512;
+
+    private static UidDetailCache sInstance;
+
+    private final Context mContext;
+    private final LruCache<Integer, UidToDetail> mCache;
+    private final Object mLock = new Object();
+
+    // The uids of mCache, so that contains() neither copies the cache nor counts a hit or a miss.
+    // Entries are only added or removed under mLock, and entryRemoved() runs in the same call.
+    @GuardedBy("mLock")
+    private final Set<Integer> mUids = new ArraySet<>();
+
+    @VisibleForTesting
+    final BroadcastReceiver mPackageReceiver =
+            new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    if (Intent.ACTION_LOCALE_CHANGED.equals(intent.getAction())) {
+                        clear();
+                        return;
+                    }
+                    final Uri data = intent.getData();
+                    invalidate(
+                            intent.getIntExtra(Intent.EXTRA_UID, Process.INVALID_UID),
+                            data != null ? data.getSchemeSpecificPart() : null);
+                }
+            };
+
+    /** Returns the process-wide instance. */
+    public static synchronized UidDetailCache getInstance(Context context) {
+        if (sInstance == null) {
+            final Context appContext = context.getApplicationContext();
+            sInstance = new UidDetailCache(appContext != null ? appContext : context, MAX_SIZE);
+            sInstance.registerReceivers();
+        }
+        return sInstance;
+    }
+
+    /** Returns the process-wide instance if it was already created. */
+    @Nullable
+    static synchronized UidDetailCache peekInstance() {
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    UidDetailCache(Context context, int maxSize) {
+        mContext = context;
+        mCache =
+                new LruCache<Integer, UidToDetail>(maxSize) {
+                    @Override
+                    protected void entryRemoved(
+                            boolean evicted,
+                            Integer uid,
+                            UidToDetail oldDetail,
+                            UidToDetail newDetail) {
+                        if (newDetail == null) {
+                            synchronized (mLock) {
+                                mUids.remove(uid);
+                            }
+                        }
+                    }
+                };
+    }
+
+    private void registerReceivers() {
+        final IntentFilter packageFilter = new IntentFilter();
+        packageFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        packageFilter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        packageFilter.addDataScheme("package");
+        mContext.registerReceiverAsUser(
+                mPackageReceiver,
+                UserHandle.ALL,
+                packageFilter,
+                /* broadcastPermission= */ null,
+                /* scheduler= */ null);
+        mContext.registerReceiver(
+                mPackageReceiver, new IntentFilter(Intent.ACTION_LOCALE_CHANGED));
+    }
+
+    /** Returns the cached detail of {@code uid}, or null if it needs to be loaded. */
+    @Nullable
+    UidToDetail get(int uid) {
+        return mCache.get(uid);
+    }
+
+    /** Returns true if {@code uid} is cached, without counting a hit or a miss. */
+    boolean contains(int uid) {
+        synchronized (mLock) {
+            return mUids.contains(uid);
+        }
+    }
+
+    void put(int uid, UidToDetail detail) {
+        synchronized (mLock) {
+            mUids.add(uid);
+            mCache.put(uid, detail);
+        }
+    }
+
+    /** Drops {@code uid} and the uids resolved to {@code packageName}. */
+    void invalidate(int uid, @Nullable String packageName) {
+        if (uid != Process.INVALID_UID) {
+            synchronized (mLock) {
+                mCache.remove(uid);
+            }
+        }
+        if (TextUtils.isEmpty(packageName)) {
+            return;
+        }
+        for (Map.Entry<Integer, UidToDetail> entry : mCache.snapshot().entrySet()) {
+            if (packageName.equals(entry.getValue().mPackageName)) {
+                synchronized (mLock) {
+                    mCache.remove(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /** Drops all the uids. */
+    void clear() {
+        synchronized (mLock) {
+            mCache.evictAll();
+        }
+    }
+
+    @VisibleForTesting
+    int size() {
+        return mCache.size();
+    }
+
+    @VisibleForTesting
+    int hitCount() {
+        return mCache.hitCount();
+    }
+
+    @VisibleForTesting
+    int missCount() {
+        return mCache.missCount();
+    }
+
+    /** Dumps the size and the hit rate of the cache. */
+    public void dump(PrintWriter writer) {
+        final int hits = mCache.hitCount();
+        final int misses = mCache.missCount();
+        final int total = hits + misses;
+        writer.println(
+                String.format(
+                        "%s: size=%d/%d hits=%d misses=%d evictions=%d hitRate=%.2f",
+                        TAG,
+                        mCache.size(),
+                        mCache.maxSize(),
+                        hits,
+                        misses,
+                        mCache.evictionCount(),
+                        total == 0 ? 0f : (float) hits / total));
+    }
+}
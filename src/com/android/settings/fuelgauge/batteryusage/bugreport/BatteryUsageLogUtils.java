@@ -18,7 +18,7 @@ package com.android.settings.fuelgauge.batteryusage.bugreport;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.util.Base64;
+import android.util.Log;
 
 import com.android.settings.fuelgauge.BatteryUsageHistoricalLog;
 import com.android.settings.fuelgauge.BatteryUsageHistoricalLogEntry;
@@ -27,66 +27,145 @@ import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.fuelgauge.batteryusage.ConvertUtils;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.protobuf.InvalidProtocolBufferException;
 
+import java.io.File;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /** Writes and reads a historical log of battery usage periodic job events. */
 public final class BatteryUsageLogUtils {
     private static final String TAG = "BatteryUsageLogUtils";
     private static final String BATTERY_USAGE_FILE_NAME = "battery_usage_historical_logs";
+    private static final String BATTERY_USAGE_LOG_FILE_NAME = "battery_usage_historical_logs.bin";
     private static final String LOGS_KEY = "battery_usage_logs_key";
 
     // 24 hours x 4 events every hour x 3 days
     static final int MAX_ENTRIES = 288;
+    // Large enough for the longest action description, longer ones are truncated.
+    @VisibleForTesting static final int MAX_ENTRY_SIZE = 512;
+    private static final long PENDING_WRITES_TIMEOUT_MS = 1000L;
+
+    // Writes the entries in order, off the callers which are often on the main thread.
+    private static final ExecutorService sWriteExecutor = Executors.newSingleThreadExecutor();
 
     private BatteryUsageLogUtils() {}
 
-    /** Write the log into the {@link SharedPreferences}. */
+    /** Appends the log into the historical log file in the background. */
     public static void writeLog(Context context, Action action, String actionDescription) {
-        final SharedPreferences sharedPreferences = getSharedPreferences(context);
-        final BatteryUsageHistoricalLogEntry newLogEntry =
+        final Context appContext = context.getApplicationContext();
+        final BatteryUsageHistoricalLogEntry entry =
                 BatteryUsageHistoricalLogEntry.newBuilder()
                         .setTimestamp(System.currentTimeMillis())
                         .setAction(action)
                         .setActionDescription(actionDescription)
                         .build();
-
-        final BatteryUsageHistoricalLog existingLog =
-                parseLogFromString(sharedPreferences.getString(LOGS_KEY, ""));
-        final BatteryUsageHistoricalLog.Builder newLogBuilder = existingLog.toBuilder();
-        // Prune old entries to limit the max logging data count.
-        if (existingLog.getLogEntryCount() >= MAX_ENTRIES) {
-            newLogBuilder.removeLogEntry(0);
-        }
-        newLogBuilder.addLogEntry(newLogEntry);
-
-        final String loggingContent =
-                Base64.encodeToString(newLogBuilder.build().toByteArray(), Base64.DEFAULT);
-        sharedPreferences.edit().putString(LOGS_KEY, loggingContent).apply();
+        sWriteExecutor.execute(
+                () -> {
+                    final HistoricalLogFile logFile = getLogFile(appContext);
+                    migrateLegacyLogIfNeeded(appContext, logFile);
+                    logFile.append(toByteArray(logFile, entry));
+                });
     }
 
     /** Prints the historical log that has previously been stored by this utility. */
     public static void printHistoricalLog(Context context, PrintWriter writer) {
-        final BatteryUsageHistoricalLog existingLog =
-                parseLogFromString(getSharedPreferences(context).getString(LOGS_KEY, ""));
-        final List<BatteryUsageHistoricalLogEntry> logEntryList = existingLog.getLogEntryList();
-        if (logEntryList.isEmpty()) {
+        awaitPendingWrites();
+        final HistoricalLogFile logFile = getLogFile(context);
+        migrateLegacyLogIfNeeded(context, logFile);
+        final int count =
+                logFile.forEach(
+                        record -> {
+                            try {
+                                writer.println(
+                                        toString(BatteryUsageHistoricalLogEntry.parseFrom(record)));
+                            } catch (InvalidProtocolBufferException e) {
+                                Log.w(TAG, "skip invalid log entry", e);
+                            }
+                        });
+        if (count == 0) {
             writer.println("\tnothing to dump");
-        } else {
-            logEntryList.forEach(entry -> writer.println(toString(entry)));
         }
     }
 
+    @VisibleForTesting
+    static HistoricalLogFile getLogFile(Context context) {
+        return new HistoricalLogFile(
+                new File(context.getApplicationContext().getFilesDir(),
+                        BATTERY_USAGE_LOG_FILE_NAME),
+                MAX_ENTRIES,
+                MAX_ENTRY_SIZE);
+    }
+
+    /** Returns the legacy storage, which kept the whole log as one Base64 encoded proto. */
     @VisibleForTesting
     static SharedPreferences getSharedPreferences(Context context) {
         return context.getApplicationContext()
                 .getSharedPreferences(BATTERY_USAGE_FILE_NAME, Context.MODE_PRIVATE);
     }
 
-    private static BatteryUsageHistoricalLog parseLogFromString(String storedLogs) {
-        return BatteryUtils.parseProtoFromString(
-                storedLogs, BatteryUsageHistoricalLog.getDefaultInstance());
+    /** Waits for the entries written so far to be in the log file. */
+    private static void awaitPendingWrites() {
+        try {
+            sWriteExecutor
+                    .submit(() -> {})
+                    .get(PENDING_WRITES_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            Log.w(TAG, "awaitPendingWrites() failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Moves the log kept in the legacy storage into the log file. */
+    private static void migrateLegacyLogIfNeeded(Context context, HistoricalLogFile logFile) {
+        if (logFile.exists()) {
+            return;
+        }
+        final SharedPreferences sharedPreferences = getSharedPreferences(context);
+        if (!sharedPreferences.contains(LOGS_KEY)) {
+            return;
+        }
+        final boolean migrated =
+                logFile.appendAllIfMissing(
+                        () -> {
+                            final BatteryUsageHistoricalLog legacyLog =
+                                    BatteryUtils.parseProtoFromString(
+                                            sharedPreferences.getString(LOGS_KEY, ""),
+                                            BatteryUsageHistoricalLog.getDefaultInstance());
+                            final List<byte[]> records =
+                                    new ArrayList<>(legacyLog.getLogEntryCount());
+                            legacyLog
+                                    .getLogEntryList()
+                                    .forEach(entry -> records.add(toByteArray(logFile, entry)));
+                            Log.d(TAG, "migrating legacy log entries: " + records.size());
+                            return records;
+                        });
+        if (migrated) {
+            sharedPreferences.edit().remove(LOGS_KEY).apply();
+        }
+    }
+
+    private static byte[] toByteArray(
+            HistoricalLogFile logFile, BatteryUsageHistoricalLogEntry entry) {
+        final byte[] bytes = entry.toByteArray();
+        final int overflow = bytes.length - logFile.getMaxRecordSize();
+        if (overflow <= 0) {
+            return bytes;
+        }
+        // Every character takes at least one byte, trimming the overflow size is enough.
+        final String description = entry.getActionDescription();
+        return entry.toBuilder()
+                .setActionDescription(
+                        description.substring(0, Math.max(0, description.length() - overflow)))
+                .build()
+                .toByteArray();
     }
 
     private static String toString(BatteryUsageHistoricalLogEntry entry) {
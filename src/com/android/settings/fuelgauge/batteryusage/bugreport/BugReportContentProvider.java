@@ -23,6 +23,7 @@ import android.database.Cursor;
 import android.net.Uri;
 import android.util.Log;
 
+import com.android.settings.fuelgauge.batteryusage.BatteryEntry;
 import com.android.settingslib.fuelgauge.BatteryUtils;
 
 import java.io.FileDescriptor;
@@ -61,6 +62,7 @@ public final class BugReportContentProvider extends ContentProvider {
         LogUtils.dumpBatteryUsageSlotDatabaseHist(context, writer);
         LogUtils.dumpBatteryEventDatabaseHist(context, writer);
         LogUtils.dumpBatteryStateDatabaseHist(context, writer);
+        BatteryEntry.dumpUidCache(writer);
     }
 
     @Override
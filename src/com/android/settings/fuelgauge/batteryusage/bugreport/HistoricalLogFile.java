@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage.bugreport;
+
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A fixed-size ring buffer of binary records backed by a file.
+ *
+ * <p>The file starts with a header followed by {@code capacity} slots of {@code slotSize} bytes.
+ * Each slot holds a length-prefixed record. Appending writes one slot and the index of the next
+ * slot in the header, so the cost does not depend on the number of stored records. Once all slots
+ * are used the oldest record is overwritten.
+ */
+final class HistoricalLogFile {
+    private static final String TAG = "HistoricalLogFile";
+    private static final int MAGIC = 0x484c4f47;
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final long NEXT_INDEX_OFFSET = 3 * Integer.BYTES;
+    @VisibleForTesting static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    // Serializes writers of all log files, they are small and written rarely.
+    private static final Object sLock = new Object();
+
+    private final File mFile;
+    private final int mCapacity;
+    private final int mSlotSize;
+
+    HistoricalLogFile(File file, int capacity, int slotSize) {
+        mFile = file;
+        mCapacity = capacity;
+        mSlotSize = slotSize;
+    }
+
+    /** Returns the max size in bytes of a single record. */
+    int getMaxRecordSize() {
+        return mSlotSize - LENGTH_SIZE;
+    }
+
+    /** Returns whether the backing file exists. */
+    boolean exists() {
+        return mFile.exists();
+    }
+
+    /**
+     * Creates the file with the records from {@code initialRecords} if it does not exist, and
+     * returns whether the records were appended. Checking and appending are atomic against other
+     * writers.
+     */
+    boolean appendAllIfMissing(Supplier<List<byte[]>> initialRecords) {
+        synchronized (sLock) {
+            if (mFile.exists()) {
+                return false;
+            }
+            for (byte[] record : initialRecords.get()) {
+                append(record);
+            }
+            return true;
+        }
+    }
+
+    /** Appends a record, replacing the oldest one if the buffer is full. */
+    boolean append(byte[] record) {
+        if (record.length == 0 || record.length > getMaxRecordSize()) {
+            Log.w(TAG, "append() invalid record size: " + record.length);
+            return false;
+        }
+        synchronized (sLock) {
+            try (RandomAccessFile file = new RandomAccessFile(mFile, "rw")) {
+                int nextIndex = readNextIndex(file);
+                if (nextIndex < 0) {
+                    // Missing or incompatible file, starts a new buffer.
+                    file.setLength(0);
+                    file.writeInt(MAGIC);
+                    file.writeInt(mCapacity);
+                    file.writeInt(mSlotSize);
+                    file.writeInt(0);
+                    nextIndex = 0;
+                }
+                file.seek(getSlotOffset(nextIndex));
+                file.writeInt(record.length);
+                file.write(record);
+                file.seek(NEXT_INDEX_OFFSET);
+                file.writeInt((nextIndex + 1) % mCapacity);
+                return true;
+            } catch (IOException e) {
+                Log.e(TAG, "append() failed for " + mFile.getName(), e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Streams the records from the oldest to the newest and returns the number of records read.
+     *
+     * <p>Readers do not block writers, a record that is overwritten while it is being read may be
+     * corrupted and should be skipped by the consumer.
+     */
+    int forEach(Consumer<byte[]> consumer) {
+        if (!mFile.exists()) {
+            return 0;
+        }
+        int count = 0;
+        try (RandomAccessFile file = new RandomAccessFile(mFile, "r")) {
+            final int nextIndex = readNextIndex(file);
+            if (nextIndex < 0) {
+                return 0;
+            }
+            final byte[] buffer = new byte[getMaxRecordSize()];
+            for (int i = 0; i < mCapacity; i++) {
+                final long offset = getSlotOffset((nextIndex + i) % mCapacity);
+                // Slots are allocated lazily, unused ones are past the end of file or zeroed.
+                if (offset + LENGTH_SIZE > file.length()) {
+                    continue;
+                }
+                file.seek(offset);
+                final int length = file.readInt();
+                if (length <= 0 || length > buffer.length) {
+                    continue;
+                }
+                file.readFully(buffer, 0, length);
+                consumer.accept(Arrays.copyOf(buffer, length));
+                count++;
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "forEach() failed for " + mFile.getName(), e);
+        }
+        return count;
+    }
+
+    /** Removes all the records. */
+    void clear() {
+        synchronized (sLock) {
+            if (mFile.exists() && !mFile.delete()) {
+                Log.w(TAG, "clear() failed to delete " + mFile.getName());
+            }
+        }
+    }
+
+    private long getSlotOffset(int index) {
+        return HEADER_SIZE + (long) index * mSlotSize;
+    }
+
+    /** Returns the next slot index, or -1 if the header is missing or does not match. */
+    private int readNextIndex(RandomAccessFile file) throws IOException {
+        if (file.length() < HEADER_SIZE) {
+            return -1;
+        }
+        file.seek(0);
+        if (file.readInt() != MAGIC
+                || file.readInt() != mCapacity
+                || file.readInt() != mSlotSize) {
+            return -1;
+        }
+        final int nextIndex = file.readInt();
+        return nextIndex >= 0 && nextIndex < mCapacity ? nextIndex : -1;
+    }
+}
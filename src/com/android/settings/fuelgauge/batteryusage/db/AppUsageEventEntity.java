@@ -19,6 +19,7 @@ package com.android.settings.fuelgauge.batteryusage.db;
 import android.content.ContentValues;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import com.android.settings.fuelgauge.batteryusage.ConvertUtils;
@@ -28,7 +29,7 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.util.Locale;
 
 /** A {@link Entity} class to save app usage events into database. */
-@Entity
+@Entity(indices = {@Index("timestamp"), @Index({"userId", "timestamp"})})
 public class AppUsageEventEntity {
     /** Keys for accessing {@link ContentValues}. */
     public static final String KEY_UID = "uid";
@@ -20,9 +20,12 @@ import android.content.Context;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 /** A {@link RoomDatabase} for battery usage states history. */
 @Database(
@@ -33,13 +36,43 @@ import androidx.room.RoomDatabase;
             BatteryUsageSlotEntity.class,
             BatteryReattributeEntity.class
         },
-        version = 2)
+        version = 3)
 public abstract class BatteryStateDatabase extends RoomDatabase {
     private static final String TAG = "BatteryStateDatabase";
     private static final String DB_FILE_NAME = "battery-usage-db-v10";
 
     private static BatteryStateDatabase sBatteryStateDatabase;
 
+    /** Adds the timestamp and user indices queried by the DAOs. */
+    @VisibleForTesting
+    static final Migration MIGRATION_2_3 =
+            new Migration(2, 3) {
+                @Override
+                public void migrate(@NonNull SupportSQLiteDatabase database) {
+                    // Index names follow the Room convention, index_<table>_<columns>.
+                    database.execSQL(
+                            "CREATE INDEX IF NOT EXISTS `index_AppUsageEventEntity_timestamp`"
+                                    + " ON `AppUsageEventEntity` (`timestamp`)");
+                    database.execSQL(
+                            "CREATE INDEX IF NOT EXISTS"
+                                    + " `index_AppUsageEventEntity_userId_timestamp`"
+                                    + " ON `AppUsageEventEntity` (`userId`, `timestamp`)");
+                    database.execSQL(
+                            "CREATE INDEX IF NOT EXISTS `index_BatteryEventEntity_timestamp`"
+                                    + " ON `BatteryEventEntity` (`timestamp`)");
+                    database.execSQL(
+                            "CREATE INDEX IF NOT EXISTS"
+                                    + " `index_BatteryEventEntity_batteryEventType_timestamp`"
+                                    + " ON `BatteryEventEntity` (`batteryEventType`, `timestamp`)");
+                    database.execSQL(
+                            "CREATE INDEX IF NOT EXISTS `index_BatteryState_timestamp`"
+                                    + " ON `BatteryState` (`timestamp`)");
+                    database.execSQL(
+                            "CREATE INDEX IF NOT EXISTS `index_BatteryUsageSlotEntity_timestamp`"
+                                    + " ON `BatteryUsageSlotEntity` (`timestamp`)");
+                }
+            };
+
     /** Provides DAO for app usage event table. */
     public abstract AppUsageEventDao appUsageEventDao();
 
@@ -63,6 +96,7 @@ public abstract class BatteryStateDatabase extends RoomDatabase {
                     Room.databaseBuilder(context, BatteryStateDatabase.class, DB_FILE_NAME)
                             // Allows accessing data in the main thread for dumping bugreport.
                             .allowMainThreadQueries()
+                            .addMigrations(MIGRATION_2_3)
                             .fallbackToDestructiveMigration()
                             .build();
             Log.d(TAG, "initialize battery states database");
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.location;
+
+import android.content.Context;
+import android.text.TextUtils;
+import android.util.ArrayMap;
+
+import androidx.annotation.StringRes;
+import androidx.annotation.VisibleForTesting;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceGroup;
+
+import com.android.settings.dashboard.DashboardFragment;
+import com.android.settingslib.applications.RecentAppOpsAccess;
+import com.android.settingslib.widget.AppPreference;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binds a list of recent location accesses to the app preferences of a {@link PreferenceGroup}.
+ *
+ * <p>The preferences are keyed by package and user, and kept from one list to the next: only the
+ * preferences of the added or changed accesses are bound, the others are only reordered.
+ */
+final class RecentLocationAccessPreferenceBinder {
+
+    @VisibleForTesting
+    static final String KEY_NO_RECENT_ACCESSES = "no_recent_location_accesses";
+
+    private final PreferenceGroup mGroup;
+    private final DashboardFragment mFragment;
+    @StringRes
+    private final int mEmptyTitleRes;
+
+    private Map<String, BoundPreference> mBoundPreferences = new ArrayMap<>();
+    private Preference mBanner;
+
+    private static class BoundPreference {
+        final AppPreference mPreference;
+        final RecentAppOpsAccess.Access mAccess;
+
+        BoundPreference(AppPreference preference, RecentAppOpsAccess.Access access) {
+            mPreference = preference;
+            mAccess = access;
+        }
+    }
+
+    /**
+     * @param emptyTitleRes the title of the preference shown when there is no recent access
+     */
+    RecentLocationAccessPreferenceBinder(PreferenceGroup group, DashboardFragment fragment,
+            @StringRes int emptyTitleRes) {
+        mGroup = group;
+        mFragment = fragment;
+        mEmptyTitleRes = emptyTitleRes;
+    }
+
+    /**
+     * Shows the {@code accesses} in the group, in their order, and returns the number of
+     * preferences which were created or bound.
+     */
+    int bind(List<RecentAppOpsAccess.Access> accesses) {
+        final Context prefContext = mGroup.getContext();
+        if (accesses.isEmpty()) {
+            removeAppPreferences();
+            if (mBanner != null) {
+                return 0;
+            }
+            // If there's no item to display, add a "No recent apps" item.
+            mBanner = new AppPreference(prefContext);
+            mBanner.setKey(KEY_NO_RECENT_ACCESSES);
+            mBanner.setTitle(mEmptyTitleRes);
+            mBanner.setSelectable(false);
+            mGroup.addPreference(mBanner);
+            return 1;
+        }
+        if (mBanner != null) {
+            mGroup.removePreference(mBanner);
+            mBanner = null;
+        }
+
+        int boundCount = 0;
+        final Map<String, BoundPreference> boundPreferences = new ArrayMap<>(accesses.size());
+        for (int i = 0; i < accesses.size(); i++) {
+            final RecentAppOpsAccess.Access access = accesses.get(i);
+            final String key = getKey(access);
+            final BoundPreference previous = mBoundPreferences.remove(key);
+            final AppPreference preference;
+            if (previous == null) {
+                preference = RecentLocationAccessPreferenceController.createAppPreference(
+                        prefContext, access, mFragment);
+                preference.setKey(key);
+                preference.setOrder(i);
+                mGroup.addPreference(preference);
+                boundCount++;
+            } else {
+                preference = previous.mPreference;
+                if (isSameAccess(previous.mAccess, access)) {
+                    // Only the relative access time may need to be updated, which setSummary
+                    // ignores if it did not change.
+                    preference.setSummary(RecentLocationAccessPreferenceController
+                            .getAccessTimeSummary(prefContext, access));
+                } else {
+                    RecentLocationAccessPreferenceController.bindAppPreference(
+                            preference, access, mFragment);
+                    boundCount++;
+                }
+                preference.setOrder(i);
+            }
+            boundPreferences.put(key, new BoundPreference(preference, access));
+        }
+        removeAppPreferences();
+        mBoundPreferences = boundPreferences;
+        return boundCount;
+    }
+
+    /** Forgets the preferences, after they were removed from the group. */
+    void clear() {
+        mBoundPreferences.clear();
+        mBanner = null;
+    }
+
+    private void removeAppPreferences() {
+        for (BoundPreference boundPreference : mBoundPreferences.values()) {
+            mGroup.removePreference(boundPreference.mPreference);
+        }
+        mBoundPreferences.clear();
+    }
+
+    private static String getKey(RecentAppOpsAccess.Access access) {
+        return access.packageName + "|" + access.userHandle.getIdentifier();
+    }
+
+    private static boolean isSameAccess(RecentAppOpsAccess.Access previous,
+            RecentAppOpsAccess.Access access) {
+        return previous.accessFinishTime == access.accessFinishTime
+                && TextUtils.equals(previous.label, access.label);
+    }
+}
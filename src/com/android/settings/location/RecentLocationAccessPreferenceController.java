@@ -44,12 +44,11 @@ import java.util.List;
  */
 public class RecentLocationAccessPreferenceController extends LocationBasePreferenceController {
     public static final int MAX_APPS = 3;
-    @VisibleForTesting
-    RecentAppOpsAccess mRecentLocationApps;
+    private final RecentLocationAccessStore mStore;
     private PreferenceCategory mCategoryRecentLocationRequests;
+    private RecentLocationAccessPreferenceBinder mBinder;
     private int mType = ProfileSelectFragment.ProfileType.ALL;
     private boolean mShowSystem = false;
-    private boolean mSystemSettingChanged = false;
 
     private static class PackageEntryClickedListener implements
             Preference.OnPreferenceClickListener {
@@ -77,14 +76,14 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
     }
 
     public RecentLocationAccessPreferenceController(Context context, String key) {
-        this(context, key, RecentAppOpsAccess.createForLocation(context));
+        this(context, key, RecentLocationAccessStore.getInstance(context));
     }
 
     @VisibleForTesting
-    public RecentLocationAccessPreferenceController(Context context, String key,
-            RecentAppOpsAccess recentLocationApps) {
+    RecentLocationAccessPreferenceController(Context context, String key,
+            RecentLocationAccessStore store) {
         super(context, key);
-        mRecentLocationApps = recentLocationApps;
+        mStore = store;
         mShowSystem = DeviceConfig.getBoolean(DeviceConfig.NAMESPACE_PRIVACY,
                 SystemUiDeviceConfigFlags.PROPERTY_LOCATION_INDICATORS_SMALL_ENABLED, false)
                 ? Settings.Secure.getInt(mContext.getContentResolver(),
@@ -96,25 +95,39 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
     public void displayPreference(PreferenceScreen screen) {
         super.displayPreference(screen);
         mCategoryRecentLocationRequests = screen.findPreference(getPreferenceKey());
+        mBinder = new RecentLocationAccessPreferenceBinder(mCategoryRecentLocationRequests,
+                mFragment, R.string.location_no_recent_accesses);
         mLocationEnabler.refreshLocationMode();
         loadRecentAccesses();
     }
 
     @Override
     public void updateState(Preference preference) {
-        // Only reload the recent accesses in updateState if the system setting has changed.
-        if (mSystemSettingChanged) {
-            loadRecentAccesses();
-            mSystemSettingChanged = false;
-        }
+        // The recent accesses are refreshed in the background, and only the changed rows are
+        // bound, so they can be reloaded each time the page is shown.
+        loadRecentAccesses();
     }
 
     private void loadRecentAccesses() {
-        mCategoryRecentLocationRequests.removeAll();
-        final Context prefContext = mCategoryRecentLocationRequests.getContext();
+        final List<RecentAppOpsAccess.Access> cachedAccesses =
+                mStore.getCachedAccesses(mShowSystem);
+        if (cachedAccesses != null) {
+            bindRecentAccesses(cachedAccesses);
+        }
+        final boolean showSystem = mShowSystem;
+        mStore.refresh(showSystem, accesses -> {
+            // Drops the result if the flag was toggled while it was loading.
+            if (showSystem == mShowSystem) {
+                bindRecentAccesses(accesses);
+            }
+        });
+    }
+
+    private void bindRecentAccesses(List<RecentAppOpsAccess.Access> accesses) {
         final List<RecentAppOpsAccess.Access> recentLocationAccesses = new ArrayList<>();
         final UserManager userManager = UserManager.get(mContext);
-        for (RecentAppOpsAccess.Access access : mRecentLocationApps.getAppListSorted(mShowSystem)) {
+        // The accesses are already sorted by recency, stop at the first MAX_APPS matching ones.
+        for (RecentAppOpsAccess.Access access : accesses) {
             if (isRequestMatchesProfileType(userManager, access, mType)) {
                 recentLocationAccesses.add(access);
                 if (recentLocationAccesses.size() == MAX_APPS) {
@@ -122,20 +135,7 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
                 }
             }
         }
-
-        if (recentLocationAccesses.size() > 0) {
-            // Add preferences to container in original order (already sorted by recency).
-            for (RecentAppOpsAccess.Access access : recentLocationAccesses) {
-                mCategoryRecentLocationRequests.addPreference(
-                        createAppPreference(prefContext, access, mFragment));
-            }
-        } else {
-            // If there's no item to display, add a "No recent apps" item.
-            final Preference banner = new AppPreference(prefContext);
-            banner.setTitle(R.string.location_no_recent_accesses);
-            banner.setSelectable(false);
-            mCategoryRecentLocationRequests.addPreference(banner);
-        }
+        mBinder.bind(recentLocationAccesses);
     }
 
     @Override
@@ -150,6 +150,7 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
     public void clearPreferenceList() {
         if (mCategoryRecentLocationRequests != null) {
             mCategoryRecentLocationRequests.removeAll();
+            mBinder.clear();
         }
     }
 
@@ -168,14 +169,30 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
     public static AppPreference createAppPreference(Context prefContext,
             RecentAppOpsAccess.Access access, DashboardFragment fragment) {
         final AppPreference pref = new AppPreference(prefContext);
+        bindAppPreference(pref, access, fragment);
+        return pref;
+    }
+
+    /**
+     * Bind the icon, title, summary and click listener of {@code pref} to {@code access}
+     */
+    static void bindAppPreference(AppPreference pref, RecentAppOpsAccess.Access access,
+            DashboardFragment fragment) {
         pref.setIcon(access.icon);
         pref.setTitle(access.label);
-        pref.setSummary(StringUtil.formatRelativeTime(prefContext,
-                System.currentTimeMillis() - access.accessFinishTime, false,
-                RelativeDateTimeFormatter.Style.LONG));
+        pref.setSummary(getAccessTimeSummary(pref.getContext(), access));
         pref.setOnPreferenceClickListener(new PackageEntryClickedListener(
                 fragment.getContext(), access.packageName, access.userHandle));
-        return pref;
+    }
+
+    /**
+     * Return the time elapsed since {@code access}, relative to now
+     */
+    static CharSequence getAccessTimeSummary(Context prefContext,
+            RecentAppOpsAccess.Access access) {
+        return StringUtil.formatRelativeTime(prefContext,
+                System.currentTimeMillis() - access.accessFinishTime, false,
+                RelativeDateTimeFormatter.Style.LONG);
     }
 
     /**
@@ -200,9 +217,7 @@ public class RecentLocationAccessPreferenceController extends LocationBasePrefer
      * Update the state of the showSystem setting flag and load the new results.
      */
     void updateShowSystem() {
-        mSystemSettingChanged = true;
         mShowSystem = !mShowSystem;
-        clearPreferenceList();
         loadRecentAccesses();
     }
 }
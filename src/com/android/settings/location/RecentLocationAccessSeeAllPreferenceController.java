@@ -15,7 +15,6 @@
  */
 package com.android.settings.location;
 
-import static com.android.settings.location.RecentLocationAccessPreferenceController.createAppPreference;
 import static com.android.settings.location.RecentLocationAccessPreferenceController.isRequestMatchesProfileType;
 
 import android.content.Context;
@@ -23,6 +22,7 @@ import android.os.UserManager;
 import android.provider.DeviceConfig;
 import android.provider.Settings;
 
+import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceScreen;
 
@@ -32,7 +32,6 @@ import com.android.settings.dashboard.profileselector.ProfileSelectFragment;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.applications.RecentAppOpsAccess;
 import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
-import com.android.settingslib.widget.AppPreference;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -41,14 +40,21 @@ import java.util.List;
 public class RecentLocationAccessSeeAllPreferenceController
         extends LocationBasePreferenceController {
 
-    private final RecentAppOpsAccess mRecentLocationAccesses;
+    private final RecentLocationAccessStore mStore;
 
     private PreferenceScreen mCategoryAllRecentLocationAccess;
+    private RecentLocationAccessPreferenceBinder mBinder;
     private MetricsFeatureProvider mMetricsFeatureProvider;
     private boolean mShowSystem = false;
     private Preference mPreference;
 
     public RecentLocationAccessSeeAllPreferenceController(Context context, String key) {
+        this(context, key, RecentLocationAccessStore.getInstance(context));
+    }
+
+    @VisibleForTesting
+    RecentLocationAccessSeeAllPreferenceController(Context context, String key,
+            RecentLocationAccessStore store) {
         super(context, key);
         mShowSystem = DeviceConfig.getBoolean(DeviceConfig.NAMESPACE_PRIVACY,
             SystemUiDeviceConfigFlags.PROPERTY_LOCATION_INDICATORS_SMALL_ENABLED, false)
@@ -56,7 +62,7 @@ public class RecentLocationAccessSeeAllPreferenceController
             Settings.Secure.LOCATION_SHOW_SYSTEM_OPS, 0) == 1
             : false;
 
-        mRecentLocationAccesses = RecentAppOpsAccess.createForLocation(context);
+        mStore = store;
         mMetricsFeatureProvider = FeatureFactory.getFeatureFactory().getMetricsFeatureProvider();
     }
 
@@ -69,38 +75,37 @@ public class RecentLocationAccessSeeAllPreferenceController
     public void displayPreference(PreferenceScreen screen) {
         super.displayPreference(screen);
         mCategoryAllRecentLocationAccess = screen.findPreference(getPreferenceKey());
+        mBinder = new RecentLocationAccessPreferenceBinder(mCategoryAllRecentLocationAccess,
+                mFragment, R.string.location_no_recent_apps);
     }
 
     @Override
     public void updateState(Preference preference) {
-        mCategoryAllRecentLocationAccess.removeAll();
         mPreference = preference;
+        final List<RecentAppOpsAccess.Access> cachedAccesses =
+                mStore.getCachedAccesses(mShowSystem);
+        if (cachedAccesses != null) {
+            bindRecentAccesses(cachedAccesses);
+        }
+        final boolean showSystem = mShowSystem;
+        mStore.refresh(showSystem, accesses -> {
+            // Drops the result if the flag was toggled while it was loading.
+            if (showSystem == mShowSystem) {
+                bindRecentAccesses(accesses);
+            }
+        });
+    }
 
+    private void bindRecentAccesses(List<RecentAppOpsAccess.Access> accesses) {
         final UserManager userManager = UserManager.get(mContext);
-
         final List<RecentAppOpsAccess.Access> recentLocationAccesses = new ArrayList<>();
-        for (RecentAppOpsAccess.Access access : mRecentLocationAccesses.getAppListSorted(
-                mShowSystem)) {
+        for (RecentAppOpsAccess.Access access : accesses) {
             if (isRequestMatchesProfileType(
                     userManager, access, ProfileSelectFragment.ProfileType.ALL)) {
                 recentLocationAccesses.add(access);
             }
         }
-
-        if (recentLocationAccesses.isEmpty()) {
-            // If there's no item to display, add a "No recent apps" item.
-            final Preference banner = new AppPreference(mContext);
-            banner.setTitle(R.string.location_no_recent_apps);
-            banner.setSelectable(false);
-            mCategoryAllRecentLocationAccess.addPreference(banner);
-        } else {
-            for (RecentAppOpsAccess.Access request : recentLocationAccesses) {
-                final Preference appPreference = createAppPreference(
-                        preference.getContext(),
-                        request, mFragment);
-                mCategoryAllRecentLocationAccess.addPreference(appPreference);
-            }
-        }
+        mBinder.bind(recentLocationAccesses);
     }
 
     /**
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.location;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.applications.RecentAppOpsAccess;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Store of the apps which recently accessed location, shared by the location pages of a user.
+ *
+ * <p>The sorted list of {@link RecentAppOpsAccess#getAppListSorted} is kept for each value of the
+ * show system flag. A page binds the kept list right away, then {@link #refresh}es it: the AppOps
+ * history, the labels and the icons are loaded in the background, and the concurrent refreshes of
+ * the same flag share a single load.
+ */
+final class RecentLocationAccessStore {
+    private static final String TAG = "RecentLocationAccessStore";
+
+    private static final SparseArray<RecentLocationAccessStore> sInstances = new SparseArray<>();
+
+    private final RecentAppOpsAccess mRecentAppOpsAccess;
+    private final Executor mBackgroundExecutor;
+    private final Executor mMainExecutor;
+    private final Object mLock = new Object();
+
+    // Keyed by the show system flag, 0 for false and 1 for true.
+    @GuardedBy("mLock")
+    private final SparseArray<List<RecentAppOpsAccess.Access>> mAccesses = new SparseArray<>();
+    @GuardedBy("mLock")
+    private final SparseArray<List<Consumer<List<RecentAppOpsAccess.Access>>>> mPendingCallbacks =
+            new SparseArray<>();
+
+    /** Returns the store of the user of {@code context}. */
+    static RecentLocationAccessStore getInstance(@NonNull Context context) {
+        final int userId = context.getUserId();
+        synchronized (sInstances) {
+            RecentLocationAccessStore store = sInstances.get(userId);
+            if (store == null) {
+                store = new RecentLocationAccessStore(
+                        RecentAppOpsAccess.createForLocation(context.getApplicationContext()),
+                        ThreadUtils::postOnBackgroundThread, ThreadUtils::postOnMainThread);
+                sInstances.put(userId, store);
+            }
+            return store;
+        }
+    }
+
+    @VisibleForTesting
+    RecentLocationAccessStore(RecentAppOpsAccess recentAppOpsAccess, Executor backgroundExecutor,
+            Executor mainExecutor) {
+        mRecentAppOpsAccess = recentAppOpsAccess;
+        mBackgroundExecutor = backgroundExecutor;
+        mMainExecutor = mainExecutor;
+    }
+
+    /**
+     * Returns the last loaded list of the apps which recently accessed location, sorted by
+     * recency, or {@code null} if it was never loaded.
+     */
+    @Nullable
+    List<RecentAppOpsAccess.Access> getCachedAccesses(boolean showSystem) {
+        synchronized (mLock) {
+            return mAccesses.get(index(showSystem));
+        }
+    }
+
+    /**
+     * Reloads the list of the apps which recently accessed location in the background, then calls
+     * {@code callback} with it on the main thread. If a reload of {@code showSystem} is already
+     * running, {@code callback} is called with its result instead. If the reload fails,
+     * {@code callback} is called with the last loaded list, or not at all if there is none.
+     */
+    @MainThread
+    void refresh(boolean showSystem, @NonNull Consumer<List<RecentAppOpsAccess.Access>> callback) {
+        final int index = index(showSystem);
+        synchronized (mLock) {
+            final List<Consumer<List<RecentAppOpsAccess.Access>>> pendingCallbacks =
+                    mPendingCallbacks.get(index);
+            if (pendingCallbacks != null) {
+                pendingCallbacks.add(callback);
+                return;
+            }
+            final List<Consumer<List<RecentAppOpsAccess.Access>>> callbacks = new ArrayList<>();
+            callbacks.add(callback);
+            mPendingCallbacks.put(index, callbacks);
+        }
+        mBackgroundExecutor.execute(() -> {
+            final long startTime = System.currentTimeMillis();
+            List<RecentAppOpsAccess.Access> accesses = null;
+            final List<Consumer<List<RecentAppOpsAccess.Access>>> callbacks;
+            try {
+                accesses = Collections.unmodifiableList(
+                        new ArrayList<>(mRecentAppOpsAccess.getAppListSorted(showSystem)));
+                Log.d(TAG, "refresh, showSystem = " + showSystem + ", size = " + accesses.size()
+                        + ", in " + (System.currentTimeMillis() - startTime) + "/ms");
+            } catch (RuntimeException e) {
+                Log.e(TAG, "refresh failed, showSystem = " + showSystem, e);
+            } finally {
+                // Always drops the callbacks, so that the next refresh loads again and the
+                // store does not keep the pages alive.
+                synchronized (mLock) {
+                    if (accesses != null) {
+                        mAccesses.put(index, accesses);
+                    } else {
+                        accesses = mAccesses.get(index);
+                    }
+                    callbacks = mPendingCallbacks.get(index);
+                    mPendingCallbacks.remove(index);
+                }
+            }
+            // After a failure, the callbacks get the last loaded list, if any.
+            if (accesses == null) {
+                return;
+            }
+            final List<RecentAppOpsAccess.Access> result = accesses;
+            mMainExecutor.execute(() -> {
+                for (Consumer<List<RecentAppOpsAccess.Access>> pendingCallback : callbacks) {
+                    pendingCallback.accept(result);
+                }
+            });
+        });
+    }
+
+    private static int index(boolean showSystem) {
+        return showSystem ? 1 : 0;
+    }
+}
@@ -65,6 +65,17 @@ public class CarrierConfigCache {
     @VisibleForTesting
     protected static CarrierConfigManager sCarrierConfigManager;
 
+    /**
+     * Manages mapping data from the subscription ID to the {@link CarrierConfigValues} decoded
+     * from its Carrier-Configuration. Read without locking, written under {@code sCarrierConfigs}.
+     */
+    private static final Map<Integer, CarrierConfigValues> sCarrierConfigValues =
+            new ConcurrentHashMap<>();
+    // Incremented by each carrier config change, so that the values decoded from a previous
+    // config are not cached.
+    @GuardedBy("sCarrierConfigs")
+    private static int sConfigGeneration;
+
     /**
      * Static method to create a singleton class for Carrier-Configuration cache.
      *
@@ -140,6 +151,10 @@ public class CarrierConfigCache {
     public PersistableBundle getConfigForSubId(int subId) {
         if (sCarrierConfigManager == null) return null;
 
+        final PersistableBundle cachedConfig = sCarrierConfigs.get(subId);
+        if (cachedConfig != null) {
+            return cachedConfig;
+        }
         synchronized (sCarrierConfigs) {
             if (sCarrierConfigs.containsKey(subId)) {
                 return sCarrierConfigs.get(subId);
@@ -154,6 +169,38 @@ public class CarrierConfigCache {
         }
     }
 
+    /**
+     * Gets the typed Carrier-Configuration values for a particular subscription, decoded once and
+     * shared until the Carrier-Configuration of the subscription changes. Prefer this method to
+     * {@link #getConfigForSubId} for the values it provides.
+     *
+     * @param subId the subscription ID, normally obtained from {@link SubscriptionManager}.
+     * @return the {@link CarrierConfigValues} for the given subId, or {@code null} if its config
+     * is not available.
+     */
+    public CarrierConfigValues getCarrierConfigValues(int subId) {
+        if (sCarrierConfigManager == null) return null;
+
+        final CarrierConfigValues cachedValues = sCarrierConfigValues.get(subId);
+        if (cachedValues != null) {
+            return cachedValues;
+        }
+        final int generation;
+        synchronized (sCarrierConfigs) {
+            generation = sConfigGeneration;
+        }
+        final CarrierConfigValues values = CarrierConfigValues.from(getConfigForSubId(subId));
+        if (values == null) {
+            return null;
+        }
+        synchronized (sCarrierConfigs) {
+            if (generation == sConfigGeneration) {
+                sCarrierConfigValues.putIfAbsent(subId, values);
+            }
+        }
+        return values;
+    }
+
     /**
      * Gets the Carrier-Configuration for the default subscription.
      *
@@ -165,17 +212,21 @@ public class CarrierConfigCache {
         return getConfigForSubId(SubscriptionManager.getDefaultSubscriptionId());
     }
 
-    private static class CarrierConfigChangeReceiver extends BroadcastReceiver {
+    @VisibleForTesting
+    static class CarrierConfigChangeReceiver extends BroadcastReceiver {
         @Override
         public void onReceive(Context context, Intent intent) {
             if (!ACTION_CARRIER_CONFIG_CHANGED.equals(intent.getAction())) return;
 
             final int subId = intent.getIntExtra(EXTRA_SUBSCRIPTION_INDEX, INVALID_SUBSCRIPTION_ID);
             synchronized (sCarrierConfigs) {
+                sConfigGeneration++;
                 if (SubscriptionManager.isValidSubscriptionId(subId)) {
                     sCarrierConfigs.remove(subId);
+                    sCarrierConfigValues.remove(subId);
                 } else {
                     sCarrierConfigs.clear();
+                    sCarrierConfigValues.clear();
                 }
             }
         }
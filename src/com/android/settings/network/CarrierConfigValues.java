@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network;
+
+import android.os.PersistableBundle;
+import android.telephony.CarrierConfigManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Immutable view of the Carrier-Configuration values read by the mobile network settings.
+ *
+ * <p>The values are decoded once from the {@link PersistableBundle}, so they can be read from any
+ * thread without the locking and lazy unparcelling of the bundle.
+ *
+ * @see CarrierConfigCache#getCarrierConfigValues
+ */
+public final class CarrierConfigValues {
+    private final boolean mHideCarrierNetworkSettings;
+    private final boolean mWorldPhone;
+    private final boolean mWorldModeEnabled;
+    private final boolean mOperatorSelectionExpand;
+    private final boolean mCspEnabled;
+    private final boolean mShowApnSettingCdma;
+    private final boolean mApnExpand;
+    private final boolean mHidePreferredNetworkType;
+    private final boolean mShowCdmaChoices;
+
+    private CarrierConfigValues(@NonNull PersistableBundle config) {
+        mHideCarrierNetworkSettings =
+                config.getBoolean(CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL);
+        mWorldPhone = config.getBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL);
+        mWorldModeEnabled = config.getBoolean(CarrierConfigManager.KEY_WORLD_MODE_ENABLED_BOOL);
+        mOperatorSelectionExpand =
+                config.getBoolean(CarrierConfigManager.KEY_OPERATOR_SELECTION_EXPAND_BOOL);
+        mCspEnabled = config.getBoolean(CarrierConfigManager.KEY_CSP_ENABLED_BOOL);
+        mShowApnSettingCdma =
+                config.getBoolean(CarrierConfigManager.KEY_SHOW_APN_SETTING_CDMA_BOOL);
+        mApnExpand = config.getBoolean(CarrierConfigManager.KEY_APN_EXPAND_BOOL);
+        mHidePreferredNetworkType =
+                config.getBoolean(CarrierConfigManager.KEY_HIDE_PREFERRED_NETWORK_TYPE_BOOL);
+        mShowCdmaChoices = config.getBoolean(CarrierConfigManager.KEY_SHOW_CDMA_CHOICES_BOOL);
+    }
+
+    /**
+     * Decodes the values of {@code config}.
+     *
+     * @return the decoded values, or {@code null} if {@code config} is {@code null}.
+     */
+    @Nullable
+    public static CarrierConfigValues from(@Nullable PersistableBundle config) {
+        return config == null ? null : new CarrierConfigValues(config);
+    }
+
+    /** @see CarrierConfigManager#KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL */
+    public boolean hideCarrierNetworkSettings() {
+        return mHideCarrierNetworkSettings;
+    }
+
+    /** @see CarrierConfigManager#KEY_WORLD_PHONE_BOOL */
+    public boolean isWorldPhone() {
+        return mWorldPhone;
+    }
+
+    /** @see CarrierConfigManager#KEY_WORLD_MODE_ENABLED_BOOL */
+    public boolean isWorldModeEnabled() {
+        return mWorldModeEnabled;
+    }
+
+    /** @see CarrierConfigManager#KEY_OPERATOR_SELECTION_EXPAND_BOOL */
+    public boolean isOperatorSelectionExpand() {
+        return mOperatorSelectionExpand;
+    }
+
+    /** @see CarrierConfigManager#KEY_CSP_ENABLED_BOOL */
+    public boolean isCspEnabled() {
+        return mCspEnabled;
+    }
+
+    /** @see CarrierConfigManager#KEY_SHOW_APN_SETTING_CDMA_BOOL */
+    public boolean showApnSettingCdma() {
+        return mShowApnSettingCdma;
+    }
+
+    /** @see CarrierConfigManager#KEY_APN_EXPAND_BOOL */
+    public boolean isApnExpand() {
+        return mApnExpand;
+    }
+
+    /** @see CarrierConfigManager#KEY_HIDE_PREFERRED_NETWORK_TYPE_BOOL */
+    public boolean hidePreferredNetworkType() {
+        return mHidePreferredNetworkType;
+    }
+
+    /** @see CarrierConfigManager#KEY_SHOW_CDMA_CHOICES_BOOL */
+    public boolean showCdmaChoices() {
+        return mShowCdmaChoices;
+    }
+}
@@ -33,6 +33,7 @@ import android.telephony.UiccCardInfo;
 import android.telephony.UiccPortInfo;
 import android.telephony.UiccSlotInfo;
 import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.util.IndentingPrintWriter;
 import android.util.Log;
 
@@ -58,6 +59,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
@@ -194,7 +196,9 @@ public class MobileNetworkRepository extends SubscriptionManager.OnSubscriptions
             }
             sExecutor.execute(() -> {
                 Log.d(TAG, "DataRoamingObserver changed");
-                insertMobileNetworkInfo(mContext, mRegSubId, tm);
+                final MobileNetworkWriteBatch batch = newWriteBatch();
+                insertMobileNetworkInfo(batch, mContext, mRegSubId, tm);
+                batch.apply(mMobileNetworkDatabase);
             });
             boolean isDataRoamingEnabled = tm.isDataRoamingEnabled();
             for (MobileNetworkCallback callback : sCallbacks) {
@@ -487,48 +491,40 @@ public class MobileNetworkRepository extends SubscriptionManager.OnSubscriptions
                 SettingsEnums.ACTION_MOBILE_NETWORK_DB_NOTIFY_MOBILE_NETWORK_INFO_IS_CHANGED, 0);
     }
 
-    private void insertSubInfo(Context context, SubscriptionInfo info) {
+    private void insertSubInfo(MobileNetworkWriteBatch batch, Context context,
+            SubscriptionInfo info) {
         int subId = info.getSubscriptionId();
         createTelephonyManagerBySubId(subId);
         TelephonyManager telephonyManager = getTelephonyManagerBySubId(context, subId);
         SubscriptionInfoEntity subInfoEntity =
                 convertToSubscriptionInfoEntity(context, info, telephonyManager);
         if (subInfoEntity != null) {
-            if (!sCacheSubscriptionInfoEntityMap.containsKey(subId)
-                    || (sCacheSubscriptionInfoEntityMap.get(subId) != null
-                    && !sCacheSubscriptionInfoEntityMap.get(subId).equals(subInfoEntity))) {
-                sCacheSubscriptionInfoEntityMap.put(subId, subInfoEntity);
+            if (batch.updateSubInfo(subInfoEntity)) {
                 if (DEBUG) {
                     Log.d(TAG, "Convert subId " + subId + " to SubscriptionInfoEntity: "
                             + subInfoEntity);
                 } else {
                     Log.d(TAG, "insertSubsInfo into SubscriptionInfoEntity");
                 }
-                mMobileNetworkDatabase.insertSubsInfo(subInfoEntity);
                 mMetricsFeatureProvider.action(mContext,
                         SettingsEnums.ACTION_MOBILE_NETWORK_DB_INSERT_SUB_INFO, subId);
-                insertUiccInfo(subId, telephonyManager);
-                insertMobileNetworkInfo(context, subId, telephonyManager);
+                insertUiccInfo(batch, subId, telephonyManager);
+                insertMobileNetworkInfo(batch, context, subId, telephonyManager);
             }
         } else if (DEBUG) {
             Log.d(TAG, "Can not insert subInfo, the entity is null");
         }
     }
 
-    private void deleteAllInfoBySubId(String subId) {
+    private void deleteAllInfoBySubId(MobileNetworkWriteBatch batch, String subId) {
         Log.d(TAG, "deleteAllInfoBySubId, subId = " + subId);
-        mMobileNetworkDatabase.deleteSubInfoBySubId(subId);
-        mMobileNetworkDatabase.deleteUiccInfoBySubId(subId);
-        mMobileNetworkDatabase.deleteMobileNetworkInfoBySubId(subId);
+        batch.deleteSubId(subId);
         mUiccInfoEntityList.removeIf(info -> info.subId.equals(subId));
         mMobileNetworkInfoEntityList.removeIf(info -> info.subId.equals(subId));
         int id = Integer.parseInt(subId);
         removerRegisterBySubId(id);
         mSubscriptionInfoMap.remove(id);
         mTelephonyManagerMap.remove(id);
-        sCacheSubscriptionInfoEntityMap.remove(id);
-        sCacheUiccInfoEntityMap.remove(id);
-        sCacheMobileNetworkInfoEntityMap.remove(id);
         mMetricsFeatureProvider.action(mContext,
                 SettingsEnums.ACTION_MOBILE_NETWORK_DB_DELETE_DATA, id);
     }
@@ -578,22 +574,20 @@ public class MobileNetworkRepository extends SubscriptionManager.OnSubscriptions
         }
     }
 
-    private void insertUiccInfo(int subId, TelephonyManager telephonyManager) {
+    private void insertUiccInfo(MobileNetworkWriteBatch batch, int subId,
+            TelephonyManager telephonyManager) {
         UiccInfoEntity uiccInfoEntity = convertToUiccInfoEntity(subId, telephonyManager);
         if (DEBUG) {
             Log.d(TAG, "uiccInfoEntity = " + uiccInfoEntity);
         }
-        if (!sCacheUiccInfoEntityMap.containsKey(subId)
-                || !sCacheUiccInfoEntityMap.get(subId).equals(uiccInfoEntity)) {
-            sCacheUiccInfoEntityMap.put(subId, uiccInfoEntity);
-            mMobileNetworkDatabase.insertUiccInfo(uiccInfoEntity);
+        if (batch.updateUiccInfo(uiccInfoEntity)) {
             mMetricsFeatureProvider.action(mContext,
                     SettingsEnums.ACTION_MOBILE_NETWORK_DB_INSERT_UICC_INFO, subId);
         }
     }
 
-    private void insertMobileNetworkInfo(Context context, int subId,
-            TelephonyManager telephonyManager) {
+    private void insertMobileNetworkInfo(MobileNetworkWriteBatch batch, Context context,
+            int subId, TelephonyManager telephonyManager) {
         MobileNetworkInfoEntity mobileNetworkInfoEntity = convertToMobileNetworkInfoEntity(context,
                 subId, telephonyManager);
 
@@ -606,10 +600,7 @@ public class MobileNetworkRepository extends SubscriptionManager.OnSubscriptions
             return;
         }
 
-        if (!sCacheMobileNetworkInfoEntityMap.containsKey(subId)
-                || !sCacheMobileNetworkInfoEntityMap.get(subId).equals(mobileNetworkInfoEntity)) {
-            sCacheMobileNetworkInfoEntityMap.put(subId, mobileNetworkInfoEntity);
-            mMobileNetworkDatabase.insertMobileNetworkInfo(mobileNetworkInfoEntity);
+        if (batch.updateMobileNetworkInfo(mobileNetworkInfoEntity)) {
             mMetricsFeatureProvider.action(mContext,
                     SettingsEnums.ACTION_MOBILE_NETWORK_DB_INSERT_MOBILE_NETWORK_INFO, subId);
         }
@@ -672,55 +663,39 @@ public class MobileNetworkRepository extends SubscriptionManager.OnSubscriptions
 
     private void insertAvailableSubInfoToEntity(List<SubscriptionInfo> inputAvailableInfoList) {
         sExecutor.execute(() -> {
-            SubscriptionInfoEntity[] availableInfoArray = null;
-            int availableEntitySize = 0;
+            final List<SubscriptionInfoEntity> availableInfoList;
             synchronized (this) {
-                availableInfoArray = mAvailableSubInfoEntityList.toArray(
-                    new SubscriptionInfoEntity[0]);
-                availableEntitySize = mAvailableSubInfoEntityList.size();
+                availableInfoList = new ArrayList<>(mAvailableSubInfoEntityList);
             }
-            if ((inputAvailableInfoList == null || inputAvailableInfoList.size() == 0)
-                    && availableEntitySize != 0) {
-                if (DEBUG) {
-                    Log.d(TAG, "availableSudInfoList from framework is empty, remove all subs");
-                }
-
-                for (SubscriptionInfoEntity info : availableInfoArray) {
-                    deleteAllInfoBySubId(info.subId);
+            final MobileNetworkWriteBatch batch = newWriteBatch();
+
+            // Delete the subInfo which is no longer in the list from framework, whether it was
+            // read back from the database or only written by this process so far.
+            final Set<String> inputSubIds = new ArraySet<>();
+            if (inputAvailableInfoList != null) {
+                for (SubscriptionInfo subInfo : inputAvailableInfoList) {
+                    inputSubIds.add(String.valueOf(subInfo.getSubscriptionId()));
                 }
-
-            } else if (inputAvailableInfoList != null) {
-                SubscriptionInfo[] inputAvailableInfoArray = inputAvailableInfoList.toArray(
-                        new SubscriptionInfo[0]);
-                // Remove the redundant subInfo
-                if (inputAvailableInfoList.size() <= availableEntitySize) {
-                    for (SubscriptionInfo subInfo : inputAvailableInfoArray) {
-                        int subId = subInfo.getSubscriptionId();
-                        if (mSubscriptionInfoMap.containsKey(subId)) {
-                            mSubscriptionInfoMap.remove(subId);
-                        }
-                    }
-
-                    if (!mSubscriptionInfoMap.isEmpty()) {
-                        for (Integer key : mSubscriptionInfoMap.keySet()) {
-                            if (key != null) {
-                                deleteAllInfoBySubId(String.valueOf(key));
-                            }
-                        }
-                    } else if (inputAvailableInfoList.size() < availableEntitySize) {
-                        // Check the subInfo between the new list from framework and old list in
-                        // the database, if the subInfo is not existed in the new list, delete it
-                        // from the database.
-                        for (SubscriptionInfoEntity info : availableInfoArray) {
-                            if (sCacheSubscriptionInfoEntityMap.containsKey(info.getSubId())) {
-                                deleteAllInfoBySubId(info.subId);
-                            }
-                        }
-                    }
+            }
+            final Set<String> storedSubIds = new ArraySet<>();
+            for (SubscriptionInfoEntity info : availableInfoList) {
+                storedSubIds.add(info.subId);
+            }
+            for (Integer key : sCacheSubscriptionInfoEntityMap.keySet()) {
+                storedSubIds.add(String.valueOf(key));
+            }
+            for (Integer key : mSubscriptionInfoMap.keySet()) {
+                storedSubIds.add(String.valueOf(key));
+            }
+            for (String subId : storedSubIds) {
+                if (!inputSubIds.contains(subId)) {
+                    deleteAllInfoBySubId(batch, subId);
                 }
+            }
 
-                // Insert all new available subInfo to database.
-                for (SubscriptionInfo subInfo : inputAvailableInfoArray) {
+            // Insert the new or changed available subInfo.
+            if (inputAvailableInfoList != null) {
+                for (SubscriptionInfo subInfo : inputAvailableInfoList) {
                     if (DEBUG) {
                         Log.d(TAG, "insert subInfo to subInfoEntity, subInfo = " + subInfo);
                     }
@@ -734,12 +709,18 @@ public class MobileNetworkRepository extends SubscriptionManager.OnSubscriptions
                         continue;
                     }
                     mSubscriptionInfoMap.put(subInfo.getSubscriptionId(), subInfo);
-                    insertSubInfo(mContext, subInfo);
+                    insertSubInfo(batch, mContext, subInfo);
                 }
             }
+            batch.apply(mMobileNetworkDatabase);
         });
     }
 
+    private MobileNetworkWriteBatch newWriteBatch() {
+        return new MobileNetworkWriteBatch(sCacheSubscriptionInfoEntityMap,
+                sCacheUiccInfoEntityMap, sCacheMobileNetworkInfoEntityMap);
+    }
+
     public boolean isAirplaneModeOn() {
         return Settings.Global.getInt(mContext.getContentResolver(),
                 Settings.Global.AIRPLANE_MODE_ON, 0) != 0;
@@ -780,8 +761,10 @@ public class MobileNetworkRepository extends SubscriptionManager.OnSubscriptions
         public void onUserMobileDataStateChanged(boolean enabled) {
             Log.d(TAG, "onUserMobileDataStateChanged enabled " + enabled + " on SUB " + mSubId);
             sExecutor.execute(() -> {
-                insertMobileNetworkInfo(mContext, mSubId,
+                final MobileNetworkWriteBatch batch = newWriteBatch();
+                insertMobileNetworkInfo(batch, mContext, mSubId,
                         getTelephonyManagerBySubId(mContext, mSubId));
+                batch.apply(mMobileNetworkDatabase);
             });
         }
 
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.network;
+
+import android.util.ArrayMap;
+import android.util.ArraySet;
+import android.util.Log;
+
+import com.android.settingslib.mobile.dataservice.MobileNetworkDatabase;
+import com.android.settingslib.mobile.dataservice.MobileNetworkInfoEntity;
+import com.android.settingslib.mobile.dataservice.SubscriptionInfoEntity;
+import com.android.settingslib.mobile.dataservice.UiccInfoEntity;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the changed rows of the mobile network database, and writes them in a single
+ * transaction.
+ *
+ * <p>Each entity is compared with the cached one of its subscription, only the changed entities
+ * are written. Room notifies the observers of a table once at the end of the transaction, so the
+ * observers are notified once per batch instead of once per row.
+ */
+class MobileNetworkWriteBatch {
+    private static final String TAG = "MobileNetworkWriteBatch";
+
+    private final Map<Integer, SubscriptionInfoEntity> mSubInfoCache;
+    private final Map<Integer, UiccInfoEntity> mUiccInfoCache;
+    private final Map<Integer, MobileNetworkInfoEntity> mMobileNetworkInfoCache;
+
+    private final Set<String> mDeletedSubIds = new ArraySet<>();
+    private final Map<String, SubscriptionInfoEntity> mSubInfos = new ArrayMap<>();
+    private final Map<String, UiccInfoEntity> mUiccInfos = new ArrayMap<>();
+    private final Map<String, MobileNetworkInfoEntity> mMobileNetworkInfos = new ArrayMap<>();
+
+    /**
+     * @param subInfoCache the subscription info written to the database, by subscription id
+     * @param uiccInfoCache the UICC info written to the database, by subscription id
+     * @param mobileNetworkInfoCache the mobile network info written to the database, by
+     *                               subscription id
+     */
+    MobileNetworkWriteBatch(Map<Integer, SubscriptionInfoEntity> subInfoCache,
+            Map<Integer, UiccInfoEntity> uiccInfoCache,
+            Map<Integer, MobileNetworkInfoEntity> mobileNetworkInfoCache) {
+        mSubInfoCache = subInfoCache;
+        mUiccInfoCache = uiccInfoCache;
+        mMobileNetworkInfoCache = mobileNetworkInfoCache;
+    }
+
+    /** Adds {@code entity} to the batch if it changed, and returns whether it changed. */
+    boolean updateSubInfo(SubscriptionInfoEntity entity) {
+        final int subId = Integer.parseInt(entity.subId);
+        if (entity.equals(mSubInfoCache.get(subId))) {
+            return false;
+        }
+        mSubInfoCache.put(subId, entity);
+        mSubInfos.put(entity.subId, entity);
+        return true;
+    }
+
+    /** Adds {@code entity} to the batch if it changed, and returns whether it changed. */
+    boolean updateUiccInfo(UiccInfoEntity entity) {
+        final int subId = Integer.parseInt(entity.subId);
+        if (entity.equals(mUiccInfoCache.get(subId))) {
+            return false;
+        }
+        mUiccInfoCache.put(subId, entity);
+        mUiccInfos.put(entity.subId, entity);
+        return true;
+    }
+
+    /** Adds {@code entity} to the batch if it changed, and returns whether it changed. */
+    boolean updateMobileNetworkInfo(MobileNetworkInfoEntity entity) {
+        final int subId = Integer.parseInt(entity.subId);
+        if (entity.equals(mMobileNetworkInfoCache.get(subId))) {
+            return false;
+        }
+        mMobileNetworkInfoCache.put(subId, entity);
+        mMobileNetworkInfos.put(entity.subId, entity);
+        return true;
+    }
+
+    /** Adds the deletion of all the rows of {@code subId} to the batch. */
+    void deleteSubId(String subId) {
+        final int id = Integer.parseInt(subId);
+        mSubInfoCache.remove(id);
+        mUiccInfoCache.remove(id);
+        mMobileNetworkInfoCache.remove(id);
+        mSubInfos.remove(subId);
+        mUiccInfos.remove(subId);
+        mMobileNetworkInfos.remove(subId);
+        mDeletedSubIds.add(subId);
+    }
+
+    boolean isEmpty() {
+        return mDeletedSubIds.isEmpty() && mSubInfos.isEmpty() && mUiccInfos.isEmpty()
+                && mMobileNetworkInfos.isEmpty();
+    }
+
+    /**
+     * Writes the batch to {@code database} in a single transaction, and returns the number of
+     * write statements. Does not open a transaction if the batch is empty.
+     */
+    int apply(MobileNetworkDatabase database) {
+        if (isEmpty()) {
+            return 0;
+        }
+        final int[] writeCount = new int[1];
+        database.runInTransaction(() -> {
+            for (String subId : mDeletedSubIds) {
+                database.deleteSubInfoBySubId(subId);
+                database.deleteUiccInfoBySubId(subId);
+                database.deleteMobileNetworkInfoBySubId(subId);
+                writeCount[0] += 3;
+            }
+            if (!mSubInfos.isEmpty()) {
+                database.insertSubsInfo(
+                        mSubInfos.values().toArray(new SubscriptionInfoEntity[0]));
+                writeCount[0]++;
+            }
+            if (!mUiccInfos.isEmpty()) {
+                database.insertUiccInfo(mUiccInfos.values().toArray(new UiccInfoEntity[0]));
+                writeCount[0]++;
+            }
+            if (!mMobileNetworkInfos.isEmpty()) {
+                database.insertMobileNetworkInfo(
+                        mMobileNetworkInfos.values().toArray(new MobileNetworkInfoEntity[0]));
+                writeCount[0]++;
+            }
+        });
+        Log.d(TAG, "apply, deleted = " + mDeletedSubIds + ", subInfo = " + mSubInfos.keySet()
+                + ", uiccInfo = " + mUiccInfos.keySet() + ", mobileNetworkInfo = "
+                + mMobileNetworkInfos.keySet() + ", writes = " + writeCount[0]);
+        return writeCount[0];
+    }
+}
@@ -91,6 +91,7 @@ import com.android.settings.Utils;
 import com.android.settings.core.BasePreferenceController;
 import com.android.settings.core.SubSettingLauncher;
 import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.network.CarrierConfigValues;
 import com.android.settings.network.SubscriptionUtil;
 import com.android.settings.network.ims.WifiCallingQueryImsState;
 import com.android.settings.network.telephony.TelephonyConstants.TelephonyManagerConstants;
@@ -409,12 +410,11 @@ public class MobileNetworkUtils {
         if (subId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) {
             return false;
         }
-        final PersistableBundle carrierConfig =
-                CarrierConfigCache.getInstance(context).getConfigForSubId(subId);
+        final CarrierConfigValues carrierConfig =
+                CarrierConfigCache.getInstance(context).getCarrierConfigValues(subId);
         if (carrierConfig != null
-                && !carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL)
-                && carrierConfig.getBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL)) {
+                && !carrierConfig.hideCarrierNetworkSettings()
+                && carrierConfig.isWorldPhone()) {
             return true;
         }
 
@@ -474,12 +474,11 @@ public class MobileNetworkUtils {
     }
 
     private static boolean isGsmBasicOptions(Context context, int subId) {
-        final PersistableBundle carrierConfig =
-                CarrierConfigCache.getInstance(context).getConfigForSubId(subId);
+        final CarrierConfigValues carrierConfig =
+                CarrierConfigCache.getInstance(context).getCarrierConfigValues(subId);
         if (carrierConfig != null
-                && !carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL)
-                && carrierConfig.getBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL)) {
+                && !carrierConfig.hideCarrierNetworkSettings()
+                && carrierConfig.isWorldPhone()) {
             return true;
         }
 
@@ -497,11 +496,11 @@ public class MobileNetworkUtils {
      * settings
      */
     public static boolean isWorldMode(Context context, int subId) {
-        final PersistableBundle carrierConfig =
-                CarrierConfigCache.getInstance(context).getConfigForSubId(subId);
+        final CarrierConfigValues carrierConfig =
+                CarrierConfigCache.getInstance(context).getCarrierConfigValues(subId);
         return carrierConfig == null
                 ? false
-                : carrierConfig.getBoolean(CarrierConfigManager.KEY_WORLD_MODE_ENABLED_BOOL);
+                : carrierConfig.isWorldModeEnabled();
     }
 
     /**
@@ -510,15 +509,13 @@ public class MobileNetworkUtils {
     public static boolean shouldDisplayNetworkSelectOptions(Context context, int subId) {
         final TelephonyManager telephonyManager = context.getSystemService(TelephonyManager.class)
                 .createForSubscriptionId(subId);
-        final PersistableBundle carrierConfig =
-                CarrierConfigCache.getInstance(context).getConfigForSubId(subId);
+        final CarrierConfigValues carrierConfig =
+                CarrierConfigCache.getInstance(context).getCarrierConfigValues(subId);
         if (subId == SubscriptionManager.INVALID_SUBSCRIPTION_ID
                 || carrierConfig == null
-                || !carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_OPERATOR_SELECTION_EXPAND_BOOL)
-                || carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL)
-                || (carrierConfig.getBoolean(CarrierConfigManager.KEY_CSP_ENABLED_BOOL)
+                || !carrierConfig.isOperatorSelectionExpand()
+                || carrierConfig.hideCarrierNetworkSettings()
+                || (carrierConfig.isCspEnabled()
                 && !telephonyManager.isManualNetworkSelectionAllowed())) {
             return false;
         }
@@ -34,10 +34,8 @@ import android.content.DialogInterface;
 import android.database.ContentObserver;
 import android.os.Handler;
 import android.os.Looper;
-import android.os.PersistableBundle;
 import android.os.RemoteException;
 import android.provider.Settings;
-import android.telephony.CarrierConfigManager;
 import android.telephony.PhoneStateListener;
 import android.telephony.SubscriptionManager;
 import android.telephony.TelephonyManager;
@@ -54,6 +52,7 @@ import androidx.preference.PreferenceScreen;
 import com.android.settings.R;
 import com.android.settings.network.AllowedNetworkTypesListener;
 import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.network.CarrierConfigValues;
 import com.android.settings.network.telephony.TelephonyConstants.TelephonyManagerConstants;
 
 /**
@@ -80,18 +79,17 @@ public class PreferredNetworkModePreferenceController extends TelephonyBasePrefe
 
     @Override
     public int getAvailabilityStatus(int subId) {
-        final PersistableBundle carrierConfig = mCarrierConfigCache.getConfigForSubId(subId);
+        final CarrierConfigValues carrierConfig =
+                mCarrierConfigCache.getCarrierConfigValues(subId);
         boolean visible;
         if (subId == SubscriptionManager.INVALID_SUBSCRIPTION_ID) {
             visible = false;
         } else if (carrierConfig == null) {
             visible = false;
-        } else if (carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL)
-                || carrierConfig.getBoolean(
-                CarrierConfigManager.KEY_HIDE_PREFERRED_NETWORK_TYPE_BOOL)) {
+        } else if (carrierConfig.hideCarrierNetworkSettings()
+                || carrierConfig.hidePreferredNetworkType()) {
             visible = false;
-        } else if (carrierConfig.getBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL)) {
+        } else if (carrierConfig.isWorldPhone()) {
             visible = true;
         } else {
             visible = false;
@@ -231,12 +229,13 @@ public class PreferredNetworkModePreferenceController extends TelephonyBasePrefe
         if (mPhoneStateListener == null) {
             mPhoneStateListener = new PhoneCallStateListener();
         }
-        final PersistableBundle carrierConfig = mCarrierConfigCache.getConfigForSubId(mSubId);
+        final CarrierConfigValues carrierConfig =
+                mCarrierConfigCache.getCarrierConfigValues(mSubId);
         mTelephonyManager = mContext.getSystemService(TelephonyManager.class)
                 .createForSubscriptionId(mSubId);
 
         mIsGlobalCdma = mTelephonyManager.isLteCdmaEvdoGsmWcdmaEnabled()
-                && carrierConfig.getBoolean(CarrierConfigManager.KEY_SHOW_CDMA_CHOICES_BOOL);
+                && carrierConfig != null && carrierConfig.showCdmaChoices();
 
         if (mAllowedNetworkTypesListener == null) {
             mAllowedNetworkTypesListener = new AllowedNetworkTypesListener(
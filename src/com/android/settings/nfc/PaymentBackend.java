@@ -19,6 +19,7 @@ package com.android.settings.nfc;
 import android.app.ActivityManager;
 import android.content.ComponentName;
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.graphics.drawable.Drawable;
 import android.nfc.NfcAdapter;
@@ -26,16 +27,21 @@ import android.nfc.cardemulation.ApduServiceInfo;
 import android.nfc.cardemulation.CardEmulation;
 import android.os.Handler;
 import android.os.Looper;
-import android.os.Message;
 import android.os.UserHandle;
 import android.os.UserManager;
 import android.provider.Settings;
 import android.provider.Settings.SettingNotFoundException;
 
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
 import com.android.internal.content.PackageMonitor;
+import com.android.settings.applications.AppIconLabelCache;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class PaymentBackend {
     public static final String TAG = "Settings.PaymentBackend";
@@ -62,34 +68,139 @@ public class PaymentBackend {
         public int userId;
     }
 
+    // Delay used to coalesce the package changes of a burst of installs into a single refresh.
+    private static final long PACKAGE_CHANGE_REFRESH_DELAY_MS = 500;
+
     private final Context mContext;
-    private final NfcAdapter mAdapter;
     private final CardEmulation mCardEmuManager;
-    private final PackageMonitor mSettingsPackageMonitor = new SettingsPackageMonitor();
+    @VisibleForTesting
+    final PackageMonitor mSettingsPackageMonitor = new SettingsPackageMonitor();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mRefreshRunnable = this::refreshAsync;
+    private final Executor mBackgroundExecutor;
+    private final Executor mMainExecutor;
     // Fields below only modified on UI thread
     private ArrayList<PaymentAppInfo> mAppInfos;
     private PaymentAppInfo mDefaultAppInfo;
     private ArrayList<Callback> mCallbacks = new ArrayList<>();
+    private int mRefreshGeneration;
+    // Whether the apps were loaded since the last onPause(), so onResume() needs no reload.
+    private boolean mAppsUpToDate;
 
+    /**
+     * Creates the backend without loading the apps. They are loaded by {@link #onResume}, or
+     * synchronously by the first getter called before.
+     */
     public PaymentBackend(Context context) {
-        mContext = context;
+        this(context, CardEmulation.getInstance(NfcAdapter.getDefaultAdapter(context)),
+                ThreadUtils::postOnBackgroundThread, ThreadUtils::postOnMainThread);
+    }
 
-        mAdapter = NfcAdapter.getDefaultAdapter(context);
-        mCardEmuManager = CardEmulation.getInstance(mAdapter);
-        refresh();
+    @VisibleForTesting
+    PaymentBackend(Context context, CardEmulation cardEmuManager, Executor backgroundExecutor,
+            Executor mainExecutor) {
+        mContext = context;
+        mCardEmuManager = cardEmuManager;
+        mBackgroundExecutor = backgroundExecutor;
+        mMainExecutor = mainExecutor;
     }
 
     public void onPause() {
         mSettingsPackageMonitor.unregister();
+        mHandler.removeCallbacks(mRefreshRunnable);
+        // Drops the refresh in flight, onResume() starts a new one.
+        mRefreshGeneration++;
+        mAppsUpToDate = false;
     }
 
     public void onResume() {
         mSettingsPackageMonitor.register(mContext, mContext.getMainLooper(), false);
-        refresh();
+        if (!mAppsUpToDate) {
+            refreshAsync();
+        }
     }
 
+    /**
+     * Reloads the payment apps synchronously.
+     */
     public void refresh() {
+        onPaymentAppsLoaded(loadPaymentApps());
+    }
+
+    /**
+     * Reloads the payment apps on a background thread. The callbacks are called once the apps are
+     * loaded, unless another refresh was started in the meantime.
+     */
+    public void refreshAsync() {
+        mHandler.removeCallbacks(mRefreshRunnable);
+        final int generation = ++mRefreshGeneration;
+        mBackgroundExecutor.execute(() -> {
+            final ArrayList<PaymentAppInfo> appInfos = loadPaymentApps();
+            mMainExecutor.execute(() -> {
+                if (generation == mRefreshGeneration) {
+                    onPaymentAppsLoaded(appInfos);
+                }
+            });
+        });
+    }
+
+    private void onPaymentAppsLoaded(ArrayList<PaymentAppInfo> appInfos) {
+        setPaymentApps(appInfos);
+        makeCallbacks();
+    }
+
+    private void setPaymentApps(ArrayList<PaymentAppInfo> appInfos) {
+        // Drops the refreshes in flight, they started before this one.
+        mRefreshGeneration++;
+        mAppInfos = appInfos;
+        mAppsUpToDate = true;
+        markDefaultApp();
+    }
+
+    /**
+     * Loads the apps synchronously if they were never loaded, for the callers which need them
+     * right away, such as the availability checks.
+     */
+    private void ensurePaymentAppsLoaded() {
+        if (mAppInfos == null) {
+            setPaymentApps(loadPaymentApps());
+        }
+    }
+
+    private void updateDefaultApp() {
+        markDefaultApp();
+        makeCallbacks();
+    }
+
+    /**
+     * Marks the default app among the loaded ones, which only needs the settings and not a new
+     * enumeration of the payment services. Without loaded apps, the next load marks it.
+     */
+    private void markDefaultApp() {
+        if (mAppInfos == null) {
+            return;
+        }
+        PaymentInfo defaultAppName = getDefaultPaymentApp();
+        PaymentAppInfo foundDefaultApp = null;
+        for (PaymentAppInfo appInfo : mAppInfos) {
+            if (defaultAppName == null) {
+                appInfo.isDefault = false;
+            } else {
+                appInfo.isDefault =
+                        appInfo.componentName.equals(defaultAppName.componentName)
+                        && defaultAppName.userId == appInfo.userHandle.getIdentifier();
+            }
+            if (appInfo.isDefault) {
+                foundDefaultApp = appInfo;
+            }
+        }
+        mDefaultAppInfo = foundDefaultApp;
+    }
+
+    @WorkerThread
+    private ArrayList<PaymentAppInfo> loadPaymentApps() {
         PackageManager pm = mContext.getPackageManager();
+        AppIconLabelCache iconLabelCache = AppIconLabelCache.getInstance(mContext);
         ArrayList<PaymentAppInfo> appInfosAllProfiles = new ArrayList<PaymentAppInfo>();
 
         UserManager um = mContext.createContextAsUser(
@@ -97,8 +208,6 @@ public class PaymentBackend {
                 .getSystemService(UserManager.class);
         List<UserHandle> userHandles = um.getEnabledProfiles();
 
-        PaymentInfo defaultAppName = getDefaultPaymentApp();
-        PaymentAppInfo foundDefaultApp = null;
         for (UserHandle uh : userHandles) {
             List<ApduServiceInfo> serviceInfosByProfile =
                     mCardEmuManager.getServices(CardEmulation.CATEGORY_PAYMENT, uh.getIdentifier());
@@ -109,19 +218,18 @@ public class PaymentBackend {
             for (ApduServiceInfo service : serviceInfosByProfile) {
                 PaymentAppInfo appInfo = new PaymentAppInfo();
                 appInfo.userHandle = uh;
-                appInfo.label = service.loadLabel(pm);
-                if (appInfo.label == null) {
-                    appInfo.label = service.loadAppLabel(pm);
-                }
-                if (defaultAppName == null) {
-                    appInfo.isDefault = false;
+                // The label and icon are cached per component, user and package version.
+                ApplicationInfo serviceAppInfo = getApplicationInfo(pm,
+                        service.getComponent().getPackageName(), uh);
+                String serviceName = service.getComponent().getClassName();
+                if (serviceAppInfo != null) {
+                    appInfo.label = iconLabelCache.getComponentLabel(serviceAppInfo, serviceName,
+                            () -> loadLabel(service, pm));
+                    appInfo.icon = iconLabelCache.getComponentIcon(serviceAppInfo, serviceName,
+                            () -> loadBadgedIcon(service, pm, uh));
                 } else {
-                    appInfo.isDefault =
-                            service.getComponent().equals(defaultAppName.componentName)
-                            && defaultAppName.userId == uh.getIdentifier();
-                }
-                if (appInfo.isDefault) {
-                    foundDefaultApp = appInfo;
+                    appInfo.label = loadLabel(service, pm);
+                    appInfo.icon = loadBadgedIcon(service, pm, uh);
                 }
                 appInfo.componentName = service.getComponent();
                 String settingsActivity = service.getSettingsActivityName();
@@ -133,17 +241,32 @@ public class PaymentBackend {
                     appInfo.settingsComponent = null;
                 }
                 appInfo.description = service.getDescription();
-                Drawable icon = (service.loadBanner(pm) != null)
-                        ? service.loadBanner(pm) : service.loadIcon(pm);
-                appInfo.icon = pm.getUserBadgedIcon(icon, appInfo.userHandle);
 
                 appInfos.add(appInfo);
             }
             appInfosAllProfiles.addAll(appInfos);
         }
-        mAppInfos = appInfosAllProfiles;
-        mDefaultAppInfo = foundDefaultApp;
-        makeCallbacks();
+        return appInfosAllProfiles;
+    }
+
+    private static ApplicationInfo getApplicationInfo(PackageManager pm, String packageName,
+            UserHandle userHandle) {
+        try {
+            return pm.getApplicationInfoAsUser(packageName, 0, userHandle.getIdentifier());
+        } catch (PackageManager.NameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static CharSequence loadLabel(ApduServiceInfo service, PackageManager pm) {
+        CharSequence label = service.loadLabel(pm);
+        return label != null ? label : service.loadAppLabel(pm);
+    }
+
+    private static Drawable loadBadgedIcon(ApduServiceInfo service, PackageManager pm,
+            UserHandle userHandle) {
+        Drawable banner = service.loadBanner(pm);
+        return pm.getUserBadgedIcon(banner != null ? banner : service.loadIcon(pm), userHandle);
     }
 
     public void registerCallback(Callback callback) {
@@ -155,10 +278,12 @@ public class PaymentBackend {
     }
 
     public List<PaymentAppInfo> getPaymentAppInfos() {
+        ensurePaymentAppsLoaded();
         return mAppInfos;
     }
 
     public PaymentAppInfo getDefaultApp() {
+        ensurePaymentAppsLoaded();
         return mDefaultAppInfo;
     }
 
@@ -239,44 +364,33 @@ public class PaymentBackend {
                         null, uh.getIdentifier());
             }
         }
-        refresh();
+        updateDefaultApp();
     }
 
     private class SettingsPackageMonitor extends PackageMonitor {
-        private Handler mHandler;
-
-        @Override
-        public void register(Context context, Looper thread, UserHandle user,
-                boolean externalStorage) {
-            if (mHandler == null) {
-                mHandler = new Handler(thread) {
-                    @Override
-                    public void dispatchMessage(Message msg) {
-                        refresh();
-                    }
-                };
-            }
-            super.register(context, thread, user, externalStorage);
-        }
-
         @Override
         public void onPackageAdded(String packageName, int uid) {
-            mHandler.obtainMessage().sendToTarget();
+            scheduleRefresh();
         }
 
         @Override
         public void onPackageAppeared(String packageName, int reason) {
-            mHandler.obtainMessage().sendToTarget();
+            scheduleRefresh();
         }
 
         @Override
         public void onPackageDisappeared(String packageName, int reason) {
-            mHandler.obtainMessage().sendToTarget();
+            scheduleRefresh();
         }
 
         @Override
         public void onPackageRemoved(String packageName, int uid) {
-            mHandler.obtainMessage().sendToTarget();
+            scheduleRefresh();
+        }
+
+        private void scheduleRefresh() {
+            mHandler.removeCallbacks(mRefreshRunnable);
+            mHandler.postDelayed(mRefreshRunnable, PACKAGE_CHANGE_REFRESH_DELAY_MS);
         }
     }
 }
@@ -24,6 +24,7 @@ import android.content.pm.PackageManager;
 import android.os.UserHandle;
 import android.util.Slog;
 
+import com.android.settings.applications.AppIconLabelCache;
 import com.android.settings.notification.NotificationBackend;
 import com.android.settingslib.utils.ThreadUtils;
 
@@ -77,9 +78,10 @@ public class HistoryLoader {
                                         | PackageManager.MATCH_DIRECT_BOOT_AWARE,
                                 UserHandle.getUserId(nhp.uid));
                         if (info != null) {
-                            nhp.label = String.valueOf(mPm.getApplicationLabel(info));
-                            nhp.icon = mPm.getUserBadgedIcon(mPm.getApplicationIcon(info),
-                                    UserHandle.of(UserHandle.getUserId(nhp.uid)));
+                            final AppIconLabelCache cache =
+                                    AppIconLabelCache.getInstance(mContext);
+                            nhp.label = String.valueOf(cache.getLabel(info));
+                            nhp.icon = cache.getBadgedIcon(info);
                         }
                     } catch (PackageManager.NameNotFoundException e) {
                         // app is gone, just show package name and generic icon
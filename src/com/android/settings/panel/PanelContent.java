@@ -124,4 +124,12 @@ public interface PanelContent extends Instrumentable {
     default boolean isProgressBarVisible() {
         return false;
     }
+
+    /**
+     * @return {@code true} to show each Slice as soon as it loads, in a placeholder reserved
+     * while it is loading, {@code false} to wait for all the Slices before showing the Panel.
+     */
+    default boolean isProgressiveLoadingEnabled() {
+        return false;
+    }
 }
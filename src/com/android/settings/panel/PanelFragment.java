@@ -25,7 +25,9 @@ import android.app.settings.SettingsEnums;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.text.TextUtils;
+import android.util.Log;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -86,6 +88,13 @@ public class PanelFragment extends Fragment {
      */
     private static final int DURATION_SLICE_BINDING_TIMEOUT_MS = 250;
 
+    /**
+     * Deadline for each Slice to load when the Panel is shown progressively, in milliseconds.
+     * The placeholder of a Slice is collapsed after its deadline, and the Slice shows up whenever
+     * it loads.
+     */
+    private static final int DURATION_SLICE_DEADLINE_MS = 1000;
+
     @VisibleForTesting
     View mLayoutView;
     private TextView mTitleView;
@@ -109,6 +118,11 @@ public class PanelFragment extends Fragment {
 
     @VisibleForTesting
     PanelSlicesLoaderCountdownLatch mPanelSlicesLoaderCountdownLatch;
+    @VisibleForTesting
+    PanelSliceLoadTracker mPanelSliceLoadTracker;
+
+    // Runs the deadline of each Slice, posted with the Slice URI as token.
+    private final Handler mHandler = new Handler();
 
     private ViewTreeObserver.OnPreDrawListener mOnPreDrawListener = () -> {
         return false;
@@ -244,8 +258,13 @@ public class PanelFragment extends Fragment {
         // Add predraw listener to remove the animation and while we wait for Slices to load.
         mLayoutView.getViewTreeObserver().addOnPreDrawListener(mOnPreDrawListener);
 
-        // Start loading Slices. When finished, the Panel will animate in.
-        loadAllSlices();
+        if (mPanel.isProgressiveLoadingEnabled()) {
+            // Show the Panel right away, and each Slice as it loads.
+            loadSlicesProgressively();
+        } else {
+            // Start loading Slices. When finished, the Panel will animate in.
+            loadAllSlices();
+        }
 
         final IconCompat icon = mPanel.getIcon();
         final CharSequence title = mPanel.getTitle();
@@ -329,6 +348,7 @@ public class PanelFragment extends Fragment {
 
     private void loadAllSlices() {
         mSliceLiveData.clear();
+        mPanelSliceLoadTracker = null;
         final List<Uri> sliceUris = mPanel.getSlices();
         mPanelSlicesLoaderCountdownLatch = new PanelSlicesLoaderCountdownLatch(sliceUris.size());
 
@@ -346,10 +366,7 @@ public class PanelFragment extends Fragment {
 
                 // If the Slice has already loaded, refresh list with slice data.
                 if (mPanelSlicesLoaderCountdownLatch.isSliceLoaded(uri)) {
-                    if (mAdapter != null) {
-                        int itemIndex = (new ArrayList<>(mSliceLiveData.keySet())).indexOf(uri);
-                        mAdapter.notifyItemChanged(itemIndex);
-                    }
+                    notifySliceChanged(uri);
                     return;
                 }
 
@@ -387,6 +404,88 @@ public class PanelFragment extends Fragment {
         }
     }
 
+    /**
+     * Shows the Panel right away, with a placeholder for each Slice. Each Slice replaces its
+     * placeholder as soon as it loads, so the slowest Slice does not delay the others.
+     */
+    private void loadSlicesProgressively() {
+        mSliceLiveData.clear();
+        mHandler.removeCallbacksAndMessages(null /* token */);
+        final List<Uri> sliceUris = mPanel.getSlices();
+        mPanelSliceLoadTracker = new PanelSliceLoadTracker(sliceUris,
+                SystemClock.elapsedRealtime());
+
+        for (Uri uri : sliceUris) {
+            mSliceLiveData.put(uri, SliceLiveData.fromUri(getActivity(), uri,
+                    (int type, Throwable source) -> onSliceError(uri)));
+        }
+        mAdapter = new PanelSlicesAdapter(this, mSliceLiveData, mPanel.getMetricsCategory(),
+                mPanelSliceLoadTracker);
+        showSlices();
+
+        for (Map.Entry<Uri, LiveData<Slice>> entry : new ArrayList<>(mSliceLiveData.entrySet())) {
+            final Uri uri = entry.getKey();
+            entry.getValue().observe(getViewLifecycleOwner(), slice -> {
+                final SliceMetadata metadata = SliceMetadata.from(getActivity(), slice);
+                if (slice == null || metadata.isErrorSlice()) {
+                    onSliceError(uri);
+                    return;
+                }
+                mHandler.removeCallbacksAndMessages(uri);
+                final long latencyMs = mPanelSliceLoadTracker.markSliceLoaded(uri,
+                        SystemClock.elapsedRealtime());
+                if (latencyMs >= 0) {
+                    logSliceLoaded(uri, latencyMs);
+                }
+                notifySliceChanged(uri);
+            });
+            mHandler.postDelayed(() -> onSliceDeadline(uri), uri /* token */,
+                    DURATION_SLICE_DEADLINE_MS);
+        }
+    }
+
+    private void logSliceLoaded(Uri uri, long latencyMs) {
+        // Logged like the load time of the Slices of the contextual cards.
+        mMetricsProvider.action(
+                0 /* attribution */,
+                SettingsEnums.ACTION_CONTEXTUAL_CARD_LOAD,
+                mPanel.getMetricsCategory(),
+                uri.toString() /* key */,
+                (int) latencyMs /* value */);
+    }
+
+    private void onSliceError(Uri uri) {
+        mHandler.removeCallbacksAndMessages(uri);
+        mPanelSliceLoadTracker.markSliceFailed(uri);
+        removeSliceLiveData(uri);
+        if (mAdapter == null) {
+            return;
+        }
+        if (mSliceLiveData.containsKey(uri)) {
+            // Kept observing, collapse its placeholder until it loads.
+            notifySliceChanged(uri);
+        } else {
+            mAdapter.removeSlice(uri);
+        }
+    }
+
+    private void onSliceDeadline(Uri uri) {
+        if (mPanelSliceLoadTracker.markSliceTimedOut(uri)) {
+            Log.d(TAG, "Slice " + uri + " not loaded after " + DURATION_SLICE_DEADLINE_MS + "ms");
+            notifySliceChanged(uri);
+        }
+    }
+
+    private void notifySliceChanged(Uri uri) {
+        if (mAdapter == null) {
+            return;
+        }
+        final int position = mAdapter.getPosition(uri);
+        if (position >= 0) {
+            mAdapter.notifyItemChanged(position);
+        }
+    }
+
     private void removeSliceLiveData(Uri uri) {
         final List<String> allowList = Arrays.asList(
                 getResources().getStringArray(
@@ -407,21 +506,25 @@ public class PanelFragment extends Fragment {
         if (mPanelSlicesLoaderCountdownLatch.isPanelReadyToLoad()) {
             mAdapter = new PanelSlicesAdapter(
                     this, mSliceLiveData, mPanel.getMetricsCategory());
-            mPanelSlices.setAdapter(mAdapter);
-            mPanelSlices.getViewTreeObserver()
-                    .addOnGlobalLayoutListener(mOnGlobalLayoutListener);
-            mPanelSlices.setVisibility(View.VISIBLE);
+            showSlices();
+        }
+    }
 
-            final FragmentActivity activity = getActivity();
-            if (activity == null) {
-                return;
-            }
-            final DividerItemDecoration itemDecoration = new DividerItemDecoration(activity);
-            itemDecoration
-                    .setDividerCondition(DividerItemDecoration.DIVIDER_CONDITION_BOTH);
-            if (mPanelSlices.getItemDecorationCount() == 0) {
-                mPanelSlices.addItemDecoration(itemDecoration);
-            }
+    private void showSlices() {
+        mPanelSlices.setAdapter(mAdapter);
+        mPanelSlices.getViewTreeObserver()
+                .addOnGlobalLayoutListener(mOnGlobalLayoutListener);
+        mPanelSlices.setVisibility(View.VISIBLE);
+
+        final FragmentActivity activity = getActivity();
+        if (activity == null) {
+            return;
+        }
+        final DividerItemDecoration itemDecoration = new DividerItemDecoration(activity);
+        itemDecoration
+                .setDividerCondition(DividerItemDecoration.DIVIDER_CONDITION_BOTH);
+        if (mPanelSlices.getItemDecorationCount() == 0) {
+            mPanelSlices.addItemDecoration(itemDecoration);
         }
     }
 
@@ -468,6 +571,7 @@ public class PanelFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        mHandler.removeCallbacksAndMessages(null /* token */);
 
         if (TextUtils.isEmpty(mPanelClosedKey)) {
             mPanelClosedKey = PanelClosedKeys.KEY_OTHERS;
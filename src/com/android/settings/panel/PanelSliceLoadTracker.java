@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.panel;
+
+import android.net.Uri;
+
+import androidx.slice.Slice;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks the {@link Slice Slices} of a Panel shown progressively, as they arrive.
+ * <p>
+ *     A Slice is pending from the time the Panel opens until its first content arrives, it fails
+ *     to load, or its deadline passes. Pending Slices are shown as placeholders. The time to the
+ *     first content of each Slice is recorded, including for Slices arriving after their deadline.
+ *
+ * @deprecated this is no longer used after V and will be removed.
+ */
+@Deprecated(forRemoval = true)
+public class PanelSliceLoadTracker {
+    private final long mStartTimeMs;
+    private final Set<Uri> mPendingSlices;
+    private final Map<Uri, Long> mLoadLatencies = new LinkedHashMap<>();
+
+    public PanelSliceLoadTracker(List<Uri> sliceUris, long startTimeMs) {
+        mPendingSlices = new LinkedHashSet<>(sliceUris);
+        mStartTimeMs = startTimeMs;
+    }
+
+    /**
+     * @return {@code true} if the Slice is still waiting for its first content.
+     */
+    public boolean isPending(Uri sliceUri) {
+        return mPendingSlices.contains(sliceUri);
+    }
+
+    /**
+     * Records the first content of the Slice.
+     *
+     * @return the time from the Panel opening to the first content of the Slice in milliseconds,
+     * or -1 if the Slice already had content.
+     */
+    public long markSliceLoaded(Uri sliceUri, long nowMs) {
+        mPendingSlices.remove(sliceUri);
+        if (mLoadLatencies.containsKey(sliceUri)) {
+            return -1;
+        }
+        final long latencyMs = nowMs - mStartTimeMs;
+        mLoadLatencies.put(sliceUri, latencyMs);
+        return latencyMs;
+    }
+
+    /**
+     * Stops waiting for a Slice that failed to load.
+     */
+    public void markSliceFailed(Uri sliceUri) {
+        mPendingSlices.remove(sliceUri);
+    }
+
+    /**
+     * Stops waiting for a Slice, once its deadline has passed.
+     *
+     * @return {@code true} if the Slice was still pending.
+     */
+    public boolean markSliceTimedOut(Uri sliceUri) {
+        return mPendingSlices.remove(sliceUri);
+    }
+
+    /**
+     * @return the time to the first content of each loaded Slice in milliseconds, in the order
+     * the Slices arrived.
+     */
+    public Map<Uri, Long> getLoadLatencies() {
+        return Collections.unmodifiableMap(mLoadLatencies);
+    }
+}
@@ -30,6 +30,7 @@ import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.LinearLayout;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.LiveData;
 import androidx.recyclerview.widget.RecyclerView;
@@ -61,15 +62,29 @@ public class PanelSlicesAdapter
     @VisibleForTesting
     static final int MAX_NUM_OF_SLICES = 9;
 
+    private final List<Uri> mSliceUris;
     private final List<LiveData<Slice>> mSliceLiveData;
     private final int mMetricsCategory;
     private final PanelFragment mPanelFragment;
+    @Nullable
+    private final PanelSliceLoadTracker mLoadTracker;
 
     public PanelSlicesAdapter(
             PanelFragment fragment, Map<Uri, LiveData<Slice>> sliceLiveData, int metricsCategory) {
+        this(fragment, sliceLiveData, metricsCategory, null /* loadTracker */);
+    }
+
+    /**
+     * @param loadTracker tracks the Slices still loading, which are shown as placeholders of a
+     *                    reserved height, or null if all the Slices have loaded already.
+     */
+    public PanelSlicesAdapter(PanelFragment fragment, Map<Uri, LiveData<Slice>> sliceLiveData,
+            int metricsCategory, @Nullable PanelSliceLoadTracker loadTracker) {
         mPanelFragment = fragment;
+        mSliceUris = new ArrayList<>(sliceLiveData.keySet());
         mSliceLiveData = new ArrayList<>(sliceLiveData.values());
         mMetricsCategory = metricsCategory;
+        mLoadTracker = loadTracker;
     }
 
     @NonNull
@@ -88,7 +103,43 @@ public class PanelSlicesAdapter
 
     @Override
     public void onBindViewHolder(@NonNull SliceRowViewHolder sliceRowViewHolder, int position) {
-        sliceRowViewHolder.onBind(mSliceLiveData.get(position).getValue());
+        final Slice slice = mSliceLiveData.get(position).getValue();
+        if (mLoadTracker == null) {
+            sliceRowViewHolder.onBind(slice);
+            return;
+        }
+        if (slice == null && mLoadTracker.isPending(mSliceUris.get(position))) {
+            sliceRowViewHolder.itemView.setMinimumHeight(sliceRowViewHolder.itemView.getResources()
+                    .getDimensionPixelSize(R.dimen.panel_slice_placeholder_height));
+            sliceRowViewHolder.bindPlaceholder();
+            return;
+        }
+        // The Slice takes its own height once bound.
+        sliceRowViewHolder.itemView.setMinimumHeight(0);
+        sliceRowViewHolder.onBind(slice);
+    }
+
+    /**
+     * @return the position of the Slice in the adapter, or -1 if it is not shown.
+     */
+    public int getPosition(Uri sliceUri) {
+        final int position = mSliceUris.indexOf(sliceUri);
+        return position < getItemCount() ? position : -1;
+    }
+
+    /**
+     * Removes the Slice from the adapter, and notifies the removal.
+     */
+    public void removeSlice(Uri sliceUri) {
+        final int position = mSliceUris.indexOf(sliceUri);
+        if (position < 0) {
+            return;
+        }
+        mSliceUris.remove(position);
+        mSliceLiveData.remove(position);
+        if (position < MAX_NUM_OF_SLICES) {
+            notifyItemRemoved(position);
+        }
     }
 
     /**
@@ -139,6 +190,14 @@ public class PanelSlicesAdapter
             mSliceSliderLayout = view.findViewById(R.id.slice_slider_layout);
         }
 
+        /**
+         * Called when the view is displayed before the Slice has loaded.
+         */
+        public void bindPlaceholder() {
+            // Keeps the row in the layout, so the Slice shows up without moving the other rows.
+            sliceView.setVisibility(View.INVISIBLE);
+        }
+
         /**
          * Called when the view is displayed.
          */
@@ -169,6 +169,12 @@ public class VolumePanel implements PanelContent, LifecycleObserver {
         return PanelContent.VIEW_TYPE_SLIDER;
     }
 
+    @Override
+    public boolean isProgressiveLoadingEnabled() {
+        // The media output Slices may take long to load, do not hold the volume sliders on them.
+        return true;
+    }
+
     @Override
     public void registerCallback(PanelContentCallback callback) {
         mCallback = callback;
@@ -71,7 +71,9 @@ public class LaunchSettingsTest {
                 new Page("android.settings.BLUETOOTH_SETTINGS", "Connected devices", "BlueTooth"),
                 new Page("android.settings.APPLICATION_SETTINGS", "App info", "Application"),
                 new Page("android.intent.action.POWER_USAGE_SUMMARY", "Battery", "Battery"),
-                new Page("android.settings.INTERNAL_STORAGE_SETTINGS", "Storage", "Storage")
+                new Page("android.settings.INTERNAL_STORAGE_SETTINGS", "Storage", "Storage"),
+                new Page("android.settings.APPLICATION_DEVELOPMENT_SETTINGS",
+                        "Use developer options", "Development")
         };
     }
 
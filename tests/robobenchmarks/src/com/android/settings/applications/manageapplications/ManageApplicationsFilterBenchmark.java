@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.manageapplications;
+
+import android.content.Context;
+
+import com.android.settings.benchmark.BenchmarkRule;
+import com.android.settings.benchmark.BenchmarkState;
+import com.android.settingslib.applications.ApplicationsState;
+import com.android.settingslib.applications.ApplicationsState.AppEntry;
+import com.android.settingslib.applications.ApplicationsState.AppFilter;
+import com.android.settingslib.applications.ApplicationsState.CompoundFilter;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Benchmarks the filtering and sorting done each time the app list of ManageApplications is
+ * rebuilt, and the filtering of its search box.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ManageApplicationsFilterBenchmark {
+
+    private static final int APPS = 1000;
+    private static final long SEED = 42;
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private Context mContext;
+    private ArrayList<AppEntry> mAppEntries;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mAppEntries = SyntheticAppList.generate(mContext, APPS, SEED);
+    }
+
+    @Test
+    public void rebuild_allApps_sortByName() {
+        rebuild(AppFilterRegistry.FILTER_APPS_ALL, ApplicationsState.ALPHA_COMPARATOR);
+    }
+
+    @Test
+    public void rebuild_enabledApps_sortBySize() {
+        rebuild(AppFilterRegistry.FILTER_APPS_ENABLED, ApplicationsState.SIZE_COMPARATOR);
+    }
+
+    @Test
+    public void filterSearch() {
+        final List<AppEntry> sortedEntries =
+                filterAndSort(buildFilter(AppFilterRegistry.FILTER_APPS_ALL),
+                        ApplicationsState.ALPHA_COMPARATOR);
+        final String[] queries = {"c", "ca", "cam", "came", "camer", "camera"};
+
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (String query : queries) {
+                // Same matching as the search filter of ManageApplications.
+                final List<AppEntry> matchedEntries = new ArrayList<>();
+                for (AppEntry entry : sortedEntries) {
+                    if (entry.label.toLowerCase().contains(query.toLowerCase())) {
+                        matchedEntries.add(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private void rebuild(int filterType, Comparator<AppEntry> comparator) {
+        final AppFilter filter = buildFilter(filterType);
+
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            filterAndSort(filter, comparator);
+        }
+    }
+
+    private AppFilter buildFilter(int filterType) {
+        // Same filter as ManageApplications when system apps are hidden.
+        final AppFilter filter = new CompoundFilter(
+                new CompoundFilter(AppFilterRegistry.getInstance().get(filterType).getFilter(),
+                        ApplicationsState.FILTER_DOWNLOADED_AND_LAUNCHER),
+                ApplicationsState.FILTER_NOT_HIDE);
+        filter.init(mContext);
+        return filter;
+    }
+
+    private List<AppEntry> filterAndSort(AppFilter filter, Comparator<AppEntry> comparator) {
+        // Same work as ApplicationsState.Session#rebuild().
+        final List<AppEntry> filteredEntries = new ArrayList<>();
+        for (AppEntry entry : mAppEntries) {
+            if (filter.filterApp(entry)) {
+                filteredEntries.add(entry);
+            }
+        }
+        Collections.sort(filteredEntries, comparator);
+        return filteredEntries;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications.manageapplications;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.UserHandle;
+
+import com.android.settingslib.applications.ApplicationsState.AppEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the app entries loaded by {@code ApplicationsState}, with a mix of downloaded apps,
+ * system apps with and without launcher entries, disabled apps and work profile apps.
+ */
+final class SyntheticAppList {
+
+    private static final int FIRST_APP_ID = 10_000;
+    private static final int WORK_PROFILE_USER_ID = 10;
+    private static final String[] WORDS = {
+            "Camera", "Photos", "Maps", "Music", "Notes", "Calendar", "Clock", "Weather", "Mail",
+            "Chat", "Video", "News", "Files", "Wallet", "Fitness", "Radio", "Books", "Games",
+    };
+
+    private SyntheticAppList() {}
+
+    /**
+     * @param count the number of app entries
+     * @param seed the seed of the random apps, so that runs can be compared
+     */
+    static ArrayList<AppEntry> generate(Context context, int count, long seed) {
+        final Random random = new Random(seed);
+        final ArrayList<AppEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final ApplicationInfo info = new ApplicationInfo();
+            info.packageName = "com.example." + WORDS[i % WORDS.length].toLowerCase() + i;
+            info.sourceDir = "/data/app/" + info.packageName + "/base.apk";
+            // One app out of five is also installed in the work profile.
+            final int userId = i % 5 == 4 ? WORK_PROFILE_USER_ID : UserHandle.USER_SYSTEM;
+            info.uid = UserHandle.getUid(userId, FIRST_APP_ID + i);
+            info.enabled = random.nextInt(20) != 0;
+            info.flags = ApplicationInfo.FLAG_INSTALLED;
+            final boolean isSystemApp = random.nextInt(3) == 0;
+            if (isSystemApp) {
+                info.flags |= ApplicationInfo.FLAG_SYSTEM;
+            }
+
+            final AppEntry entry = new AppEntry(context, info, i);
+            entry.label = WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            entry.hasLauncherEntry = !isSystemApp || random.nextBoolean();
+            entry.size = random.nextInt(500) * 1024L * 1024L;
+            entries.add(entry);
+        }
+        return entries;
+    }
+}
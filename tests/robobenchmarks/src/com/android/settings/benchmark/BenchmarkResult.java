@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.benchmark;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The time per operation of the measured iterations of a benchmark.
+ */
+public final class BenchmarkResult {
+
+    /** Version of the JSON format, bumped when a field changes meaning. */
+    static final int FORMAT_VERSION = 1;
+
+    public final String className;
+    public final String methodName;
+    public final int warmupIterations;
+    public final int opsPerIteration;
+
+    private final double[] mNsPerOp;
+    private final double[] mSortedNsPerOp;
+
+    BenchmarkResult(String className, String methodName, int warmupIterations,
+            int opsPerIteration, double[] nsPerOp) {
+        this.className = className;
+        this.methodName = methodName;
+        this.warmupIterations = warmupIterations;
+        this.opsPerIteration = opsPerIteration;
+        mNsPerOp = nsPerOp;
+        mSortedNsPerOp = nsPerOp.clone();
+        Arrays.sort(mSortedNsPerOp);
+    }
+
+    public double getMinNs() {
+        return mSortedNsPerOp[0];
+    }
+
+    public double getMaxNs() {
+        return mSortedNsPerOp[mSortedNsPerOp.length - 1];
+    }
+
+    public double getMedianNs() {
+        return getPercentileNs(50);
+    }
+
+    /**
+     * @return the given percentile of the time per operation, interpolated between the two
+     * closest iterations.
+     */
+    public double getPercentileNs(int percentile) {
+        final double rank = percentile / 100.0 * (mSortedNsPerOp.length - 1);
+        final int lower = (int) Math.floor(rank);
+        final int upper = (int) Math.ceil(rank);
+        return mSortedNsPerOp[lower]
+                + (mSortedNsPerOp[upper] - mSortedNsPerOp[lower]) * (rank - lower);
+    }
+
+    public double getMeanNs() {
+        double sum = 0;
+        for (double nsPerOp : mNsPerOp) {
+            sum += nsPerOp;
+        }
+        return sum / mNsPerOp.length;
+    }
+
+    public double getStandardDeviationNs() {
+        final double mean = getMeanNs();
+        double sum = 0;
+        for (double nsPerOp : mNsPerOp) {
+            sum += (nsPerOp - mean) * (nsPerOp - mean);
+        }
+        return Math.sqrt(sum / mNsPerOp.length);
+    }
+
+    /** @return the result in the format written by {@link BenchmarkRule}. */
+    public JSONObject toJson() throws JSONException {
+        final JSONArray iterations = new JSONArray();
+        for (double nsPerOp : mNsPerOp) {
+            iterations.put(nsPerOp);
+        }
+        return new JSONObject()
+                .put("formatVersion", FORMAT_VERSION)
+                .put("className", className)
+                .put("methodName", methodName)
+                .put("warmupIterations", warmupIterations)
+                .put("measuredIterations", mNsPerOp.length)
+                .put("opsPerIteration", opsPerIteration)
+                .put("minNs", getMinNs())
+                .put("medianNs", getMedianNs())
+                .put("p90Ns", getPercentileNs(90))
+                .put("maxNs", getMaxNs())
+                .put("meanNs", getMeanNs())
+                .put("stdDevNs", getStandardDeviationNs())
+                .put("iterationsNsPerOp", iterations);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s#%s: median %.0f ns/op, min %.0f, p90 %.0f, stddev %.0f (%d x %d ops)",
+                className, methodName, getMedianNs(), getMinNs(), getPercentileNs(90),
+                getStandardDeviationNs(), mNsPerOp.length, opsPerIteration);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.benchmark;
+
+import org.json.JSONException;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the {@link BenchmarkState} of each benchmark method, and writes its result once the
+ * method returns.
+ *
+ * <p>Each result is printed, and written as JSON to
+ * {@code <output dir>/<class name>#<method name>.json} so that the results of successive runs can
+ * be collected and compared. The run can be tuned with system properties:
+ * <ul>
+ *     <li>{@value #PROPERTY_OUTPUT_DIR}: the output directory, by default
+ *     {@code settings-benchmarks} in the temporary directory.</li>
+ *     <li>{@value #PROPERTY_WARMUP_ITERATIONS}: the number of warmup iterations.</li>
+ *     <li>{@value #PROPERTY_MEASURED_ITERATIONS}: the number of measured iterations.</li>
+ *     <li>{@value #PROPERTY_TARGET_ITERATION_MS}: the target duration of an iteration.</li>
+ * </ul>
+ */
+public class BenchmarkRule implements TestRule {
+
+    static final String PROPERTY_OUTPUT_DIR = "settings.benchmark.outputDir";
+    static final String PROPERTY_WARMUP_ITERATIONS = "settings.benchmark.warmupIterations";
+    static final String PROPERTY_MEASURED_ITERATIONS = "settings.benchmark.measuredIterations";
+    static final String PROPERTY_TARGET_ITERATION_MS = "settings.benchmark.targetIterationMs";
+
+    private static final int DEFAULT_WARMUP_ITERATIONS = 5;
+    private static final int DEFAULT_MEASURED_ITERATIONS = 20;
+    private static final int DEFAULT_TARGET_ITERATION_MS = 50;
+
+    private BenchmarkState mState;
+    private BenchmarkResult mResult;
+
+    /** @return the state of the running benchmark method. */
+    public BenchmarkState getState() {
+        if (mState == null) {
+            throw new IllegalStateException("getState() must be called from a benchmark method");
+        }
+        return mState;
+    }
+
+    /** @return the result of the last benchmark method, once it has returned. */
+    public BenchmarkResult getResult() {
+        return mResult;
+    }
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                mState = new BenchmarkState(
+                        Integer.getInteger(PROPERTY_WARMUP_ITERATIONS, DEFAULT_WARMUP_ITERATIONS),
+                        Integer.getInteger(PROPERTY_MEASURED_ITERATIONS,
+                                DEFAULT_MEASURED_ITERATIONS),
+                        TimeUnit.MILLISECONDS.toNanos(Integer.getInteger(
+                                PROPERTY_TARGET_ITERATION_MS, DEFAULT_TARGET_ITERATION_MS)));
+                base.evaluate();
+                if (!mState.isFinished()) {
+                    throw new AssertionError(description.getMethodName()
+                            + " must call keepRunning() until it returns false");
+                }
+                mResult = mState.getResult(description.getClassName(),
+                        description.getMethodName());
+                System.out.println(mResult);
+                writeResult(mResult);
+            }
+        };
+    }
+
+    private static void writeResult(BenchmarkResult result) throws IOException, JSONException {
+        final File outputDir = new File(System.getProperty(PROPERTY_OUTPUT_DIR,
+                new File(System.getProperty("java.io.tmpdir"), "settings-benchmarks").getPath()));
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create " + outputDir);
+        }
+        final File outputFile =
+                new File(outputDir, result.className + "#" + result.methodName + ".json");
+        try (Writer writer = new FileWriter(outputFile)) {
+            writer.write(result.toJson().toString(2));
+        }
+    }
+}
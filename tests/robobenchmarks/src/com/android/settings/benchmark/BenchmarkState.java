@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.benchmark;
+
+/**
+ * Drives the measured loop of a benchmark.
+ *
+ * <pre>
+ * final BenchmarkState state = mBenchmarkRule.getState();
+ * while (state.keepRunning()) {
+ *     // Code to measure.
+ * }
+ * </pre>
+ *
+ * <p>The loop first runs warmup iterations, which let the JIT compile the measured code and
+ * calibrate how many operations an iteration runs so that it lasts about the target iteration
+ * time. It then runs the measured iterations, each recording its time per operation. Work that
+ * should not be measured, such as resetting state between operations, can be excluded with
+ * {@link #pauseTiming()} and {@link #resumeTiming()}.
+ */
+public final class BenchmarkState {
+
+    private static final int NOT_STARTED = 0;
+    private static final int WARMUP = 1;
+    private static final int RUNNING = 2;
+    private static final int FINISHED = 3;
+
+    private static final int MAX_OPS_PER_ITERATION = 1_000_000;
+
+    private final int mWarmupIterations;
+    private final int mMeasuredIterations;
+    private final long mTargetIterationNs;
+    private final double[] mNsPerOp;
+
+    private int mState = NOT_STARTED;
+    private int mIteration;
+    private int mOpsPerIteration = 1;
+    private int mOpsLeft;
+    private long mIterationStartNs;
+    private long mPausedNs;
+    private long mPauseStartNs;
+    private boolean mPaused;
+
+    public BenchmarkState(int warmupIterations, int measuredIterations, long targetIterationNs) {
+        if (warmupIterations < 1 || measuredIterations < 1 || targetIterationNs < 1) {
+            throw new IllegalArgumentException("Iterations and target time must be positive");
+        }
+        mWarmupIterations = warmupIterations;
+        mMeasuredIterations = measuredIterations;
+        mTargetIterationNs = targetIterationNs;
+        mNsPerOp = new double[measuredIterations];
+    }
+
+    /**
+     * @return {@code true} if the benchmark should run one more operation.
+     */
+    public boolean keepRunning() {
+        if (mOpsLeft > 0) {
+            mOpsLeft--;
+            return true;
+        }
+        return nextIteration();
+    }
+
+    /** Stops the clock, until {@link #resumeTiming()} is called. */
+    public void pauseTiming() {
+        if (mPaused) {
+            throw new IllegalStateException("pauseTiming() called twice");
+        }
+        mPauseStartNs = System.nanoTime();
+        mPaused = true;
+    }
+
+    /** Restarts the clock stopped by {@link #pauseTiming()}. */
+    public void resumeTiming() {
+        if (!mPaused) {
+            throw new IllegalStateException("resumeTiming() called without pauseTiming()");
+        }
+        mPausedNs += System.nanoTime() - mPauseStartNs;
+        mPaused = false;
+    }
+
+    /** @return {@code true} once {@link #keepRunning()} returned {@code false}. */
+    public boolean isFinished() {
+        return mState == FINISHED;
+    }
+
+    /**
+     * @return the results of the measured iterations.
+     */
+    public BenchmarkResult getResult(String className, String methodName) {
+        if (!isFinished()) {
+            throw new IllegalStateException("The benchmark has not finished yet");
+        }
+        return new BenchmarkResult(className, methodName, mWarmupIterations, mOpsPerIteration,
+                mNsPerOp.clone());
+    }
+
+    private boolean nextIteration() {
+        if (mPaused) {
+            throw new IllegalStateException("An iteration ended with the timing paused");
+        }
+        final long elapsedNs = System.nanoTime() - mIterationStartNs - mPausedNs;
+        switch (mState) {
+            case NOT_STARTED:
+                mState = WARMUP;
+                break;
+            case WARMUP:
+                calibrate(elapsedNs);
+                if (++mIteration == mWarmupIterations) {
+                    mIteration = 0;
+                    mState = RUNNING;
+                }
+                break;
+            case RUNNING:
+                mNsPerOp[mIteration] = (double) elapsedNs / mOpsPerIteration;
+                if (++mIteration == mMeasuredIterations) {
+                    mState = FINISHED;
+                    return false;
+                }
+                break;
+            default:
+                throw new IllegalStateException("keepRunning() called after the benchmark ended");
+        }
+        mOpsLeft = mOpsPerIteration - 1;
+        mPausedNs = 0;
+        mIterationStartNs = System.nanoTime();
+        return true;
+    }
+
+    private void calibrate(long elapsedNs) {
+        // Scales the operations of the next iterations so that one lasts about the target time.
+        final double nsPerOp = Math.max(1, elapsedNs) / (double) mOpsPerIteration;
+        mOpsPerIteration = (int) Math.max(1,
+                Math.min(MAX_OPS_PER_ITERATION, Math.ceil(mTargetIterationNs / nsPerOp)));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.benchmark;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class BenchmarkStateTest {
+
+    @Test
+    public void keepRunning_runsWarmupAndMeasuredIterations() {
+        final BenchmarkState state = new BenchmarkState(/* warmupIterations= */ 2,
+                /* measuredIterations= */ 3, /* targetIterationNs= */ 1);
+        int ops = 0;
+        while (state.keepRunning()) {
+            ops++;
+        }
+
+        final BenchmarkResult result = state.getResult("Class", "method");
+        assertThat(state.isFinished()).isTrue();
+        assertThat(result.opsPerIteration).isEqualTo(1);
+        assertThat(ops).isEqualTo(5);
+        assertThrows(IllegalStateException.class, state::keepRunning);
+    }
+
+    @Test
+    public void keepRunning_pausedAtIterationEnd_throws() {
+        final BenchmarkState state = new BenchmarkState(1, 1, 1);
+        state.keepRunning();
+
+        state.pauseTiming();
+
+        assertThrows(IllegalStateException.class, state::keepRunning);
+    }
+
+    @Test
+    public void getResult_computesStatistics() throws Exception {
+        final BenchmarkResult result = new BenchmarkResult("Class", "method",
+                /* warmupIterations= */ 1, /* opsPerIteration= */ 10,
+                new double[] {40, 10, 30, 20, 50});
+
+        assertThat(result.getMinNs()).isEqualTo(10);
+        assertThat(result.getMaxNs()).isEqualTo(50);
+        assertThat(result.getMedianNs()).isEqualTo(30);
+        assertThat(result.getPercentileNs(90)).isWithin(1e-9).of(46);
+        assertThat(result.getMeanNs()).isEqualTo(30);
+        final JSONObject json = result.toJson();
+        assertThat(json.getString("methodName")).isEqualTo("method");
+        assertThat(json.getJSONArray("iterationsNsPerOp").length()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_FOR_WORK;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_INCLUDE_PREF_SCREEN;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_KEY;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_PREF_CONTROLLER;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_PREF_ICON;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_PREF_SUMMARY;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_PREF_TITLE;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_PREF_TYPE;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_SEARCHABLE;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_NEED_USER_RESTRICTION;
+import static com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag.FLAG_UNAVAILABLE_SLICE_SUBTITLE;
+
+import android.content.Context;
+
+import com.android.settings.R;
+import com.android.settings.benchmark.BenchmarkRule;
+import com.android.settings.benchmark.BenchmarkState;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Benchmarks the preference XML parsing done for every screen when creating its controllers,
+ * indexing it for search and building its Slices.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PreferenceXmlParserUtilsBenchmark {
+
+    private static final int[] SCREENS = {
+            R.xml.accessibility_settings,
+            R.xml.display_settings,
+            R.xml.location_settings,
+            R.xml.privacy_dashboard_settings,
+            R.xml.sound_settings,
+            R.xml.top_level_settings,
+    };
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+    }
+
+    @Test
+    public void extractMetadata_controllers() throws Exception {
+        // Same flags as PreferenceControllerListHelper.
+        extractMetadata(FLAG_NEED_KEY | FLAG_NEED_PREF_CONTROLLER | FLAG_INCLUDE_PREF_SCREEN
+                | FLAG_FOR_WORK);
+    }
+
+    @Test
+    public void extractMetadata_searchNonIndexableKeys() throws Exception {
+        // Same flags as BaseSearchIndexProvider.
+        extractMetadata(FLAG_NEED_KEY | FLAG_INCLUDE_PREF_SCREEN | FLAG_NEED_SEARCHABLE);
+    }
+
+    @Test
+    public void extractMetadata_slices() throws Exception {
+        // Same flags as SliceDataConverter.
+        extractMetadata(FLAG_INCLUDE_PREF_SCREEN | FLAG_NEED_KEY | FLAG_NEED_PREF_CONTROLLER
+                | FLAG_NEED_PREF_TYPE | FLAG_NEED_PREF_TITLE | FLAG_NEED_PREF_ICON
+                | FLAG_NEED_PREF_SUMMARY | FLAG_UNAVAILABLE_SLICE_SUBTITLE
+                | FLAG_NEED_USER_RESTRICTION);
+    }
+
+    private void extractMetadata(int flags) throws Exception {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int screen : SCREENS) {
+                PreferenceXmlParserUtils.extractMetadata(mContext, screen, flags);
+            }
+        }
+    }
+}
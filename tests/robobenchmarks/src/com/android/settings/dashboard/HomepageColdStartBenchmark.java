@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.dashboard;
+
+import static com.android.settingslib.drawer.TileUtils.EXTRA_CATEGORY_KEY;
+import static com.android.settingslib.drawer.TileUtils.EXTRA_SETTINGS_ACTION;
+import static com.android.settingslib.drawer.TileUtils.META_DATA_KEY_ORDER;
+import static com.android.settingslib.drawer.TileUtils.META_DATA_PREFERENCE_KEYHINT;
+import static com.android.settingslib.drawer.TileUtils.META_DATA_PREFERENCE_TITLE;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ActivityInfo;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.ResolveInfo;
+import android.os.Bundle;
+import android.provider.Settings;
+
+import com.android.settings.benchmark.BenchmarkRule;
+import com.android.settings.benchmark.BenchmarkState;
+import com.android.settings.homepage.SettingsHomepageActivity;
+import com.android.settings.testutils.shadow.ShadowUserManager;
+import com.android.settingslib.drawer.CategoryKey;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowActivityManager;
+
+/**
+ * Benchmarks the cold start of {@link SettingsHomepageActivity} with injected tiles, from its
+ * creation to its first resume, with and without the {@link TileCache} of a previous process.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = {
+        ShadowUserManager.class,
+        ShadowActivityManager.class,
+})
+public class HomepageColdStartBenchmark {
+
+    private static final int INJECTED_TILES = 60;
+    private static final String[] CATEGORIES = {
+            CategoryKey.CATEGORY_HOMEPAGE,
+            CategoryKey.CATEGORY_ACCOUNT,
+            CategoryKey.CATEGORY_SYSTEM,
+    };
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        Settings.Secure.putInt(mContext.getContentResolver(),
+                Settings.Secure.USER_SETUP_COMPLETE, 1);
+        for (int i = 0; i < INJECTED_TILES; i++) {
+            shadowOf(mContext.getPackageManager()).addResolveInfoForIntent(
+                    new Intent(EXTRA_SETTINGS_ACTION), createInjectedTile(i));
+        }
+    }
+
+    @Test
+    public void coldStart_noTileCache() {
+        coldStart(false /* withTileCache */);
+    }
+
+    @Test
+    public void coldStart_withTileCache() {
+        // Loads the tiles once, as a previous process would have.
+        CategoryManager.get(mContext).getCategories(mContext);
+        coldStart(true /* withTileCache */);
+    }
+
+    private void coldStart(boolean withTileCache) {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            // A new process starts without loaded categories.
+            CategoryManager.sInstance = null;
+            if (!withTileCache) {
+                new TileCache(mContext).clear();
+            }
+            state.resumeTiming();
+
+            final ActivityController<SettingsHomepageActivity> controller =
+                    Robolectric.buildActivity(SettingsHomepageActivity.class).setup();
+
+            state.pauseTiming();
+            controller.pause().stop().destroy();
+            state.resumeTiming();
+        }
+    }
+
+    private static ResolveInfo createInjectedTile(int index) {
+        final String packageName = "com.example.injected" + (index % 10);
+        final ResolveInfo resolveInfo = new ResolveInfo();
+        resolveInfo.activityInfo = new ActivityInfo();
+        resolveInfo.activityInfo.packageName = packageName;
+        resolveInfo.activityInfo.name = packageName + ".Tile" + index;
+        resolveInfo.activityInfo.applicationInfo = new ApplicationInfo();
+        resolveInfo.activityInfo.applicationInfo.packageName = packageName;
+        resolveInfo.activityInfo.applicationInfo.flags = ApplicationInfo.FLAG_SYSTEM;
+        final Bundle metaData = new Bundle();
+        metaData.putString(EXTRA_CATEGORY_KEY, CATEGORIES[index % CATEGORIES.length]);
+        metaData.putString(META_DATA_PREFERENCE_KEYHINT, "injected_tile_" + index);
+        metaData.putString(META_DATA_PREFERENCE_TITLE, "Injected tile " + index);
+        metaData.putInt(META_DATA_KEY_ORDER, index);
+        resolveInfo.activityInfo.metaData = metaData;
+        return resolveInfo;
+    }
+}
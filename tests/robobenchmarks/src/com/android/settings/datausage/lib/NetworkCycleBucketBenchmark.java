@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.datausage.lib;
+
+import android.text.format.DateUtils;
+import android.util.Range;
+
+import com.android.settings.benchmark.BenchmarkRule;
+import com.android.settings.benchmark.BenchmarkState;
+import com.android.settings.datausage.lib.NetworkStatsRepository.Companion.Bucket;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the aggregation of network stats buckets into the cycles and the daily chart of the
+ * data usage page, as done by {@link NetworkCycleBucketRepository} when no policy is set.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class NetworkCycleBucketBenchmark {
+
+    private static final long END_TIME = 1704067200000L; // 2024-01-01 00:00:00 UTC
+    private static final int DAYS = 90;
+    private static final int UIDS = 40;
+    private static final long SEED = 42;
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private List<Bucket> mBuckets;
+
+    @Before
+    public void setUp() {
+        mBuckets = SyntheticNetworkStatsBuckets.generate(END_TIME, DAYS, UIDS, SEED);
+    }
+
+    @Test
+    public void loadCycles_fourWeeks() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            final List<Range<Long>> cycles = NetworkCycleDataRepository.Companion.asFourWeeks(
+                    NetworkStatsRepository.Companion.aggregate(mBuckets).getTimeRange());
+            final List<NetworkUsageData> usageData = new ArrayList<>(cycles.size());
+            for (Range<Long> cycle : cycles) {
+                usageData.add(aggregateUsage(cycle));
+            }
+        }
+    }
+
+    @Test
+    public void queryChartData_dailyUsage() {
+        final NetworkUsageData cycle = aggregateUsage(
+                new Range<>(END_TIME - 28 * DateUtils.DAY_IN_MILLIS, END_TIME));
+
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            final List<Range<Long>> days = NetworkCycleDataRepository.Companion.bucketRange(
+                    cycle.getStartTime(), cycle.getEndTime(), DateUtils.DAY_IN_MILLIS);
+            final List<NetworkUsageData> dailyUsage = new ArrayList<>(days.size());
+            for (Range<Long> day : days) {
+                dailyUsage.add(aggregateUsage(day));
+            }
+        }
+    }
+
+    private NetworkUsageData aggregateUsage(Range<Long> range) {
+        // Same as NetworkCycleBucketRepository.aggregateUsage().
+        final NetworkUsageData usage = NetworkStatsRepository.Companion.aggregate(
+                NetworkStatsRepository.Companion.filterTime(
+                        mBuckets, range.getLower(), range.getUpper()));
+        return new NetworkUsageData(range.getLower(), range.getUpper(),
+                usage != null ? usage.getUsage() : 0);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.datausage.lib;
+
+import android.app.usage.NetworkStats;
+import android.text.format.DateUtils;
+
+import com.android.settings.datausage.lib.NetworkStatsRepository.Companion.Bucket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates network stats buckets in the shape returned by {@link NetworkStatsRepository}: one
+ * bucket per uid and foreground state for every bucket duration of the network stats service.
+ */
+final class SyntheticNetworkStatsBuckets {
+
+    /** Bucket duration of the network stats service for the persisted uid stats. */
+    static final long BUCKET_DURATION = 2 * DateUtils.HOUR_IN_MILLIS;
+
+    private static final int FIRST_APP_UID = 10_000;
+    private static final int[] STATES = {
+            NetworkStats.Bucket.STATE_DEFAULT,
+            NetworkStats.Bucket.STATE_FOREGROUND,
+    };
+
+    private SyntheticNetworkStatsBuckets() {}
+
+    /**
+     * @param endTime the end of the last bucket
+     * @param days the number of days covered by the buckets
+     * @param uids the number of apps using the network
+     * @param seed the seed of the random usage, so that runs can be compared
+     */
+    static List<Bucket> generate(long endTime, int days, int uids, long seed) {
+        final Random random = new Random(seed);
+        final long startTime = endTime - days * DateUtils.DAY_IN_MILLIS;
+        final List<Bucket> buckets = new ArrayList<>();
+        for (long bucketStart = startTime; bucketStart < endTime;
+                bucketStart += BUCKET_DURATION) {
+            for (int uid = 0; uid < uids; uid++) {
+                for (int state : STATES) {
+                    // Only non-empty buckets are kept by NetworkStatsRepository.
+                    if (random.nextInt(4) == 0) {
+                        continue;
+                    }
+                    buckets.add(new Bucket(FIRST_APP_UID + uid,
+                            1 + random.nextInt(50 * 1024 * 1024) / (uid + 1), state,
+                            bucketStart, bucketStart + BUCKET_DURATION));
+                }
+            }
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+
+import com.android.settings.benchmark.BenchmarkRule;
+import com.android.settings.benchmark.BenchmarkState;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowPackageManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the label and icon resolution of the app entries of the battery usage list, one uid
+ * at a time through {@link BatteryEntry#loadNameAndIcon} and batched through
+ * {@link BatteryEntry#preloadNameAndIcons}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BatteryEntryLabelBenchmark {
+
+    private static final int ENTRIES = 500;
+    private static final int FIRST_APP_UID = 10000;
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private Context mContext;
+    private final List<Integer> mUids = new ArrayList<>(ENTRIES);
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        final ShadowPackageManager shadowPackageManager = shadowOf(mContext.getPackageManager());
+        for (int i = 0; i < ENTRIES; i++) {
+            final int uid = FIRST_APP_UID + i;
+            final PackageInfo packageInfo = new PackageInfo();
+            packageInfo.packageName = "com.example.app" + i;
+            packageInfo.applicationInfo = new ApplicationInfo();
+            packageInfo.applicationInfo.packageName = packageInfo.packageName;
+            packageInfo.applicationInfo.uid = uid;
+            packageInfo.applicationInfo.name = "App " + i;
+            shadowPackageManager.installPackage(packageInfo);
+            shadowPackageManager.setPackagesForUid(uid, packageInfo.packageName);
+            mUids.add(uid);
+        }
+    }
+
+    @Test
+    public void loadNameAndIcon_perUid() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            BatteryEntry.clearUidCache();
+            state.resumeTiming();
+
+            loadAll();
+        }
+    }
+
+    @Test
+    public void loadNameAndIcon_preloaded() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            BatteryEntry.clearUidCache();
+            state.resumeTiming();
+
+            BatteryEntry.preloadNameAndIcons(mContext, mUids);
+            loadAll();
+        }
+    }
+
+    @Test
+    public void loadNameAndIcon_cached() {
+        loadAll();
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            loadAll();
+        }
+    }
+
+    private void loadAll() {
+        for (int uid : mUids) {
+            BatteryEntry.loadNameAndIcon(
+                    mContext, uid, /* batteryEntry= */ null, /* defaultPackageName= */ null,
+                    /* name= */ null, /* icon= */ null);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.text.format.DateUtils;
+
+import androidx.room.Room;
+
+import com.android.settings.benchmark.BenchmarkRule;
+import com.android.settings.benchmark.BenchmarkState;
+import com.android.settings.fuelgauge.batteryusage.db.AppUsageEventEntity;
+import com.android.settings.fuelgauge.batteryusage.db.BatteryStateDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Random;
+
+/**
+ * Benchmarks the writes of the hourly battery usage snapshot through
+ * {@link BatteryUsageContentProvider}, and the range queries of the battery usage page, on a
+ * database holding a week of synthetic data.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BatteryUsageContentProviderBenchmark {
+
+    private static final long START_TIME = 1641045600000L; // 2022-01-01 14:00:00 UTC
+    private static final int HOURS = 7 * 24;
+    private static final int APPS = 60;
+    private static final int USERS = 2;
+    private static final int APP_USAGE_EVENTS_PER_HOUR = 30;
+    private static final long END_TIME = START_TIME + HOURS * DateUtils.HOUR_IN_MILLIS;
+    private static final long SEED = 42;
+    private static final String[] INDICES = {
+            "index_AppUsageEventEntity_timestamp",
+            "index_AppUsageEventEntity_userId_timestamp",
+            "index_BatteryEventEntity_timestamp",
+            "index_BatteryEventEntity_batteryEventType_timestamp",
+            "index_BatteryState_timestamp",
+            "index_BatteryUsageSlotEntity_timestamp",
+    };
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private Context mContext;
+    private BatteryStateDatabase mDatabase;
+    private BatteryUsageContentProvider mProvider;
+    private String mBatteryInformation;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        mDatabase = Room.inMemoryDatabaseBuilder(mContext, BatteryStateDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        BatteryStateDatabase.setBatteryStateDatabase(mDatabase);
+        mProvider = new BatteryUsageContentProvider();
+        mProvider.attachInfo(mContext, /* info= */ null);
+        mProvider.onCreate();
+        mBatteryInformation = ConvertUtils.convertBatteryInformationToString(
+                BatteryInformation.newBuilder()
+                        .setAppLabel("Synthetic app")
+                        .setTotalPower(100)
+                        .setConsumePower(1)
+                        .setForegroundUsageTimeInMs(60_000)
+                        .setBackgroundUsageTimeInMs(120_000)
+                        .build());
+        seedOneWeek();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+        BatteryStateDatabase.setBatteryStateDatabase(/* database= */ null);
+    }
+
+    @Test
+    public void insertSnapshot_bulkInsert() {
+        final ContentValues[] snapshot = createBatteryStates(END_TIME);
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mProvider.bulkInsert(DatabaseUtils.BATTERY_CONTENT_URI, snapshot);
+
+            state.pauseTiming();
+            mDatabase.batteryStateDao().clearAllAfter(END_TIME);
+            state.resumeTiming();
+        }
+    }
+
+    @Test
+    public void insertSnapshot_insertPerRow() {
+        final ContentValues[] snapshot = createBatteryStates(END_TIME);
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (ContentValues values : snapshot) {
+                mProvider.insert(DatabaseUtils.BATTERY_CONTENT_URI, values);
+            }
+
+            state.pauseTiming();
+            mDatabase.batteryStateDao().clearAllAfter(END_TIME);
+            state.resumeTiming();
+        }
+    }
+
+    @Test
+    public void queryLastDay_indexed() {
+        queryLastDay();
+    }
+
+    @Test
+    public void queryLastDay_notIndexed() {
+        // Schema of the databases created before the indices were added.
+        for (String index : INDICES) {
+            mDatabase.getOpenHelper().getWritableDatabase().execSQL("DROP INDEX " + index);
+        }
+        queryLastDay();
+    }
+
+    private void queryLastDay() {
+        final String lastDay = String.valueOf(END_TIME - DateUtils.DAY_IN_MILLIS);
+        final Uri batteryStatesUri = DatabaseUtils.BATTERY_CONTENT_URI.buildUpon()
+                .appendQueryParameter(DatabaseUtils.QUERY_KEY_TIMESTAMP, lastDay)
+                .build();
+        final Uri appUsageEventsUri = DatabaseUtils.APP_USAGE_EVENT_URI.buildUpon()
+                .appendQueryParameter(DatabaseUtils.QUERY_KEY_TIMESTAMP, lastDay)
+                .appendQueryParameter(DatabaseUtils.QUERY_KEY_USERID, "0")
+                .build();
+        final Uri latestTimestampUri = new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority(DatabaseUtils.AUTHORITY)
+                .appendPath(DatabaseUtils.APP_USAGE_LATEST_TIMESTAMP_PATH)
+                .appendQueryParameter(DatabaseUtils.QUERY_KEY_USERID, "1")
+                .build();
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            readAll(batteryStatesUri);
+            readAll(appUsageEventsUri);
+            readAll(latestTimestampUri);
+        }
+    }
+
+    private void readAll(Uri uri) {
+        try (Cursor cursor = mProvider.query(uri, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                cursor.getLong(0);
+            }
+        }
+    }
+
+    private void seedOneWeek() {
+        final Random random = new Random(SEED);
+        for (int hour = 0; hour < HOURS; hour++) {
+            final long timestamp = START_TIME + hour * DateUtils.HOUR_IN_MILLIS;
+            mProvider.bulkInsert(DatabaseUtils.BATTERY_CONTENT_URI, createBatteryStates(timestamp));
+
+            final ContentValues[] events = new ContentValues[USERS * APP_USAGE_EVENTS_PER_HOUR];
+            for (int i = 0; i < events.length; i++) {
+                events[i] = new ContentValues();
+                events[i].put(AppUsageEventEntity.KEY_UID, 10000L + random.nextInt(APPS));
+                events[i].put(AppUsageEventEntity.KEY_USER_ID, (long) (i % USERS));
+                events[i].put(AppUsageEventEntity.KEY_TIMESTAMP,
+                        timestamp + random.nextInt((int) DateUtils.HOUR_IN_MILLIS));
+                events[i].put(AppUsageEventEntity.KEY_APP_USAGE_EVENT_TYPE,
+                        1 + random.nextInt(2));
+                events[i].put(AppUsageEventEntity.KEY_PACKAGE_NAME,
+                        "com.example.app" + random.nextInt(APPS));
+            }
+            mProvider.bulkInsert(DatabaseUtils.APP_USAGE_EVENT_URI, events);
+        }
+    }
+
+    private ContentValues[] createBatteryStates(long timestamp) {
+        final ContentValues[] snapshot = new ContentValues[APPS];
+        for (int i = 0; i < APPS; i++) {
+            snapshot[i] = new ContentValues();
+            snapshot[i].put(BatteryHistEntry.KEY_UID, 10000L + i);
+            snapshot[i].put(BatteryHistEntry.KEY_USER_ID, 0L);
+            snapshot[i].put(BatteryHistEntry.KEY_PACKAGE_NAME, "com.example.app" + i);
+            snapshot[i].put(BatteryHistEntry.KEY_TIMESTAMP, timestamp);
+            snapshot[i].put(BatteryHistEntry.KEY_CONSUMER_TYPE,
+                    ConvertUtils.CONSUMER_TYPE_UID_BATTERY);
+            snapshot[i].put(BatteryHistEntry.KEY_IS_FULL_CHARGE_CYCLE_START, false);
+            snapshot[i].put(BatteryHistEntry.KEY_BATTERY_INFORMATION, mBatteryInformation);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.BatteryManager;
+import android.text.format.DateUtils;
+
+import com.android.settings.benchmark.BenchmarkRule;
+import com.android.settings.benchmark.BenchmarkState;
+import com.android.settings.testutils.FakeFeatureFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Benchmarks the processing of the battery usage history shown in the battery usage page, over
+ * a week of synthetic hourly snapshots.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DataProcessorBenchmark {
+
+    private static final long START_TIME = 1641045600000L; // 2022-01-01 14:00:00 UTC
+    private static final int HOURS = 7 * 24;
+    private static final int APPS = 60;
+    private static final long SEED = 42;
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private Context mContext;
+    private TimeZone mDefaultTimeZone;
+    private Map<Long, Map<String, BatteryHistEntry>> mBatteryHistoryMap;
+
+    @Before
+    public void setUp() {
+        mDefaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        mContext = RuntimeEnvironment.application;
+        FakeFeatureFactory.setupForTest();
+        mContext.sendStickyBroadcast(new Intent(Intent.ACTION_BATTERY_CHANGED)
+                .putExtra(BatteryManager.EXTRA_LEVEL, 66)
+                .putExtra(BatteryManager.EXTRA_SCALE, 100));
+
+        mBatteryHistoryMap = SyntheticBatteryHistory.generate(START_TIME, HOURS, APPS, SEED);
+        DataProcessor.sTestCurrentTimeMillis =
+                START_TIME + HOURS * DateUtils.HOUR_IN_MILLIS + 10 * DateUtils.MINUTE_IN_MILLIS;
+        DataProcessor.sTestSystemAppsPackageNames = Set.of();
+    }
+
+    @After
+    public void tearDown() {
+        DataProcessor.sTestCurrentTimeMillis = 0;
+        DataProcessor.sTestSystemAppsPackageNames = null;
+        TimeZone.setDefault(mDefaultTimeZone);
+    }
+
+    @Test
+    public void getLevelData_oneWeek() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            DataProcessor.getLevelDataThroughProcessedHistoryMap(mContext,
+                    DataProcessor.getHistoryMapWithExpectedTimestamps(
+                            mContext, mBatteryHistoryMap));
+        }
+    }
+
+    @Test
+    public void generateBatteryUsageMap_oneWeek() {
+        final Map<Long, Map<String, BatteryHistEntry>> processedHistoryMap =
+                DataProcessor.getHistoryMapWithExpectedTimestamps(mContext, mBatteryHistoryMap);
+        final BatteryLevelData batteryLevelData =
+                DataProcessor.getLevelDataThroughProcessedHistoryMap(mContext,
+                        processedHistoryMap);
+        final UserIdsSeries userIdsSeries =
+                new UserIdsSeries(mContext, /* isNonUIRequest= */ false);
+
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            DataProcessor.generateBatteryUsageMap(mContext,
+                    DataProcessor.getBatteryDiffDataMap(mContext, userIdsSeries,
+                            batteryLevelData.getHourlyBatteryLevelsPerDay(),
+                            processedHistoryMap, /* appUsagePeriodMap= */ null,
+                            Set.of(), Set.of()),
+                    batteryLevelData);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import android.content.ContentValues;
+import android.text.format.DateUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates battery history in the shape stored by the battery usage database: a snapshot of
+ * every app's cumulative usage about every hour, with the battery draining between charges.
+ */
+final class SyntheticBatteryHistory {
+
+    private static final int FIRST_APP_UID = 10_000;
+    private static final int MIN_BATTERY_LEVEL = 15;
+
+    private SyntheticBatteryHistory() {}
+
+    /**
+     * @param startTime the timestamp of the first snapshot
+     * @param hours the number of hourly snapshots
+     * @param apps the number of apps in each snapshot
+     * @param seed the seed of the random usage, so that runs can be compared
+     */
+    static Map<Long, Map<String, BatteryHistEntry>> generate(long startTime, int hours, int apps,
+            long seed) {
+        final Random random = new Random(seed);
+        final double[] consumePower = new double[apps];
+        final long[] foregroundTimeMs = new long[apps];
+        final long[] backgroundTimeMs = new long[apps];
+        final Map<Long, Map<String, BatteryHistEntry>> history = new HashMap<>();
+        int batteryLevel = 100;
+        for (int hour = 0; hour < hours; hour++) {
+            // Snapshots are taken by a periodic job, so they are not exactly on the hour.
+            final long timestamp = startTime + hour * DateUtils.HOUR_IN_MILLIS
+                    + random.nextInt((int) (5 * DateUtils.MINUTE_IN_MILLIS));
+            final Map<String, BatteryHistEntry> snapshot = new HashMap<>(apps);
+            for (int app = 0; app < apps; app++) {
+                // Few apps use most of the battery, as on real devices.
+                consumePower[app] += random.nextDouble() * 10 / (app + 1);
+                foregroundTimeMs[app] += random.nextInt((int) (10 * DateUtils.MINUTE_IN_MILLIS))
+                        / (app + 1);
+                backgroundTimeMs[app] += random.nextInt((int) (20 * DateUtils.MINUTE_IN_MILLIS))
+                        / (app + 1);
+                final BatteryHistEntry entry = createEntry(timestamp, FIRST_APP_UID + app,
+                        batteryLevel, consumePower[app], foregroundTimeMs[app],
+                        backgroundTimeMs[app]);
+                snapshot.put(entry.getKey(), entry);
+            }
+            history.put(timestamp, snapshot);
+            batteryLevel = batteryLevel <= MIN_BATTERY_LEVEL
+                    ? 100 : batteryLevel - 1 - random.nextInt(4);
+        }
+        return history;
+    }
+
+    private static BatteryHistEntry createEntry(long timestamp, int uid, int batteryLevel,
+            double consumePower, long foregroundTimeMs, long backgroundTimeMs) {
+        final DeviceBatteryState deviceBatteryState =
+                DeviceBatteryState.newBuilder().setBatteryLevel(batteryLevel).build();
+        final BatteryInformation batteryInformation =
+                BatteryInformation.newBuilder()
+                        .setDeviceBatteryState(deviceBatteryState)
+                        .setAppLabel("App " + uid)
+                        .setTotalPower(consumePower * 10)
+                        .setConsumePower(consumePower)
+                        .setForegroundUsageConsumePower(consumePower * 0.6)
+                        .setForegroundServiceUsageConsumePower(consumePower * 0.1)
+                        .setBackgroundUsageConsumePower(consumePower * 0.2)
+                        .setCachedUsageConsumePower(consumePower * 0.1)
+                        .setForegroundUsageTimeInMs(foregroundTimeMs)
+                        .setBackgroundUsageTimeInMs(backgroundTimeMs)
+                        .build();
+        final ContentValues values = new ContentValues();
+        values.put(BatteryHistEntry.KEY_UID, (long) uid);
+        values.put(BatteryHistEntry.KEY_USER_ID, 0L);
+        values.put(BatteryHistEntry.KEY_PACKAGE_NAME, "com.example.app" + uid);
+        values.put(BatteryHistEntry.KEY_TIMESTAMP, timestamp);
+        values.put(BatteryHistEntry.KEY_CONSUMER_TYPE, ConvertUtils.CONSUMER_TYPE_UID_BATTERY);
+        values.put(BatteryHistEntry.KEY_BATTERY_INFORMATION,
+                ConvertUtils.convertBatteryInformationToString(batteryInformation));
+        return new BatteryHistEntry(values);
+    }
+}
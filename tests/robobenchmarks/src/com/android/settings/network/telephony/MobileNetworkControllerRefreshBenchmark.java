@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network.telephony;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.PersistableBundle;
+import android.telephony.CarrierConfigManager;
+
+import com.android.settings.benchmark.BenchmarkRule;
+import com.android.settings.benchmark.BenchmarkState;
+import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.network.CarrierConfigValues;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the Carrier-Configuration reads of a refresh of the mobile network settings
+ * controllers, through the cached {@link PersistableBundle} as the controllers used to read it and
+ * through the typed {@link CarrierConfigValues}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MobileNetworkControllerRefreshBenchmark {
+
+    private static final int SUB_ID = 2;
+    // Number of controllers reading the Carrier-Configuration on a refresh of the page.
+    private static final int CONTROLLERS = 30;
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private Context mContext;
+    private CarrierConfigCache mCarrierConfigCache;
+    private final List<TelephonyBasePreferenceController> mControllers = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        final PersistableBundle config = new PersistableBundle();
+        config.putBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL, true);
+        config.putBoolean(CarrierConfigManager.KEY_APN_EXPAND_BOOL, true);
+        config.putBoolean(CarrierConfigManager.KEY_OPERATOR_SELECTION_EXPAND_BOOL, true);
+        shadowOf(mContext.getSystemService(CarrierConfigManager.class))
+                .setConfigForSubId(SUB_ID, config);
+        mCarrierConfigCache = CarrierConfigCache.getInstance(mContext);
+
+        for (int i = 0; i < CONTROLLERS / 3; i++) {
+            mControllers.add(new ApnPreferenceController(mContext, "apn"));
+            mControllers.add(new DataServiceSetupPreferenceController(mContext, "data_service"));
+            mControllers.add(
+                    new PreferredNetworkModePreferenceController(mContext, "network_mode"));
+        }
+    }
+
+    @Test
+    public void refresh_bundleReads() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < CONTROLLERS; i++) {
+                final PersistableBundle config = mCarrierConfigCache.getConfigForSubId(SUB_ID);
+                config.getBoolean(CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL);
+                config.getBoolean(CarrierConfigManager.KEY_HIDE_PREFERRED_NETWORK_TYPE_BOOL);
+                config.getBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL);
+                config.getBoolean(CarrierConfigManager.KEY_WORLD_MODE_ENABLED_BOOL);
+                config.getBoolean(CarrierConfigManager.KEY_APN_EXPAND_BOOL);
+            }
+        }
+    }
+
+    @Test
+    public void refresh_typedValues() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < CONTROLLERS; i++) {
+                final CarrierConfigValues config =
+                        mCarrierConfigCache.getCarrierConfigValues(SUB_ID);
+                config.hideCarrierNetworkSettings();
+                config.hidePreferredNetworkType();
+                config.isWorldPhone();
+                config.isWorldModeEnabled();
+                config.isApnExpand();
+            }
+        }
+    }
+
+    @Test
+    public void refresh_controllers() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (TelephonyBasePreferenceController controller : mControllers) {
+                controller.getAvailabilityStatus(SUB_ID);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.ProviderInfo;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.SearchIndexablesContract;
+
+import com.android.settings.R;
+import com.android.settings.benchmark.BenchmarkRule;
+import com.android.settings.benchmark.BenchmarkState;
+import com.android.settings.testutils.FakeFeatureFactory;
+import com.android.settingslib.search.SearchIndexableData;
+import com.android.settingslib.search.SearchIndexableRaw;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Benchmarks the queries Settings Intelligence makes to index Settings, over synthetic search
+ * index providers backed by real preference screens.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SettingsSearchIndexablesProviderBenchmark {
+
+    private static final String BASE_AUTHORITY = "content://com.android.settings/";
+    private static final int PROVIDER_COUNT = 200;
+    private static final int RAW_DATA_PER_PROVIDER = 5;
+    private static final int[] SCREENS = {
+            R.xml.accessibility_settings,
+            R.xml.display_settings,
+            R.xml.location_settings,
+            R.xml.privacy_dashboard_settings,
+            R.xml.sound_settings,
+    };
+
+    @Rule
+    public final BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private SettingsSearchIndexablesProvider mProvider;
+    private FakeFeatureFactory mFakeFeatureFactory;
+
+    @Before
+    public void setUp() {
+        mProvider = new SettingsSearchIndexablesProvider();
+        final ProviderInfo info = new ProviderInfo();
+        info.exported = true;
+        info.grantUriPermissions = true;
+        info.authority = "com.android.settings";
+        info.readPermission = Manifest.permission.READ_SEARCH_INDEXABLES;
+        mProvider.attachInfo(RuntimeEnvironment.application, info);
+
+        final SearchFeatureProvider featureProvider = new SearchFeatureProviderImpl();
+        final Collection<SearchIndexableData> providerValues =
+                featureProvider.getSearchIndexableResources().getProviderValues();
+        providerValues.clear();
+        for (int i = 0; i < PROVIDER_COUNT; i++) {
+            providerValues.add(new SearchIndexableData(SettingsSearchIndexablesProvider.class,
+                    new SyntheticSearchIndexProvider(i)));
+        }
+        mFakeFeatureFactory = FakeFeatureFactory.setupForTest();
+        mFakeFeatureFactory.searchFeatureProvider = featureProvider;
+        when(mFakeFeatureFactory.dashboardFeatureProvider.getAllCategories())
+                .thenReturn(Collections.emptyList());
+    }
+
+    @After
+    public void tearDown() {
+        mFakeFeatureFactory.searchFeatureProvider = mock(SearchFeatureProvider.class);
+    }
+
+    @Test
+    public void queryXmlResources() {
+        query(SearchIndexablesContract.INDEXABLES_XML_RES_PATH,
+                SearchIndexablesContract.INDEXABLES_XML_RES_COLUMNS);
+    }
+
+    @Test
+    public void queryRawData() {
+        query(SearchIndexablesContract.INDEXABLES_RAW_PATH,
+                SearchIndexablesContract.INDEXABLES_RAW_COLUMNS);
+    }
+
+    @Test
+    public void queryNonIndexableKeys() {
+        query(SearchIndexablesContract.NON_INDEXABLES_KEYS_PATH,
+                SearchIndexablesContract.NON_INDEXABLES_KEYS_COLUMNS);
+    }
+
+    private void query(String path, String[] projection) {
+        final Uri uri = Uri.parse(BASE_AUTHORITY + path);
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            try (Cursor cursor = mProvider.query(uri, projection, null, null, null)) {
+                cursor.getCount();
+            }
+        }
+    }
+
+    private static class SyntheticSearchIndexProvider extends BaseSearchIndexProvider {
+        private final int mIndex;
+
+        SyntheticSearchIndexProvider(int index) {
+            super(SCREENS[index % SCREENS.length]);
+            mIndex = index;
+        }
+
+        @Override
+        public List<SearchIndexableRaw> getRawDataToIndex(Context context, boolean enabled) {
+            final List<SearchIndexableRaw> rawList = new ArrayList<>(RAW_DATA_PER_PROVIDER);
+            for (int i = 0; i < RAW_DATA_PER_PROVIDER; i++) {
+                final SearchIndexableRaw raw = new SearchIndexableRaw(context);
+                raw.key = "synthetic_" + mIndex + "_" + i;
+                raw.title = "Synthetic setting " + mIndex + " " + i;
+                raw.screenTitle = "Synthetic screen " + mIndex;
+                raw.keywords = "synthetic, setting, benchmark";
+                rawList.add(raw);
+            }
+            return rawList;
+        }
+    }
+}
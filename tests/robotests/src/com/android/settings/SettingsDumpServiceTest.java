@@ -29,6 +29,7 @@ import android.content.pm.ActivityInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 
+import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,6 +40,10 @@ import org.robolectric.RuntimeEnvironment;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(RobolectricTestRunner.class)
 public class SettingsDumpServiceTest {
@@ -61,6 +66,7 @@ public class SettingsDumpServiceTest {
                 PackageManager.MATCH_DEFAULT_ONLY)).thenReturn(mResolveInfo);
         mTestService = spy(new TestService());
         mTestService.setPackageManager(mPackageManager);
+        SettingsDumpService.clearSnapshots();
     }
 
     @Test
@@ -92,19 +98,105 @@ public class SettingsDumpServiceTest {
                 .contains("{\"" + SettingsDumpService.KEY_SERVICE + "\":");
     }
 
+    @Test
+    public void testDump_sectionSelected_dumpsOnlySelectedSection() throws Exception {
+        mTestService.setSections(Arrays.asList(
+                new SettingsDumpService.Section("first", 1000, true, () -> "value1"),
+                new SettingsDumpService.Section("second", 1000, true, () -> "value2")));
+
+        final JSONObject dump = dumpToJson(SettingsDumpService.ARG_SECTION, "second");
+
+        assertThat(dump.has("first")).isFalse();
+        assertThat(dump.getString("second")).isEqualTo("value2");
+        assertThat(dump.has(SettingsDumpService.KEY_TRUNCATED)).isFalse();
+    }
+
+    @Test
+    public void testDump_sectionOverBudget_marksSectionTruncated() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        mTestService.setSections(Arrays.asList(
+                new SettingsDumpService.Section("fast", 1000, true, () -> "value"),
+                new SettingsDumpService.Section("slow", 10, true, () -> {
+                    latch.await();
+                    return "late";
+                })));
+
+        final JSONObject dump = dumpToJson();
+        latch.countDown();
+
+        assertThat(dump.getString("fast")).isEqualTo("value");
+        assertThat(dump.isNull("slow")).isTrue();
+        assertThat(dump.getJSONArray(SettingsDumpService.KEY_TRUNCATED).getString(0))
+                .isEqualTo("slow");
+    }
+
+    @Test
+    public void testDump_sectionStillRunning_notCollectedAgain() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicInteger slowCount = new AtomicInteger();
+        mTestService.setSections(Arrays.asList(
+                new SettingsDumpService.Section("slow", 10, true, () -> {
+                    slowCount.incrementAndGet();
+                    latch.await();
+                    return "late";
+                })));
+
+        dumpToJson();
+        final JSONObject dump = dumpToJson();
+        latch.countDown();
+
+        assertThat(slowCount.get()).isEqualTo(1);
+        assertThat(dump.getJSONArray(SettingsDumpService.KEY_TRUNCATED).getString(0))
+                .isEqualTo("slow");
+    }
+
+    @Test
+    public void testDump_snapshotMode_doesNotCollectLiveSections() throws Exception {
+        final AtomicInteger liveCount = new AtomicInteger();
+        mTestService.setSections(Arrays.asList(
+                new SettingsDumpService.Section("live", 1000, true,
+                        () -> liveCount.incrementAndGet()),
+                new SettingsDumpService.Section("memory", 1000, false, () -> "value")));
+        dumpToJson();
+
+        final JSONObject dump = dumpToJson(SettingsDumpService.ARG_SNAPSHOT);
+
+        assertThat(liveCount.get()).isEqualTo(1);
+        assertThat(dump.getJSONObject("live").getInt(SettingsDumpService.KEY_SNAPSHOT))
+                .isEqualTo(1);
+        assertThat(dump.getString("memory")).isEqualTo("value");
+    }
+
+    private JSONObject dumpToJson(String... args) throws Exception {
+        final StringWriter stringWriter = new StringWriter();
+        mTestService.dump(null, new PrintWriter(stringWriter), args);
+        final String output = stringWriter.toString();
+        return new JSONObject(output.substring(output.indexOf('{')));
+    }
+
     /**
      * Test service used to pass in the mock {@link PackageManager}
      */
     private class TestService extends SettingsDumpService {
         private PackageManager mPm;
+        private List<Section> mSections;
 
         public void setPackageManager(PackageManager pm) {
             mPm = pm;
         }
 
+        public void setSections(List<Section> sections) {
+            mSections = sections;
+        }
+
         @Override
         public PackageManager getPackageManager() {
             return mPm;
         }
+
+        @Override
+        List<Section> getSections() {
+            return mSections != null ? mSections : super.getSections();
+        }
     }
 }
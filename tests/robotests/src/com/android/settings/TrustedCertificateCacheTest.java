@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.util.Base64;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class TrustedCertificateCacheTest {
+
+    // Self-signed, subject "O=Test Org a, CN=Test CA a".
+    private static final byte[] CERT_A = Base64.decode(
+            "MIIBqDCCAU+gAwIBAgIUOrTVBbzYyUH5Lc0tWpMRYrNk3Q0wCgYIKoZIzj0EAwIwKTETMBEGA1UECgwK"
+            + "VGVzdCBPcmcgYTESMBAGA1UEAwwJVGVzdCBDQSBhMCAXDTI2MTAxOTAyMjA1NVoYDzIxMjYwOTI1MDIy"
+            + "MDU1WjApMRMwEQYDVQQKDApUZXN0IE9yZyBhMRIwEAYDVQQDDAlUZXN0IENBIGEwWTATBgcqhkjOPQIB"
+            + "BggqhkjOPQMBBwNCAATvT+yRrwuHfpnUYSyabNgvaaZNzR4wSbQ1oqSD+aNss58Co0vvzTf4wDK5aWXv"
+            + "8hBZ6bsVLazqVRX9zkdYUueqo1MwUTAdBgNVHQ4EFgQUkF5+ir2SkM0FzUQ9crdiIfp65j4wHwYDVR0j"
+            + "BBgwFoAUkF5+ir2SkM0FzUQ9crdiIfp65j4wDwYDVR0TAQH/BAUwAwEB/zAKBggqhkjOPQQDAgNHADBE"
+            + "AiASV3X5LPQ1DFPtg4fuKUNdGzanEXSFHzy9a71iNZpupwIgTUIx5zuEJj3aTA51c5ZKfQ10HlkvxVb8"
+            + "q83Pe2VqPqA=",
+            Base64.DEFAULT);
+    // Self-signed, subject "O=Test Org b, CN=Test CA b".
+    private static final byte[] CERT_B = Base64.decode(
+            "MIIBqTCCAU+gAwIBAgIUK8AFX3ft3/u12XdmXWQNV8aTISIwCgYIKoZIzj0EAwIwKTETMBEGA1UECgwK"
+            + "VGVzdCBPcmcgYjESMBAGA1UEAwwJVGVzdCBDQSBiMCAXDTI2MTAxOTAyMjA1NVoYDzIxMjYwOTI1MDIy"
+            + "MDU1WjApMRMwEQYDVQQKDApUZXN0IE9yZyBiMRIwEAYDVQQDDAlUZXN0IENBIGIwWTATBgcqhkjOPQIB"
+            + "BggqhkjOPQMBBwNCAARUX7c2ANuRHXZQ7kKeahxBWr60jZ1seNcjhkLN5FBgFanSZRMq+mbdDD72XflO"
+            + "OouaUXJDWj7nCfnJS95qg9PLo1MwUTAdBgNVHQ4EFgQUxwSgFgoCNOq52X495kcJl7BCEowwHwYDVR0j"
+            + "BBgwFoAUxwSgFgoCNOq52X495kcJl7BCEowwDwYDVR0TAQH/BAUwAwEB/zAKBggqhkjOPQQDAgNIADBF"
+            + "AiEAhHbPDk4to+djozPtO9stJDm2Ye1qb++Gc267mp73oekCIFKKsRsFzWXI30nqvPQvKxXXVqMxS8Tv"
+            + "s9xphOizUEev",
+            Base64.DEFAULT);
+
+    private TrustedCertificateCache mCache;
+
+    @Before
+    public void setUp() {
+        mCache = new TrustedCertificateCache();
+    }
+
+    @Test
+    public void get_parsesSubject() {
+        final TrustedCertificateCache.Entry entry = mCache.get("system:a.0", CERT_A);
+
+        assertThat(entry.mSubjectPrimary).isEqualTo("Test Org a");
+        assertThat(entry.mSubjectSecondary).isEqualTo("Test CA a");
+        assertThat(entry.mCertificate).isNotNull();
+    }
+
+    @Test
+    public void get_sameAliasAndCertificate_returnsCachedEntry() {
+        final TrustedCertificateCache.Entry entry = mCache.get("system:a.0", CERT_A);
+
+        assertThat(mCache.get("system:a.0", CERT_A.clone())).isSameInstanceAs(entry);
+        assertThat(mCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_certificateChangedForAlias_parsesNewCertificate() {
+        mCache.get("user:a.0", CERT_A);
+
+        final TrustedCertificateCache.Entry entry = mCache.get("user:a.0", CERT_B);
+
+        assertThat(entry.mSubjectPrimary).isEqualTo("Test Org b");
+        assertThat(mCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidate_dropsEntries() {
+        final TrustedCertificateCache.Entry entry = mCache.get("system:a.0", CERT_A);
+
+        mCache.invalidate();
+
+        assertThat(mCache.size()).isEqualTo(0);
+        assertThat(mCache.get("system:a.0", CERT_A)).isNotSameInstanceAs(entry);
+    }
+}
@@ -54,6 +54,7 @@ import com.android.settings.testutils.shadow.ShadowApplicationPackageManager;
 import com.android.settings.testutils.shadow.ShadowBluetoothAdapter;
 import com.android.settings.testutils.shadow.ShadowBluetoothUtils;
 import com.android.settings.testutils.shadow.ShadowRestrictedLockUtilsInternal;
+import com.android.settings.testutils.shadow.ShadowThreadUtils;
 import com.android.settings.testutils.shadow.ShadowUserManager;
 import com.android.settingslib.RestrictedPreference;
 import com.android.settingslib.bluetooth.LocalBluetoothManager;
@@ -92,6 +93,7 @@ import java.util.List;
         ShadowColorDisplayManager.class,
         ShadowApplicationPackageManager.class,
         ShadowRestrictedLockUtilsInternal.class,
+        ShadowThreadUtils.class,
 })
 public class AccessibilitySettingsTest {
     private static final String PACKAGE_NAME = "com.android.test";
@@ -394,6 +396,65 @@ public class AccessibilitySettingsTest {
 
     }
 
+    @Test
+    public void onContentChanged_serviceUnchanged_keepsPreference() {
+        mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
+                singletonList(mServiceInfo));
+        setupFragment();
+        final RestrictedPreference preference = mFragment.getPreferenceScreen().findPreference(
+                COMPONENT_NAME.flattenToString());
+
+        mFragment.onContentChanged();
+
+        assertThat(mFragment.getPreferenceScreen().<RestrictedPreference>findPreference(
+                COMPONENT_NAME.flattenToString())).isSameInstanceAs(preference);
+    }
+
+    @Test
+    public void onContentChanged_serviceStateChanged_rebindsPreference() {
+        mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
+                singletonList(mServiceInfo));
+        setupFragment();
+        final RestrictedPreference preference = mFragment.getPreferenceScreen().findPreference(
+                COMPONENT_NAME.flattenToString());
+
+        Settings.Secure.putString(mContext.getContentResolver(),
+                Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES, COMPONENT_NAME.flattenToString());
+        mFragment.onContentChanged();
+
+        final RestrictedPreference newPreference = mFragment.getPreferenceScreen().findPreference(
+                COMPONENT_NAME.flattenToString());
+        assertThat(newPreference).isNotSameInstanceAs(preference);
+        assertThat(newPreference.getSummary().toString()).isEqualTo(
+                mContext.getString(R.string.generic_accessibility_service_on));
+        assertThat(mFragment.mServicePreferenceToPreferenceCategoryMap).hasSize(1);
+    }
+
+    @Test
+    public void onContentChanged_serviceUninstalled_removesPreference() {
+        mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
+                singletonList(mServiceInfo));
+        setupFragment();
+
+        mShadowAccessibilityManager.setInstalledAccessibilityServiceList(new ArrayList<>());
+        mFragment.onContentChanged();
+
+        assertThat(mFragment.getPreferenceScreen().<RestrictedPreference>findPreference(
+                COMPONENT_NAME.flattenToString())).isNull();
+        assertThat(mFragment.mServicePreferenceToPreferenceCategoryMap).isEmpty();
+    }
+
+    @Test
+    public void initializeCategoryOrder_ordersStaticPreferenceFromArray() {
+        setupFragment();
+
+        mFragment.initializeCategoryOrder(AccessibilitySettings.CATEGORY_CAPTIONS,
+                new String[]{COMPONENT_NAME.flattenToString(), "captioning_preference_screen"});
+
+        assertThat(mFragment.getPreferenceScreen().findPreference(
+                "captioning_preference_screen").getOrder()).isEqualTo(1);
+    }
+
     @Test
     public void testAccessibilityMenuInSystem_IncludedInInteractionControl() {
         mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
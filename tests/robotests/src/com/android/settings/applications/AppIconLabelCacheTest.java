@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ApplicationInfo;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.os.UserHandle;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricTestRunner.class)
+public class AppIconLabelCacheTest {
+
+    private static final String PACKAGE_NAME = "com.example.app";
+    private static final String COMPONENT = "com.example.app.Service";
+
+    private Context mContext;
+    private AppIconLabelCache mCache;
+    private ApplicationInfo mAppInfo;
+    private final AtomicInteger mLoadCount = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mCache = new AppIconLabelCache(mContext);
+        mAppInfo = createAppInfo(/* userId= */ 0, /* versionCode= */ 1);
+    }
+
+    @Test
+    public void getComponentLabel_sameKey_loadsOnce() {
+        assertThat(getLabel(mAppInfo).toString()).isEqualTo("label");
+        assertThat(getLabel(mAppInfo).toString()).isEqualTo("label");
+
+        assertThat(mLoadCount.get()).isEqualTo(1);
+        assertThat(mCache.getLabelStats().mHits.get()).isEqualTo(1);
+        assertThat(mCache.getLabelStats().mMisses.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void getComponentLabel_otherUserOrVersion_loadsAgain() {
+        getLabel(mAppInfo);
+
+        getLabel(createAppInfo(/* userId= */ 10, /* versionCode= */ 1));
+        getLabel(createAppInfo(/* userId= */ 0, /* versionCode= */ 2));
+
+        assertThat(mLoadCount.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void getComponentIcon_returnsNewInstanceSharingState() {
+        final Drawable icon = new BitmapDrawable(mContext.getResources(),
+                Bitmap.createBitmap(8, 8, Bitmap.Config.ARGB_8888));
+
+        final Drawable first = mCache.getComponentIcon(mAppInfo, COMPONENT, () -> icon);
+        final Drawable second = mCache.getComponentIcon(mAppInfo, COMPONENT, () -> null);
+
+        assertThat(first).isNotSameInstanceAs(second);
+        assertThat(((BitmapDrawable) second).getBitmap())
+                .isSameInstanceAs(((BitmapDrawable) icon).getBitmap());
+        assertThat(mCache.getIconStats().mHits.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void packageBroadcast_dropsEntriesOfPackage() {
+        getLabel(mAppInfo);
+
+        mCache.mPackageReceiver.onReceive(mContext,
+                new Intent(Intent.ACTION_PACKAGE_CHANGED,
+                        Uri.fromParts("package", PACKAGE_NAME, null)));
+        getLabel(mAppInfo);
+
+        assertThat(mLoadCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void packageBroadcast_otherPackage_keepsEntries() {
+        getLabel(mAppInfo);
+
+        mCache.mPackageReceiver.onReceive(mContext,
+                new Intent(Intent.ACTION_PACKAGE_CHANGED,
+                        Uri.fromParts("package", "com.example.other", null)));
+        getLabel(mAppInfo);
+
+        assertThat(mLoadCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void getComponentLabel_concurrentRequests_shareSingleLoad() throws Exception {
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final Thread first = new Thread(() -> mCache.getComponentLabel(mAppInfo, COMPONENT, () -> {
+            mLoadCount.incrementAndGet();
+            loadStarted.countDown();
+            try {
+                releaseLoad.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "label";
+        }));
+        final CharSequence[] secondLabel = new CharSequence[1];
+        final Thread second = new Thread(() -> secondLabel[0] = getLabel(mAppInfo));
+
+        first.start();
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        second.start();
+        // Gives the second request time to join the load in progress.
+        second.join(100);
+        releaseLoad.countDown();
+        first.join(5000);
+        second.join(5000);
+
+        assertThat(mLoadCount.get()).isEqualTo(1);
+        assertThat(secondLabel[0].toString()).isEqualTo("label");
+    }
+
+    @Test
+    public void iconAndLabel_concurrentRequestsForSamePackage_loadSeparately() throws Exception {
+        final Drawable icon = new BitmapDrawable(mContext.getResources(),
+                Bitmap.createBitmap(8, 8, Bitmap.Config.ARGB_8888));
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final Drawable[] loadedIcon = new Drawable[1];
+        final Thread iconThread = new Thread(() ->
+                loadedIcon[0] = mCache.getComponentIcon(mAppInfo, COMPONENT, () -> {
+                    loadStarted.countDown();
+                    try {
+                        releaseLoad.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return icon;
+                }));
+        final CharSequence[] loadedLabel = new CharSequence[1];
+        final Thread labelThread = new Thread(() -> loadedLabel[0] = getLabel(mAppInfo));
+
+        iconThread.start();
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        labelThread.start();
+        // The label does not wait for the icon load in progress for the same key.
+        labelThread.join(5000);
+        releaseLoad.countDown();
+        iconThread.join(5000);
+
+        assertThat(loadedLabel[0].toString()).isEqualTo("label");
+        assertThat(mLoadCount.get()).isEqualTo(1);
+        assertThat(((BitmapDrawable) loadedIcon[0]).getBitmap())
+                .isSameInstanceAs(((BitmapDrawable) icon).getBitmap());
+    }
+
+    @Test
+    public void dumpStats_containsHitRate() throws Exception {
+        getLabel(mAppInfo);
+        getLabel(mAppInfo);
+
+        final JSONObject stats = mCache.dumpStats();
+
+        assertThat(stats.getJSONObject("labels").getDouble("hitRate")).isEqualTo(0.5);
+        assertThat(stats.getJSONObject("labels").getInt("count")).isEqualTo(1);
+        assertThat(stats.has("icons")).isTrue();
+    }
+
+    private CharSequence getLabel(ApplicationInfo appInfo) {
+        return mCache.getComponentLabel(appInfo, COMPONENT, () -> {
+            mLoadCount.incrementAndGet();
+            return "label";
+        });
+    }
+
+    private static ApplicationInfo createAppInfo(int userId, long versionCode) {
+        final ApplicationInfo appInfo = new ApplicationInfo();
+        appInfo.packageName = PACKAGE_NAME;
+        appInfo.uid = UserHandle.getUid(userId, 10001);
+        appInfo.longVersionCode = versionCode;
+        return appInfo;
+    }
+}
@@ -29,6 +29,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.content.Intent;
+import android.content.pm.ActivityInfo;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
@@ -48,6 +49,7 @@ import org.robolectric.android.util.concurrent.PausedExecutorService;
 import org.robolectric.shadows.ShadowLooper;
 import org.robolectric.shadows.ShadowPausedAsyncTask;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -81,14 +83,19 @@ public final class InstalledAppListerTest {
 
     private List<UserAppInfo> mInstalledAppList = Collections.emptyList();
 
-    private void expectQueryIntentActivities(int userId, String packageName, boolean launchable) {
+    private void expectLauncherPackages(int userId, String... packageNames) {
+        final List<ResolveInfo> launcherActivities = new ArrayList<>();
+        for (String packageName : packageNames) {
+            final ResolveInfo resolveInfo = new ResolveInfo();
+            resolveInfo.activityInfo = new ActivityInfo();
+            resolveInfo.activityInfo.packageName = packageName;
+            launcherActivities.add(resolveInfo);
+        }
         when(mPackageManager.queryIntentActivitiesAsUser(
-                argThat(isLaunchIntentFor(packageName)),
+                argThat(isLaunchIntentForAllPackages()),
                 eq(PackageManager.GET_DISABLED_COMPONENTS | PackageManager.MATCH_DIRECT_BOOT_AWARE
                         | PackageManager.MATCH_DIRECT_BOOT_UNAWARE),
-                eq(userId))).thenReturn(launchable
-                        ? Collections.singletonList(new ResolveInfo())
-                        : Collections.emptyList());
+                eq(userId))).thenReturn(launcherActivities);
     }
 
     @Test
@@ -120,8 +127,7 @@ public final class InstalledAppListerTest {
                                 0 /* targetSdkVersion */)));
         // For system apps, InstalledAppLister checks whether they handle the default launcher
         // intent to decide whether to include them in the list of installed apps or not.
-        expectQueryIntentActivities(MAIN_USER_ID, APP_3, true /* launchable */);
-        expectQueryIntentActivities(MAIN_USER_ID, APP_4, false /* launchable */);
+        expectLauncherPackages(MAIN_USER_ID, APP_3);
 
         // app1, app3 and app4 are installed by enterprise policy.
         final UserHandle mainUser = new UserHandle(MAIN_USER_ID);
@@ -144,7 +150,7 @@ public final class InstalledAppListerTest {
                                 0 /* targetSdkVersion */),
                         buildInfo(MANAGED_PROFILE_APP_UID, APP_6, ApplicationInfo.FLAG_SYSTEM,
                                 0 /* targetSdkVersion */)));
-        expectQueryIntentActivities(MANAGED_PROFILE_ID, APP_6, true /* launchable */);
+        expectLauncherPackages(MANAGED_PROFILE_ID, APP_6);
 
         // app5 is installed by enterprise policy.
         final UserHandle managedProfileUser = new UserHandle(MANAGED_PROFILE_ID);
@@ -202,7 +208,7 @@ public final class InstalledAppListerTest {
         }
     }
 
-    private static ArgumentMatcher<Intent> isLaunchIntentFor(String packageName) {
+    private static ArgumentMatcher<Intent> isLaunchIntentForAllPackages() {
         return intent -> {
             if (intent == null) {
                 return false;
@@ -215,7 +221,7 @@ public final class InstalledAppListerTest {
                     !categories.contains(Intent.CATEGORY_LAUNCHER)) {
                 return false;
             }
-            if (!packageName.equals(intent.getPackage())) {
+            if (intent.getPackage() != null) {
                 return false;
             }
             return true;
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ActivityInfo;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+import android.os.UserHandle;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public final class LauncherPackageIndexTest {
+
+    @Rule
+    public final MockitoRule mMockitoRule = MockitoJUnit.rule();
+
+    private static final String APP_1 = "app1";
+    private static final String APP_2 = "app2";
+    private static final String APP_3 = "app3";
+
+    private static final int MAIN_USER_ID = 0;
+    private static final int MANAGED_PROFILE_ID = 10;
+
+    @Mock
+    private Context mContext;
+    @Mock
+    private PackageManager mPackageManager;
+
+    private LauncherPackageIndex mIndex;
+
+    @Before
+    public void setUp() {
+        expectLauncherPackages(MAIN_USER_ID, APP_1, APP_2);
+        expectLauncherPackages(MANAGED_PROFILE_ID, APP_3);
+        mIndex = new LauncherPackageIndex(mPackageManager);
+    }
+
+    @Test
+    public void hasLauncherActivity_queriesOncePerUser() {
+        assertThat(mIndex.hasLauncherActivity(APP_1, MAIN_USER_ID)).isTrue();
+        assertThat(mIndex.hasLauncherActivity(APP_2, MAIN_USER_ID)).isTrue();
+        assertThat(mIndex.hasLauncherActivity(APP_3, MAIN_USER_ID)).isFalse();
+        assertThat(mIndex.hasLauncherActivity(APP_1, MANAGED_PROFILE_ID)).isFalse();
+        assertThat(mIndex.hasLauncherActivity(APP_3, MANAGED_PROFILE_ID)).isTrue();
+
+        verifyQueryCount(MAIN_USER_ID, 1);
+        verifyQueryCount(MANAGED_PROFILE_ID, 1);
+    }
+
+    @Test
+    public void includeInCount_manySystemApps_queriesOncePerUser() {
+        final List<ApplicationInfo> systemApps = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final ApplicationInfo info = new ApplicationInfo();
+            info.packageName = "system" + i;
+            info.flags = ApplicationInfo.FLAG_SYSTEM;
+            systemApps.add(info);
+        }
+
+        for (int userId : new int[] {MAIN_USER_ID, MANAGED_PROFILE_ID}) {
+            for (ApplicationInfo info : systemApps) {
+                info.uid = UserHandle.getUid(userId, 10000);
+                InstalledAppCounter.includeInCount(InstalledAppCounter.IGNORE_INSTALL_REASON,
+                        mPackageManager, info, mIndex);
+            }
+        }
+
+        verifyQueryCount(MAIN_USER_ID, 1);
+        verifyQueryCount(MANAGED_PROFILE_ID, 1);
+    }
+
+    @Test
+    public void packageBroadcastForUser_requeriesOnlyThatUser() {
+        mIndex.hasLauncherActivity(APP_1, MAIN_USER_ID);
+        mIndex.hasLauncherActivity(APP_3, MANAGED_PROFILE_ID);
+        expectLauncherPackages(MANAGED_PROFILE_ID, APP_1);
+
+        mIndex.mPackageReceiver.onReceive(mContext, new Intent(Intent.ACTION_PACKAGE_ADDED)
+                .putExtra(Intent.EXTRA_UID, UserHandle.getUid(MANAGED_PROFILE_ID, 10000)));
+
+        assertThat(mIndex.hasLauncherActivity(APP_1, MAIN_USER_ID)).isTrue();
+        assertThat(mIndex.hasLauncherActivity(APP_1, MANAGED_PROFILE_ID)).isTrue();
+        assertThat(mIndex.hasLauncherActivity(APP_3, MANAGED_PROFILE_ID)).isFalse();
+        verifyQueryCount(MAIN_USER_ID, 1);
+        verifyQueryCount(MANAGED_PROFILE_ID, 2);
+    }
+
+    @Test
+    public void packageBroadcastWithoutUid_requeriesAllUsers() {
+        mIndex.hasLauncherActivity(APP_1, MAIN_USER_ID);
+        mIndex.hasLauncherActivity(APP_3, MANAGED_PROFILE_ID);
+
+        mIndex.mPackageReceiver.onReceive(mContext, new Intent(Intent.ACTION_PACKAGE_CHANGED));
+        mIndex.hasLauncherActivity(APP_1, MAIN_USER_ID);
+        mIndex.hasLauncherActivity(APP_3, MANAGED_PROFILE_ID);
+
+        verifyQueryCount(MAIN_USER_ID, 2);
+        verifyQueryCount(MANAGED_PROFILE_ID, 2);
+    }
+
+    private void expectLauncherPackages(int userId, String... packageNames) {
+        final List<ResolveInfo> launcherActivities = new ArrayList<>();
+        for (String packageName : packageNames) {
+            final ResolveInfo resolveInfo = new ResolveInfo();
+            resolveInfo.activityInfo = new ActivityInfo();
+            resolveInfo.activityInfo.packageName = packageName;
+            launcherActivities.add(resolveInfo);
+        }
+        when(mPackageManager.queryIntentActivitiesAsUser(any(Intent.class), anyInt(), eq(userId)))
+                .thenReturn(launcherActivities);
+    }
+
+    private void verifyQueryCount(int userId, int count) {
+        verify(mPackageManager, times(count)).queryIntentActivitiesAsUser(
+                any(Intent.class), eq(LauncherPackageIndex.QUERY_FLAGS), eq(userId));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.android.internal.app.procstats.ProcessStats;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class ProcStatsCacheTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private FakeClockCache mCache;
+
+    @Before
+    public void setUp() {
+        mCache = new FakeClockCache();
+    }
+
+    @Test
+    public void get_sameDurationWithinTtl_returnsCachedStats() {
+        final ProcessStats stats = createStats(3 * HOUR);
+        mCache.put(3 * HOUR, stats);
+
+        mCache.mNow += ProcStatsCache.CACHE_TTL_MS;
+
+        assertThat(mCache.get(3 * HOUR)).isSameInstanceAs(stats);
+    }
+
+    @Test
+    public void get_afterTtl_returnsNull() {
+        mCache.put(3 * HOUR, createStats(3 * HOUR));
+
+        mCache.mNow += ProcStatsCache.CACHE_TTL_MS + 1;
+
+        assertThat(mCache.get(3 * HOUR)).isNull();
+    }
+
+    @Test
+    public void get_shorterDurationFromWindowCoveringAllHistory_returnsCachedStats() {
+        final ProcessStats stats = createStats(2 * HOUR);
+        mCache.put(24 * HOUR, stats);
+
+        assertThat(mCache.get(3 * HOUR)).isSameInstanceAs(stats);
+    }
+
+    @Test
+    public void get_shorterDurationFromFullWindow_returnsNull() {
+        mCache.put(24 * HOUR, createStats(24 * HOUR));
+
+        assertThat(mCache.get(3 * HOUR)).isNull();
+    }
+
+    @Test
+    public void get_longerDurationAlreadyReachedBySpan_returnsCachedStats() {
+        final ProcessStats stats = createStats(7 * HOUR);
+        mCache.put(3 * HOUR, stats);
+
+        assertThat(mCache.get(6 * HOUR)).isSameInstanceAs(stats);
+        assertThat(mCache.get(12 * HOUR)).isNull();
+    }
+
+    @Test
+    public void put_statsWithReadError_notCached() {
+        final ProcessStats stats = createStats(3 * HOUR);
+        stats.mReadError = "error";
+
+        mCache.put(3 * HOUR, stats);
+
+        assertThat(mCache.get(3 * HOUR)).isNull();
+    }
+
+    private static ProcessStats createStats(long span) {
+        final ProcessStats stats = new ProcessStats(false);
+        stats.mTimePeriodStartRealtime = 0;
+        stats.mTimePeriodEndRealtime = span;
+        return stats;
+    }
+
+    private static class FakeClockCache extends ProcStatsCache {
+        long mNow = 1000L;
+
+        @Override
+        long elapsedRealtime() {
+            return mNow;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.applications;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Intent;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+import android.content.pm.UserInfo;
+import android.os.UserHandle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+@RunWith(RobolectricTestRunner.class)
+public final class ProfileAppScannerTest {
+    private static final int PROFILE_COUNT = 3;
+    private static final int APPS_PER_PROFILE = 3000;
+    private static final int POOL_SIZE = 4;
+
+    private final List<UserInfo> mProfiles = new ArrayList<>();
+    private final Function<UserInfo, List<ApplicationInfo>> mAppLoader = this::buildApps;
+
+    private ExecutorService mExecutor;
+    private ProfileAppScanner mScanner;
+    private ProfileAppScanner mSerialScanner;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < PROFILE_COUNT; i++) {
+            mProfiles.add(new UserInfo(i * 10, "profile" + i, 0 /* flags */));
+        }
+        mExecutor = Executors.newFixedThreadPool(POOL_SIZE);
+        mScanner = new ProfileAppScanner(mExecutor);
+        mSerialScanner = new ProfileAppScanner(Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void scan_thousandsOfApps_matchesSerialScanInOrder() {
+        final Predicate<ApplicationInfo> predicate = info -> info.uid % 3 == 0;
+
+        final List<List<ApplicationInfo>> expected =
+                mSerialScanner.scan(mProfiles, mAppLoader, predicate, () -> false);
+        final List<List<ApplicationInfo>> result =
+                mScanner.scan(mProfiles, mAppLoader, predicate, () -> false);
+
+        assertThat(result).hasSize(PROFILE_COUNT);
+        for (int i = 0; i < PROFILE_COUNT; i++) {
+            assertThat(result.get(i)).hasSize(APPS_PER_PROFILE / 3);
+            assertThat(packageNames(result.get(i)))
+                    .containsExactlyElementsIn(packageNames(expected.get(i)))
+                    .inOrder();
+            for (ApplicationInfo info : result.get(i)) {
+                assertThat(UserHandle.getUserId(info.uid)).isEqualTo(mProfiles.get(i).id);
+            }
+        }
+    }
+
+    @Test
+    public void count_thousandsOfApps_countsAllProfiles() {
+        assertThat(mScanner.count(mProfiles, mAppLoader, info -> info.uid % 2 == 0, () -> false))
+                .isEqualTo(PROFILE_COUNT * APPS_PER_PROFILE / 2);
+    }
+
+    @Test
+    public void scan_chunksRunConcurrently() {
+        // Each chunk waits on its first app until another chunk has started, which only happens
+        // if the chunks overlap.
+        final CountDownLatch chunksStarted = new CountDownLatch(2);
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        final Predicate<ApplicationInfo> predicate = info -> {
+            if ((UserHandle.getAppId(info.uid) - 10000) % ProfileAppScanner.CHUNK_SIZE == 0) {
+                chunksStarted.countDown();
+                try {
+                    if (!chunksStarted.await(5, TimeUnit.SECONDS)) {
+                        timedOut.set(true);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return true;
+        };
+
+        final List<List<ApplicationInfo>> result =
+                mScanner.scan(mProfiles, mAppLoader, predicate, () -> false);
+
+        assertThat(timedOut.get()).isFalse();
+        assertThat(result).hasSize(PROFILE_COUNT);
+    }
+
+    @Test
+    public void scan_launcherPackageIndex_queriesOncePerProfile() {
+        final PackageManager packageManager = mock(PackageManager.class);
+        final List<UserInfo> profiles = mProfiles.subList(0, 1);
+        final int userId = profiles.get(0).id;
+        // The query waits until another chunk asks for the same user, so that the second caller
+        // arrives while the query is in flight.
+        final CountDownLatch callers = new CountDownLatch(2);
+        when(packageManager.queryIntentActivitiesAsUser(any(Intent.class), anyInt(), anyInt()))
+                .thenAnswer(invocation -> {
+                    callers.await(5, TimeUnit.SECONDS);
+                    return new ArrayList<ResolveInfo>();
+                });
+        final LauncherPackageIndex index = new LauncherPackageIndex(packageManager);
+        final Predicate<ApplicationInfo> predicate = info -> {
+            callers.countDown();
+            return !index.hasLauncherActivity(info.packageName,
+                    UserHandle.getUserId(info.uid));
+        };
+
+        final List<List<ApplicationInfo>> result =
+                mScanner.scan(profiles, mAppLoader, predicate, () -> false);
+
+        assertThat(result.get(0)).hasSize(APPS_PER_PROFILE);
+        verify(packageManager, times(1)).queryIntentActivitiesAsUser(
+                any(Intent.class), eq(LauncherPackageIndex.QUERY_FLAGS), eq(userId));
+    }
+
+    @Test
+    public void scan_cancelled_returnsNullAndStopsEvaluating() {
+        final AtomicInteger evaluated = new AtomicInteger();
+        final Predicate<ApplicationInfo> predicate = info -> {
+            evaluated.incrementAndGet();
+            return true;
+        };
+
+        final List<List<ApplicationInfo>> result =
+                mSerialScanner.scan(mProfiles, mAppLoader, predicate,
+                        () -> evaluated.get() >= ProfileAppScanner.CHUNK_SIZE);
+
+        assertThat(result).isNull();
+        assertThat(evaluated.get()).isEqualTo(ProfileAppScanner.CHUNK_SIZE);
+    }
+
+    @Test
+    public void scan_noProfiles_returnsEmptyList() {
+        assertThat(mScanner.scan(new ArrayList<>(), mAppLoader, info -> true, () -> false))
+                .isEmpty();
+    }
+
+    private List<ApplicationInfo> buildApps(UserInfo profile) {
+        final List<ApplicationInfo> apps = new ArrayList<>(APPS_PER_PROFILE);
+        for (int i = 0; i < APPS_PER_PROFILE; i++) {
+            final ApplicationInfo info = new ApplicationInfo();
+            info.packageName = "app" + i;
+            info.uid = UserHandle.getUid(profile.id, 10000 + i);
+            apps.add(info);
+        }
+        return apps;
+    }
+
+    private static List<String> packageNames(List<ApplicationInfo> apps) {
+        final List<String> packageNames = new ArrayList<>(apps.size());
+        for (ApplicationInfo info : apps) {
+            packageNames.add(info.packageName);
+        }
+        return packageNames;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+package com.android.settings.bluetooth;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.bluetooth.BluetoothAdapter;
+import android.bluetooth.BluetoothDevice;
+import android.bluetooth.BluetoothProfile;
+import android.content.Context;
+
+import com.android.settings.connecteddevice.DevicePreferenceCallback;
+import com.android.settings.testutils.shadow.ShadowBluetoothAdapter;
+import com.android.settingslib.bluetooth.BluetoothEventManager;
+import com.android.settingslib.bluetooth.CachedBluetoothDevice;
+import com.android.settingslib.bluetooth.CachedBluetoothDeviceManager;
+import com.android.settingslib.bluetooth.LocalBluetoothManager;
+import com.android.settingslib.bluetooth.LocalBluetoothProfileManager;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadow.api.Shadow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = {ShadowBluetoothAdapter.class})
+public class CachedBluetoothDeviceIndexTest {
+
+    private static final int DEVICE_COUNT = 64;
+    private static final int CALLBACK_BURST = 2000;
+
+    @Rule
+    public final MockitoRule mMockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private CachedBluetoothDeviceManager mCachedDeviceManager;
+    @Mock
+    private LocalBluetoothManager mLocalManager;
+    @Mock
+    private BluetoothEventManager mEventManager;
+    @Mock
+    private LocalBluetoothProfileManager mProfileManager;
+    @Mock
+    private DevicePreferenceCallback mDevicePreferenceCallback;
+
+    private final List<CachedBluetoothDevice> mCachedDevices = new ArrayList<>();
+    private Context mContext;
+    private CachedBluetoothDeviceIndex mIndex;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.application;
+        for (int i = 0; i < DEVICE_COUNT; i++) {
+            mCachedDevices.add(createCachedDevice());
+        }
+        when(mCachedDeviceManager.getCachedDevicesCopy())
+                .thenAnswer(invocation -> new ArrayList<>(mCachedDevices));
+        when(mLocalManager.getCachedDeviceManager()).thenReturn(mCachedDeviceManager);
+        when(mLocalManager.getEventManager()).thenReturn(mEventManager);
+        when(mLocalManager.getProfileManager()).thenReturn(mProfileManager);
+        mIndex = new CachedBluetoothDeviceIndex(() -> mCachedDeviceManager);
+    }
+
+    @Test
+    public void contains_tracking_copiesDevicesOnce() {
+        mIndex.setTracking(true);
+
+        for (CachedBluetoothDevice cachedDevice : mCachedDevices) {
+            assertThat(mIndex.contains(cachedDevice)).isTrue();
+        }
+
+        verify(mCachedDeviceManager, times(1)).getCachedDevicesCopy();
+    }
+
+    @Test
+    public void contains_notTracking_readsCurrentDevices() {
+        final CachedBluetoothDevice cachedDevice = mCachedDevices.get(0);
+        assertThat(mIndex.contains(cachedDevice)).isTrue();
+
+        mCachedDevices.remove(cachedDevice);
+
+        assertThat(mIndex.contains(cachedDevice)).isFalse();
+    }
+
+    @Test
+    public void invalidate_deviceRemoved_notContained() {
+        mIndex.setTracking(true);
+        final CachedBluetoothDevice cachedDevice = mCachedDevices.get(0);
+        assertThat(mIndex.contains(cachedDevice)).isTrue();
+
+        mCachedDevices.remove(cachedDevice);
+        mIndex.invalidate();
+
+        assertThat(mIndex.contains(cachedDevice)).isFalse();
+        assertThat(mIndex.get(cachedDevice.getDevice())).isNull();
+    }
+
+    @Test
+    public void get_unknownDevice_returnsNull() {
+        mIndex.setTracking(true);
+
+        assertThat(mIndex.get(mock(BluetoothDevice.class))).isNull();
+        assertThat(mIndex.get(null)).isNull();
+    }
+
+    @Test
+    public void deviceSwappedOnConnection_stillContainedAndFoundByNewDevice() {
+        mIndex.setTracking(true);
+        final CachedBluetoothDevice cachedDevice = mCachedDevices.get(0);
+        final BluetoothDevice previousDevice = cachedDevice.getDevice();
+        assertThat(mIndex.contains(cachedDevice)).isTrue();
+
+        // The member device connected, and its device was swapped into the cached device.
+        final BluetoothDevice memberDevice = mock(BluetoothDevice.class);
+        when(cachedDevice.getDevice()).thenReturn(memberDevice);
+
+        assertThat(mIndex.contains(cachedDevice)).isTrue();
+        assertThat(mIndex.get(memberDevice)).isSameInstanceAs(cachedDevice);
+        assertThat(mIndex.get(previousDevice)).isNull();
+        verify(mCachedDeviceManager, times(1)).getCachedDevicesCopy();
+    }
+
+    @Test
+    public void add_tracking_containedWithoutCopy() {
+        mIndex.setTracking(true);
+        assertThat(mIndex.contains(mCachedDevices.get(0))).isTrue();
+        final CachedBluetoothDevice addedDevice = createCachedDevice();
+        mCachedDevices.add(addedDevice);
+
+        mIndex.add(addedDevice);
+
+        assertThat(mIndex.contains(addedDevice)).isTrue();
+        assertThat(mIndex.get(addedDevice.getDevice())).isSameInstanceAs(addedDevice);
+        verify(mCachedDeviceManager, times(1)).getCachedDevicesCopy();
+    }
+
+    @Test
+    public void remove_tracking_notContainedWithoutCopy() {
+        mIndex.setTracking(true);
+        final CachedBluetoothDevice removedDevice = mCachedDevices.get(0);
+        assertThat(mIndex.contains(removedDevice)).isTrue();
+        mCachedDevices.remove(removedDevice);
+
+        mIndex.remove(removedDevice);
+
+        assertThat(mIndex.contains(removedDevice)).isFalse();
+        assertThat(mIndex.get(removedDevice.getDevice())).isNull();
+        assertThat(mIndex.contains(mCachedDevices.get(0))).isTrue();
+        verify(mCachedDeviceManager, times(1)).getCachedDevicesCopy();
+    }
+
+    @Test
+    public void update_deviceClearedFromCache_notContained() {
+        mIndex.setTracking(true);
+        final CachedBluetoothDevice unbondedDevice = mCachedDevices.get(0);
+        final CachedBluetoothDevice bondedDevice = mCachedDevices.get(1);
+        when(mCachedDeviceManager.findDevice(bondedDevice.getDevice())).thenReturn(bondedDevice);
+        assertThat(mIndex.contains(unbondedDevice)).isTrue();
+        mCachedDevices.remove(unbondedDevice);
+
+        mIndex.update(unbondedDevice);
+        mIndex.update(bondedDevice);
+
+        assertThat(mIndex.contains(unbondedDevice)).isFalse();
+        assertThat(mIndex.contains(bondedDevice)).isTrue();
+        verify(mCachedDeviceManager, times(1)).getCachedDevicesCopy();
+    }
+
+    @Test
+    public void callbackBurst_registeredUpdater_copiesDevicesOnce() {
+        final ShadowBluetoothAdapter shadowBluetoothAdapter =
+                Shadow.extract(BluetoothAdapter.getDefaultAdapter());
+        shadowBluetoothAdapter.setEnabled(true);
+        final InCacheDeviceUpdater updater = new InCacheDeviceUpdater(mContext,
+                mDevicePreferenceCallback, mLocalManager);
+        updater.setPrefContext(mContext);
+        updater.registerCallback();
+
+        // Connection state churn, with a device joining and leaving the cache in the middle.
+        final CachedBluetoothDevice transientDevice = createCachedDevice();
+        for (int i = 0; i < CALLBACK_BURST; i++) {
+            final CachedBluetoothDevice cachedDevice = mCachedDevices.get(i % DEVICE_COUNT);
+            if (i == CALLBACK_BURST / 4) {
+                mCachedDevices.add(transientDevice);
+                updater.onDeviceAdded(transientDevice);
+            } else if (i == CALLBACK_BURST / 2) {
+                mCachedDevices.remove(transientDevice);
+                updater.onDeviceDeleted(transientDevice);
+            } else if (i % 2 == 0) {
+                updater.onProfileConnectionStateChanged(cachedDevice,
+                        BluetoothProfile.STATE_CONNECTED, BluetoothProfile.LE_AUDIO);
+            } else {
+                updater.onAclConnectionStateChanged(cachedDevice,
+                        BluetoothAdapter.STATE_CONNECTED);
+            }
+        }
+
+        // Only the copy taken by forceUpdate() in registerCallback() is needed, instead of one
+        // per callback before the index.
+        verify(mCachedDeviceManager, times(1)).getCachedDevicesCopy();
+        verify(mDevicePreferenceCallback, times(DEVICE_COUNT + 1)).onDeviceAdded(any());
+        verify(mDevicePreferenceCallback, times(1)).onDeviceRemoved(any());
+        assertThat(updater.mPreferenceMap).hasSize(DEVICE_COUNT);
+        assertThat(updater.mPreferenceMap).doesNotContainKey(transientDevice.getDevice());
+    }
+
+    private static CachedBluetoothDevice createCachedDevice() {
+        final CachedBluetoothDevice cachedDevice = mock(CachedBluetoothDevice.class);
+        final BluetoothDevice device = mock(BluetoothDevice.class);
+        when(cachedDevice.getDevice()).thenReturn(device);
+        return cachedDevice;
+    }
+
+    private static class InCacheDeviceUpdater extends BluetoothDeviceUpdater {
+        InCacheDeviceUpdater(Context context, DevicePreferenceCallback devicePreferenceCallback,
+                LocalBluetoothManager localManager) {
+            super(context, devicePreferenceCallback, localManager, /* metricsCategory= */ 0);
+        }
+
+        @Override
+        public boolean isFilterMatched(CachedBluetoothDevice cachedBluetoothDevice) {
+            return isDeviceInCachedDevicesList(cachedBluetoothDevice);
+        }
+
+        @Override
+        protected String getPreferenceKey() {
+            return "test_bt";
+        }
+    }
+}
@@ -20,7 +20,9 @@ import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import android.content.BroadcastReceiver;
 import android.content.Intent;
@@ -41,6 +43,7 @@ import org.robolectric.android.controller.ActivityController;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @RunWith(RobolectricTestRunner.class)
 public class CategoryMixinTest {
@@ -79,6 +82,36 @@ public class CategoryMixinTest {
         verify(listener).onCategoriesChanged(anySet());
     }
 
+    @Test
+    public void onCategoriesChanged_listenerCategoryChanged_shouldNotifyChanged() {
+        mActivityController.setup().pause();
+        final CategoryMixin categoryMixin = mActivityController.get().getCategoryMixin();
+        final CategoryListener listener = mock(CategoryListener.class);
+        when(listener.getCategoryKey()).thenReturn("category1");
+        categoryMixin.addCategoryListener(listener);
+        final Set<String> categories = new ArraySet<>();
+        categories.add("category1");
+
+        categoryMixin.onCategoriesChanged(categories);
+
+        verify(listener).onCategoriesChanged(categories);
+    }
+
+    @Test
+    public void onCategoriesChanged_listenerCategoryUnchanged_shouldNotNotify() {
+        mActivityController.setup().pause();
+        final CategoryMixin categoryMixin = mActivityController.get().getCategoryMixin();
+        final CategoryListener listener = mock(CategoryListener.class);
+        when(listener.getCategoryKey()).thenReturn("category1");
+        categoryMixin.addCategoryListener(listener);
+        final Set<String> categories = new ArraySet<>();
+        categories.add("category2");
+
+        categoryMixin.onCategoriesChanged(categories);
+
+        verify(listener, never()).onCategoriesChanged(anySet());
+    }
+
     static class TestActivity extends AppCompatActivity implements CategoryMixin.CategoryHandler {
 
         private CategoryMixin mCategoryMixin;
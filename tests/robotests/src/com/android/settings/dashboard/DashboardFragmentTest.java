@@ -54,6 +54,7 @@ import androidx.test.core.app.ApplicationProvider;
 
 import com.android.internal.logging.nano.MetricsProto.MetricsEvent;
 import com.android.settings.R;
+import com.android.settings.core.PreferenceControllerDescriptor;
 import com.android.settings.core.PreferenceControllerMixin;
 import com.android.settings.slices.BlockingSlicePrefController;
 import com.android.settings.testutils.FakeFeatureFactory;
@@ -131,6 +132,7 @@ public class DashboardFragmentTest {
         mTestFragment.onAttach(mAppContext);
         when(mContext.getPackageName()).thenReturn("TestPackage");
         mControllers = new ArrayList<>();
+        TestLazyPreferenceController.sCreatedCount = 0;
     }
 
     @Test
@@ -172,6 +174,137 @@ public class DashboardFragmentTest {
         assertThat(retrievedControllers).containsExactly(controller1, controller2);
     }
 
+    @Test
+    public void onAttach_lazyController_notInstantiated() {
+        mTestFragment.mLazyControllers.add(PreferenceControllerDescriptor.of("lazy_key",
+                TestLazyPreferenceController.class,
+                context -> new TestLazyPreferenceController(context, "lazy_key")));
+
+        mTestFragment.onAttach(mAppContext);
+
+        assertThat(TestLazyPreferenceController.sCreatedCount).isEqualTo(0);
+        assertThat(mTestFragment.getLazyPreferenceControllers()).isEmpty();
+    }
+
+    @Test
+    public void use_lazyController_instantiatesOnce() {
+        mTestFragment.mLazyControllers.add(PreferenceControllerDescriptor.of("lazy_key",
+                TestLazyPreferenceController.class,
+                context -> new TestLazyPreferenceController(context, "lazy_key")));
+        mTestFragment.onAttach(mAppContext);
+
+        final TestLazyPreferenceController controller =
+                mTestFragment.use(TestLazyPreferenceController.class);
+
+        assertThat(controller).isNotNull();
+        assertThat(mTestFragment.use(TestLazyPreferenceController.class))
+                .isSameInstanceAs(controller);
+        assertThat(TestLazyPreferenceController.sCreatedCount).isEqualTo(1);
+        assertThat(mTestFragment.getLazyPreferenceControllers()).containsExactly(controller);
+    }
+
+    @Test
+    public void onPreferenceTreeClick_lazyController_instantiatesAndHandlesClick() {
+        mTestFragment.mLazyControllers.add(PreferenceControllerDescriptor.of("lazy_key",
+                TestLazyPreferenceController.class,
+                context -> new TestLazyPreferenceController(context, "lazy_key")));
+        mTestFragment.mLazyControllers.add(PreferenceControllerDescriptor.of("other_key",
+                TestLazyPreferenceController.class,
+                context -> new TestLazyPreferenceController(context, "other_key")));
+        mTestFragment.onAttach(mAppContext);
+        final Preference preference = new Preference(mContext);
+        preference.setKey("lazy_key");
+
+        assertThat(mTestFragment.onPreferenceTreeClick(preference)).isTrue();
+        assertThat(TestLazyPreferenceController.sCreatedCount).isEqualTo(1);
+    }
+
+    @Test
+    public void instantiateLazyPreferenceControllers_instantiatesAll() {
+        mTestFragment.mLazyControllers.add(PreferenceControllerDescriptor.of("lazy_key",
+                TestLazyPreferenceController.class,
+                context -> new TestLazyPreferenceController(context, "lazy_key")));
+        mTestFragment.mLazyControllers.add(PreferenceControllerDescriptor.of("other_key",
+                TestLazyPreferenceController.class,
+                context -> new TestLazyPreferenceController(context, "other_key")));
+        mTestFragment.onAttach(mAppContext);
+
+        assertThat(mTestFragment.instantiateLazyPreferenceControllers()).hasSize(2);
+        assertThat(mTestFragment.useAll(TestLazyPreferenceController.class)).hasSize(2);
+        assertThat(TestLazyPreferenceController.sCreatedCount).isEqualTo(2);
+    }
+
+    @Test
+    public void instantiateInitialLazyPreferenceControllers_offScreenPreference_notSelectable() {
+        mTestFragment.mLazyControllers.add(PreferenceControllerDescriptor.of("lazy_key",
+                TestLazyPreferenceController.class,
+                context -> new TestLazyPreferenceController(context, "lazy_key")));
+        mTestFragment.onAttach(mAppContext);
+        final PreferenceScreen screen =
+                new PreferenceManager(mAppContext).createPreferenceScreen(mAppContext);
+        for (int i = 0; i < DashboardFragment.INITIAL_LAZY_CONTROLLER_COUNT; i++) {
+            final Preference preference = new Preference(mAppContext);
+            preference.setKey("key" + i);
+            screen.addPreference(preference);
+        }
+        final Preference lazyPreference = new Preference(mAppContext);
+        lazyPreference.setKey("lazy_key");
+        screen.addPreference(lazyPreference);
+        when(mTestFragment.mScreen.findPreference("lazy_key")).thenReturn(lazyPreference);
+
+        mTestFragment.instantiateInitialLazyPreferenceControllers(screen);
+
+        assertThat(TestLazyPreferenceController.sCreatedCount).isEqualTo(0);
+        assertThat(lazyPreference.isSelectable()).isFalse();
+
+        mTestFragment.instantiateLazyPreferenceController("lazy_key");
+
+        assertThat(TestLazyPreferenceController.sCreatedCount).isEqualTo(1);
+        assertThat(lazyPreference.isSelectable()).isTrue();
+    }
+
+    @Test
+    public void instantiateInitialLazyPreferenceControllers_hiddenPreference_notCounted() {
+        mTestFragment.mLazyControllers.add(PreferenceControllerDescriptor.of("lazy_key",
+                TestLazyPreferenceController.class,
+                context -> new TestLazyPreferenceController(context, "lazy_key")));
+        mTestFragment.onAttach(mAppContext);
+        final PreferenceScreen screen =
+                new PreferenceManager(mAppContext).createPreferenceScreen(mAppContext);
+        for (int i = 0; i < DashboardFragment.INITIAL_LAZY_CONTROLLER_COUNT; i++) {
+            final Preference preference = new Preference(mAppContext);
+            preference.setKey("key" + i);
+            preference.setVisible(i % 2 == 0);
+            screen.addPreference(preference);
+        }
+        final Preference lazyPreference = new Preference(mAppContext);
+        lazyPreference.setKey("lazy_key");
+        screen.addPreference(lazyPreference);
+
+        mTestFragment.instantiateInitialLazyPreferenceControllers(screen);
+
+        assertThat(TestLazyPreferenceController.sCreatedCount).isEqualTo(1);
+        assertThat(lazyPreference.isSelectable()).isTrue();
+    }
+
+    @Test
+    public void onAttach_lazyControllerAlsoCreatedFromCode_usesCodeController() {
+        final TestLazyPreferenceController codeController =
+                new TestLazyPreferenceController(mContext, "lazy_key");
+        mTestFragment.mControllers.add(codeController);
+        mTestFragment.mLazyControllers.add(PreferenceControllerDescriptor.of("lazy_key",
+                TestLazyPreferenceController.class,
+                context -> new TestLazyPreferenceController(context, "lazy_key")));
+        TestLazyPreferenceController.sCreatedCount = 0;
+
+        mTestFragment.onAttach(mAppContext);
+        mTestFragment.instantiateLazyPreferenceControllers();
+
+        assertThat(TestLazyPreferenceController.sCreatedCount).isEqualTo(0);
+        assertThat(mTestFragment.use(TestLazyPreferenceController.class))
+                .isSameInstanceAs(codeController);
+    }
+
     @Test
     public void displayTilesAsPreference_shouldAddTilesWithIntent() {
         when(mFakeFeatureFactory.dashboardFeatureProvider
@@ -515,6 +648,34 @@ public class DashboardFragmentTest {
         }
     }
 
+    public static class TestLazyPreferenceController extends AbstractPreferenceController {
+
+        static int sCreatedCount;
+
+        private final String mKey;
+
+        private TestLazyPreferenceController(Context context, String key) {
+            super(context);
+            mKey = key;
+            sCreatedCount++;
+        }
+
+        @Override
+        public boolean handlePreferenceTreeClick(Preference preference) {
+            return mKey.equals(preference.getKey());
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public String getPreferenceKey() {
+            return mKey;
+        }
+    }
+
     public static class SubTestPreferenceController extends TestPreferenceController {
 
         private SubTestPreferenceController(Context context) {
@@ -540,6 +701,7 @@ public class DashboardFragmentTest {
         private final PreferenceManager mPreferenceManager;
         private final Context mContext;
         private final List<AbstractPreferenceController> mControllers;
+        private final List<PreferenceControllerDescriptor> mLazyControllers;
         private final ContentResolver mContentResolver;
 
         public final PreferenceScreen mScreen;
@@ -550,6 +712,7 @@ public class DashboardFragmentTest {
             mScreen = mock(PreferenceScreen.class);
             mContentResolver = mock(ContentResolver.class);
             mControllers = new ArrayList<>();
+            mLazyControllers = new ArrayList<>();
 
             when(mPreferenceManager.getContext()).thenReturn(mContext);
             ReflectionHelpers.setField(
@@ -586,6 +749,12 @@ public class DashboardFragmentTest {
             return mControllers;
         }
 
+        @Override
+        protected List<PreferenceControllerDescriptor> createLazyPreferenceControllers(
+                Context context) {
+            return mLazyControllers;
+        }
+
         @Override
         public PreferenceManager getPreferenceManager() {
             return mPreferenceManager;
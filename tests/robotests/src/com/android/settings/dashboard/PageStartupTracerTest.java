@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.dashboard;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import android.app.settings.SettingsEnums;
+import android.content.Context;
+import android.os.SystemClock;
+import android.os.SystemProperties;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.android.settings.testutils.FakeFeatureFactory;
+import com.android.settingslib.core.AbstractPreferenceController;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class PageStartupTracerTest {
+
+    private static final int PAGE_ID = 1;
+    private static final String PAGE_NAME = "TestPage";
+
+    private Context mContext;
+    private FakeFeatureFactory mFeatureFactory;
+    private PageStartupTracer mTracer;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mFeatureFactory = FakeFeatureFactory.setupForTest();
+        mTracer = new PageStartupTracer();
+    }
+
+    @After
+    public void tearDown() {
+        SystemProperties.set(PageStartupTracer.PROPERTY_LOG_METRICS, "false");
+    }
+
+    @Test
+    public void endPhase_recordsDurationInHistogram() throws Exception {
+        final PageStartupTracer.Session session = mTracer.startSession(PAGE_ID, PAGE_NAME);
+
+        runPhase(session, PageStartupTracer.PHASE_INFLATE, 3 /* durationMs */);
+        runPhase(session, PageStartupTracer.PHASE_INFLATE, 100 /* durationMs */);
+
+        final JSONObject inflate = getPhase(mTracer.dumpStats(), PageStartupTracer.PHASE_INFLATE);
+        assertThat(inflate.getInt("count")).isEqualTo(2);
+        assertThat(inflate.getLong("totalMs")).isEqualTo(103);
+        assertThat(inflate.getLong("maxMs")).isEqualTo(100);
+        final JSONArray histogram = inflate.getJSONArray("histogramMs");
+        // Buckets are [0, 1), [1, 2), [2, 4), [4, 8) ... [64, 128) ...
+        assertThat(histogram.getInt(2)).isEqualTo(1);
+        assertThat(histogram.getInt(7)).isEqualTo(1);
+    }
+
+    @Test
+    public void markFullyDrawn_recordsOnlyOnce() throws Exception {
+        final PageStartupTracer.Session session = mTracer.startSession(PAGE_ID, PAGE_NAME);
+        SystemClock.sleep(20);
+
+        session.markFullyDrawn();
+        SystemClock.sleep(20);
+        session.markFullyDrawn();
+
+        final JSONObject fullyDrawn =
+                getPhase(mTracer.dumpStats(), PageStartupTracer.PHASE_FULLY_DRAWN);
+        assertThat(fullyDrawn.getInt("count")).isEqualTo(1);
+        assertThat(fullyDrawn.getLong("maxMs")).isEqualTo(20);
+    }
+
+    @Test
+    public void finish_laterPhasesAndControllersNotRecorded() throws Exception {
+        final PageStartupTracer.Session session = mTracer.startSession(PAGE_ID, PAGE_NAME);
+        final AbstractPreferenceController controller = new FastController(mContext);
+        runPhase(session, PageStartupTracer.PHASE_UPDATE_STATE, 1 /* durationMs */);
+        runController(session, controller, 1 /* durationMs */);
+        session.markFullyDrawn();
+
+        session.finish();
+        runPhase(session, PageStartupTracer.PHASE_UPDATE_STATE, 1 /* durationMs */);
+        runController(session, controller, 1 /* durationMs */);
+
+        final JSONObject stats = mTracer.dumpStats();
+        assertThat(getPhase(stats, PageStartupTracer.PHASE_UPDATE_STATE).getInt("count"))
+                .isEqualTo(1);
+        assertThat(stats.getJSONArray("worstControllers").getJSONObject(0).getInt("count"))
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void dumpStats_sortsWorstControllersByMaxDuration() throws Exception {
+        final PageStartupTracer.Session session = mTracer.startSession(PAGE_ID, PAGE_NAME);
+        final PageStartupTracer.Session otherSession = mTracer.startSession(2, "OtherPage");
+
+        runController(session, new FastController(mContext), 1 /* durationMs */);
+        runController(session, new SlowController(mContext), 10 /* durationMs */);
+        runController(otherSession, new SlowController(mContext), 50 /* durationMs */);
+
+        final JSONArray controllers = mTracer.dumpStats().getJSONArray("worstControllers");
+        assertThat(controllers.length()).isEqualTo(2);
+        final JSONObject slowest = controllers.getJSONObject(0);
+        assertThat(slowest.getString("controller")).isEqualTo(SlowController.class.getName());
+        assertThat(slowest.getString("phase")).isEqualTo(PageStartupTracer.PHASE_UPDATE_STATE);
+        assertThat(slowest.getInt("count")).isEqualTo(2);
+        assertThat(slowest.getLong("maxMs")).isEqualTo(50);
+        assertThat(slowest.getInt("maxPageId")).isEqualTo(2);
+        assertThat(controllers.getJSONObject(1).getString("controller"))
+                .isEqualTo(FastController.class.getName());
+    }
+
+    @Test
+    public void endPhase_metricsLoggingDisabled_doesNotLog() {
+        final PageStartupTracer.Session session = mTracer.startSession(PAGE_ID, PAGE_NAME);
+
+        runPhase(session, PageStartupTracer.PHASE_TILES, 5 /* durationMs */);
+
+        verify(mFeatureFactory.metricsFeatureProvider, never())
+                .action(anyInt(), anyInt(), anyInt(), anyString(), anyInt());
+    }
+
+    @Test
+    public void endPhase_metricsLoggingEnabled_logsPhaseDuration() {
+        SystemProperties.set(PageStartupTracer.PROPERTY_LOG_METRICS, "true");
+        final PageStartupTracer.Session session = mTracer.startSession(PAGE_ID, PAGE_NAME);
+
+        runPhase(session, PageStartupTracer.PHASE_TILES, 5 /* durationMs */);
+
+        verify(mFeatureFactory.metricsFeatureProvider).action(PAGE_ID, PAGE_ID,
+                SettingsEnums.PAGE_UNKNOWN,
+                PageStartupTracer.METRICS_KEY_PREFIX + PageStartupTracer.PHASE_TILES, 5);
+    }
+
+    private static void runPhase(PageStartupTracer.Session session, String phase,
+            long durationMs) {
+        final long startNs = session.beginPhase(phase);
+        SystemClock.sleep(durationMs);
+        session.endPhase(phase, startNs);
+    }
+
+    private static void runController(PageStartupTracer.Session session,
+            AbstractPreferenceController controller, long durationMs) {
+        final long startNs =
+                session.beginController(controller, PageStartupTracer.PHASE_UPDATE_STATE);
+        SystemClock.sleep(durationMs);
+        session.endController(controller, PageStartupTracer.PHASE_UPDATE_STATE, startNs);
+    }
+
+    private static JSONObject getPhase(JSONObject stats, String phase) throws Exception {
+        final JSONObject page = stats.getJSONArray("pages").getJSONObject(0);
+        assertThat(page.getInt("pageId")).isEqualTo(PAGE_ID);
+        assertThat(page.getString("name")).isEqualTo(PAGE_NAME);
+        return page.getJSONObject("phases").getJSONObject(phase);
+    }
+
+    private static class FastController extends AbstractPreferenceController {
+        FastController(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public String getPreferenceKey() {
+            return "fast";
+        }
+    }
+
+    private static class SlowController extends AbstractPreferenceController {
+        SlowController(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public String getPreferenceKey() {
+            return "slow";
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.dashboard;
+
+import static com.android.settingslib.drawer.TileUtils.META_DATA_KEY_ORDER;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.pm.ActivityInfo;
+import android.os.Bundle;
+import android.provider.Settings;
+import android.util.ArrayMap;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.android.settingslib.drawer.ActivityTile;
+import com.android.settingslib.drawer.CategoryKey;
+import com.android.settingslib.drawer.DashboardCategory;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(RobolectricTestRunner.class)
+public class TileCacheTest {
+
+    private Context mContext;
+    private TileCache mTileCache;
+    private List<DashboardCategory> mCategories;
+    private Map<String, DashboardCategory> mCategoryByKeyMap;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mTileCache = new TileCache(mContext);
+        final DashboardCategory homepage = new DashboardCategory(CategoryKey.CATEGORY_HOMEPAGE);
+        homepage.addTile(createActivityTile(CategoryKey.CATEGORY_HOMEPAGE, "class1", 2));
+        homepage.addTile(createActivityTile(CategoryKey.CATEGORY_HOMEPAGE, "class2", 1));
+        final DashboardCategory account = new DashboardCategory(CategoryKey.CATEGORY_ACCOUNT);
+        account.addTile(createActivityTile(CategoryKey.CATEGORY_ACCOUNT, "class3", 0));
+        mCategories = new ArrayList<>(Arrays.asList(homepage, account));
+        mCategoryByKeyMap = new ArrayMap<>();
+        mCategoryByKeyMap.put(homepage.key, homepage);
+        mCategoryByKeyMap.put(account.key, account);
+    }
+
+    @Test
+    public void read_noCache_returnsNull() {
+        assertThat(mTileCache.read()).isNull();
+    }
+
+    @Test
+    public void read_afterWrite_restoresCategories() {
+        mTileCache.write(mTileCache.getSequenceNumber(), mCategories, mCategoryByKeyMap);
+
+        final TileCache.Entry entry = mTileCache.read();
+
+        assertThat(entry).isNotNull();
+        assertThat(entry.categoryKeys).containsExactly(
+                CategoryKey.CATEGORY_HOMEPAGE, CategoryKey.CATEGORY_ACCOUNT).inOrder();
+        final DashboardCategory homepage = entry.categoryByKeyMap.get(
+                CategoryKey.CATEGORY_HOMEPAGE);
+        assertThat(homepage.getTilesCount()).isEqualTo(2);
+        assertThat(homepage.getTile(0).getDescription())
+                .isEqualTo(mCategories.get(0).getTile(0).getDescription());
+        assertThat(homepage.getTile(1).getOrder()).isEqualTo(1);
+        assertThat(entry.categoryByKeyMap.get(CategoryKey.CATEGORY_ACCOUNT).getTilesCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void read_afterReboot_returnsNull() {
+        mTileCache.write(mTileCache.getSequenceNumber(), mCategories, mCategoryByKeyMap);
+        final int bootCount = Settings.Global.getInt(mContext.getContentResolver(),
+                Settings.Global.BOOT_COUNT, 0);
+        Settings.Global.putInt(mContext.getContentResolver(), Settings.Global.BOOT_COUNT,
+                bootCount + 1);
+
+        assertThat(mTileCache.read()).isNull();
+    }
+
+    @Test
+    public void isUpToDate_afterWrite_trueForSameSequenceNumberOnly() {
+        final int sequenceNumber = mTileCache.getSequenceNumber();
+        assertThat(mTileCache.isUpToDate(sequenceNumber)).isFalse();
+
+        mTileCache.write(sequenceNumber, mCategories, mCategoryByKeyMap);
+
+        assertThat(mTileCache.isUpToDate(sequenceNumber)).isTrue();
+        assertThat(mTileCache.isUpToDate(sequenceNumber + 1)).isFalse();
+    }
+
+    @Test
+    public void isUpToDate_afterRead_true() {
+        final int sequenceNumber = mTileCache.getSequenceNumber();
+        mTileCache.write(sequenceNumber, mCategories, mCategoryByKeyMap);
+        final TileCache tileCache = new TileCache(mContext);
+
+        assertThat(tileCache.read()).isNotNull();
+        assertThat(tileCache.isUpToDate(sequenceNumber)).isTrue();
+    }
+
+    @Test
+    public void isUpToDate_afterClear_false() {
+        final int sequenceNumber = mTileCache.getSequenceNumber();
+        mTileCache.write(sequenceNumber, mCategories, mCategoryByKeyMap);
+
+        mTileCache.clear();
+
+        assertThat(mTileCache.isUpToDate(sequenceNumber)).isFalse();
+    }
+
+    @Test
+    public void read_afterClear_returnsNull() {
+        mTileCache.write(mTileCache.getSequenceNumber(), mCategories, mCategoryByKeyMap);
+
+        mTileCache.clear();
+
+        assertThat(mTileCache.read()).isNull();
+    }
+
+    private static ActivityTile createActivityTile(String categoryKey, String className,
+            int order) {
+        final ActivityInfo activityInfo = new ActivityInfo();
+        activityInfo.packageName = "pkg";
+        activityInfo.name = className;
+        activityInfo.metaData = new Bundle();
+        activityInfo.metaData.putInt(META_DATA_KEY_ORDER, order);
+        return new ActivityTile(activityInfo, categoryKey);
+    }
+}
@@ -71,6 +71,24 @@ public class RegionSearchPickerTest {
         assertThat(Arrays.asList(item.getSearchKeys())).contains("United States");
     }
 
+    @Test
+    public void createAdapter_sameLocaleAndRegions_reusesItems() {
+        List<String> regionList = new ArrayList<>();
+        regionList.add("US");
+        regionList.add("GB");
+        CountryZonesFinder finder = mock(CountryZonesFinder.class);
+        when(finder.lookupAllCountryIsoCodes()).thenReturn(regionList);
+
+        BaseTimeZoneAdapter adapter = new RegionSearchPicker().createAdapter(
+                new TimeZoneData(finder));
+        BaseTimeZoneAdapter otherAdapter = new RegionSearchPicker().createAdapter(
+                new TimeZoneData(finder));
+
+        assertEquals(2, otherAdapter.getItemCount());
+        assertEquals("United Kingdom", otherAdapter.getDataItem(0).getTitle().toString());
+        assertThat(otherAdapter.getDataItem(0)).isSameInstanceAs(adapter.getDataItem(0));
+    }
+
     // Test RegionSearchPicker does not crash due to the wrong assumption that no view is clicked
     // before all views are updated and after internal data structure is updated for text filtering.
     // This test mocks the text filtering event and emit click event immediately
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.datetime.timezone;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.android.settings.datetime.timezone.RegionSearchPicker.RegionItem;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+@RunWith(RobolectricTestRunner.class)
+public class TimeZoneSearchIndexTest {
+
+    private final RegionItem mUnitedStates = new RegionItem(0, "US", "United States");
+    private final RegionItem mUnitedKingdom = new RegionItem(1, "GB", "United Kingdom");
+    private final RegionItem mHongKong = new RegionItem(2, "HK", "Hong Kong");
+
+    private TimeZoneSearchIndex<RegionItem> mIndex;
+
+    @Before
+    public void setUp() {
+        mIndex = new TimeZoneSearchIndex<>(
+                Arrays.asList(mUnitedStates, mUnitedKingdom, mHongKong), Locale.US);
+    }
+
+    @Test
+    public void constructor_doesNotBuildIndex() {
+        assertThat(mIndex.isBuilt()).isFalse();
+
+        search("un");
+
+        assertThat(mIndex.isBuilt()).isTrue();
+    }
+
+    @Test
+    public void search_matchesKeyAndWordStartsInOriginalOrder() {
+        assertThat(search("un")).containsExactly(mUnitedStates, mUnitedKingdom).inOrder();
+        assertThat(search("kong")).containsExactly(mHongKong);
+        assertThat(search("hong k")).containsExactly(mHongKong);
+        assertThat(search("gb")).containsExactly(mUnitedKingdom);
+        assertThat(search("ates")).isEmpty();
+    }
+
+    @Test
+    public void search_ignoresCase() {
+        assertThat(search("STATES")).containsExactly(mUnitedStates);
+    }
+
+    @Test
+    public void narrow_matchesSameItemsAsSearch() {
+        final BitSet previous = mIndex.search(mIndex.fold("un"));
+
+        final BitSet narrowed = mIndex.narrow(previous, mIndex.fold("united k"));
+
+        assertThat(mIndex.getItems(narrowed)).containsExactly(mUnitedKingdom);
+        assertThat(narrowed).isEqualTo(mIndex.search(mIndex.fold("united k")));
+    }
+
+    private List<RegionItem> search(String query) {
+        return mIndex.getItems(mIndex.search(mIndex.fold(query)));
+    }
+}
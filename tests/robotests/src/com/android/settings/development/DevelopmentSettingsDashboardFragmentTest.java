@@ -16,6 +16,8 @@
 
 package com.android.settings.development;
 
+import static com.android.settings.development.DevelopmentOptionsActivityRequestCodes.REQUEST_CODE_DEBUG_APP;
+
 import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.Mockito.doReturn;
@@ -24,7 +26,10 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import android.app.Activity;
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
 import android.provider.SearchIndexableResource;
 import android.provider.Settings;
 
@@ -33,9 +38,12 @@ import androidx.fragment.app.FragmentActivity;
 
 import com.android.internal.logging.nano.MetricsProto;
 import com.android.settings.R;
+import com.android.settings.core.PreferenceControllerDescriptor;
 import com.android.settings.testutils.shadow.ShadowAlertDialogCompat;
 import com.android.settings.testutils.shadow.ShadowUserManager;
 import com.android.settings.widget.SettingsMainSwitchBar;
+import com.android.settingslib.core.AbstractPreferenceController;
+import com.android.settingslib.core.lifecycle.Lifecycle;
 import com.android.settingslib.development.AbstractEnableAdbPreferenceController;
 import com.android.settingslib.development.DevelopmentSettingsEnabler;
 
@@ -53,7 +61,9 @@ import org.robolectric.annotation.Implements;
 import org.robolectric.shadow.api.Shadow;
 import org.robolectric.shadows.androidx.fragment.FragmentController;
 import org.robolectric.util.ReflectionHelpers;
+import org.robolectric.util.ReflectionHelpers.ClassParameter;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @RunWith(RobolectricTestRunner.class)
@@ -95,6 +105,40 @@ public class DevelopmentSettingsDashboardFragmentTest {
                 .isEqualTo(MetricsProto.MetricsEvent.DEVELOPMENT);
     }
 
+    @Test
+    public void onReceiveEnableAdbStateChanged_verifyAppsOverUsbController_isNotified() {
+        assertThat(buildEagerPreferenceControllers().stream()
+                .anyMatch(VerifyAppsOverUsbPreferenceController.class::isInstance)).isTrue();
+        final VerifyAppsOverUsbPreferenceController controller =
+                mock(VerifyAppsOverUsbPreferenceController.class);
+        ReflectionHelpers.setField(mDashboard, "mPreferenceControllers",
+                new ArrayList<>(List.of(controller)));
+        final BroadcastReceiver receiver =
+                ReflectionHelpers.getField(mDashboard, "mEnableAdbReceiver");
+
+        receiver.onReceive(mContext,
+                new Intent(AdbPreferenceController.ACTION_ENABLE_ADB_STATE_CHANGED));
+
+        verify(controller).onAdbSettingChanged();
+    }
+
+    @Test
+    public void onActivityResult_waitForDebuggerController_receivesResult() {
+        assertThat(buildEagerPreferenceControllers().stream()
+                .anyMatch(WaitForDebuggerPreferenceController.class::isInstance)).isTrue();
+        final WaitForDebuggerPreferenceController controller =
+                mock(WaitForDebuggerPreferenceController.class);
+        final Intent data = new Intent().setAction("com.android.example");
+        when(controller.onActivityResult(REQUEST_CODE_DEBUG_APP, Activity.RESULT_OK, data))
+                .thenReturn(true);
+        ReflectionHelpers.setField(mDashboard, "mPreferenceControllers",
+                new ArrayList<>(List.of(controller)));
+
+        mDashboard.onActivityResult(REQUEST_CODE_DEBUG_APP, Activity.RESULT_OK, data);
+
+        verify(controller).onActivityResult(REQUEST_CODE_DEBUG_APP, Activity.RESULT_OK, data);
+    }
+
     @Test
     public void searchIndex_shouldIndexFromPrefXml() {
         final List<SearchIndexableResource> index =
@@ -105,6 +149,18 @@ public class DevelopmentSettingsDashboardFragmentTest {
         assertThat(index.get(0).xmlResId).isEqualTo(R.xml.development_settings);
     }
 
+    @Test
+    public void lazyPreferenceControllers_descriptorKeyMatchesControllerKey() {
+        final List<PreferenceControllerDescriptor> descriptors =
+                ReflectionHelpers.callStaticMethod(DevelopmentSettingsDashboardFragment.class,
+                        "buildLazyPreferenceControllers");
+
+        for (PreferenceControllerDescriptor descriptor : descriptors) {
+            assertThat(descriptor.createController(mContext).getPreferenceKey())
+                    .isEqualTo(descriptor.getPreferenceKey());
+        }
+    }
+
     @Test
     @Ignore
     public void searchIndex_pageDisabledBySetting_shouldAddAllKeysToNonIndexable() {
@@ -290,6 +346,16 @@ public class DevelopmentSettingsDashboardFragmentTest {
         assertThat(mDashboard.shouldSkipForInitialSUW()).isTrue();
     }
 
+    private List<AbstractPreferenceController> buildEagerPreferenceControllers() {
+        return ReflectionHelpers.callStaticMethod(DevelopmentSettingsDashboardFragment.class,
+                "buildPreferenceControllers",
+                ClassParameter.from(Context.class, mContext),
+                ClassParameter.from(Activity.class, null),
+                ClassParameter.from(Lifecycle.class, null),
+                ClassParameter.from(DevelopmentSettingsDashboardFragment.class, null),
+                ClassParameter.from(BluetoothA2dpConfigStore.class, null));
+    }
+
     @Implements(EnableDevelopmentSettingWarningDialog.class)
     public static class ShadowEnableDevelopmentSettingWarningDialog {
 
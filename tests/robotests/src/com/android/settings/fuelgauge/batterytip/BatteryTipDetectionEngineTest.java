@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batterytip;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.content.Intent;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.android.settings.fuelgauge.BatteryBroadcastReceiver;
+import com.android.settings.fuelgauge.batterytip.BatteryTipDetectionEngine.Detection;
+import com.android.settings.fuelgauge.batterytip.tips.BatteryDefenderTip;
+import com.android.settings.fuelgauge.batterytip.tips.BatteryTip;
+import com.android.settings.fuelgauge.batterytip.tips.HighUsageTip;
+import com.android.settings.fuelgauge.batterytip.tips.IncompatibleChargerTip;
+import com.android.settings.fuelgauge.batterytip.tips.LowBatteryTip;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowApplication;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricTestRunner.class)
+public final class BatteryTipDetectionEngineTest {
+    private static final long DEADLINE_MS = 5000L;
+    private static final long SHORT_DEADLINE_MS = 100L;
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    private final CountDownLatch mReleaseSlowDetectors = new CountDownLatch(1);
+
+    private ExecutorService mExecutor;
+    private BatteryTipDetectionEngine mEngine;
+
+    @Before
+    public void setUp() {
+        mExecutor = Executors.newFixedThreadPool(BatteryTipDetectionEngine.POOL_SIZE);
+        mEngine = new BatteryTipDetectionEngine(mExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        mReleaseSlowDetectors.countDown();
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void detect_tipsCompletedOutOfOrder_sortsTipsInDisplayOrder() {
+        final CountDownLatch lowBatteryDetected = new CountDownLatch(1);
+        final BatteryTip highUsageTip = new HighUsageTip(0L, new ArrayList<>());
+        final BatteryTip defenderTip = new BatteryDefenderTip(BatteryTip.StateType.NEW, false);
+        final BatteryTip lowBatteryTip = new LowBatteryTip(BatteryTip.StateType.NEW, false);
+
+        final BatteryTipDetectionEngine.Result result =
+                mEngine.detect(
+                        Arrays.asList(
+                                Detection.of(
+                                        "high_usage",
+                                        () -> {
+                                            await(lowBatteryDetected);
+                                            return highUsageTip;
+                                        },
+                                        DEADLINE_MS,
+                                        /* stable= */ false),
+                                Detection.of(
+                                        "defender",
+                                        () -> defenderTip,
+                                        DEADLINE_MS,
+                                        /* stable= */ false),
+                                Detection.of(
+                                        "low_battery",
+                                        () -> {
+                                            lowBatteryDetected.countDown();
+                                            return lowBatteryTip;
+                                        },
+                                        DEADLINE_MS,
+                                        /* stable= */ false)));
+
+        assertThat(result.getTips())
+                .containsExactly(lowBatteryTip, defenderTip, highUsageTip)
+                .inOrder();
+        assertThat(result.getTimedOutDetectors()).isEmpty();
+    }
+
+    @Test
+    public void detect_tipsOfSameType_keepsDetectionOrder() {
+        final CountDownLatch secondDetected = new CountDownLatch(1);
+        final BatteryTip firstTip = new IncompatibleChargerTip(BatteryTip.StateType.INVISIBLE);
+        final BatteryTip secondTip = new IncompatibleChargerTip(BatteryTip.StateType.NEW);
+
+        final List<BatteryTip> tips =
+                mEngine.detect(
+                                Arrays.asList(
+                                        Detection.of(
+                                                "first",
+                                                () -> {
+                                                    await(secondDetected);
+                                                    return firstTip;
+                                                },
+                                                DEADLINE_MS,
+                                                /* stable= */ false),
+                                        Detection.of(
+                                                "second",
+                                                () -> {
+                                                    secondDetected.countDown();
+                                                    return secondTip;
+                                                },
+                                                DEADLINE_MS,
+                                                /* stable= */ false)))
+                        .getTips();
+
+        assertThat(tips).containsExactly(firstTip, secondTip).inOrder();
+    }
+
+    @Test
+    public void detect_detectorOverDeadline_returnsPartialResultAndMarksDetector() {
+        final BatteryTip defenderTip = new BatteryDefenderTip(BatteryTip.StateType.NEW, false);
+
+        final BatteryTipDetectionEngine.Result result =
+                mEngine.detect(
+                        Arrays.asList(
+                                Detection.of(
+                                        "slow",
+                                        () -> {
+                                            await(mReleaseSlowDetectors);
+                                            return new HighUsageTip(0L, new ArrayList<>());
+                                        },
+                                        SHORT_DEADLINE_MS,
+                                        /* stable= */ false),
+                                Detection.of(
+                                        "defender",
+                                        () -> defenderTip,
+                                        SHORT_DEADLINE_MS,
+                                        /* stable= */ false)));
+
+        assertThat(result.getTips()).containsExactly(defenderTip);
+        assertThat(result.getTimedOutDetectors()).containsExactly("slow");
+    }
+
+    @Test
+    public void detect_failingDetector_leavesOutItsTips() {
+        final BatteryTip defenderTip = new BatteryDefenderTip(BatteryTip.StateType.NEW, false);
+
+        final BatteryTipDetectionEngine.Result result =
+                mEngine.detect(
+                        Arrays.asList(
+                                Detection.ofAll(
+                                        "failing",
+                                        () -> {
+                                            throw new IllegalStateException();
+                                        },
+                                        DEADLINE_MS),
+                                Detection.of(
+                                        "defender",
+                                        () -> defenderTip,
+                                        DEADLINE_MS,
+                                        /* stable= */ false)));
+
+        assertThat(result.getTips()).containsExactly(defenderTip);
+        assertThat(result.getTimedOutDetectors()).isEmpty();
+    }
+
+    @Test
+    public void detect_stableDetector_detectsOnceUntilInvalidated() {
+        final AtomicInteger detectCount = new AtomicInteger();
+        final List<Detection> detections =
+                Collections.singletonList(
+                        Detection.of(
+                                "charger",
+                                () -> {
+                                    detectCount.incrementAndGet();
+                                    return new IncompatibleChargerTip(BatteryTip.StateType.NEW);
+                                },
+                                DEADLINE_MS,
+                                /* stable= */ true));
+
+        final BatteryTip tip = mEngine.detect(detections).getTips().get(0);
+        final BatteryTip cachedTip = mEngine.detect(detections).getTips().get(0);
+        assertThat(cachedTip.getType()).isEqualTo(tip.getType());
+        assertThat(detectCount.get()).isEqualTo(1);
+
+        mEngine.invalidateStableTips();
+        mEngine.detect(detections);
+
+        assertThat(detectCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void detect_stableDetector_returnsCopiesOfCachedTips() {
+        final List<Detection> detections =
+                Collections.singletonList(
+                        Detection.of(
+                                "charger",
+                                () -> new IncompatibleChargerTip(BatteryTip.StateType.NEW),
+                                DEADLINE_MS,
+                                /* stable= */ true));
+
+        final BatteryTip tip = mEngine.detect(detections).getTips().get(0);
+        tip.updateState(new IncompatibleChargerTip(BatteryTip.StateType.HANDLED));
+        final BatteryTip cachedTip = mEngine.detect(detections).getTips().get(0);
+
+        assertThat(cachedTip).isNotSameInstanceAs(tip);
+        assertThat(cachedTip.getState()).isEqualTo(BatteryTip.StateType.NEW);
+        assertThat(mEngine.detect(detections).getTips().get(0)).isNotSameInstanceAs(cachedTip);
+    }
+
+    @Test
+    public void detect_stableDetector_monitorsBatteryUntilInvalidated() {
+        final Application application = ApplicationProvider.getApplicationContext();
+        final BatteryTipDetectionEngine engine =
+                new BatteryTipDetectionEngine(mExecutor, application);
+        final Detection detection =
+                Detection.of(
+                        "charger",
+                        () -> new IncompatibleChargerTip(BatteryTip.StateType.NEW),
+                        DEADLINE_MS,
+                        /* stable= */ true);
+        assertThat(getBatteryReceiverCount(application)).isEqualTo(0);
+
+        engine.detect(Collections.singletonList(detection));
+        assertThat(getBatteryReceiverCount(application)).isEqualTo(1);
+
+        engine.invalidateStableTips();
+        assertThat(getBatteryReceiverCount(application)).isEqualTo(0);
+    }
+
+    @Test
+    public void detect_stableDetectorIdle_stopsMonitoringBattery() {
+        final Application application = ApplicationProvider.getApplicationContext();
+        final BatteryTipDetectionEngine engine =
+                new BatteryTipDetectionEngine(mExecutor, application);
+        engine.detect(
+                Collections.singletonList(
+                        Detection.of(
+                                "charger",
+                                () -> new IncompatibleChargerTip(BatteryTip.StateType.NEW),
+                                DEADLINE_MS,
+                                /* stable= */ true)));
+
+        ShadowLooper.idleMainLooper(
+                BatteryTipDetectionEngine.STABLE_TIPS_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+        assertThat(getBatteryReceiverCount(application)).isEqualTo(0);
+    }
+
+    @Test
+    public void detect_notStableDetector_detectsEachTime() {
+        final AtomicInteger detectCount = new AtomicInteger();
+        final List<Detection> detections =
+                Collections.singletonList(
+                        Detection.of(
+                                "charger",
+                                () -> {
+                                    detectCount.incrementAndGet();
+                                    return new IncompatibleChargerTip(BatteryTip.StateType.NEW);
+                                },
+                                DEADLINE_MS,
+                                /* stable= */ false));
+
+        mEngine.detect(detections);
+        mEngine.detect(detections);
+
+        assertThat(detectCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void detect_stableDetectorOverDeadline_isNotCached() {
+        final AtomicInteger detectCount = new AtomicInteger();
+        final List<Detection> detections =
+                Collections.singletonList(
+                        Detection.of(
+                                "slow",
+                                () -> {
+                                    detectCount.incrementAndGet();
+                                    await(mReleaseSlowDetectors);
+                                    return new IncompatibleChargerTip(BatteryTip.StateType.NEW);
+                                },
+                                SHORT_DEADLINE_MS,
+                                /* stable= */ true));
+
+        mEngine.detect(detections);
+        mEngine.detect(detections);
+
+        assertThat(detectCount.get()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int getBatteryReceiverCount(Application application) {
+        int count = 0;
+        for (ShadowApplication.Wrapper wrapper :
+                shadowOf(application).getRegisteredReceivers()) {
+            if (wrapper.getBroadcastReceiver() instanceof BatteryBroadcastReceiver
+                    && wrapper.getIntentFilter().hasAction(Intent.ACTION_BATTERY_CHANGED)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
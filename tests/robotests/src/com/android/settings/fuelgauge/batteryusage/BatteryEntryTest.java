@@ -18,11 +18,15 @@ package com.android.settings.fuelgauge.batteryusage;
 import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.content.Context;
@@ -31,6 +35,7 @@ import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
 import android.os.BatteryConsumer;
 import android.os.Process;
+import android.os.UserHandle;
 import android.os.UidBatteryConsumer;
 import android.os.UserBatteryConsumer;
 import android.os.UserManager;
@@ -51,6 +56,9 @@ import org.mockito.junit.MockitoRule;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @RunWith(RobolectricTestRunner.class)
 public class BatteryEntryTest {
 
@@ -166,6 +174,64 @@ public class BatteryEntryTest {
         assertThat(entry.getLabel()).isEqualTo(LABEL_PREFIX + HIGH_DRAIN_PACKAGE);
     }
 
+    @Test
+    public void loadNameAndIcon_sameUid_resolvesUidOnce() {
+        BatteryEntry.clearUidCache();
+        when(mMockPackageManager.getPackagesForUid(APP_UID))
+                .thenReturn(new String[] {APP_DEFAULT_PACKAGE_NAME});
+
+        final NameAndIcon first =
+                BatteryEntry.loadNameAndIcon(
+                        mMockContext, APP_UID, null, APP_DEFAULT_PACKAGE_NAME, null, null);
+        final NameAndIcon second =
+                BatteryEntry.loadNameAndIcon(
+                        mMockContext, APP_UID, null, APP_DEFAULT_PACKAGE_NAME, null, null);
+
+        verify(mMockPackageManager).getPackagesForUid(APP_UID);
+        assertThat(second.mName).isEqualTo(first.mName);
+        assertThat(second.mPackageName).isEqualTo(first.mPackageName);
+    }
+
+    @Test
+    public void loadNameAndIcon_afterClearUidCache_resolvesUidAgain() {
+        BatteryEntry.clearUidCache();
+        when(mMockPackageManager.getPackagesForUid(APP_UID))
+                .thenReturn(new String[] {APP_DEFAULT_PACKAGE_NAME});
+
+        BatteryEntry.loadNameAndIcon(
+                mMockContext, APP_UID, null, APP_DEFAULT_PACKAGE_NAME, null, null);
+        BatteryEntry.clearUidCache();
+        BatteryEntry.loadNameAndIcon(
+                mMockContext, APP_UID, null, APP_DEFAULT_PACKAGE_NAME, null, null);
+
+        verify(mMockPackageManager, times(2)).getPackagesForUid(APP_UID);
+    }
+
+    @Test
+    public void preloadNameAndIcons_resolvesPackagesFromInstalledApps() {
+        BatteryEntry.clearUidCache();
+        final List<Integer> uids = new ArrayList<>();
+        final List<ApplicationInfo> apps = new ArrayList<>();
+        for (int i = 0; i < BatteryEntry.PRELOAD_MIN_UIDS; i++) {
+            final ApplicationInfo app = new ApplicationInfo();
+            app.packageName = APP_DEFAULT_PACKAGE_NAME + i;
+            app.uid = APP_UID + i;
+            apps.add(app);
+            uids.add(app.uid);
+        }
+        when(mMockPackageManager.getInstalledApplicationsAsUser(
+                        0 /* no flags */, UserHandle.getUserId(APP_UID)))
+                .thenReturn(apps);
+
+        BatteryEntry.preloadNameAndIcons(mMockContext, uids);
+        final NameAndIcon nameAndIcon =
+                BatteryEntry.loadNameAndIcon(
+                        mMockContext, APP_UID + 1, null, null, null, null);
+
+        verify(mMockPackageManager, never()).getPackagesForUid(anyInt());
+        assertThat(nameAndIcon.mName).isEqualTo(APP_DEFAULT_PACKAGE_NAME + 1);
+    }
+
     @Test
     public void batteryEntryForAOD_containCorrectInfo() {
         final BatteryEntry entry =
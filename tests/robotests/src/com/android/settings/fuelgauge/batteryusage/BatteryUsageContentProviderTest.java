@@ -450,6 +450,62 @@ public final class BatteryUsageContentProviderTest {
         assertThat(cursor2.getCount()).isEqualTo(0);
     }
 
+    @Test
+    public void bulkInsert_appUsageEvents_insertsAllRows() {
+        mProvider.onCreate();
+        final ContentValues[] valuesArray = new ContentValues[3];
+        for (int i = 0; i < valuesArray.length; i++) {
+            valuesArray[i] = new ContentValues();
+            valuesArray[i].put(AppUsageEventEntity.KEY_UID, 101L + i);
+            valuesArray[i].put(AppUsageEventEntity.KEY_USER_ID, USER_ID1);
+            valuesArray[i].put(AppUsageEventEntity.KEY_TIMESTAMP, 10001L + i);
+            valuesArray[i].put(AppUsageEventEntity.KEY_APP_USAGE_EVENT_TYPE, 1);
+            valuesArray[i].put(AppUsageEventEntity.KEY_PACKAGE_NAME, PACKAGE_NAME1);
+        }
+
+        final int count = mProvider.bulkInsert(DatabaseUtils.APP_USAGE_EVENT_URI, valuesArray);
+
+        assertThat(count).isEqualTo(3);
+        final List<AppUsageEventEntity> entities =
+                BatteryStateDatabase.getInstance(mContext).appUsageEventDao().getAllAfter(0);
+        assertThat(entities).hasSize(3);
+        assertThat(entities.get(0).uid).isEqualTo(103L);
+        assertThat(entities.get(2).uid).isEqualTo(101L);
+    }
+
+    @Test
+    public void bulkInsert_batteryUsageSlots_insertsAllRows() {
+        mProvider.onCreate();
+        final ContentValues values1 = new ContentValues();
+        values1.put(BatteryUsageSlotEntity.KEY_TIMESTAMP, 10001L);
+        values1.put(BatteryUsageSlotEntity.KEY_BATTERY_USAGE_SLOT, "SLOT1");
+        final ContentValues values2 = new ContentValues();
+        values2.put(BatteryUsageSlotEntity.KEY_TIMESTAMP, 10002L);
+        values2.put(BatteryUsageSlotEntity.KEY_BATTERY_USAGE_SLOT, "SLOT2");
+
+        final int count =
+                mProvider.bulkInsert(
+                        DatabaseUtils.BATTERY_USAGE_SLOT_URI,
+                        new ContentValues[] {values1, values2});
+
+        assertThat(count).isEqualTo(2);
+        final List<BatteryUsageSlotEntity> entities =
+                BatteryStateDatabase.getInstance(mContext).batteryUsageSlotDao().getAll();
+        assertThat(entities).hasSize(2);
+        assertThat(entities.get(0).batteryUsageSlot).isEqualTo("SLOT1");
+        assertThat(entities.get(1).batteryUsageSlot).isEqualTo("SLOT2");
+    }
+
+    @Test
+    public void bulkInsert_incorrectContentUri_throwsIllegalArgumentException() {
+        mProvider.onCreate();
+        final Uri uri = DatabaseUtils.BATTERY_CONTENT_URI.buildUpon().appendPath("0").build();
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> mProvider.bulkInsert(uri, new ContentValues[] {new ContentValues()}));
+    }
+
     @Test
     public void delete_throwsUnsupportedOperationException() {
         assertThrows(
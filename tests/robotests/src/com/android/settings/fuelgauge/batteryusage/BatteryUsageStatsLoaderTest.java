@@ -19,6 +19,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.content.Context;
@@ -81,4 +82,14 @@ public class BatteryUsageStatsLoaderTest {
         assertThat(queryFlags & BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_HISTORY)
                 .isNotEqualTo(0);
     }
+
+    @Test
+    public void onDiscardResult_releasesResult() throws Exception {
+        BatteryUsageStatsLoader loader =
+                new BatteryUsageStatsLoader(mContext, /* includeBatteryHistory */ false);
+
+        loader.onDiscardResult(mBatteryUsageStats);
+
+        verify(mBatteryUsageStats).close();
+    }
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@RunWith(RobolectricTestRunner.class)
+public final class BatteryUsageStatsProviderTest {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Mock private BatteryStatsManager mBatteryStatsManager;
+    @Mock private BatteryUsageStats mBatteryUsageStats;
+    @Mock private BatteryUsageStats mOtherBatteryUsageStats;
+
+    private final List<BatteryUsageStats> mCopies = new ArrayList<>();
+    private BatteryUsageStatsProvider mProvider;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mProvider =
+                new BatteryUsageStatsProvider(
+                        stats -> {
+                            final BatteryUsageStats copy = mock(BatteryUsageStats.class);
+                            mCopies.add(copy);
+                            return copy;
+                        });
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenReturn(mBatteryUsageStats, mOtherBatteryUsageStats);
+    }
+
+    @Test
+    public void acquire_withinFreshnessWindow_fetchesOnce() {
+        final BatteryUsageStats first = acquire(/* includeBatteryHistory= */ false);
+        final BatteryUsageStats second = acquire(/* includeBatteryHistory= */ false);
+
+        assertThat(first).isSameInstanceAs(mBatteryUsageStats);
+        assertThat(second).isSameInstanceAs(mBatteryUsageStats);
+        assertThat(mProvider.getHolderCount(mBatteryUsageStats)).isEqualTo(2);
+        verify(mBatteryStatsManager).getBatteryUsageStats(any(BatteryUsageStatsQuery.class));
+    }
+
+    @Test
+    public void acquire_withAndWithoutHistory_fetchesEachQuery() {
+        final ArgumentCaptor<BatteryUsageStatsQuery> queryCaptor =
+                ArgumentCaptor.forClass(BatteryUsageStatsQuery.class);
+
+        acquire(/* includeBatteryHistory= */ false);
+        acquire(/* includeBatteryHistory= */ true);
+
+        verify(mBatteryStatsManager, times(2)).getBatteryUsageStats(queryCaptor.capture());
+        final int historyFlag = BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_HISTORY;
+        assertThat(queryCaptor.getAllValues().get(0).getFlags() & historyFlag).isEqualTo(0);
+        assertThat(queryCaptor.getAllValues().get(1).getFlags() & historyFlag).isNotEqualTo(0);
+    }
+
+    @Test
+    public void acquire_withHistory_fetchesOnceAndCopiesPerHolder() {
+        final BatteryUsageStats first = acquire(/* includeBatteryHistory= */ true);
+        final BatteryUsageStats second = acquire(/* includeBatteryHistory= */ true);
+
+        assertThat(mCopies).containsExactly(first, second).inOrder();
+        assertThat(mProvider.getHolderCount(mBatteryUsageStats)).isEqualTo(0);
+        verify(mBatteryStatsManager).getBatteryUsageStats(any(BatteryUsageStatsQuery.class));
+
+        mProvider.release(first);
+
+        verify(first).close();
+        verify(second, never()).close();
+        verify(mBatteryUsageStats, never()).close();
+    }
+
+    @Test
+    public void acquire_withHistory_closesSnapshotOnceExpired() {
+        mProvider.release(acquire(/* includeBatteryHistory= */ true));
+
+        ShadowLooper.idleMainLooper(
+                BatteryUsageStatsProvider.DEFAULT_FRESHNESS_MS, TimeUnit.MILLISECONDS);
+
+        verify(mBatteryUsageStats).close();
+    }
+
+    @Test
+    public void acquire_lessDataThanFreshSnapshot_sharesSnapshot() {
+        mProvider.acquire(
+                mBatteryStatsManager,
+                /* includeBatteryHistory= */ false,
+                /* includeProcessStateData= */ true);
+
+        final BatteryUsageStats stats =
+                mProvider.acquire(
+                        mBatteryStatsManager,
+                        /* includeBatteryHistory= */ false,
+                        /* includeProcessStateData= */ false);
+
+        assertThat(stats).isSameInstanceAs(mBatteryUsageStats);
+        verify(mBatteryStatsManager).getBatteryUsageStats(any(BatteryUsageStatsQuery.class));
+    }
+
+    @Test
+    public void acquire_moreDataThanFreshSnapshot_fetchesAgain() {
+        final ArgumentCaptor<BatteryUsageStatsQuery> queryCaptor =
+                ArgumentCaptor.forClass(BatteryUsageStatsQuery.class);
+        mProvider.acquire(
+                mBatteryStatsManager,
+                /* includeBatteryHistory= */ false,
+                /* includeProcessStateData= */ false);
+
+        final BatteryUsageStats stats =
+                mProvider.acquire(
+                        mBatteryStatsManager,
+                        /* includeBatteryHistory= */ false,
+                        /* includeProcessStateData= */ true);
+
+        assertThat(stats).isSameInstanceAs(mOtherBatteryUsageStats);
+        verify(mBatteryStatsManager, times(2)).getBatteryUsageStats(queryCaptor.capture());
+        final int processStateFlag =
+                BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_PROCESS_STATE_DATA;
+        assertThat(queryCaptor.getAllValues().get(0).getFlags() & processStateFlag).isEqualTo(0);
+        assertThat(queryCaptor.getAllValues().get(1).getFlags() & processStateFlag)
+                .isNotEqualTo(0);
+    }
+
+    @Test
+    public void acquire_afterFreshnessWindow_fetchesAgain() {
+        acquire(/* includeBatteryHistory= */ false);
+        ShadowLooper.idleMainLooper(
+                BatteryUsageStatsProvider.DEFAULT_FRESHNESS_MS, TimeUnit.MILLISECONDS);
+
+        final BatteryUsageStats stats = acquire(/* includeBatteryHistory= */ false);
+
+        assertThat(stats).isSameInstanceAs(mOtherBatteryUsageStats);
+        verify(mBatteryStatsManager, times(2))
+                .getBatteryUsageStats(any(BatteryUsageStatsQuery.class));
+    }
+
+    @Test
+    public void acquire_concurrentRequests_coalescesIntoOneFetch() throws Exception {
+        final CountDownLatch fetchStarted = new CountDownLatch(1);
+        final CountDownLatch fetchUnblocked = new CountDownLatch(1);
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenAnswer(
+                        invocation -> {
+                            fetchStarted.countDown();
+                            fetchUnblocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                            return mBatteryUsageStats;
+                        });
+        final AtomicReference<BatteryUsageStats> firstResult = new AtomicReference<>();
+        final AtomicReference<BatteryUsageStats> secondResult = new AtomicReference<>();
+        final Thread first =
+                new Thread(() -> firstResult.set(acquire(/* includeBatteryHistory= */ false)));
+        final Thread second =
+                new Thread(() -> secondResult.set(acquire(/* includeBatteryHistory= */ false)));
+
+        first.start();
+        assertThat(fetchStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        second.start();
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (mProvider.getWaiterCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        fetchUnblocked.countDown();
+        first.join();
+        second.join();
+
+        assertThat(firstResult.get()).isSameInstanceAs(mBatteryUsageStats);
+        assertThat(secondResult.get()).isSameInstanceAs(mBatteryUsageStats);
+        assertThat(mProvider.getHolderCount(mBatteryUsageStats)).isEqualTo(2);
+        verify(mBatteryStatsManager).getBatteryUsageStats(any(BatteryUsageStatsQuery.class));
+    }
+
+    @Test
+    public void release_notLastHolder_doesNotClose() throws Exception {
+        acquire(/* includeBatteryHistory= */ false);
+        acquire(/* includeBatteryHistory= */ false);
+        ShadowLooper.idleMainLooper(
+                BatteryUsageStatsProvider.DEFAULT_FRESHNESS_MS, TimeUnit.MILLISECONDS);
+
+        mProvider.release(mBatteryUsageStats);
+
+        verify(mBatteryUsageStats, never()).close();
+    }
+
+    @Test
+    public void release_lastHolderWhileFresh_closesOnceExpired() throws Exception {
+        acquire(/* includeBatteryHistory= */ false);
+
+        mProvider.release(mBatteryUsageStats);
+        verify(mBatteryUsageStats, never()).close();
+        ShadowLooper.idleMainLooper(
+                BatteryUsageStatsProvider.DEFAULT_FRESHNESS_MS, TimeUnit.MILLISECONDS);
+
+        verify(mBatteryUsageStats).close();
+    }
+
+    @Test
+    public void release_lastHolderAfterReplaced_closes() throws Exception {
+        mProvider.setFreshnessMs(0);
+        acquire(/* includeBatteryHistory= */ false);
+        acquire(/* includeBatteryHistory= */ false);
+        verify(mBatteryUsageStats, never()).close();
+
+        mProvider.release(mBatteryUsageStats);
+
+        verify(mBatteryUsageStats).close();
+        verify(mOtherBatteryUsageStats, never()).close();
+    }
+
+    @Test
+    public void release_notAcquiredStats_closes() throws Exception {
+        mProvider.release(mOtherBatteryUsageStats);
+
+        verify(mOtherBatteryUsageStats).close();
+    }
+
+    @Test
+    public void acquire_fetchFails_throwsAndFetchesAgainNextTime() {
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenThrow(new IllegalStateException())
+                .thenReturn(mBatteryUsageStats);
+
+        assertThrows(
+                IllegalStateException.class, () -> acquire(/* includeBatteryHistory= */ false));
+
+        assertThat(acquire(/* includeBatteryHistory= */ false))
+                .isSameInstanceAs(mBatteryUsageStats);
+    }
+
+    private BatteryUsageStats acquire(boolean includeBatteryHistory) {
+        return mProvider.acquire(
+                mBatteryStatsManager, includeBatteryHistory, /* includeProcessStateData= */ true);
+    }
+}
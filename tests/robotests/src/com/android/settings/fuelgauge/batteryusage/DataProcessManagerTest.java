@@ -36,6 +36,8 @@ import android.os.BatteryManager;
 import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
 import android.os.BatteryUsageStatsQuery;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.RemoteException;
 import android.os.UserManager;
@@ -91,6 +93,7 @@ public final class DataProcessManagerTest {
     public void setUp() {
         mExecutorService = new PausedExecutorService();
         ShadowPausedAsyncTask.overrideExecutor(mExecutorService);
+        DataProcessManager.sTestExecutor = mExecutorService;
         mContext = spy(ApplicationProvider.getApplicationContext());
         DataProcessor.sTestSystemAppsPackageNames = Set.of();
         DataProcessor.sUsageStatsManager = mUsageStatsManager;
@@ -124,6 +127,7 @@ public final class DataProcessManagerTest {
     public void cleanUp() {
         DatabaseUtils.sFakeSupplier = null;
         DataProcessManager.sFakeBatteryHistoryMap = null;
+        DataProcessManager.sTestExecutor = null;
     }
 
     @Test
@@ -344,6 +348,110 @@ public final class DataProcessManagerTest {
         assertThat(mDataProcessManager.getShowScreenOnTime()).isFalse();
     }
 
+    @Test
+    public void start_runsJoinStagesAfterLoadStages() {
+        DatabaseUtils.sFakeSupplier = () -> null;
+        doReturn(true).when(mUserManager).isUserUnlocked(anyInt());
+        final List<String> completedStages = new ArrayList<>();
+        mDataProcessManager.setStageListener(
+                (stageName, elapsedMs) -> completedStages.add(stageName));
+
+        mDataProcessManager.start();
+        mExecutorService.runAll();
+
+        assertThat(completedStages)
+                .containsExactly(
+                        DataProcessManager.STAGE_CURRENT_BATTERY_HISTORY,
+                        DataProcessManager.STAGE_CURRENT_APP_USAGE,
+                        DataProcessManager.STAGE_BATTERY_USAGE_SLOTS,
+                        DataProcessManager.STAGE_DATABASE_APP_USAGE,
+                        DataProcessManager.STAGE_POWER_CONNECTION_EVENTS,
+                        DataProcessManager.STAGE_APP_USAGE_PERIODS,
+                        DataProcessManager.STAGE_BATTERY_DIFF_DATA);
+        assertThat(completedStages.indexOf(DataProcessManager.STAGE_APP_USAGE_PERIODS))
+                .isGreaterThan(
+                        completedStages.indexOf(DataProcessManager.STAGE_DATABASE_APP_USAGE));
+        assertThat(completedStages.get(completedStages.size() - 1))
+                .isEqualTo(DataProcessManager.STAGE_BATTERY_DIFF_DATA);
+    }
+
+    @Test
+    public void start_fromPeriodJob_skipsServiceStages() {
+        DatabaseUtils.sFakeSupplier = () -> null;
+        final List<String> completedStages = new ArrayList<>();
+        final DataProcessManager dataProcessManager =
+                new DataProcessManager(
+                        mContext,
+                        /* handler= */ null,
+                        mUserIdsSeries,
+                        /* isFromPeriodJob= */ true,
+                        /* rawStartTimestamp= */ 0L,
+                        /* lastFullChargeTimestamp= */ 0L,
+                        /* callbackFunction= */ null,
+                        /* hourlyBatteryLevelsPerDay= */ new ArrayList<>(),
+                        /* batteryHistoryMap= */ new HashMap<>());
+        dataProcessManager.setStageListener(
+                (stageName, elapsedMs) -> completedStages.add(stageName));
+
+        dataProcessManager.start();
+        mExecutorService.runAll();
+
+        assertThat(completedStages)
+                .containsExactly(
+                        DataProcessManager.STAGE_DATABASE_APP_USAGE,
+                        DataProcessManager.STAGE_POWER_CONNECTION_EVENTS,
+                        DataProcessManager.STAGE_APP_USAGE_PERIODS,
+                        DataProcessManager.STAGE_BATTERY_DIFF_DATA);
+        assertThat(dataProcessManager.getIsCurrentBatteryHistoryLoaded()).isTrue();
+        assertThat(dataProcessManager.getIsCurrentAppUsageLoaded()).isTrue();
+    }
+
+    @Test
+    public void start_noLevelData_onlyLoadsFromService() {
+        final List<String> completedStages = new ArrayList<>();
+        final DataProcessManager dataProcessManager =
+                new DataProcessManager(
+                        mContext,
+                        /* handler= */ null,
+                        mUserIdsSeries,
+                        /* callbackFunction= */ null);
+        dataProcessManager.setStageListener(
+                (stageName, elapsedMs) -> completedStages.add(stageName));
+
+        dataProcessManager.start();
+        mExecutorService.runAll();
+
+        assertThat(completedStages).containsExactly(DataProcessManager.STAGE_SERVICE_ONLY);
+    }
+
+    @Test
+    public void start_stageFails_appliesCallbackWithEmptyData() {
+        DatabaseUtils.sFakeSupplier =
+                () -> {
+                    throw new IllegalStateException("database unavailable");
+                };
+        doReturn(true).when(mUserManager).isUserUnlocked(anyInt());
+        final List<Map<Long, BatteryDiffData>> results = new ArrayList<>();
+        final DataProcessManager dataProcessManager =
+                new DataProcessManager(
+                        mContext,
+                        new Handler(Looper.getMainLooper()),
+                        mUserIdsSeries,
+                        /* isFromPeriodJob= */ false,
+                        /* rawStartTimestamp= */ 0L,
+                        /* lastFullChargeTimestamp= */ 0L,
+                        results::add,
+                        /* hourlyBatteryLevelsPerDay= */ new ArrayList<>(),
+                        /* batteryHistoryMap= */ new HashMap<>());
+
+        dataProcessManager.start();
+        mExecutorService.runAll();
+        ShadowLooper.idleMainLooper();
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0)).isEmpty();
+    }
+
     @Test
     public void getBatteryLevelData_emptyHistoryMap_returnNull() {
         assertThat(
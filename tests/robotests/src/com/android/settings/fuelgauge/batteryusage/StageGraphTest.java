@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RunWith(RobolectricTestRunner.class)
+public final class StageGraphTest {
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    private final List<String> mCompletedStages = new CopyOnWriteArrayList<>();
+
+    private ExecutorService mExecutor;
+    private StageGraph mStageGraph;
+
+    @Before
+    public void setUp() {
+        mExecutor = Executors.newFixedThreadPool(2);
+        mStageGraph =
+                new StageGraph(
+                        mExecutor, (stageName, elapsedMs) -> mCompletedStages.add(stageName));
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void addStage_independentStages_runInParallel() {
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        final CountDownLatch secondStarted = new CountDownLatch(1);
+
+        // Each fake loader only completes if the other one runs at the same time.
+        final CompletableFuture<Boolean> first =
+                mStageGraph.addStage(
+                        "first",
+                        () -> {
+                            firstStarted.countDown();
+                            return await(secondStarted);
+                        });
+        final CompletableFuture<Boolean> second =
+                mStageGraph.addStage(
+                        "second",
+                        () -> {
+                            secondStarted.countDown();
+                            return await(firstStarted);
+                        });
+
+        assertThat(first.join()).isTrue();
+        assertThat(second.join()).isTrue();
+    }
+
+    @Test
+    public void addStage_withDependencies_runsOnceDependenciesCompleted() {
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final CompletableFuture<Integer> slowLoad =
+                mStageGraph.addStage(
+                        "slowLoad",
+                        () -> {
+                            await(releaseLoad);
+                            return 2;
+                        });
+        final CompletableFuture<Integer> fastLoad = mStageGraph.addStage("fastLoad", () -> 3);
+
+        final CompletableFuture<Integer> join =
+                mStageGraph.addStage(
+                        "join", () -> slowLoad.join() * fastLoad.join(), slowLoad, fastLoad);
+        fastLoad.join();
+        assertThat(join.isDone()).isFalse();
+        releaseLoad.countDown();
+
+        assertThat(join.join()).isEqualTo(6);
+        assertThat(mCompletedStages).containsExactly("fastLoad", "slowLoad", "join").inOrder();
+    }
+
+    @Test
+    public void addStage_dependencyFailed_failsWithoutRunning() {
+        final AtomicBoolean joinRun = new AtomicBoolean();
+        final CompletableFuture<Integer> failedLoad =
+                mStageGraph.addStage(
+                        "failedLoad",
+                        () -> {
+                            throw new IllegalStateException();
+                        });
+
+        final CompletableFuture<Integer> join =
+                mStageGraph.addStage(
+                        "join",
+                        () -> {
+                            joinRun.set(true);
+                            return failedLoad.join();
+                        },
+                        failedLoad);
+
+        final CompletionException exception = assertThrows(CompletionException.class, join::join);
+        assertThat(exception).hasCauseThat().isInstanceOf(IllegalStateException.class);
+        assertThat(joinRun.get()).isFalse();
+        assertThat(mCompletedStages).isEmpty();
+    }
+
+    @Test
+    public void skipStage_completesWithoutRunning() {
+        final CompletableFuture<Integer> skipped = StageGraph.skipStage(1);
+
+        final CompletableFuture<Integer> join =
+                mStageGraph.addStage("join", () -> skipped.join() + 1, skipped);
+
+        assertThat(join.join()).isEqualTo(2);
+        assertThat(mCompletedStages).containsExactly("join");
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
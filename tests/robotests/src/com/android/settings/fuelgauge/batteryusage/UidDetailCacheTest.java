@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.android.settings.fuelgauge.batteryusage.BatteryEntry.UidToDetail;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+@RunWith(RobolectricTestRunner.class)
+public final class UidDetailCacheTest {
+    private static final int MAX_SIZE = 2;
+    private static final int UID_1 = 10001;
+    private static final int UID_2 = 10002;
+    private static final int UID_3 = 10003;
+    private static final String PACKAGE_1 = "com.example.app1";
+    private static final String PACKAGE_2 = "com.example.app2";
+
+    private Context mContext;
+    private UidDetailCache mCache;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mCache = new UidDetailCache(mContext, MAX_SIZE);
+        mCache.put(UID_1, createDetail(PACKAGE_1));
+        mCache.put(UID_2, createDetail(PACKAGE_2));
+    }
+
+    @Test
+    public void put_full_evictsLeastRecentlyUsedUid() {
+        mCache.get(UID_1);
+
+        mCache.put(UID_3, createDetail("com.example.app3"));
+
+        assertThat(mCache.size()).isEqualTo(MAX_SIZE);
+        assertThat(mCache.get(UID_1)).isNotNull();
+        assertThat(mCache.get(UID_2)).isNull();
+        assertThat(mCache.get(UID_3)).isNotNull();
+    }
+
+    @Test
+    public void get_countsHitsAndMisses() {
+        mCache.get(UID_1);
+        mCache.get(UID_3);
+
+        assertThat(mCache.hitCount()).isEqualTo(1);
+        assertThat(mCache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void contains_doesNotCountHitsOrMisses() {
+        assertThat(mCache.contains(UID_1)).isTrue();
+        assertThat(mCache.contains(UID_3)).isFalse();
+
+        assertThat(mCache.hitCount()).isEqualTo(0);
+        assertThat(mCache.missCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void contains_evictedOrDroppedUid_returnsFalse() {
+        mCache.put(UID_3, createDetail("com.example.app3"));
+        mCache.invalidate(UID_3, /* packageName= */ null);
+
+        assertThat(mCache.contains(UID_1)).isFalse();
+        assertThat(mCache.contains(UID_2)).isTrue();
+        assertThat(mCache.contains(UID_3)).isFalse();
+    }
+
+    @Test
+    public void packageBroadcast_withUid_dropsUid() {
+        final Intent intent = createPackageIntent("com.example.other");
+        intent.putExtra(Intent.EXTRA_UID, UID_1);
+
+        mCache.mPackageReceiver.onReceive(mContext, intent);
+
+        assertThat(mCache.get(UID_1)).isNull();
+        assertThat(mCache.get(UID_2)).isNotNull();
+    }
+
+    @Test
+    public void packageBroadcast_resolvedPackage_dropsUid() {
+        mCache.mPackageReceiver.onReceive(mContext, createPackageIntent(PACKAGE_2));
+
+        assertThat(mCache.get(UID_1)).isNotNull();
+        assertThat(mCache.get(UID_2)).isNull();
+    }
+
+    @Test
+    public void packageBroadcast_otherPackage_keepsUids() {
+        mCache.mPackageReceiver.onReceive(mContext, createPackageIntent("com.example.other"));
+
+        assertThat(mCache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void localeBroadcast_dropsAllUids() {
+        mCache.mPackageReceiver.onReceive(mContext, new Intent(Intent.ACTION_LOCALE_CHANGED));
+
+        assertThat(mCache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void dump_printsHitRate() {
+        mCache.get(UID_1);
+        mCache.get(UID_3);
+        final StringWriter stringWriter = new StringWriter();
+
+        mCache.dump(new PrintWriter(stringWriter));
+
+        assertThat(stringWriter.toString())
+                .contains("size=2/2 hits=1 misses=1 evictions=0 hitRate=0.50");
+    }
+
+    private static Intent createPackageIntent(String packageName) {
+        return new Intent(
+                Intent.ACTION_PACKAGE_CHANGED, Uri.fromParts("package", packageName, null));
+    }
+
+    private static UidToDetail createDetail(String packageName) {
+        final UidToDetail detail = new UidToDetail();
+        detail.mName = "label of " + packageName;
+        detail.mPackageName = packageName;
+        return detail;
+    }
+}
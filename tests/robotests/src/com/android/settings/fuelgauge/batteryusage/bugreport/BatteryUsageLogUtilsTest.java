@@ -19,9 +19,12 @@ package com.android.settings.fuelgauge.batteryusage.bugreport;
 import static com.google.common.truth.Truth.assertThat;
 
 import android.content.Context;
+import android.util.Base64;
 
 import androidx.test.core.app.ApplicationProvider;
 
+import com.android.settings.fuelgauge.BatteryUsageHistoricalLog;
+import com.android.settings.fuelgauge.BatteryUsageHistoricalLogEntry;
 import com.android.settings.fuelgauge.BatteryUsageHistoricalLogEntry.Action;
 
 import org.junit.Before;
@@ -48,6 +51,7 @@ public final class BatteryUsageLogUtilsTest {
         mTestStringWriter = new StringWriter();
         mTestPrintWriter = new PrintWriter(mTestStringWriter);
         BatteryUsageLogUtils.getSharedPreferences(mContext).edit().clear().commit();
+        BatteryUsageLogUtils.getLogFile(mContext).clear();
     }
 
     @Test
@@ -89,6 +93,57 @@ public final class BatteryUsageLogUtilsTest {
         assertActionCount("EXECUTE_JOB", BatteryUsageLogUtils.MAX_ENTRIES);
     }
 
+    @Test
+    public void writeLog_overMaxEntriesLogs_keepsNewestEntriesInOrder() {
+        for (int i = 0; i < BatteryUsageLogUtils.MAX_ENTRIES + 5; i++) {
+            BatteryUsageLogUtils.writeLog(mContext, Action.EXECUTE_JOB, "entry" + i + ";");
+        }
+
+        BatteryUsageLogUtils.printHistoricalLog(mContext, mTestPrintWriter);
+
+        final String dumpResults = mTestStringWriter.toString();
+        assertThat(dumpResults).doesNotContain("entry4;");
+        assertThat(dumpResults.indexOf("entry5;"))
+                .isLessThan(dumpResults.indexOf("entry" + BatteryUsageLogUtils.MAX_ENTRIES + ";"));
+        assertThat(dumpResults).contains("entry" + (BatteryUsageLogUtils.MAX_ENTRIES + 4) + ";");
+    }
+
+    @Test
+    public void writeLog_longDescription_truncatesDescription() {
+        final String description = "x".repeat(BatteryUsageLogUtils.MAX_ENTRY_SIZE * 2);
+
+        BatteryUsageLogUtils.writeLog(mContext, Action.TIMEZONE_UPDATED, description);
+        BatteryUsageLogUtils.printHistoricalLog(mContext, mTestPrintWriter);
+
+        assertActionCount("TIMEZONE_UPDATED", 1);
+        assertThat(mTestStringWriter.toString()).contains("x".repeat(100));
+        assertThat(mTestStringWriter.toString()).doesNotContain(description);
+    }
+
+    @Test
+    public void writeLog_legacyLogInSharedPreferences_migratesLegacyEntries() {
+        final BatteryUsageHistoricalLog legacyLog =
+                BatteryUsageHistoricalLog.newBuilder()
+                        .addLogEntry(
+                                BatteryUsageHistoricalLogEntry.newBuilder()
+                                        .setAction(Action.RECHECK_JOB)
+                                        .setActionDescription("legacy"))
+                        .build();
+        BatteryUsageLogUtils.getSharedPreferences(mContext)
+                .edit()
+                .putString(
+                        "battery_usage_logs_key",
+                        Base64.encodeToString(legacyLog.toByteArray(), Base64.DEFAULT))
+                .commit();
+
+        BatteryUsageLogUtils.writeLog(mContext, Action.EXECUTE_JOB, "");
+        BatteryUsageLogUtils.printHistoricalLog(mContext, mTestPrintWriter);
+
+        assertThat(mTestStringWriter.toString()).contains("RECHECK_JOB legacy");
+        assertActionCount("EXECUTE_JOB", 1);
+        assertThat(BatteryUsageLogUtils.getSharedPreferences(mContext).getAll()).isEmpty();
+    }
+
     private void assertActionCount(String token, int count) {
         final String dumpResults = mTestStringWriter.toString();
         assertThat(dumpResults.split(token).length).isEqualTo(count + 1);
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage.bugreport;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public final class HistoricalLogFileTest {
+    private static final int CAPACITY = 4;
+    private static final int SLOT_SIZE = 32;
+
+    private File mFile;
+    private HistoricalLogFile mLogFile;
+
+    @Before
+    public void setUp() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        mFile = new File(context.getFilesDir(), "historical_log_file_test.bin");
+        mLogFile = new HistoricalLogFile(mFile, CAPACITY, SLOT_SIZE);
+        mLogFile.clear();
+    }
+
+    @After
+    public void tearDown() {
+        mLogFile.clear();
+    }
+
+    @Test
+    public void forEach_noFile_readsNothing() {
+        assertThat(readAll()).isEmpty();
+        assertThat(mLogFile.exists()).isFalse();
+    }
+
+    @Test
+    public void append_belowCapacity_readsInOrder() {
+        mLogFile.append(toBytes("a"));
+        mLogFile.append(toBytes("b"));
+
+        assertThat(readAll()).containsExactly("a", "b").inOrder();
+    }
+
+    @Test
+    public void append_overCapacity_overwritesOldestAndKeepsFileSize() {
+        for (int i = 0; i < CAPACITY * 3 + 1; i++) {
+            mLogFile.append(toBytes(String.valueOf(i)));
+        }
+
+        assertThat(readAll()).containsExactly("9", "10", "11", "12").inOrder();
+        assertThat(mFile.length())
+                .isAtMost(HistoricalLogFile.HEADER_SIZE + (long) CAPACITY * SLOT_SIZE);
+    }
+
+    @Test
+    public void append_oversizedRecord_rejected() {
+        assertThat(mLogFile.append(new byte[mLogFile.getMaxRecordSize() + 1])).isFalse();
+        assertThat(mLogFile.append(new byte[0])).isFalse();
+
+        assertThat(readAll()).isEmpty();
+    }
+
+    @Test
+    public void append_fileWithOtherLayout_startsNewBuffer() {
+        mLogFile.append(toBytes("old"));
+
+        final HistoricalLogFile resizedLogFile =
+                new HistoricalLogFile(mFile, CAPACITY * 2, SLOT_SIZE);
+        assertThat(resizedLogFile.forEach(record -> {})).isEqualTo(0);
+        resizedLogFile.append(toBytes("new"));
+
+        final List<String> records = new ArrayList<>();
+        resizedLogFile.forEach(record -> records.add(new String(record, StandardCharsets.UTF_8)));
+        assertThat(records).containsExactly("new");
+    }
+
+    @Test
+    public void appendAllIfMissing_noFile_appendsRecords() {
+        assertThat(mLogFile.appendAllIfMissing(() -> List.of(toBytes("a"), toBytes("b"))))
+                .isTrue();
+
+        assertThat(readAll()).containsExactly("a", "b").inOrder();
+    }
+
+    @Test
+    public void appendAllIfMissing_existingFile_keepsRecords() {
+        mLogFile.append(toBytes("a"));
+
+        assertThat(mLogFile.appendAllIfMissing(() -> List.of(toBytes("b")))).isFalse();
+
+        assertThat(readAll()).containsExactly("a");
+    }
+
+    private List<String> readAll() {
+        final List<String> records = new ArrayList<>();
+        mLogFile.forEach(record -> records.add(new String(record, StandardCharsets.UTF_8)));
+        return records;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge.batteryusage.db;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Tests for {@link BatteryStateDatabase}. */
+@RunWith(RobolectricTestRunner.class)
+public final class BatteryStateDatabaseTest {
+
+    private SupportSQLiteOpenHelper mOpenHelper;
+    private SupportSQLiteDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        // The tables of version 2, without the indices of version 3.
+        final SupportSQLiteOpenHelper.Callback callback =
+                new SupportSQLiteOpenHelper.Callback(/* version= */ 2) {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase database) {
+                        database.execSQL(
+                                "CREATE TABLE `AppUsageEventEntity` (`id` INTEGER PRIMARY KEY"
+                                        + " AUTOINCREMENT, `uid` INTEGER NOT NULL, `userId`"
+                                        + " INTEGER NOT NULL, `timestamp` INTEGER NOT NULL)");
+                        database.execSQL(
+                                "CREATE TABLE `BatteryEventEntity` (`id` INTEGER PRIMARY KEY"
+                                        + " AUTOINCREMENT, `timestamp` INTEGER NOT NULL,"
+                                        + " `batteryEventType` INTEGER NOT NULL)");
+                        database.execSQL(
+                                "CREATE TABLE `BatteryState` (`id` INTEGER PRIMARY KEY"
+                                        + " AUTOINCREMENT, `packageName` TEXT, `timestamp`"
+                                        + " INTEGER NOT NULL)");
+                        database.execSQL(
+                                "CREATE TABLE `BatteryUsageSlotEntity` (`id` INTEGER PRIMARY KEY"
+                                        + " AUTOINCREMENT, `timestamp` INTEGER NOT NULL)");
+                    }
+
+                    @Override
+                    public void onUpgrade(
+                            @NonNull SupportSQLiteDatabase database, int oldVersion,
+                            int newVersion) {}
+                };
+        mOpenHelper =
+                new FrameworkSQLiteOpenHelperFactory()
+                        .create(
+                                SupportSQLiteOpenHelper.Configuration.builder(context)
+                                        .name(null)
+                                        .callback(callback)
+                                        .build());
+        mDatabase = mOpenHelper.getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        mOpenHelper.close();
+    }
+
+    @Test
+    public void migrate2To3_createsTimestampIndices() {
+        assertThat(getIndexNames()).isEmpty();
+
+        BatteryStateDatabase.MIGRATION_2_3.migrate(mDatabase);
+
+        assertThat(getIndexNames())
+                .containsExactly(
+                        "index_AppUsageEventEntity_timestamp",
+                        "index_AppUsageEventEntity_userId_timestamp",
+                        "index_BatteryEventEntity_timestamp",
+                        "index_BatteryEventEntity_batteryEventType_timestamp",
+                        "index_BatteryState_timestamp",
+                        "index_BatteryUsageSlotEntity_timestamp");
+    }
+
+    @Test
+    public void migrate2To3_keepsExistingRows() {
+        mDatabase.execSQL("INSERT INTO `BatteryState` (`packageName`, `timestamp`)"
+                + " VALUES ('com.android.settings', 100)");
+
+        BatteryStateDatabase.MIGRATION_2_3.migrate(mDatabase);
+
+        try (Cursor cursor = mDatabase.query(
+                "SELECT `packageName` FROM `BatteryState` WHERE `timestamp` = 100")) {
+            assertThat(cursor.getCount()).isEqualTo(1);
+            cursor.moveToFirst();
+            assertThat(cursor.getString(0)).isEqualTo("com.android.settings");
+        }
+    }
+
+    private List<String> getIndexNames() {
+        final List<String> indexNames = new ArrayList<>();
+        // Excludes the indices created by SQLite for the primary keys.
+        try (Cursor cursor = mDatabase.query(
+                "SELECT `name` FROM sqlite_master WHERE `type` = 'index'"
+                        + " AND `name` NOT LIKE 'sqlite_%'")) {
+            while (cursor.moveToNext()) {
+                indexNames.add(cursor.getString(0));
+            }
+        }
+        return indexNames;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.location;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.os.UserHandle;
+
+import androidx.preference.Preference;
+import androidx.preference.PreferenceCategory;
+import androidx.preference.PreferenceManager;
+import androidx.preference.PreferenceScreen;
+
+import com.android.settings.R;
+import com.android.settings.dashboard.DashboardFragment;
+import com.android.settingslib.applications.RecentAppOpsAccess;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class RecentLocationAccessPreferenceBinderTest {
+    private static final long NOW = System.currentTimeMillis();
+
+    @Mock
+    private DashboardFragment mFragment;
+
+    private Context mContext;
+    private PreferenceCategory mCategory;
+    private RecentLocationAccessPreferenceBinder mBinder;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mContext = RuntimeEnvironment.application;
+        when(mFragment.getContext()).thenReturn(mContext);
+        final PreferenceScreen screen =
+                new PreferenceManager(mContext).createPreferenceScreen(mContext);
+        mCategory = spy(new PreferenceCategory(mContext));
+        screen.addPreference(mCategory);
+        mBinder = new RecentLocationAccessPreferenceBinder(mCategory, mFragment,
+                R.string.location_no_recent_accesses);
+    }
+
+    @Test
+    public void bind_empty_showsBanner() {
+        assertThat(mBinder.bind(ImmutableList.of())).isEqualTo(1);
+
+        assertThat(mCategory.getPreferenceCount()).isEqualTo(1);
+        assertThat(mCategory.getPreference(0).getKey())
+                .isEqualTo(RecentLocationAccessPreferenceBinder.KEY_NO_RECENT_ACCESSES);
+        assertThat(mBinder.bind(ImmutableList.of())).isEqualTo(0);
+    }
+
+    @Test
+    public void bind_sameAccesses_noPreferenceRebound() {
+        mBinder.bind(ImmutableList.of(access("a", 1), access("b", 2)));
+        final Preference preferenceA = mCategory.getPreference(0);
+        clearInvocations(mCategory);
+
+        assertThat(mBinder.bind(ImmutableList.of(access("a", 1), access("b", 2)))).isEqualTo(0);
+
+        verify(mCategory, never()).addPreference(any());
+        verify(mCategory, never()).removePreference(any());
+        assertThat(mCategory.getPreference(0)).isSameInstanceAs(preferenceA);
+    }
+
+    @Test
+    public void bind_oneAccessUpdated_onlyRebindsItsPreference() {
+        mBinder.bind(ImmutableList.of(access("a", 1), access("b", 2), access("c", 3)));
+        final Preference preferenceB = findAppPreference("b");
+        clearInvocations(mCategory);
+
+        // App "c" accessed location again, and moves to the top of the list.
+        assertThat(mBinder.bind(ImmutableList.of(access("c", 0), access("a", 1), access("b", 2))))
+                .isEqualTo(1);
+
+        verify(mCategory, never()).addPreference(any());
+        verify(mCategory, never()).removePreference(any());
+        assertThat(findAppPreference("b")).isSameInstanceAs(preferenceB);
+        assertThat(findAppPreference("c").getOrder()).isEqualTo(0);
+        assertThat(findAppPreference("a").getOrder()).isEqualTo(1);
+        assertThat(findAppPreference("b").getOrder()).isEqualTo(2);
+    }
+
+    @Test
+    public void bind_accessAddedAndRemoved_onlyAddsAndRemovesTheirPreferences() {
+        mBinder.bind(ImmutableList.of(access("a", 1), access("b", 2)));
+        final Preference preferenceA = findAppPreference("a");
+        final Preference preferenceB = findAppPreference("b");
+        clearInvocations(mCategory);
+
+        assertThat(mBinder.bind(ImmutableList.of(access("d", 0), access("a", 1)))).isEqualTo(1);
+
+        verify(mCategory, times(1)).addPreference(any());
+        verify(mCategory).removePreference(preferenceB);
+        assertThat(findAppPreference("a")).isSameInstanceAs(preferenceA);
+        assertThat(findAppPreference("b")).isNull();
+        assertThat(findAppPreference("d").getTitle().toString()).isEqualTo("d");
+    }
+
+    @Test
+    public void bind_afterEmpty_replacesBanner() {
+        mBinder.bind(ImmutableList.of());
+
+        mBinder.bind(ImmutableList.of(access("a", 1)));
+
+        assertThat(mCategory.getPreferenceCount()).isEqualTo(1);
+        assertThat(mCategory.findPreference(
+                RecentLocationAccessPreferenceBinder.KEY_NO_RECENT_ACCESSES)).isNull();
+    }
+
+    private Preference findAppPreference(String packageName) {
+        return mCategory.findPreference(
+                packageName + "|" + UserHandle.CURRENT.getIdentifier());
+    }
+
+    private static RecentAppOpsAccess.Access access(String packageName, long minutesAgo) {
+        return new RecentAppOpsAccess.Access(packageName, UserHandle.CURRENT, null, packageName,
+                "", NOW - minutesAgo * 60_000L);
+    }
+}
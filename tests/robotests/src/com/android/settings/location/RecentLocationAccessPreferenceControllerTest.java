@@ -76,7 +76,8 @@ public class RecentLocationAccessPreferenceControllerTest {
         mContext = spy(RuntimeEnvironment.application);
         mController = spy(
                 new RecentLocationAccessPreferenceController(mContext, PREFERENCE_KEY,
-                        mRecentLocationApps));
+                        new RecentLocationAccessStore(mRecentLocationApps, Runnable::run,
+                                Runnable::run)));
         mController.init(mDashboardFragment);
         final String key = mController.getPreferenceKey();
         mAppEntitiesHeaderView = LayoutInflater.from(mContext).inflate(
@@ -130,4 +131,21 @@ public class RecentLocationAccessPreferenceControllerTest {
                 mContext.getContentResolver(), Settings.Secure.LOCATION_SHOW_SYSTEM_OPS, 1);
         verify(mLayoutPreference, Mockito.times(1)).addPreference(Mockito.any());
     }
+
+    @Test
+    public void updateState_afterAccessUpdate_keepsUnchangedPreferences() {
+        final RecentAppOpsAccess.Access accessApp =
+                new RecentAppOpsAccess.Access("app", UserHandle.CURRENT, null, "app", "", 0);
+        doReturn(ImmutableList.of(accessApp)).when(mRecentLocationApps).getAppListSorted(false);
+        mController.displayPreference(mScreen);
+
+        doReturn(ImmutableList.of(
+                new RecentAppOpsAccess.Access("new", UserHandle.CURRENT, null, "new", "", 1),
+                accessApp)).when(mRecentLocationApps).getAppListSorted(false);
+        mController.updateState(mLayoutPreference);
+
+        verify(mLayoutPreference, Mockito.times(2)).addPreference(Mockito.any());
+        verify(mLayoutPreference, Mockito.never()).removeAll();
+        verify(mLayoutPreference, Mockito.never()).removePreference(Mockito.any());
+    }
 }
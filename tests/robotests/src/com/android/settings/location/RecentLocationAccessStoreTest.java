@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.location;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.os.UserHandle;
+
+import com.android.settingslib.applications.RecentAppOpsAccess;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class RecentLocationAccessStoreTest {
+    private static final RecentAppOpsAccess.Access ACCESS_APP =
+            new RecentAppOpsAccess.Access("app", UserHandle.CURRENT, null, "app", "", 0);
+    private static final RecentAppOpsAccess.Access ACCESS_SYSTEM =
+            new RecentAppOpsAccess.Access("system", UserHandle.CURRENT, null, "system", "", 0);
+
+    @Mock
+    private RecentAppOpsAccess mRecentAppOpsAccess;
+
+    private final List<Runnable> mBackgroundTasks = new ArrayList<>();
+    private final List<Runnable> mMainTasks = new ArrayList<>();
+    private RecentLocationAccessStore mStore;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(ImmutableList.of(ACCESS_APP)).when(mRecentAppOpsAccess).getAppListSorted(false);
+        doReturn(ImmutableList.of(ACCESS_SYSTEM, ACCESS_APP))
+                .when(mRecentAppOpsAccess).getAppListSorted(true);
+        mStore = new RecentLocationAccessStore(mRecentAppOpsAccess, mBackgroundTasks::add,
+                mMainTasks::add);
+    }
+
+    @Test
+    public void getCachedAccesses_neverRefreshed_returnsNull() {
+        assertThat(mStore.getCachedAccesses(false)).isNull();
+    }
+
+    @Test
+    public void refresh_loadsInBackgroundAndCallsBackOnMainThread() {
+        final List<List<RecentAppOpsAccess.Access>> results = new ArrayList<>();
+
+        mStore.refresh(false, results::add);
+        assertThat(results).isEmpty();
+        runAll(mBackgroundTasks);
+        assertThat(results).isEmpty();
+        runAll(mMainTasks);
+
+        assertThat(results).containsExactly(ImmutableList.of(ACCESS_APP));
+        assertThat(mStore.getCachedAccesses(false)).containsExactly(ACCESS_APP);
+    }
+
+    @Test
+    public void refresh_whileRefreshing_sharesSingleLoad() {
+        final List<List<RecentAppOpsAccess.Access>> results = new ArrayList<>();
+
+        mStore.refresh(false, results::add);
+        mStore.refresh(false, results::add);
+        runAll(mBackgroundTasks);
+        runAll(mMainTasks);
+
+        verify(mRecentAppOpsAccess, times(1)).getAppListSorted(false);
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0)).isSameInstanceAs(results.get(1));
+    }
+
+    @Test
+    public void refresh_showSystem_keptSeparately() {
+        mStore.refresh(false, accesses -> {});
+        mStore.refresh(true, accesses -> {});
+        runAll(mBackgroundTasks);
+
+        verify(mRecentAppOpsAccess, times(1)).getAppListSorted(false);
+        verify(mRecentAppOpsAccess, times(1)).getAppListSorted(true);
+        assertThat(mStore.getCachedAccesses(false)).containsExactly(ACCESS_APP);
+        assertThat(mStore.getCachedAccesses(true))
+                .containsExactly(ACCESS_SYSTEM, ACCESS_APP).inOrder();
+    }
+
+    @Test
+    public void refresh_afterAccessUpdate_replacesCachedAccesses() {
+        mStore.refresh(false, accesses -> {});
+        runAll(mBackgroundTasks);
+        doReturn(ImmutableList.of(ACCESS_SYSTEM)).when(mRecentAppOpsAccess).getAppListSorted(false);
+
+        mStore.refresh(false, accesses -> {});
+        assertThat(mStore.getCachedAccesses(false)).containsExactly(ACCESS_APP);
+        runAll(mBackgroundTasks);
+
+        assertThat(mStore.getCachedAccesses(false)).containsExactly(ACCESS_SYSTEM);
+    }
+
+    @Test
+    public void refresh_loadThrows_nextRefreshLoadsAgain() {
+        final List<List<RecentAppOpsAccess.Access>> results = new ArrayList<>();
+        doThrow(new IllegalStateException()).doReturn(ImmutableList.of(ACCESS_APP))
+                .when(mRecentAppOpsAccess).getAppListSorted(false);
+
+        mStore.refresh(false, results::add);
+        runAll(mBackgroundTasks);
+        runAll(mMainTasks);
+        assertThat(results).isEmpty();
+        assertThat(mStore.getCachedAccesses(false)).isNull();
+
+        mStore.refresh(false, results::add);
+        runAll(mBackgroundTasks);
+        runAll(mMainTasks);
+
+        verify(mRecentAppOpsAccess, times(2)).getAppListSorted(false);
+        assertThat(results).containsExactly(ImmutableList.of(ACCESS_APP));
+    }
+
+    @Test
+    public void refresh_loadThrowsAfterLoad_callsBackWithLastLoadedAccesses() {
+        mStore.refresh(false, accesses -> {});
+        runAll(mBackgroundTasks);
+        runAll(mMainTasks);
+        doThrow(new IllegalStateException()).when(mRecentAppOpsAccess).getAppListSorted(false);
+        final List<List<RecentAppOpsAccess.Access>> results = new ArrayList<>();
+
+        mStore.refresh(false, results::add);
+        runAll(mBackgroundTasks);
+        runAll(mMainTasks);
+
+        assertThat(results).containsExactly(ImmutableList.of(ACCESS_APP));
+        assertThat(mStore.getCachedAccesses(false)).containsExactly(ACCESS_APP);
+    }
+
+    private static void runAll(List<Runnable> tasks) {
+        final List<Runnable> pendingTasks = new ArrayList<>(tasks);
+        tasks.clear();
+        for (Runnable task : pendingTasks) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network;
+
+import static com.android.settings.network.MobileNetworkWriteBatchTest.mobileNetworkInfo;
+import static com.android.settings.network.MobileNetworkWriteBatchTest.uiccInfo;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.util.ArrayMap;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.android.settings.testutils.InstantTaskExecutorRule;
+import com.android.settingslib.mobile.dataservice.MobileNetworkDatabase;
+import com.android.settingslib.mobile.dataservice.MobileNetworkInfoEntity;
+import com.android.settingslib.mobile.dataservice.SubscriptionInfoEntity;
+import com.android.settingslib.mobile.dataservice.UiccInfoEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Counts the LiveData emissions of the batched writes on an in-memory database. */
+@RunWith(RobolectricTestRunner.class)
+public class MobileNetworkWriteBatchDatabaseTest {
+    private static final String SUB_ID_1 = "1";
+    private static final String SUB_ID_2 = "2";
+
+    // Runs the Room queries and the LiveData updates synchronously.
+    @Rule
+    public final InstantTaskExecutorRule mInstantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final Map<Integer, SubscriptionInfoEntity> mSubInfoCache = new ArrayMap<>();
+    private final Map<Integer, UiccInfoEntity> mUiccInfoCache = new ArrayMap<>();
+    private final Map<Integer, MobileNetworkInfoEntity> mMobileNetworkInfoCache =
+            new ArrayMap<>();
+    private final List<List<MobileNetworkInfoEntity>> mMobileNetworkInfoEmissions =
+            new ArrayList<>();
+    private final List<List<UiccInfoEntity>> mUiccInfoEmissions = new ArrayList<>();
+
+    private MobileNetworkDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        mDatabase = Room.inMemoryDatabaseBuilder(context, MobileNetworkDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        mDatabase.queryAllMobileNetworkInfo().observeForever(mMobileNetworkInfoEmissions::add);
+        mDatabase.queryAllUiccInfo().observeForever(mUiccInfoEmissions::add);
+        // The initial query of each LiveData.
+        assertThat(mMobileNetworkInfoEmissions).hasSize(1);
+        assertThat(mUiccInfoEmissions).hasSize(1);
+        mMobileNetworkInfoEmissions.clear();
+        mUiccInfoEmissions.clear();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void apply_severalRows_emitsOncePerTable() {
+        final MobileNetworkWriteBatch batch = newBatch();
+        batch.updateUiccInfo(uiccInfo(SUB_ID_1));
+        batch.updateUiccInfo(uiccInfo(SUB_ID_2));
+        batch.updateMobileNetworkInfo(mobileNetworkInfo(SUB_ID_1, true /* isDataEnabled */));
+        batch.updateMobileNetworkInfo(mobileNetworkInfo(SUB_ID_2, false /* isDataEnabled */));
+
+        batch.apply(mDatabase);
+
+        assertThat(mMobileNetworkInfoEmissions).hasSize(1);
+        assertThat(mMobileNetworkInfoEmissions.get(0)).hasSize(2);
+        assertThat(mUiccInfoEmissions).hasSize(1);
+        assertThat(mUiccInfoEmissions.get(0)).hasSize(2);
+    }
+
+    @Test
+    public void insertPerRow_severalRows_emitsOncePerRow() {
+        // The baseline the batch is compared with: one emission per write outside a transaction.
+        mDatabase.insertMobileNetworkInfo(mobileNetworkInfo(SUB_ID_1, true /* isDataEnabled */));
+        mDatabase.insertMobileNetworkInfo(mobileNetworkInfo(SUB_ID_2, false /* isDataEnabled */));
+
+        assertThat(mMobileNetworkInfoEmissions).hasSize(2);
+    }
+
+    @Test
+    public void apply_changeInOneTable_doesNotEmitForOtherTables() {
+        final MobileNetworkWriteBatch initialBatch = newBatch();
+        initialBatch.updateUiccInfo(uiccInfo(SUB_ID_1));
+        initialBatch.updateMobileNetworkInfo(
+                mobileNetworkInfo(SUB_ID_1, true /* isDataEnabled */));
+        initialBatch.apply(mDatabase);
+        mMobileNetworkInfoEmissions.clear();
+        mUiccInfoEmissions.clear();
+
+        final MobileNetworkWriteBatch batch = newBatch();
+        batch.updateUiccInfo(uiccInfo(SUB_ID_1));
+        batch.updateMobileNetworkInfo(mobileNetworkInfo(SUB_ID_1, false /* isDataEnabled */));
+        batch.apply(mDatabase);
+
+        assertThat(mMobileNetworkInfoEmissions).hasSize(1);
+        assertThat(mUiccInfoEmissions).isEmpty();
+    }
+
+    @Test
+    public void apply_noChange_doesNotEmit() {
+        final MobileNetworkWriteBatch initialBatch = newBatch();
+        initialBatch.updateMobileNetworkInfo(
+                mobileNetworkInfo(SUB_ID_1, true /* isDataEnabled */));
+        initialBatch.apply(mDatabase);
+        mMobileNetworkInfoEmissions.clear();
+
+        final MobileNetworkWriteBatch batch = newBatch();
+        batch.updateMobileNetworkInfo(mobileNetworkInfo(SUB_ID_1, true /* isDataEnabled */));
+        batch.apply(mDatabase);
+
+        assertThat(mMobileNetworkInfoEmissions).isEmpty();
+    }
+
+    private MobileNetworkWriteBatch newBatch() {
+        return new MobileNetworkWriteBatch(mSubInfoCache, mUiccInfoCache,
+                mMobileNetworkInfoCache);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.network;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import android.telephony.SubscriptionManager;
+import android.telephony.TelephonyManager;
+import android.telephony.UiccSlotInfo;
+import android.util.ArrayMap;
+
+import com.android.settingslib.mobile.dataservice.MobileNetworkDatabase;
+import com.android.settingslib.mobile.dataservice.MobileNetworkInfoEntity;
+import com.android.settingslib.mobile.dataservice.SubscriptionInfoEntity;
+import com.android.settingslib.mobile.dataservice.UiccInfoEntity;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Map;
+
+@RunWith(RobolectricTestRunner.class)
+public class MobileNetworkWriteBatchTest {
+    private static final String SUB_ID_1 = "1";
+    private static final String SUB_ID_2 = "2";
+
+    @Rule
+    public final MockitoRule mMockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private MobileNetworkDatabase mDatabase;
+
+    private final Map<Integer, SubscriptionInfoEntity> mSubInfoCache = new ArrayMap<>();
+    private final Map<Integer, UiccInfoEntity> mUiccInfoCache = new ArrayMap<>();
+    private final Map<Integer, MobileNetworkInfoEntity> mMobileNetworkInfoCache =
+            new ArrayMap<>();
+
+    @Before
+    public void setUp() {
+        // Each transaction notifies the observers once, at its end.
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(mDatabase).runInTransaction(any(Runnable.class));
+
+        final MobileNetworkWriteBatch batch = newBatch();
+        batch.updateSubInfo(subInfo(SUB_ID_1, "Carrier"));
+        batch.updateUiccInfo(uiccInfo(SUB_ID_1));
+        batch.updateMobileNetworkInfo(mobileNetworkInfo(SUB_ID_1, true /* isDataEnabled */));
+        batch.apply(mDatabase);
+        clearInvocations(mDatabase);
+    }
+
+    @Test
+    public void apply_noChange_doesNotWrite() {
+        final MobileNetworkWriteBatch batch = newBatch();
+
+        assertThat(batch.updateSubInfo(subInfo(SUB_ID_1, "Carrier"))).isFalse();
+        assertThat(batch.updateUiccInfo(uiccInfo(SUB_ID_1))).isFalse();
+        assertThat(batch.updateMobileNetworkInfo(
+                mobileNetworkInfo(SUB_ID_1, true /* isDataEnabled */))).isFalse();
+
+        assertThat(batch.isEmpty()).isTrue();
+        assertThat(batch.apply(mDatabase)).isEqualTo(0);
+        verifyNoMoreInteractions(mDatabase);
+    }
+
+    @Test
+    public void apply_simSwap_writesChangedRowsInOneTransaction() {
+        final MobileNetworkWriteBatch batch = newBatch();
+        final SubscriptionInfoEntity subInfo2 = subInfo(SUB_ID_2, "Other carrier");
+        final UiccInfoEntity uiccInfo2 = uiccInfo(SUB_ID_2);
+        final MobileNetworkInfoEntity mobileNetworkInfo2 =
+                mobileNetworkInfo(SUB_ID_2, false /* isDataEnabled */);
+
+        batch.deleteSubId(SUB_ID_1);
+        batch.updateSubInfo(subInfo2);
+        batch.updateUiccInfo(uiccInfo2);
+        batch.updateMobileNetworkInfo(mobileNetworkInfo2);
+
+        assertThat(batch.apply(mDatabase)).isEqualTo(6);
+        verify(mDatabase, times(1)).runInTransaction(any(Runnable.class));
+        verify(mDatabase).deleteSubInfoBySubId(SUB_ID_1);
+        verify(mDatabase).deleteUiccInfoBySubId(SUB_ID_1);
+        verify(mDatabase).deleteMobileNetworkInfoBySubId(SUB_ID_1);
+        verify(mDatabase).insertSubsInfo(subInfo2);
+        verify(mDatabase).insertUiccInfo(uiccInfo2);
+        verify(mDatabase).insertMobileNetworkInfo(mobileNetworkInfo2);
+        verifyNoMoreInteractions(mDatabase);
+        assertThat(mSubInfoCache.keySet()).containsExactly(2);
+    }
+
+    @Test
+    public void apply_carrierConfigUpdate_writesOnlyChangedTable() {
+        final MobileNetworkWriteBatch batch = newBatch();
+        final MobileNetworkInfoEntity mobileNetworkInfo =
+                mobileNetworkInfo(SUB_ID_1, false /* isDataEnabled */);
+
+        batch.updateSubInfo(subInfo(SUB_ID_1, "Carrier"));
+        batch.updateUiccInfo(uiccInfo(SUB_ID_1));
+        batch.updateMobileNetworkInfo(mobileNetworkInfo);
+
+        assertThat(batch.apply(mDatabase)).isEqualTo(1);
+        verify(mDatabase, times(1)).runInTransaction(any(Runnable.class));
+        verify(mDatabase).insertMobileNetworkInfo(mobileNetworkInfo);
+        verify(mDatabase, never()).insertSubsInfo(any());
+        verify(mDatabase, never()).insertUiccInfo(any());
+        verifyNoMoreInteractions(mDatabase);
+    }
+
+    @Test
+    public void apply_severalSubscriptions_insertsEachTableOnce() {
+        final MobileNetworkWriteBatch batch = newBatch();
+        final SubscriptionInfoEntity subInfo1 = subInfo(SUB_ID_1, "Renamed carrier");
+        final SubscriptionInfoEntity subInfo2 = subInfo(SUB_ID_2, "Other carrier");
+
+        batch.updateSubInfo(subInfo1);
+        batch.updateSubInfo(subInfo2);
+
+        assertThat(batch.apply(mDatabase)).isEqualTo(1);
+        verify(mDatabase, times(1)).runInTransaction(any(Runnable.class));
+        verify(mDatabase).insertSubsInfo(subInfo1, subInfo2);
+        verifyNoMoreInteractions(mDatabase);
+    }
+
+    @Test
+    public void deleteSubId_afterUpdate_dropsPendingInsert() {
+        final MobileNetworkWriteBatch batch = newBatch();
+
+        batch.updateMobileNetworkInfo(mobileNetworkInfo(SUB_ID_1, false /* isDataEnabled */));
+        batch.deleteSubId(SUB_ID_1);
+
+        assertThat(batch.apply(mDatabase)).isEqualTo(3);
+        verify(mDatabase, never()).insertMobileNetworkInfo(any());
+        assertThat(mMobileNetworkInfoCache).isEmpty();
+    }
+
+    private MobileNetworkWriteBatch newBatch() {
+        return new MobileNetworkWriteBatch(mSubInfoCache, mUiccInfoCache,
+                mMobileNetworkInfoCache);
+    }
+
+    static SubscriptionInfoEntity subInfo(String subId, String displayName) {
+        int id = Integer.parseInt(subId);
+        return new SubscriptionInfoEntity(subId, id, id,
+                displayName, displayName, 0, "mcc", "mnc", "countryIso", false, id,
+                TelephonyManager.DEFAULT_PORT_INDEX, false, null,
+                SubscriptionManager.SUBSCRIPTION_TYPE_LOCAL_SIM, displayName, true,
+                "1234567890", true, false, true, true, true, true, false);
+    }
+
+    static UiccInfoEntity uiccInfo(String subId) {
+        int id = Integer.parseInt(subId);
+        return new UiccInfoEntity(subId, String.valueOf(id), id, id, false, false,
+                UiccSlotInfo.CARD_STATE_INFO_PRESENT, true, true,
+                TelephonyManager.DEFAULT_PORT_INDEX);
+    }
+
+    static MobileNetworkInfoEntity mobileNetworkInfo(String subId,
+            boolean isDataEnabled) {
+        return new MobileNetworkInfoEntity(subId, false, false, isDataEnabled, false, false,
+                false, false, false, false, false, false);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.nfc;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.graphics.drawable.ColorDrawable;
+import android.nfc.cardemulation.ApduServiceInfo;
+import android.nfc.cardemulation.CardEmulation;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.UserHandle;
+import android.os.UserManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class PaymentBackendTest {
+    private static final ComponentName COMPONENT =
+            new ComponentName("com.example.pay", "com.example.pay.PayService");
+    private static final String PACKAGE_NAME = "com.example.pay";
+
+    @Mock
+    private CardEmulation mCardEmulation;
+    @Mock
+    private ApduServiceInfo mServiceInfo;
+    @Mock
+    private Context mContextAsUser;
+    @Mock
+    private UserManager mUserManager;
+
+    private final List<Runnable> mBackgroundTasks = new ArrayList<>();
+    private Context mContext;
+    private PaymentBackend mBackend;
+    private int mCallbackCount;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        mContext = spy(RuntimeEnvironment.application);
+        doReturn(mContextAsUser).when(mContext).createContextAsUser(any(), anyInt());
+        when(mContextAsUser.getSystemService(UserManager.class)).thenReturn(mUserManager);
+        when(mUserManager.getEnabledProfiles()).thenReturn(List.of(UserHandle.of(0)));
+        when(mServiceInfo.getComponent()).thenReturn(COMPONENT);
+        when(mServiceInfo.loadLabel(any())).thenReturn("Pay");
+        when(mServiceInfo.loadIcon(any())).thenReturn(new ColorDrawable());
+        when(mCardEmulation.getServices(eq(CardEmulation.CATEGORY_PAYMENT), anyInt()))
+                .thenReturn(List.of(mServiceInfo));
+
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        mBackend = new PaymentBackend(mContext, mCardEmulation, mBackgroundTasks::add,
+                mainHandler::post);
+        mBackend.registerCallback(() -> mCallbackCount++);
+    }
+
+    @Test
+    public void constructor_doesNotLoad() {
+        verify(mCardEmulation, never()).getServices(any(), anyInt());
+    }
+
+    @Test
+    public void onResume_afterSynchronousLoad_doesNotLoadAgain() {
+        assertThat(mBackend.getPaymentAppInfos()).hasSize(1);
+
+        mBackend.onResume();
+
+        assertThat(mBackgroundTasks).isEmpty();
+        verify(mCardEmulation, times(1)).getServices(any(), anyInt());
+        mBackend.onPause();
+    }
+
+    @Test
+    public void packageChanges_burst_reloadsOnce() {
+        mBackend.onResume();
+        runAll();
+        mCallbackCount = 0;
+
+        mBackend.mSettingsPackageMonitor.onPackageAdded(PACKAGE_NAME, 10001);
+        mBackend.mSettingsPackageMonitor.onPackageRemoved(PACKAGE_NAME, 10001);
+        mBackend.mSettingsPackageMonitor.onPackageAdded(PACKAGE_NAME, 10001);
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+        assertThat(mBackgroundTasks).isEmpty();
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+        runAll();
+
+        assertThat(mCallbackCount).isEqualTo(1);
+        verify(mCardEmulation, times(2)).getServices(any(), anyInt());
+        mBackend.onPause();
+    }
+
+    @Test
+    public void refreshAsync_olderResultAfterNewer_isDropped() {
+        when(mCardEmulation.getServices(eq(CardEmulation.CATEGORY_PAYMENT), anyInt()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(mServiceInfo));
+        mBackend.refreshAsync();
+        mBackend.refreshAsync();
+        final Runnable olderLoad = mBackgroundTasks.remove(0);
+        final Runnable newerLoad = mBackgroundTasks.remove(0);
+
+        newerLoad.run();
+        ShadowLooper.idleMainLooper();
+        olderLoad.run();
+        ShadowLooper.idleMainLooper();
+
+        assertThat(mCallbackCount).isEqualTo(1);
+        assertThat(mBackend.getPaymentAppInfos()).isEmpty();
+    }
+
+    @Test
+    public void setDefaultPaymentApp_whileRefreshing_marksLoadedApp() {
+        mBackend.refreshAsync();
+
+        mBackend.setDefaultPaymentApp(COMPONENT, UserHandle.myUserId());
+        runAll();
+
+        assertThat(mBackend.getDefaultApp()).isNotNull();
+        assertThat(mBackend.getDefaultApp().componentName).isEqualTo(COMPONENT);
+    }
+
+    private void runAll() {
+        final List<Runnable> tasks = new ArrayList<>(mBackgroundTasks);
+        mBackgroundTasks.clear();
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        ShadowLooper.idleMainLooper();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.panel;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.net.Uri;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+
+@Deprecated(forRemoval = true)
+@RunWith(RobolectricTestRunner.class)
+public class PanelSliceLoadTrackerTest {
+
+    private static final Uri URI_1 = Uri.parse("content://test/1");
+    private static final Uri URI_2 = Uri.parse("content://test/2");
+
+    private PanelSliceLoadTracker mTracker;
+
+    @Before
+    public void setUp() {
+        mTracker = new PanelSliceLoadTracker(List.of(URI_1, URI_2), 100 /* startTimeMs */);
+    }
+
+    @Test
+    public void markSliceLoaded_firstContent_returnsLatency() {
+        assertThat(mTracker.markSliceLoaded(URI_1, 160)).isEqualTo(60);
+        assertThat(mTracker.markSliceLoaded(URI_1, 200)).isEqualTo(-1);
+
+        assertThat(mTracker.isPending(URI_1)).isFalse();
+        assertThat(mTracker.isPending(URI_2)).isTrue();
+        assertThat(mTracker.getLoadLatencies()).containsExactly(URI_1, 60L);
+    }
+
+    @Test
+    public void markSliceTimedOut_onlyPendingSlice_returnsTrue() {
+        mTracker.markSliceLoaded(URI_1, 150);
+
+        assertThat(mTracker.markSliceTimedOut(URI_1)).isFalse();
+        assertThat(mTracker.markSliceTimedOut(URI_2)).isTrue();
+        assertThat(mTracker.isPending(URI_2)).isFalse();
+    }
+
+    @Test
+    public void markSliceLoaded_afterDeadline_recordsLatency() {
+        mTracker.markSliceTimedOut(URI_2);
+
+        assertThat(mTracker.markSliceLoaded(URI_2, 2100)).isEqualTo(2000);
+    }
+
+    @Test
+    public void markSliceFailed_stopsPending() {
+        mTracker.markSliceFailed(URI_1);
+
+        assertThat(mTracker.isPending(URI_1)).isFalse();
+        assertThat(mTracker.getLoadLatencies()).isEmpty();
+    }
+}
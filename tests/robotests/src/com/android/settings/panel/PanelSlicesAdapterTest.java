@@ -65,6 +65,7 @@ import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Deprecated(forRemoval = true)
@@ -241,6 +242,76 @@ public class PanelSlicesAdapterTest {
         assertThat(intArgumentCaptor.getValue()).isEqualTo(R.layout.panel_slice_row);
     }
 
+    @Test
+    public void onBindViewHolder_slicePending_showsPlaceholder() {
+        final LiveData<Slice> liveData = mock(LiveData.class);
+        mData.put(VOLUME_NOTIFICATION_URI, liveData);
+        final PanelSliceLoadTracker tracker = new PanelSliceLoadTracker(
+                List.of(VOLUME_NOTIFICATION_URI), 0 /* startTimeMs */);
+        final PanelSlicesAdapter adapter =
+                new PanelSlicesAdapter(mPanelFragment, mData, 0, tracker);
+        final SliceRowViewHolder viewHolder =
+                adapter.onCreateViewHolder(new FrameLayout(mContext), 0);
+
+        adapter.onBindViewHolder(viewHolder, 0);
+
+        assertThat(viewHolder.sliceView.getVisibility()).isEqualTo(View.INVISIBLE);
+        assertThat(viewHolder.itemView.getMinimumHeight()).isEqualTo(
+                mContext.getResources().getDimensionPixelSize(
+                        R.dimen.panel_slice_placeholder_height));
+    }
+
+    @Test
+    public void onBindViewHolder_sliceTimedOut_collapsesPlaceholder() {
+        final LiveData<Slice> liveData = mock(LiveData.class);
+        mData.put(VOLUME_NOTIFICATION_URI, liveData);
+        final PanelSliceLoadTracker tracker = new PanelSliceLoadTracker(
+                List.of(VOLUME_NOTIFICATION_URI), 0 /* startTimeMs */);
+        final PanelSlicesAdapter adapter =
+                new PanelSlicesAdapter(mPanelFragment, mData, 0, tracker);
+        final SliceRowViewHolder viewHolder =
+                adapter.onCreateViewHolder(new FrameLayout(mContext), 0);
+        adapter.onBindViewHolder(viewHolder, 0);
+
+        tracker.markSliceTimedOut(VOLUME_NOTIFICATION_URI);
+        adapter.onBindViewHolder(viewHolder, 0);
+
+        assertThat(viewHolder.sliceView.getVisibility()).isEqualTo(View.GONE);
+        assertThat(viewHolder.itemView.getMinimumHeight()).isEqualTo(0);
+    }
+
+    @Test
+    public void onBindViewHolder_sliceLoaded_clearsReservedHeight() {
+        final LiveData<Slice> liveData = mock(LiveData.class);
+        mData.put(VOLUME_NOTIFICATION_URI, liveData);
+        final PanelSliceLoadTracker tracker = new PanelSliceLoadTracker(
+                List.of(VOLUME_NOTIFICATION_URI), 0 /* startTimeMs */);
+        final PanelSlicesAdapter adapter =
+                new PanelSlicesAdapter(mPanelFragment, mData, 0, tracker);
+        final SliceRowViewHolder viewHolder =
+                adapter.onCreateViewHolder(new FrameLayout(mContext), 0);
+        adapter.onBindViewHolder(viewHolder, 0);
+
+        when(liveData.getValue()).thenReturn(new Slice());
+        tracker.markSliceLoaded(VOLUME_NOTIFICATION_URI, 10 /* nowMs */);
+        adapter.onBindViewHolder(viewHolder, 0);
+
+        assertThat(viewHolder.itemView.getMinimumHeight()).isEqualTo(0);
+    }
+
+    @Test
+    public void removeSlice_updatesPositions() {
+        addTestLiveData(VOLUME_NOTIFICATION_URI);
+        addTestLiveData(MEDIA_OUTPUT_INDICATOR_SLICE_URI);
+        final PanelSlicesAdapter adapter = new PanelSlicesAdapter(mPanelFragment, mData, 0);
+
+        adapter.removeSlice(VOLUME_NOTIFICATION_URI);
+
+        assertThat(adapter.getItemCount()).isEqualTo(1);
+        assertThat(adapter.getPosition(VOLUME_NOTIFICATION_URI)).isEqualTo(-1);
+        assertThat(adapter.getPosition(MEDIA_OUTPUT_INDICATOR_SLICE_URI)).isEqualTo(0);
+    }
+
     @Implements(LayoutInflater.class)
     public static class ShadowLayoutInflater {
 
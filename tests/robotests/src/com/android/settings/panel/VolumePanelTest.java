@@ -77,4 +77,9 @@ public class VolumePanelTest {
     public void getViewType_checkType() {
         assertThat(mPanel.getViewType()).isEqualTo(PanelContent.VIEW_TYPE_SLIDER);
     }
+
+    @Test
+    public void isProgressiveLoadingEnabled_returnsTrue() {
+        assertThat(mPanel.isProgressiveLoadingEnabled()).isTrue();
+    }
 }
@@ -47,7 +47,10 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RunWith(AndroidJUnit4.class)
@@ -408,6 +411,47 @@ public class CategoryManagerTest {
         assertThat(category.getTilesCount()).isEqualTo(1);
     }
 
+    @Test
+    public void getChangedCategories_sameTiles_shouldReturnEmpty() {
+        final Tile tile1 = createActivityTile(CATEGORY_HOMEPAGE, "pkg", "class1", 1);
+        final Tile tile2 = createActivityTile(CATEGORY_HOMEPAGE, "pkg", "class2", 0);
+        final Map<String, List<Tile>> previousTiles =
+                Collections.singletonMap(CATEGORY_HOMEPAGE, Arrays.asList(tile1, tile2));
+        final Map<String, List<Tile>> currentTiles =
+                Collections.singletonMap(CATEGORY_HOMEPAGE, Arrays.asList(tile1, tile2));
+
+        assertThat(CategoryManager.getChangedCategories(mContext, previousTiles, currentTiles))
+                .isEmpty();
+    }
+
+    @Test
+    public void getChangedCategories_tilesReordered_shouldReturnCategory() {
+        final Tile tile1 = createActivityTile(CATEGORY_HOMEPAGE, "pkg", "class1", 1);
+        final Tile tile2 = createActivityTile(CATEGORY_HOMEPAGE, "pkg", "class2", 0);
+        final Map<String, List<Tile>> previousTiles =
+                Collections.singletonMap(CATEGORY_HOMEPAGE, Arrays.asList(tile1, tile2));
+        final Map<String, List<Tile>> currentTiles =
+                Collections.singletonMap(CATEGORY_HOMEPAGE, Arrays.asList(tile2, tile1));
+
+        assertThat(CategoryManager.getChangedCategories(mContext, previousTiles, currentTiles))
+                .containsExactly(CATEGORY_HOMEPAGE);
+    }
+
+    @Test
+    public void getChangedCategories_tileMoved_shouldReturnBothCategories() {
+        final Tile tile1 = createActivityTile(CATEGORY_HOMEPAGE, "pkg", "class1", 1);
+        final Tile tile2 = createActivityTile(CategoryKey.CATEGORY_ACCOUNT, "pkg", "class2", 0);
+        final Tile movedTile2 = createActivityTile(CATEGORY_HOMEPAGE, "pkg", "class2", 0);
+        final Map<String, List<Tile>> previousTiles = new HashMap<>();
+        previousTiles.put(CATEGORY_HOMEPAGE, Arrays.asList(tile1));
+        previousTiles.put(CategoryKey.CATEGORY_ACCOUNT, Arrays.asList(tile2));
+        final Map<String, List<Tile>> currentTiles =
+                Collections.singletonMap(CATEGORY_HOMEPAGE, Arrays.asList(tile1, movedTile2));
+
+        assertThat(CategoryManager.getChangedCategories(mContext, previousTiles, currentTiles))
+                .containsExactly(CATEGORY_HOMEPAGE, CategoryKey.CATEGORY_ACCOUNT);
+    }
+
     private Tile createActivityTile(String categoryKey, String packageName, String className,
             int order) {
         final ActivityInfo activityInfo = new ActivityInfo();
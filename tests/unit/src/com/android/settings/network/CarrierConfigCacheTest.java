@@ -24,9 +24,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.content.Context;
+import android.content.Intent;
 import android.os.PersistableBundle;
 import android.os.UserHandle;
 import android.telephony.CarrierConfigManager;
+import android.telephony.SubscriptionManager;
 
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
@@ -44,6 +46,9 @@ public class CarrierConfigCacheTest {
 
     static final int ONCE_SUB_ID = 11;
     static final int TWICE_SUB_ID = 12;
+    static final int VALUES_SUB_ID = 13;
+    static final int CHANGED_SUB_ID = 14;
+    static final int OTHER_SUB_ID = 15;
 
     @Rule
     public final MockitoRule mMockitoRule = MockitoJUnit.rule();
@@ -98,4 +103,62 @@ public class CarrierConfigCacheTest {
 
         verify(mCarrierConfigManager, times(1)).getConfigForSubId(TWICE_SUB_ID);
     }
+
+    @Test
+    public void getCarrierConfigValues_getTwice_decodesOnce() {
+        mCarrierConfig.putBoolean(CarrierConfigManager.KEY_WORLD_PHONE_BOOL, true);
+        when(mCarrierConfigManager.getConfigForSubId(VALUES_SUB_ID)).thenReturn(mCarrierConfig);
+
+        CarrierConfigValues values = mCarrierConfigCache.getCarrierConfigValues(VALUES_SUB_ID);
+
+        assertThat(values.isWorldPhone()).isTrue();
+        assertThat(mCarrierConfigCache.getCarrierConfigValues(VALUES_SUB_ID)).isSameInstanceAs(
+                values);
+        verify(mCarrierConfigManager, times(1)).getConfigForSubId(VALUES_SUB_ID);
+    }
+
+    @Test
+    public void getCarrierConfigValues_carrierConfigChanged_rebuildsValues() {
+        PersistableBundle changedConfig = new PersistableBundle();
+        changedConfig.putBoolean(CarrierConfigManager.KEY_HIDE_CARRIER_NETWORK_SETTINGS_BOOL,
+                true);
+        when(mCarrierConfigManager.getConfigForSubId(CHANGED_SUB_ID))
+                .thenReturn(new PersistableBundle(), changedConfig);
+        when(mCarrierConfigManager.getConfigForSubId(OTHER_SUB_ID)).thenReturn(mCarrierConfig);
+        CarrierConfigValues otherValues = mCarrierConfigCache.getCarrierConfigValues(OTHER_SUB_ID);
+        assertThat(mCarrierConfigCache.getCarrierConfigValues(CHANGED_SUB_ID)
+                .hideCarrierNetworkSettings()).isFalse();
+
+        sendCarrierConfigChanged(CHANGED_SUB_ID);
+
+        assertThat(mCarrierConfigCache.getCarrierConfigValues(CHANGED_SUB_ID)
+                .hideCarrierNetworkSettings()).isTrue();
+        assertThat(mCarrierConfigCache.getCarrierConfigValues(OTHER_SUB_ID)).isSameInstanceAs(
+                otherValues);
+        verify(mCarrierConfigManager, times(2)).getConfigForSubId(CHANGED_SUB_ID);
+        verify(mCarrierConfigManager, times(1)).getConfigForSubId(OTHER_SUB_ID);
+    }
+
+    @Test
+    public void getCarrierConfigValues_carrierConfigChangedForAll_rebuildsAllValues() {
+        when(mCarrierConfigManager.getConfigForSubId(OTHER_SUB_ID)).thenReturn(mCarrierConfig);
+        CarrierConfigValues values = mCarrierConfigCache.getCarrierConfigValues(OTHER_SUB_ID);
+
+        sendCarrierConfigChanged(SubscriptionManager.INVALID_SUBSCRIPTION_ID);
+
+        assertThat(mCarrierConfigCache.getCarrierConfigValues(OTHER_SUB_ID)).isNotSameInstanceAs(
+                values);
+    }
+
+    @Test
+    public void getCarrierConfigValues_noConfig_returnNull() {
+        assertThat(mCarrierConfigCache.getCarrierConfigValues(
+                SubscriptionManager.INVALID_SUBSCRIPTION_ID)).isNull();
+    }
+
+    private void sendCarrierConfigChanged(int subId) {
+        new CarrierConfigCache.CarrierConfigChangeReceiver().onReceive(mContext,
+                new Intent(CarrierConfigManager.ACTION_CARRIER_CONFIG_CHANGED)
+                        .putExtra(SubscriptionManager.EXTRA_SUBSCRIPTION_INDEX, subId));
+    }
 }
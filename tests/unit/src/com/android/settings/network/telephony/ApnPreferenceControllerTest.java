@@ -39,6 +39,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import com.android.settings.network.CarrierConfigCache;
 import com.android.settings.network.apn.ApnSettings;
+import com.android.settings.testutils.CarrierConfigTestUtils;
 import com.android.settingslib.RestrictedPreference;
 
 import org.junit.Before;
@@ -73,6 +74,7 @@ public class ApnPreferenceControllerTest {
         when(mContext.getSystemService(Context.TELEPHONY_SERVICE)).thenReturn(mTelephonyManager);
         when(mContext.getSystemService(SubscriptionManager.class)).thenReturn(mSubscriptionManager);
         CarrierConfigCache.setTestInstance(mContext, mCarrierConfigCache);
+        CarrierConfigTestUtils.decodeCarrierConfigValues(mCarrierConfigCache);
         doReturn(mTelephonyManager).when(mTelephonyManager).createForSubscriptionId(SUB_ID);
         doReturn(mInvalidTelephonyManager).when(mTelephonyManager).createForSubscriptionId(
                 SubscriptionManager.INVALID_SUBSCRIPTION_ID);
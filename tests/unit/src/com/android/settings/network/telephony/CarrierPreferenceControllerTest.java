@@ -44,6 +44,7 @@ import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.testutils.CarrierConfigTestUtils;
 import com.android.settingslib.RestrictedPreference;
 
 import org.junit.Before;
@@ -83,6 +84,7 @@ public class CarrierPreferenceControllerTest {
         doReturn(mInvalidTelephonyManager).when(mTelephonyManager).createForSubscriptionId(
                 SubscriptionManager.INVALID_SUBSCRIPTION_ID);
         CarrierConfigCache.setTestInstance(mContext, mCarrierConfigCache);
+        CarrierConfigTestUtils.decodeCarrierConfigValues(mCarrierConfigCache);
 
         mPreference = new RestrictedPreference(mContext);
         mController = new CarrierPreferenceController(mContext, "mobile_data");
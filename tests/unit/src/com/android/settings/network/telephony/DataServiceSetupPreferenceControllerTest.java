@@ -41,6 +41,7 @@ import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.testutils.CarrierConfigTestUtils;
 import com.android.settingslib.RestrictedPreference;
 
 import org.junit.Before;
@@ -75,6 +76,7 @@ public class DataServiceSetupPreferenceControllerTest {
         mContext = spy(ApplicationProvider.getApplicationContext());
         when(mContext.getSystemService(TelephonyManager.class)).thenReturn(mTelephonyManager);
         CarrierConfigCache.setTestInstance(mContext, mCarrierConfigCache);
+        CarrierConfigTestUtils.decodeCarrierConfigValues(mCarrierConfigCache);
         doReturn(mTelephonyManager).when(mTelephonyManager).createForSubscriptionId(SUB_ID);
         doReturn(mInvalidTelephonyManager).when(mTelephonyManager).createForSubscriptionId(
                 SubscriptionManager.INVALID_SUBSCRIPTION_ID);
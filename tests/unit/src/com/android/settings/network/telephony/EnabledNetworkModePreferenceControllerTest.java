@@ -58,6 +58,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import com.android.settings.network.CarrierConfigCache;
 import com.android.settings.network.telephony.TelephonyConstants.TelephonyManagerConstants;
+import com.android.settings.testutils.CarrierConfigTestUtils;
 import com.android.settingslib.core.lifecycle.Lifecycle;
 
 import org.junit.Before;
@@ -103,6 +104,7 @@ public class EnabledNetworkModePreferenceControllerTest {
         mContext = spy(ApplicationProvider.getApplicationContext());
 
         CarrierConfigCache.setTestInstance(mContext, mCarrierConfigCache);
+        CarrierConfigTestUtils.decodeCarrierConfigValues(mCarrierConfigCache);
         when(mContext.getSystemService(Context.TELEPHONY_SERVICE)).thenReturn(mTelephonyManager);
         when(mContext.getSystemService(TelephonyManager.class)).thenReturn(mTelephonyManager);
         doReturn(mTelephonyManager).when(mTelephonyManager).createForSubscriptionId(SUB_ID);
@@ -58,6 +58,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import com.android.settings.network.CarrierConfigCache;
 import com.android.settings.network.ims.MockWfcQueryImsState;
+import com.android.settings.testutils.CarrierConfigTestUtils;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -120,6 +121,7 @@ public class MobileNetworkUtilsTest {
         when(mContext.getPackageManager()).thenReturn(mPackageManager);
 
         CarrierConfigCache.setTestInstance(mContext, mCarrierConfigCache);
+        CarrierConfigTestUtils.decodeCarrierConfigValues(mCarrierConfigCache);
         mCarrierConfig = new PersistableBundle();
         when(mCarrierConfigCache.getConfigForSubId(SUB_ID_1)).thenReturn(mCarrierConfig);
 
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.testutils;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+import com.android.settings.network.CarrierConfigCache;
+import com.android.settings.network.CarrierConfigValues;
+
+/**
+ * Test util for the mocked {@link CarrierConfigCache}.
+ */
+public final class CarrierConfigTestUtils {
+    /**
+     * Makes {@link CarrierConfigCache#getCarrierConfigValues} of a mocked cache decode the typed
+     * values from the stubbed {@link CarrierConfigCache#getConfigForSubId}, like the real cache
+     * does.
+     * @param carrierConfigCache The mocked or spied cache.
+     */
+    public static void decodeCarrierConfigValues(CarrierConfigCache carrierConfigCache) {
+        doAnswer(invocation -> CarrierConfigValues.from(
+                carrierConfigCache.getConfigForSubId(invocation.getArgument(0))))
+                .when(carrierConfigCache).getCarrierConfigValues(anyInt());
+    }
+
+    private CarrierConfigTestUtils() {}
+}